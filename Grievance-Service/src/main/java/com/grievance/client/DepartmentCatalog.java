@@ -0,0 +1,115 @@
+package com.grievance.client;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// immutable hash index of the department tree: department -> category -> sub-category codes
+public class DepartmentCatalog {
+
+    private final Map<String, Map<String, Set<String>>> index;
+    private final String version;
+    private final String etag;
+    private final Instant loadedAt;
+
+    private DepartmentCatalog(Map<String, Map<String, Set<String>>> index, String version, String etag, Instant loadedAt) {
+        this.index = index;
+        this.version = version;
+        this.etag = etag;
+        this.loadedAt = loadedAt;
+    }
+
+    // builds the index once so lookups never walk the tree; version falls back to a content hash when the server sends no ETag
+    public static DepartmentCatalog of(DepartmentsResponse response, String etag, Instant loadedAt) {
+        Map<String, Map<String, Set<String>>> index = new HashMap<>();
+        if (response != null) {
+            addDepartments(index, response.getCentralGovernmentDepartments());
+            addDepartments(index, response.getStateGovernmentDepartments());
+        }
+        Map<String, Map<String, Set<String>>> frozen = freeze(index);
+        boolean hasEtag = etag != null && !etag.isBlank();
+        String version = hasEtag ? etag : "h" + Integer.toHexString(frozen.hashCode());
+        return new DepartmentCatalog(frozen, version, hasEtag ? etag : null, loadedAt);
+    }
+
+    public boolean contains(String departmentCode, String categoryCode, String subCategoryCode) {
+        if (departmentCode == null || categoryCode == null || subCategoryCode == null) {
+            return false;
+        }
+        Map<String, Set<String>> categories = index.get(normalize(departmentCode));
+        if (categories == null) {
+            return false;
+        }
+        Set<String> subCategories = categories.get(normalize(categoryCode));
+        return subCategories != null && subCategories.contains(normalize(subCategoryCode));
+    }
+
+    // same index, new timestamp - used when the server confirms nothing changed
+    public DepartmentCatalog revalidatedAt(Instant now) {
+        return new DepartmentCatalog(index, version, etag, now);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    // server ETag for conditional fetches, null when the server does not send one
+    public String getEtag() {
+        return etag;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private static void addDepartments(Map<String, Map<String, Set<String>>> index, List<DepartmentResponse> departments) {
+        if (departments == null) {
+            return;
+        }
+        for (DepartmentResponse department : departments) {
+            if (department == null || department.getId() == null) {
+                continue;
+            }
+            Map<String, Set<String>> categories = index.computeIfAbsent(normalize(department.getId()), key -> new HashMap<>());
+            if (department.getCategories() == null) {
+                continue;
+            }
+            for (CategoryResponse category : department.getCategories()) {
+                if (category == null || category.getCode() == null) {
+                    continue;
+                }
+                Set<String> subCategories = categories.computeIfAbsent(normalize(category.getCode()), key -> new HashSet<>());
+                if (category.getSubCategories() == null) {
+                    continue;
+                }
+                for (SubCategoryResponse sub : category.getSubCategories()) {
+                    if (sub != null && sub.getCode() != null) {
+                        subCategories.add(normalize(sub.getCode()));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Set<String>>> freeze(Map<String, Map<String, Set<String>>> index) {
+        Map<String, Map<String, Set<String>>> frozen = new HashMap<>();
+        index.forEach((department, categories) -> {
+            Map<String, Set<String>> frozenCategories = new HashMap<>();
+            categories.forEach((category, subs) -> frozenCategories.put(category, Set.copyOf(subs)));
+            frozen.put(department, Map.copyOf(frozenCategories));
+        });
+        return Map.copyOf(frozen);
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
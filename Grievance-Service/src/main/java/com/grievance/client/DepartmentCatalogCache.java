@@ -0,0 +1,160 @@
+package com.grievance.client;
+
+import com.grievance.exception.ServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+// in-process copy of the department catalog so validation is a hash lookup instead of an HTTP call per grievance
+@Component
+public class DepartmentCatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DepartmentCatalogCache.class);
+    private static final String METRIC_LOOKUPS = "grievance.department.catalog.lookups";
+    private static final String METRIC_REFRESHES = "grievance.department.catalog.refreshes";
+
+    private final DepartmentClient departmentClient;
+    private final Duration maxAge;
+    private final Duration fetchTimeout;
+
+    private final AtomicReference<DepartmentCatalog> current = new AtomicReference<>();
+    private final AtomicReference<Mono<DepartmentCatalog>> inFlight = new AtomicReference<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshUpdated;
+    private final Counter refreshNotModified;
+    private final Counter refreshFailed;
+
+    public DepartmentCatalogCache(
+            DepartmentClient departmentClient,
+            MeterRegistry meterRegistry,
+            @Value("${departments.catalog.max-age:PT10M}") Duration maxAge,
+            @Value("${departments.catalog.fetch-timeout:PT3S}") Duration fetchTimeout) {
+        this.departmentClient = departmentClient;
+        this.maxAge = maxAge;
+        this.fetchTimeout = fetchTimeout;
+
+        this.hits = Counter.builder(METRIC_LOOKUPS).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_LOOKUPS).tag("result", "miss").register(meterRegistry);
+        this.refreshUpdated = Counter.builder(METRIC_REFRESHES).tag("outcome", "updated").register(meterRegistry);
+        this.refreshNotModified = Counter.builder(METRIC_REFRESHES).tag("outcome", "not_modified").register(meterRegistry);
+        this.refreshFailed = Counter.builder(METRIC_REFRESHES).tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("grievance.department.catalog.age.seconds", this, DepartmentCatalogCache::ageSeconds)
+                .register(meterRegistry);
+        Gauge.builder("grievance.department.catalog.departments", this, DepartmentCatalogCache::sizeOrZero)
+                .register(meterRegistry);
+    }
+
+    // O(1) lookup against the loaded catalog; only a cold cache waits for the department service
+    public Mono<Boolean> isValidDepartment(String departmentCode, String categoryCode, String subCategoryCode) {
+        if (departmentCode == null || categoryCode == null || subCategoryCode == null) {
+            return Mono.just(false);
+        }
+
+        DepartmentCatalog catalog = current.get();
+        if (catalog != null) {
+            hits.increment();
+            if (isStale(catalog)) {
+                // stale-while-revalidate: answer from what we have, refresh behind the request
+                refreshInBackground();
+            }
+            return Mono.just(catalog.contains(departmentCode, categoryCode, subCategoryCode));
+        }
+
+        misses.increment();
+        return refresh()
+                .map(loaded -> loaded.contains(departmentCode, categoryCode, subCategoryCode))
+                .onErrorMap(ex -> ex instanceof ServiceException ? ex : new ServiceException("Department service unavailable"));
+    }
+
+    // loaded catalog without triggering a fetch - null until the first successful refresh
+    public DepartmentCatalog currentCatalog() {
+        return current.get();
+    }
+
+    @Scheduled(initialDelayString = "${departments.catalog.initial-delay:PT0S}",
+            fixedDelayString = "${departments.catalog.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        refreshInBackground();
+    }
+
+    // single-flight: concurrent callers share one fetch of the catalog
+    public Mono<DepartmentCatalog> refresh() {
+        return Mono.defer(() -> {
+            Mono<DepartmentCatalog> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            Mono<DepartmentCatalog> load = load()
+                    .doFinally(signal -> inFlight.set(null))
+                    .cache();
+            if (inFlight.compareAndSet(null, load)) {
+                return load;
+            }
+            Mono<DepartmentCatalog> other = inFlight.get();
+            return other != null ? other : refresh();
+        });
+    }
+
+    private void refreshInBackground() {
+        refresh()
+                .onErrorResume(ex -> Mono.empty())
+                .subscribe();
+    }
+
+    private Mono<DepartmentCatalog> load() {
+        DepartmentCatalog known = current.get();
+        return departmentClient.fetchCatalog(known != null ? known.getEtag() : null)
+                .timeout(fetchTimeout)
+                .map(fetched -> {
+                    if (known != null && known.getVersion().equals(fetched.getVersion())) {
+                        refreshNotModified.increment();
+                        return store(known.revalidatedAt(fetched.getLoadedAt()));
+                    }
+                    refreshUpdated.increment();
+                    log.info("Department catalog loaded version={} departments={}", fetched.getVersion(), fetched.size());
+                    return store(fetched);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    if (known == null) {
+                        return Mono.error(new ServiceException("Department service returned no catalog"));
+                    }
+                    refreshNotModified.increment();
+                    return Mono.just(store(known.revalidatedAt(Instant.now())));
+                }))
+                .doOnError(ex -> {
+                    refreshFailed.increment();
+                    log.warn("Department catalog refresh failed, serving {}", known != null ? "stale copy" : "nothing", ex);
+                });
+    }
+
+    private DepartmentCatalog store(DepartmentCatalog catalog) {
+        current.set(catalog);
+        return catalog;
+    }
+
+    private boolean isStale(DepartmentCatalog catalog) {
+        return catalog.getLoadedAt().plus(maxAge).isBefore(Instant.now());
+    }
+
+    private double ageSeconds() {
+        DepartmentCatalog catalog = current.get();
+        return catalog == null ? -1 : Duration.between(catalog.getLoadedAt(), Instant.now()).toSeconds();
+    }
+
+    private double sizeOrZero() {
+        DepartmentCatalog catalog = current.get();
+        return catalog == null ? 0 : catalog.size();
+    }
+}
@@ -2,12 +2,12 @@ package com.grievance.client;
 
 import com.grievance.exception.ServiceException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.time.Instant;
 
 @Component
 public class DepartmentClient {
@@ -24,7 +24,7 @@ public class DepartmentClient {
         this.departmentsPath = ensureLeadingSlash(departmentsPath);
     }
 
-    // to check if a dept is valid or exists
+    // to check if a dept is valid or exists - always goes to the service, validation normally uses DepartmentCatalogCache
     public Mono<Boolean> isValidDepartment(
             String departmentCode,
             String categoryCode,
@@ -34,49 +34,32 @@ public class DepartmentClient {
             return Mono.just(false);
         }
 
-        return fetchAllDepartments()
-                .flatMapMany(this::flattenDepartments)
-                .filter(department -> departmentCode.equalsIgnoreCase(department.getId()))
-                .next()
-                .map(department -> hasCategoryAndSubCategory(department, categoryCode, subCategoryCode))
+        return fetchCatalog(null)
+                .map(catalog -> catalog.contains(departmentCode, categoryCode, subCategoryCode))
                 .defaultIfEmpty(false)
                 .onErrorMap(ex -> new ServiceException("Department service unavailable"));
     }
 
-    // fetch dept
-    private Mono<DepartmentsResponse> fetchAllDepartments() {
+    // fetch dept tree and index it; completes empty when the server answers 304 for the known ETag
+    public Mono<DepartmentCatalog> fetchCatalog(String knownEtag) {
         return webClient.get()
                 .uri(departmentsPath)
-                .retrieve()
-                .bodyToMono(DepartmentsResponse.class);
-    }
-
-    private Flux<DepartmentResponse> flattenDepartments(DepartmentsResponse response) {
-        return Flux.concat(
-                Flux.fromIterable(nullSafe(response.getCentralGovernmentDepartments())),
-                Flux.fromIterable(nullSafe(response.getStateGovernmentDepartments()))
-        );
-    }
-
-    private List<DepartmentResponse> nullSafe(List<DepartmentResponse> departments) {
-        return departments == null ? List.of() : departments;
-    }
-
-    // check for category and subcategory
-    private boolean hasCategoryAndSubCategory(
-            DepartmentResponse department,
-            String categoryCode,
-            String subCategoryCode) {
-
-        if (department.getCategories() == null) {
-            return false;
-        }
-
-        return department.getCategories().stream()
-                .filter(category -> categoryCode.equalsIgnoreCase(category.getCode()))
-                .anyMatch(category -> category.getSubCategories() != null &&
-                        category.getSubCategories().stream()
-                                .anyMatch(sub -> subCategoryCode.equalsIgnoreCase(sub.getCode())));
+                .headers(headers -> {
+                    if (knownEtag != null) {
+                        headers.setIfNoneMatch(knownEtag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        return response.releaseBody().then(Mono.<DepartmentCatalog>empty());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+                    String etag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(DepartmentsResponse.class)
+                            .map(body -> DepartmentCatalog.of(body, etag, Instant.now()));
+                });
     }
 
     private String trimTrailingSlash(String baseUrl) {
@@ -0,0 +1,25 @@
+package com.grievance.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ContainerPostProcessor;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+@ConditionalOnProperty(name = "grievance.routing.enabled", havingValue = "true")
+public class KafkaConsumerConfig {
+
+    // CaseWorkerRoutingListener acknowledges each record once its routing completes, possibly out of order; the
+    // container commits only the contiguous acknowledged prefix of a partition and pauses the consumer while
+    // acknowledgements of the previous poll are outstanding
+    @Bean
+    public ContainerPostProcessor<String, String, AbstractMessageListenerContainer<String, String>> routingContainerPostProcessor() {
+        return container -> {
+            ContainerProperties properties = container.getContainerProperties();
+            properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            properties.setAsyncAcks(true);
+        };
+    }
+}
@@ -1,7 +1,9 @@
 package com.grievance.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +18,29 @@ public class KafkaProducerConfig {
     
     @Value("${spring.kafka.bootstrap-servers:kafka:19092}")
     private String bootstrapServers;
+
+    // idempotent producer: retries cannot duplicate or reorder records within a partition
+    @Value("${grievance.kafka.producer.idempotence:true}")
+    private boolean idempotence = true;
+
+    @Value("${grievance.kafka.producer.acks:all}")
+    private String acks = "all";
+
+    // short batching window so relayed outbox batches leave as few large requests
+    @Value("${grievance.kafka.producer.linger-ms:20}")
+    private int lingerMs = 20;
+
+    @Value("${grievance.kafka.producer.batch-size:65536}")
+    private int batchSize = 65536;
+
+    @Value("${grievance.kafka.producer.compression-type:lz4}")
+    private String compressionType = "lz4";
+
+    @Value("${grievance.kafka.producer.delivery-timeout-ms:120000}")
+    private int deliveryTimeoutMs = 120000;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
 	
 	// kafka events are produced
     @Bean
@@ -24,7 +49,20 @@ public class KafkaProducerConfig {
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        config.put(ProducerConfig.ACKS_CONFIG, acks);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config);
+        if (meterRegistry != null) {
+            // exposes kafka.producer.* (record send rate, batch size, request latency) through actuator
+            factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        }
+        return factory;
     }
 
     @Bean
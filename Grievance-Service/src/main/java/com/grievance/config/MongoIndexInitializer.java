@@ -0,0 +1,252 @@
+package com.grievance.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.Assignment;
+import com.grievance.model.CaseWorkerWorkload;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceStats;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.model.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// creates the indexes declared on @Document classes and checks that every repository query is index-backed
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+    private static final String PROBE_VALUE = "__plan_check__";
+    private static final String COLLSCAN = "COLLSCAN";
+
+    public enum PlanCheckMode { OFF, WARN, FAIL }
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final MongoMappingContext mappingContext;
+    private final boolean provisionEnabled;
+    private final PlanCheckMode planCheckMode;
+    private final Duration startupTimeout;
+
+    public MongoIndexInitializer(
+            ReactiveMongoOperations mongoOperations,
+            MongoMappingContext mappingContext,
+            @Value("${grievance.indexes.provision:true}") boolean provisionEnabled,
+            @Value("${grievance.indexes.plan-check:WARN}") PlanCheckMode planCheckMode,
+            @Value("${grievance.indexes.startup-timeout:PT30S}") Duration startupTimeout) {
+        this.mongoOperations = mongoOperations;
+        this.mappingContext = mappingContext;
+        this.provisionEnabled = provisionEnabled;
+        this.planCheckMode = planCheckMode;
+        this.startupTimeout = startupTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!provisionEnabled) {
+            return;
+        }
+        Mono<Void> run = provisionIndexes().then(verifyQueryPlans());
+        if (planCheckMode == PlanCheckMode.FAIL) {
+            // strict mode: a missing index or a COLLSCAN plan stops the instance from starting
+            run.block(startupTimeout);
+            return;
+        }
+        run.doOnError(ex -> log.warn("Mongo index provisioning did not complete", ex))
+                .onErrorResume(ex -> Mono.empty())
+                .subscribe();
+    }
+
+    // ensureIndex is idempotent, so this is safe on every start and on every instance
+    public Mono<Void> provisionIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        return Flux.fromIterable(documentEntities())
+                .concatMap(entity -> Flux.fromIterable(resolver.resolveIndexFor(entity.getType()))
+                        .concatMap(definition -> ensureIndex(entity, definition)))
+                .then();
+    }
+
+    // explains a representative query for each repository method and flags plans that fall back to COLLSCAN
+    public Mono<Void> verifyQueryPlans() {
+        if (planCheckMode == PlanCheckMode.OFF) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(planProbes())
+                .concatMap(probe -> explain(probe)
+                        .filter(MongoIndexInitializer::usesCollectionScan)
+                        .map(plan -> probe.name()))
+                .collectList()
+                .flatMap(regressions -> {
+                    if (regressions.isEmpty()) {
+                        log.info("Query plan check passed for {} repository queries", planProbes().size());
+                        return Mono.empty();
+                    }
+                    regressions.forEach(name -> log.warn("Query {} is not index-backed (COLLSCAN)", name));
+                    if (planCheckMode == PlanCheckMode.FAIL) {
+                        return Mono.error(new IllegalStateException("Collection scans detected for " + regressions));
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private List<MongoPersistentEntity<?>> documentEntities() {
+        List<MongoPersistentEntity<?>> entities = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    private Mono<String> ensureIndex(MongoPersistentEntity<?> entity, IndexDefinition definition) {
+        return mongoOperations.indexOps(entity.getCollection())
+                .ensureIndex(definition)
+                .doOnNext(name -> log.debug("Ensured index {} on {}", name, entity.getCollection()))
+                // an index with the same keys but other options (e.g. created by hand) must not block the rest
+                .onErrorResume(ex -> {
+                    log.warn("Could not ensure index {} on {}: {}", definition.getIndexKeys(), entity.getCollection(), ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Document> explain(PlanProbe probe) {
+        Document find = new Document("find", collectionOf(probe.entityType())).append("filter", probe.filter());
+        if (probe.sort() != null) {
+            find.append("sort", probe.sort());
+        }
+        Document command = new Document("explain", find).append("verbosity", "queryPlanner");
+        return mongoOperations.executeCommand(command);
+    }
+
+    private String collectionOf(Class<?> type) {
+        return mappingContext.getRequiredPersistentEntity(type).getCollection();
+    }
+
+    // mirrors the filters generated by the derived repository queries
+    List<PlanProbe> planProbes() {
+        Document slaStatuses = new Document("$in", List.of(GrievanceStatus.ASSIGNED.name(), GrievanceStatus.IN_PROGRESS.name()));
+        return List.of(
+                new PlanProbe("GrievanceRepository.findByDepartmentId", Grievance.class,
+                        new Document("departmentId", PROBE_VALUE), null),
+                new PlanProbe("GrievanceRepository.findByCitizenId", Grievance.class,
+                        new Document("citizenId", PROBE_VALUE), null),
+                new PlanProbe("GrievanceRepository.findByAssignedWokerId", Grievance.class,
+                        new Document("assignedWokerId", PROBE_VALUE), null),
+                new PlanProbe("GrievanceRepository.findByStatus", Grievance.class,
+                        new Document("status", GrievanceStatus.ESCALATED.name()), null),
+                new PlanProbe("GrievanceRepository.findByStatusInAndAssignedAtBeforeAndEscalatedFalse", Grievance.class,
+                        new Document("status", slaStatuses)
+                                .append("assignedAt", new Document("$lt", new Date()))
+                                .append("escalated", false), null),
+                new PlanProbe("GrievanceRepository.findByStatusInAndEscalatedFalse", Grievance.class,
+                        new Document("status", slaStatuses).append("escalated", false), null),
+                new PlanProbe("GrievanceRepository.findEscalatedViews", Grievance.class,
+                        new Document("status", GrievanceStatus.ESCALATED.name()), null),
+                new PlanProbe("GrievanceRepository.findEscalatedViews($lookup)", Assignment.class,
+                        new Document("grievanceId", PROBE_VALUE), new Document("assignedAt", -1)),
+                new PlanProbe("GrievanceRepository.findPage(all)", Grievance.class,
+                        new Document(), pageSort("createdAt")),
+                new PlanProbe("GrievanceRepository.findPage(all, updatedAt)", Grievance.class,
+                        new Document(), pageSort("updatedAt")),
+                new PlanProbe("GrievanceRepository.findPage(department)", Grievance.class,
+                        new Document("departmentId", PROBE_VALUE), pageSort("createdAt")),
+                new PlanProbe("GrievanceRepository.findPage(department, updatedAt)", Grievance.class,
+                        new Document("departmentId", PROBE_VALUE), pageSort("updatedAt")),
+                new PlanProbe("GrievanceRepository.findPage(citizen)", Grievance.class,
+                        new Document("citizenId", PROBE_VALUE), pageSort("createdAt")),
+                new PlanProbe("GrievanceRepository.findPage(worker)", Grievance.class,
+                        new Document("assignedWokerId", PROBE_VALUE)
+                                .append("departmentId", PROBE_VALUE), pageSort("createdAt")),
+                new PlanProbe("GrievanceRepository.findPage(assignee)", Grievance.class,
+                        new Document("assigneeKeys", new Document("$in", List.of(PROBE_VALUE, PROBE_VALUE + "2")))
+                                .append("departmentId", PROBE_VALUE), pageSort("createdAt")),
+                new PlanProbe("GrievanceRepository.search", Grievance.class,
+                        new Document("$text", new Document("$search", PROBE_VALUE)), null),
+                new PlanProbe("GrievanceRepository.findByDuplicateOfOrderByCreatedAtAsc", Grievance.class,
+                        new Document("duplicateOf", PROBE_VALUE), new Document("createdAt", 1)),
+                new PlanProbe("GrievanceDuplicateIndex.warmUp", Grievance.class,
+                        new Document("createdAt", new Document("$gte", new Date())), new Document("createdAt", 1)),
+                new PlanProbe("CaseWorkerRouter.backlog", Grievance.class,
+                        new Document("status", new Document("$in", List.of(GrievanceStatus.SUBMITTED.name(), GrievanceStatus.DEPT_REVIEW.name())))
+                                .append("assignedWokerId", null)
+                                .append("departmentId", PROBE_VALUE), new Document("createdAt", 1).append("_id", 1)),
+                new PlanProbe("GrievanceRepository.findByAssigneeKeysIn", Grievance.class,
+                        new Document("assigneeKeys", new Document("$in", List.of(PROBE_VALUE, PROBE_VALUE + "2"))), null),
+                new PlanProbe("GrievanceStatsService.summarize", GrievanceStats.class,
+                        new Document("departmentId", PROBE_VALUE).append("bucket", GrievanceStats.ALL_TIME), null),
+                new PlanProbe("GrievanceStatsService.summarize(range)", GrievanceStats.class,
+                        new Document("departmentId", PROBE_VALUE)
+                                .append("bucket", new Document("$gte", "2024-01-01").append("$lte", "2024-01-31")), null),
+                new PlanProbe("GrievanceStatsService.summarize(all departments)", GrievanceStats.class,
+                        new Document("bucket", GrievanceStats.ALL_TIME), null),
+                new PlanProbe("StatusHistoryRepository.findByGrievanceIdOrderByUpdatedAtAsc", GrievanceHistory.class,
+                        new Document("grievanceId", PROBE_VALUE), new Document("updatedAt", 1)),
+                new PlanProbe("OutboxRelay.claim", OutboxEvent.class,
+                        new Document("status", OutboxEvent.Status.PENDING.name())
+                                .append("availableAt", new Document("$lte", new Date())), new Document("availableAt", 1)),
+                new PlanProbe("OutboxRepository.findByClaimTokenOrderByCreatedAtAsc", OutboxEvent.class,
+                        new Document("claimToken", PROBE_VALUE), new Document("createdAt", 1)),
+                new PlanProbe("CaseWorkerWorkloadService.roster", CaseWorkerWorkload.class,
+                        new Document("departmentIds", PROBE_VALUE), new Document("_id", 1)),
+                new PlanProbe("AssignmentRepository.findByGrievanceId", Assignment.class,
+                        new Document("grievanceId", PROBE_VALUE), null),
+                new PlanProbe("AssignmentRepository.findByAssignedBy", Assignment.class,
+                        new Document("assignedBy", PROBE_VALUE), null));
+    }
+
+    private static Document pageSort(String field) {
+        return new Document(field, -1).append("_id", -1);
+    }
+
+    // only the winning plan matters; rejected candidates are allowed to scan
+    static boolean usesCollectionScan(Document explainOutput) {
+        Object queryPlanner = explainOutput.get("queryPlanner");
+        if (!(queryPlanner instanceof Map<?, ?> planner)) {
+            return false;
+        }
+        return containsCollectionScan(planner.get("winningPlan"));
+    }
+
+    // walks nested stages, which also covers SBE plans under queryPlan and per-shard plans
+    private static boolean containsCollectionScan(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            if (COLLSCAN.equals(map.get("stage"))) {
+                return true;
+            }
+            for (Object value : map.values()) {
+                if (containsCollectionScan(value)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                if (containsCollectionScan(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    record PlanProbe(String name, Class<?> entityType, Document filter, Document sort) {
+    }
+}
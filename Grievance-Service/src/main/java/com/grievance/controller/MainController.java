@@ -5,40 +5,76 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import com.grievance.client.AuthClient;
+import com.grievance.model.BulkItemResult;
+import com.grievance.model.CaseWorkerRosterEntry;
 import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceETags;
 import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceImportResult;
+import com.grievance.model.GrievancePage;
+import com.grievance.model.GrievanceStatsView;
+import com.grievance.model.GrievanceSummary;
+import com.grievance.model.ArchiveRunResult;
+import com.grievance.model.RoutingRunResult;
 import com.grievance.model.EscalatedGrievanceView;
 import com.grievance.request.AssignmentRequest;
+import com.grievance.request.BulkAssignmentRequest;
+import com.grievance.request.BulkStatusUpdateRequest;
 import com.grievance.request.GrievanceCreateRequest;
+import com.grievance.request.GrievanceListRequest;
+import com.grievance.request.GrievanceSearchRequest;
 import com.grievance.request.StatusUpdateRequest;
+import com.grievance.service.CaseWorkerRouter;
+import com.grievance.service.GrievanceArchive;
+import com.grievance.service.GrievanceBulkService;
+import com.grievance.service.GrievanceImportService;
 import com.grievance.service.GrievanceService;
 import jakarta.validation.Valid;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @RestController
 @RequestMapping("api/grievances")
 public class MainController {
 
 	private static final String CLAIM_DEPARTMENT_ID = "departmentId";
+	private static final String CACHE_CONTROL_REVALIDATE = "private, no-cache";
 
 	private final GrievanceService grievanceService;
+	private final GrievanceBulkService grievanceBulkService;
 	private final AuthClient authClient;
+	private final GrievanceImportService grievanceImportService;
+	private final CaseWorkerRouter caseWorkerRouter;
+	private final GrievanceArchive grievanceArchive;
 
-	public MainController(GrievanceService grievanceService, AuthClient authClient) {
+	public MainController(GrievanceService grievanceService, GrievanceBulkService grievanceBulkService, AuthClient authClient,
+			GrievanceImportService grievanceImportService, CaseWorkerRouter caseWorkerRouter,
+			GrievanceArchive grievanceArchive) {
 		this.grievanceService = grievanceService;
+		this.grievanceBulkService = grievanceBulkService;
 		this.authClient = authClient;
+		this.grievanceImportService = grievanceImportService;
+		this.caseWorkerRouter = caseWorkerRouter;
+		this.grievanceArchive = grievanceArchive;
 	}
 
 	// create a grievance
@@ -60,15 +96,42 @@ public class MainController {
 	// get grievance by id
 	@GetMapping("/{id}")
 	@ResponseStatus(HttpStatus.OK)
-	public Mono<Grievance> getGrievanceById(@PathVariable String id) {
-		return grievanceService.getById(id);
-
+	public Mono<Grievance> getGrievanceById(@PathVariable String id, ServerWebExchange exchange) {
+		// the tag comes from the grievance getById returns (usually the cached copy), so a 304 costs no extra read
+		return grievanceService.getById(id)
+				.filter(grievance -> !notModified(exchange, GrievanceETags.of(grievance)))
+				.doOnNext(grievance -> revalidate(exchange, GrievanceETags.of(grievance)));
 	}
 
-	// get all grievances
+	// get all grievances - one page with ?cursor=&limit=&sort=, everything without them
 	@GetMapping("/getAll")
 	@ResponseStatus(HttpStatus.OK)
-	public Flux<Grievance> getAllGrievances(@AuthenticationPrincipal Jwt jwt) {
+	public Flux<Grievance> getAllGrievances(@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page,
+			ServerWebExchange exchange) {
+		if (!page.isPaged()) {
+			return grievanceService.getAllForRole(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
+		}
+		return items(exchange, grievanceService.getAllForRole(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), page));
+	}
+
+	// ?fields=summary or ?fields=id,status,... - only those fields are read from Mongo and returned, a page at a time
+	@GetMapping(value = "/getAll", params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Flux<GrievanceSummary> getAllGrievanceSummaries(@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page,
+			ServerWebExchange exchange) {
+		return items(exchange, grievanceService.getSummariesForRole(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), page));
+	}
+
+	// full-text search - ?q=&departmentId=&status=&from=&to=&cursor=&limit=, most relevant first
+	@GetMapping("/search")
+	@ResponseStatus(HttpStatus.OK)
+	public Flux<Grievance> searchGrievances(@AuthenticationPrincipal Jwt jwt, GrievanceSearchRequest request,
+			ServerWebExchange exchange) {
+		return items(exchange, grievanceService.search(request, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID)));
+	}
+
+	// same list streamed straight from the Mongo cursor when the client asks for NDJSON or SSE
+	@GetMapping(value = "/getAll", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Grievance> streamAllGrievances(@AuthenticationPrincipal Jwt jwt) {
 		return grievanceService.getAllForRole(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
 	}
 
@@ -99,30 +162,119 @@ public class MainController {
 				jwt.getClaim(CLAIM_DEPARTMENT_ID));
 	}
 
+	// bulk status update: one outcome per grievance id, in request order
+	@PatchMapping("/bulk/status")
+	public Flux<BulkItemResult> bulkUpdateStatus(@Valid @RequestBody BulkStatusUpdateRequest request,
+			@AuthenticationPrincipal Jwt jwt) {
+		return grievanceBulkService.bulkUpdateStatus(
+				request.getGrievanceIds(),
+				request.getStatus(),
+				jwt.getSubject(),
+				request.getRemarks(),
+				jwt.getClaim("role"),
+				jwt.getClaim(CLAIM_DEPARTMENT_ID));
+	}
+
+	// bulk assignment to one case worker: one outcome per grievance id, in request order
+	@PatchMapping("/bulk/assign")
+	public Flux<BulkItemResult> bulkAssign(@Valid @RequestBody BulkAssignmentRequest request,
+			@AuthenticationPrincipal Jwt jwt) {
+		return grievanceBulkService.bulkAssign(request.getGrievanceIds(), jwt.getSubject(), request.getAssignedTo(),
+				jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
+	}
+
 	// to get status history of grievances
 	@GetMapping("/history/{id}")
-	public Flux<GrievanceHistory> getStatusHistory(@PathVariable String id, @AuthenticationPrincipal Jwt jwt) {
-		return grievanceService.getStatusHistory(id, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
+	public Flux<GrievanceHistory> getStatusHistory(@PathVariable String id, @AuthenticationPrincipal Jwt jwt,
+			ServerWebExchange exchange) {
+		String role = jwt.getClaim("role");
+		String departmentId = jwt.getClaim(CLAIM_DEPARTMENT_ID);
+		// history is append-only, so the newest of the entries read identifies them; one (coalesced) read either way
+		return grievanceService.getStatusHistory(id, role, departmentId)
+				.collectList()
+				.flatMapMany(history -> {
+					String etag = GrievanceETags.ofHistory(history.get(history.size() - 1));
+					if (notModified(exchange, etag)) {
+						return Flux.<GrievanceHistory>empty();
+					}
+					revalidate(exchange, etag);
+					return Flux.fromIterable(history);
+				});
+	}
+
+	// near-duplicate cluster of a grievance, first grievance first
+	@GetMapping("/{id}/duplicates")
+	public Flux<Grievance> getDuplicates(@PathVariable String id, @AuthenticationPrincipal Jwt jwt) {
+		return grievanceService.getDuplicates(id, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
 	}
 
 	// view grievances by department (department officer / case worker / admin)
 	@GetMapping("/department/{departmentId}")
 	@ResponseStatus(HttpStatus.OK)
-	public Flux<Grievance> getByDepartment(@PathVariable String departmentId, @AuthenticationPrincipal Jwt jwt) {
+	public Flux<Grievance> getByDepartment(@PathVariable String departmentId, @AuthenticationPrincipal Jwt jwt,
+			GrievanceListRequest page, ServerWebExchange exchange) {
+		if (!page.isPaged()) {
+			return grievanceService.getByDepartment(departmentId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
+		}
+		return items(exchange,
+				grievanceService.getByDepartment(departmentId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), page));
+	}
+
+	@GetMapping(value = "/department/{departmentId}", params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Flux<GrievanceSummary> getSummariesByDepartment(@PathVariable String departmentId,
+			@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page, ServerWebExchange exchange) {
+		return items(exchange,
+				grievanceService.getSummariesByDepartment(departmentId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), page));
+	}
+
+	@GetMapping(value = "/department/{departmentId}", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Grievance> streamByDepartment(@PathVariable String departmentId, @AuthenticationPrincipal Jwt jwt) {
 		return grievanceService.getByDepartment(departmentId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
 	}
 
 	// view grievances assigned to a specific case worker
 	@GetMapping("/case-worker/{caseWorkerId}")
 	@ResponseStatus(HttpStatus.OK)
-	public Flux<Grievance> getByCaseWorker(@PathVariable String caseWorkerId, @AuthenticationPrincipal Jwt jwt) {
+	public Flux<Grievance> getByCaseWorker(@PathVariable String caseWorkerId, @AuthenticationPrincipal Jwt jwt,
+			GrievanceListRequest page, ServerWebExchange exchange) {
+		if (!page.isPaged()) {
+			return grievanceService.getByCaseWorker(caseWorkerId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
+		}
+		return items(exchange,
+				grievanceService.getByCaseWorker(caseWorkerId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), page));
+	}
+
+	@GetMapping(value = "/case-worker/{caseWorkerId}", params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Flux<GrievanceSummary> getSummariesByCaseWorker(@PathVariable String caseWorkerId,
+			@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page, ServerWebExchange exchange) {
+		return items(exchange,
+				grievanceService.getSummariesByCaseWorker(caseWorkerId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), page));
+	}
+
+	@GetMapping(value = "/case-worker/{caseWorkerId}", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Grievance> streamByCaseWorker(@PathVariable String caseWorkerId, @AuthenticationPrincipal Jwt jwt) {
 		return grievanceService.getByCaseWorker(caseWorkerId, jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID));
 	}
 
 	// view grievances for current citizen
 	@GetMapping("/my")
 	@ResponseStatus(HttpStatus.OK)
-	public Flux<Grievance> getMyGrievances(@AuthenticationPrincipal Jwt jwt) {
+	public Flux<Grievance> getMyGrievances(@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page,
+			ServerWebExchange exchange) {
+		if (!page.isPaged()) {
+			return grievanceService.getByCitizen(jwt.getSubject());
+		}
+		return items(exchange, grievanceService.getByCitizen(jwt.getSubject(), page));
+	}
+
+	@GetMapping(value = "/my", params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Flux<GrievanceSummary> getMyGrievanceSummaries(@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page,
+			ServerWebExchange exchange) {
+		return items(exchange, grievanceService.getSummariesByCitizen(jwt.getSubject(), page));
+	}
+
+	@GetMapping(value = "/my", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Grievance> streamMyGrievances(@AuthenticationPrincipal Jwt jwt) {
 		return grievanceService.getByCitizen(jwt.getSubject());
 	}
 
@@ -138,35 +290,119 @@ public class MainController {
     // view grievances assigned to CURRENT case worker
     @GetMapping("/my-assigned")
     @ResponseStatus(HttpStatus.OK)
-    public Flux<Grievance> getMyAssignedGrievances(@AuthenticationPrincipal Jwt jwt) {
+    public Flux<Grievance> getMyAssignedGrievances(@AuthenticationPrincipal Jwt jwt, GrievanceListRequest page,
+            ServerWebExchange exchange) {
+
+        if (!page.isPaged()) {
+            return streamMyAssignedGrievances(jwt);
+        }
+        requireCaseWorker(jwt);
+        String displayName = jwt.getClaim("name");
 
-        String role = jwt.getClaim("role");
-        String caseWorkerId = jwt.getSubject();
+        return items(exchange, caseWorkerEmail(jwt).flatMap(email -> {
+            Mono<GrievancePage<Grievance>> result = grievanceService.getByCaseWorkerSelf(
+                    jwt.getSubject(),
+                    email,
+                    displayName,
+                    jwt.getClaim(CLAIM_DEPARTMENT_ID),
+                    page);
+            return result != null ? result : Mono.empty();
+        }));
+    }
+
+    @GetMapping(value = "/my-assigned", params = "fields", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<GrievanceSummary> getMyAssignedGrievanceSummaries(@AuthenticationPrincipal Jwt jwt,
+            GrievanceListRequest page, ServerWebExchange exchange) {
+
+        requireCaseWorker(jwt);
+        String displayName = jwt.getClaim("name");
 
-        if (!"CASE_WORKER".equals(role)) {
+        return items(exchange, caseWorkerEmail(jwt).flatMap(email -> grievanceService.getSummariesByCaseWorkerSelf(
+                jwt.getSubject(),
+                email,
+                displayName,
+                jwt.getClaim(CLAIM_DEPARTMENT_ID),
+                page)));
+    }
+
+    @GetMapping(value = "/my-assigned", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<Grievance> streamMyAssignedGrievances(@AuthenticationPrincipal Jwt jwt) {
+
+        requireCaseWorker(jwt);
+        String displayName = jwt.getClaim("name");
+
+        return caseWorkerEmail(jwt).flatMapMany(email -> {
+            Flux<Grievance> result = grievanceService.getByCaseWorkerSelf(
+                    jwt.getSubject(),
+                    email,
+                    displayName,
+                    jwt.getClaim(CLAIM_DEPARTMENT_ID));
+            return result != null ? result : Flux.empty();
+        });
+    }
+
+	// a page goes out as the bare JSON array list clients have always read; the next one is linked in a Link header
+	private <T> Flux<T> items(ServerWebExchange exchange, Mono<GrievancePage<T>> page) {
+		return page.flatMapMany(current -> {
+			if (current.getNextCursor() != null) {
+				exchange.getResponse().getHeaders().add(HttpHeaders.LINK, nextPageLink(exchange, current.getNextCursor()));
+			}
+			return Flux.fromIterable(current.getItems());
+		});
+	}
+
+	// relative to the request, with every other query parameter kept; cursors are URL-safe base64
+	private static String nextPageLink(ServerWebExchange exchange, String cursor) {
+		String next = UriComponentsBuilder.fromPath(exchange.getRequest().getPath().value())
+				.query(exchange.getRequest().getURI().getRawQuery())
+				.replaceQueryParam("cursor", cursor)
+				.build()
+				.toUriString();
+		return "<" + next + ">; rel=\"next\"";
+	}
+
+	// answers 304 when If-None-Match still matches
+	private boolean notModified(ServerWebExchange exchange, String etag) {
+		if (!exchange.checkNotModified(etag)) {
+			return false;
+		}
+		exchange.getResponse().getHeaders().setCacheControl(CACHE_CONTROL_REVALIDATE);
+		return true;
+	}
+
+	// clients may keep the body but must revalidate before every use; being set here also keeps Spring Security's
+	// no-store default (in this service and in the gateway) from stopping browsers from revalidating at all
+	private void revalidate(ServerWebExchange exchange, String etag) {
+		HttpHeaders headers = exchange.getResponse().getHeaders();
+		headers.setETag(etag);
+		headers.setCacheControl(CACHE_CONTROL_REVALIDATE);
+	}
+
+    private void requireCaseWorker(Jwt jwt) {
+        if (!"CASE_WORKER".equals(jwt.getClaim("role"))) {
             throw new org.springframework.web.server.ResponseStatusException(
                     HttpStatus.FORBIDDEN,
                     "Only case workers can access this endpoint");
         }
+    }
+
+    private void requireAdmin(Jwt jwt) {
+        if (!"ADMIN".equals(jwt.getClaim("role"))) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Only admins can access this endpoint");
+        }
+    }
 
+    // email claim, falling back to the auth service; empty string when neither has one
+    private Mono<String> caseWorkerEmail(Jwt jwt) {
         String emailClaim = jwt.getClaim("email");
-        Mono<String> emailMono = Mono.justOrEmpty(emailClaim)
+        return Mono.justOrEmpty(emailClaim)
                 .switchIfEmpty(Mono.defer(() -> {
                     Mono<String> fetched = authClient.fetchEmail(jwt.getTokenValue());
                     return fetched == null ? Mono.empty() : fetched;
                 }))
                 .defaultIfEmpty("");
-
-        String displayName = jwt.getClaim("name");
-
-        return emailMono.flatMapMany(email -> {
-            Flux<Grievance> result = grievanceService.getByCaseWorkerSelf(
-                    caseWorkerId,
-                    email,
-                    displayName,
-                    jwt.getClaim(CLAIM_DEPARTMENT_ID));
-            return result != null ? result : Flux.empty();
-        });
     }
 	
 	// get ALL case workers in my department
@@ -184,6 +420,62 @@ public class MainController {
 	            .map(workers -> Map.of("caseWorkers", workers));
 	}
 
+	// case workers in my department with their active-assignment counts
+	@GetMapping("/department/case-workers/roster")
+	@ResponseStatus(HttpStatus.OK)
+	public Mono<Map<String, List<CaseWorkerRosterEntry>>> getCaseWorkerRoster(@AuthenticationPrincipal Jwt jwt) {
+		return grievanceService
+				.getCaseWorkerRoster(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID))
+				.collectList()
+				.map(roster -> Map.of("caseWorkers", roster));
+	}
+
+	// dashboard counters for a department (officers: their own; admin: any, or all when omitted)
+	@GetMapping("/stats")
+	@ResponseStatus(HttpStatus.OK)
+	public Mono<GrievanceStatsView> getStats(@AuthenticationPrincipal Jwt jwt,
+			@RequestParam(required = false) String departmentId,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return grievanceService.getStats(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), departmentId, from, to);
+	}
+
+	// recompute the counters from the grievances collection (admin); runs in the background
+	@PostMapping("/stats/rebuild")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public Mono<Map<String, String>> rebuildStats(@AuthenticationPrincipal Jwt jwt) {
+		return grievanceService.rebuildStats(jwt.getClaim("role"))
+				.thenReturn(Map.of("status", "REBUILDING"));
+	}
+
+	// bulk import of legacy grievances (admin); NDJSON or CSV in, per-line errors and batch progress streamed back.
+	// Re-sending the same file with the same importId resumes after the last committed batch.
+	@PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" },
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<GrievanceImportResult> importGrievances(@AuthenticationPrincipal Jwt jwt, @RequestParam String importId,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, @RequestBody Flux<String> lines) {
+		requireAdmin(jwt);
+		GrievanceImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+				? GrievanceImportService.Format.CSV
+				: GrievanceImportService.Format.NDJSON;
+		return grievanceImportService.importGrievances(importId, format, lines, jwt.getSubject());
+	}
+
+	// auto-route the oldest unassigned grievances (ADMIN: any or all departments, DEPARTMENT_OFFICER: their own)
+	@PostMapping("/routing/run")
+	public Mono<RoutingRunResult> runAutoRouting(@RequestParam(required = false) String departmentId,
+			@AuthenticationPrincipal Jwt jwt) {
+		return caseWorkerRouter.routeBacklog(jwt.getClaim("role"), jwt.getClaim(CLAIM_DEPARTMENT_ID), departmentId);
+	}
+
+	// archive cold closed grievances now instead of waiting for the schedule (admin); reports the working set
+	// before and after
+	@PostMapping("/archive/run")
+	public Mono<ArchiveRunResult> runArchival(@AuthenticationPrincipal Jwt jwt) {
+		requireAdmin(jwt);
+		return grievanceArchive.run();
+	}
+
 	// view escalated grievances (SO/Admin)
 	@GetMapping("/escalated")
 	@ResponseStatus(HttpStatus.OK)
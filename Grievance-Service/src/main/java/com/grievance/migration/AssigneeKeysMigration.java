@@ -0,0 +1,84 @@
+package com.grievance.migration;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.Grievance;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+
+// one-time backfill of Grievance.assigneeKeys for grievances assigned before the field existed
+@Component
+public class AssigneeKeysMigration {
+
+	private static final Logger log = LoggerFactory.getLogger(AssigneeKeysMigration.class);
+	static final String MIGRATIONS_COLLECTION = "schema_migrations";
+	static final String MIGRATION_ID = "grievance-assignee-keys";
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final boolean enabled;
+
+	public AssigneeKeysMigration(
+			ReactiveMongoOperations mongoOperations,
+			@Value("${grievance.migrations.assignee-keys:true}") boolean enabled) {
+		this.mongoOperations = mongoOperations;
+		this.enabled = enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (!enabled) {
+			return;
+		}
+		run().doOnError(ex -> log.warn("Assignee key migration failed, it will be retried on next start", ex))
+				.onErrorResume(ex -> Mono.empty())
+				.subscribe();
+	}
+
+	// emits the number of backfilled grievances, empty once the migration has been recorded as done
+	public Mono<Long> run() {
+		Query applied = new Query(Criteria.where("_id").is(MIGRATION_ID));
+		return mongoOperations.exists(applied, MIGRATIONS_COLLECTION)
+				.filter(done -> !done)
+				.flatMap(pending -> backfill())
+				.flatMap(this::markApplied);
+	}
+
+	// a single server-side updateMany; safe to re-run because it only touches documents without the field
+	private Mono<Long> backfill() {
+		Query missing = new Query(Criteria.where("assignedWokerId").nin(Arrays.asList(null, ""))
+				.and("assigneeKeys").exists(false));
+		// same normalization as AssigneeKeys.normalize for the ASCII ids and emails the system issues
+		AggregationUpdate setKeys = AggregationUpdate.from(List.of(
+				context -> new Document("$set", new Document("assigneeKeys", List.of(
+						new Document("$toLower", new Document("$trim", new Document("input", "$assignedWokerId"))))))));
+		return mongoOperations.updateMulti(missing, setKeys, Grievance.class)
+				.map(UpdateResult::getModifiedCount);
+	}
+
+	private Mono<Long> markApplied(long updated) {
+		Document marker = new Document("_id", MIGRATION_ID)
+				.append("completedAt", new Date())
+				.append("updated", updated);
+		return mongoOperations.insert(marker, MIGRATIONS_COLLECTION)
+				// another instance finished the same backfill first
+				.onErrorResume(DuplicateKeyException.class, ex -> Mono.empty())
+				.thenReturn(updated)
+				.doOnNext(count -> log.info("Assignee key migration backfilled {} grievances", count));
+	}
+}
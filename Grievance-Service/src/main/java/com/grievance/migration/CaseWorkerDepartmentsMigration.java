@@ -0,0 +1,70 @@
+package com.grievance.migration;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.grievance.service.CaseWorkerWorkloadService;
+
+import reactor.core.publisher.Mono;
+
+// one-time rebuild of case_worker_workload for records written before they kept every department of the worker
+// (and before workers with only completed grievances were kept); rebuildIfEmpty never runs on such a collection
+@Component
+public class CaseWorkerDepartmentsMigration {
+
+	private static final Logger log = LoggerFactory.getLogger(CaseWorkerDepartmentsMigration.class);
+	static final String MIGRATION_ID = "case-worker-workload-departments";
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final CaseWorkerWorkloadService caseWorkerWorkloadService;
+	private final boolean enabled;
+
+	public CaseWorkerDepartmentsMigration(
+			ReactiveMongoOperations mongoOperations,
+			CaseWorkerWorkloadService caseWorkerWorkloadService,
+			@Value("${grievance.migrations.case-worker-departments:true}") boolean enabled) {
+		this.mongoOperations = mongoOperations;
+		this.caseWorkerWorkloadService = caseWorkerWorkloadService;
+		this.enabled = enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (!enabled) {
+			return;
+		}
+		run().doOnError(ex -> log.warn("Case worker departments migration failed, it will be retried on next start", ex))
+				.onErrorResume(ex -> Mono.empty())
+				.subscribe();
+	}
+
+	// emits true once the rebuild ran and was recorded, empty when it had been recorded before
+	public Mono<Boolean> run() {
+		Query applied = new Query(Criteria.where("_id").is(MIGRATION_ID));
+		return mongoOperations.exists(applied, AssigneeKeysMigration.MIGRATIONS_COLLECTION)
+				.filter(done -> !done)
+				// the rebuild replaces every record from the grievances, so repeating it is harmless
+				.flatMap(pending -> caseWorkerWorkloadService.rebuild().thenReturn(true))
+				.flatMap(rebuilt -> markApplied());
+	}
+
+	private Mono<Boolean> markApplied() {
+		Document marker = new Document("_id", MIGRATION_ID).append("completedAt", new Date());
+		return mongoOperations.insert(marker, AssigneeKeysMigration.MIGRATIONS_COLLECTION)
+				// another instance finished the same rebuild first
+				.onErrorResume(DuplicateKeyException.class, ex -> Mono.empty())
+				.thenReturn(true)
+				.doOnNext(done -> log.info("Case worker departments migration rebuilt the workload records"));
+	}
+}
@@ -0,0 +1,67 @@
+package com.grievance.model;
+
+import java.util.Map;
+
+// summary of one archival run; working-set sizes are data plus index bytes per live collection
+public class ArchiveRunResult {
+
+    private int archived;
+    private int historyEntries;
+    private int assignments;
+    private Map<String, Long> workingSetBefore;
+    private Map<String, Long> workingSetAfter;
+
+    public ArchiveRunResult() {
+    }
+
+    public ArchiveRunResult(int archived, int historyEntries, int assignments) {
+        this.archived = archived;
+        this.historyEntries = historyEntries;
+        this.assignments = assignments;
+    }
+
+    public ArchiveRunResult add(ArchiveRunResult other) {
+        return new ArchiveRunResult(archived + other.archived, historyEntries + other.historyEntries,
+                assignments + other.assignments);
+    }
+
+    public int getArchived() {
+        return archived;
+    }
+
+    public void setArchived(int archived) {
+        this.archived = archived;
+    }
+
+    public int getHistoryEntries() {
+        return historyEntries;
+    }
+
+    public void setHistoryEntries(int historyEntries) {
+        this.historyEntries = historyEntries;
+    }
+
+    public int getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(int assignments) {
+        this.assignments = assignments;
+    }
+
+    public Map<String, Long> getWorkingSetBefore() {
+        return workingSetBefore;
+    }
+
+    public void setWorkingSetBefore(Map<String, Long> workingSetBefore) {
+        this.workingSetBefore = workingSetBefore;
+    }
+
+    public Map<String, Long> getWorkingSetAfter() {
+        return workingSetAfter;
+    }
+
+    public void setWorkingSetAfter(Map<String, Long> workingSetAfter) {
+        this.workingSetAfter = workingSetAfter;
+    }
+}
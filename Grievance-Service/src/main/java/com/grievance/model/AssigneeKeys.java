@@ -0,0 +1,27 @@
+package com.grievance.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+// canonical form of the ids a case worker can be assigned under (user id, email or display name)
+public final class AssigneeKeys {
+
+	private AssigneeKeys() {
+	}
+
+	public static String normalize(String id) {
+		return id == null ? null : id.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// normalized, non-blank and de-duplicated, in argument order
+	public static List<String> of(String... ids) {
+		return Arrays.stream(ids)
+				.map(AssigneeKeys::normalize)
+				.filter(Objects::nonNull)
+				.filter(key -> !key.isEmpty())
+				.distinct()
+				.toList();
+	}
+}
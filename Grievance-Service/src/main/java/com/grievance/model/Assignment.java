@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
@@ -14,6 +16,10 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString
 	@Document(collection = "assignments")
+	@CompoundIndexes({
+		@CompoundIndex(name = "grievance_assigned", def = "{'grievanceId': 1, 'assignedAt': -1}"),
+		@CompoundIndex(name = "officer_worker", def = "{'assignedBy': 1, 'assignedTo': 1}")
+	})
 	public class Assignment {
 
     @Id
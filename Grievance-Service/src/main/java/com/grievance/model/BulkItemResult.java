@@ -0,0 +1,53 @@
+package com.grievance.model;
+
+// outcome of one grievance id in a bulk status update or bulk assignment
+public class BulkItemResult {
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        UNAUTHORIZED,
+        CONFLICT
+    }
+
+    private String grievanceId;
+    private Outcome outcome;
+    private String message;
+
+    public BulkItemResult() {
+    }
+
+    public BulkItemResult(String grievanceId, Outcome outcome, String message) {
+        this.grievanceId = grievanceId;
+        this.outcome = outcome;
+        this.message = message;
+    }
+
+    public static BulkItemResult updated(String grievanceId) {
+        return new BulkItemResult(grievanceId, Outcome.UPDATED, null);
+    }
+
+    public String getGrievanceId() {
+        return grievanceId;
+    }
+
+    public void setGrievanceId(String grievanceId) {
+        this.grievanceId = grievanceId;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
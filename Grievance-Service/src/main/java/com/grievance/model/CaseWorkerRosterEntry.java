@@ -0,0 +1,32 @@
+package com.grievance.model;
+
+// one row of the department case-worker roster
+public class CaseWorkerRosterEntry {
+
+    private String caseWorkerId;
+    private int activeCount;
+
+    public CaseWorkerRosterEntry() {
+    }
+
+    public CaseWorkerRosterEntry(String caseWorkerId, int activeCount) {
+        this.caseWorkerId = caseWorkerId;
+        this.activeCount = activeCount;
+    }
+
+    public String getCaseWorkerId() {
+        return caseWorkerId;
+    }
+
+    public void setCaseWorkerId(String caseWorkerId) {
+        this.caseWorkerId = caseWorkerId;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+}
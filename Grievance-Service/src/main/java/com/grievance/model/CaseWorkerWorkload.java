@@ -0,0 +1,36 @@
+package com.grievance.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// active (non-completed) grievances per case worker, maintained on assign and status change;
+// a worker whose grievances are all completed keeps a record with activeCount 0
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@Document(collection = "case_worker_workload")
+// doubles as the per-department roster
+@CompoundIndex(name = "departments_worker", def = "{'departmentIds': 1, '_id': 1}")
+public class CaseWorkerWorkload {
+
+	// the case worker id used on grievance.assignedWokerId
+	@Id
+	@EqualsAndHashCode.Include
+	private String caseWorkerId;
+
+	// every department the worker has handled a grievance for
+	private Set<String> departmentIds;
+
+	private int activeCount;
+
+	private Set<String> activeGrievanceIds;
+
+	private LocalDateTime updatedAt;
+}
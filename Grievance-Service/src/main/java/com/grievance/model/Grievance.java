@@ -4,15 +4,37 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString
 @Document(collection="grievance")
+@CompoundIndexes({
+	// keyset pages: equality prefix, then the sort key and _id in page order
+	@CompoundIndex(name = "created_id", def = "{'createdAt': -1, '_id': -1}"),
+	@CompoundIndex(name = "updated_id", def = "{'updatedAt': -1, '_id': -1}"),
+	@CompoundIndex(name = "department_created_id", def = "{'departmentId': 1, 'createdAt': -1, '_id': -1}"),
+	@CompoundIndex(name = "department_updated_id", def = "{'departmentId': 1, 'updatedAt': -1, '_id': -1}"),
+	@CompoundIndex(name = "citizen_created_id", def = "{'citizenId': 1, 'createdAt': -1, '_id': -1}"),
+	@CompoundIndex(name = "worker_created_id", def = "{'assignedWokerId': 1, 'createdAt': -1, '_id': -1}"),
+	// availability check
+	@CompoundIndex(name = "worker_status", def = "{'assignedWokerId': 1, 'status': 1}"),
+	// escalated view and other status filters
+	@CompoundIndex(name = "status_department", def = "{'status': 1, 'departmentId': 1}"),
+	// members of a near-duplicate cluster, only grievances that were linked to one are indexed
+	@CompoundIndex(name = "duplicate_created", def = "{'duplicateOf': 1, 'createdAt': 1}", sparse = true),
+	// SLA sweep only ever looks at grievances that are not escalated yet
+	@CompoundIndex(name = "sla_open_unescalated", def = "{'status': 1, 'assignedAt': 1}", partialFilter = "{'escalated': false}")
+})
 public class Grievance {
 	
 	@Id
@@ -30,6 +52,9 @@ public class Grievance {
 	
 	// Assigned Later - Case Worker ID
 	private String assignedWokerId;
+
+	// normalized aliases of the assignee, see AssigneeKeys
+	private List<String> assigneeKeys;
 	
 	@NotBlank(message="Category Code is required") // catergory code lets say is water
 	private String categoryCode;
@@ -39,6 +64,8 @@ public class Grievance {
 	
 	@NotBlank(message="Description is required")
 	@Size(min = 10, max = 2000, message = "Description must be between 10 and 2000 characters")
+	// the collection's text index, behind GrievanceRepository.search
+	@TextIndexed
 	private String description;
     
 	
@@ -51,6 +78,16 @@ public class Grievance {
 	// SLA reated
 	private LocalDateTime assignedAt;
 	private boolean escalated;
+	private LocalDateTime escalatedAt;
+	// status the grievance had when it was escalated
+	private GrievanceStatus escalatedFrom;
+
+	// first grievance of the near-duplicate cluster this one was linked to on submission, see GrievanceDuplicateIndex
+	private String duplicateOf;
+
+	// bumped by every write; the read-modify-write paths only write while it is still the version they read
+	@Version
+	private Long version;
 	
 	// getters and setters
 	public String getId() {
@@ -83,6 +120,12 @@ public class Grievance {
 	public void setAssignedWokerId(String assignedWokerId) {
 		this.assignedWokerId = assignedWokerId;
 	}
+	public List<String> getAssigneeKeys() {
+		return assigneeKeys;
+	}
+	public void setAssigneeKeys(List<String> assigneeKeys) {
+		this.assigneeKeys = assigneeKeys;
+	}
 	public String getCategoryCode() {
 		return categoryCode;
 	}
@@ -131,6 +174,30 @@ public class Grievance {
 	public void setEscalated(boolean escalated) {
 		this.escalated = escalated;
 	}
+	public LocalDateTime getEscalatedAt() {
+		return escalatedAt;
+	}
+	public void setEscalatedAt(LocalDateTime escalatedAt) {
+		this.escalatedAt = escalatedAt;
+	}
+	public GrievanceStatus getEscalatedFrom() {
+		return escalatedFrom;
+	}
+	public void setEscalatedFrom(GrievanceStatus escalatedFrom) {
+		this.escalatedFrom = escalatedFrom;
+	}
+	public String getDuplicateOf() {
+		return duplicateOf;
+	}
+	public void setDuplicateOf(String duplicateOf) {
+		this.duplicateOf = duplicateOf;
+	}
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 	
 	
 		
@@ -0,0 +1,34 @@
+package com.grievance.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// strong validators for the polled reads: every write to a grievance bumps its version and stamps updatedAt, and its
+// status history is append-only, so the last entry identifies it
+public final class GrievanceETags {
+
+	private GrievanceETags() {
+	}
+
+	// from id, version, createdAt and updatedAt only
+	public static String of(Grievance grievance) {
+		LocalDateTime stamp = grievance.getUpdatedAt() != null ? grievance.getUpdatedAt() : grievance.getCreatedAt();
+		String version = grievance.getVersion() == null ? "" : "-v" + grievance.getVersion();
+		return quote("g-" + grievance.getId() + version + "-" + stamp(stamp));
+	}
+
+	public static String ofHistory(GrievanceHistory last) {
+		return quote("h-" + last.getId() + "-" + stamp(last.getUpdatedAt()));
+	}
+
+	private static String stamp(LocalDateTime stamp) {
+		if (stamp == null) {
+			return "0";
+		}
+		return Long.toHexString(stamp.toEpochSecond(ZoneOffset.UTC)) + "." + Integer.toHexString(stamp.getNano());
+	}
+
+	private static String quote(String tag) {
+		return '"' + tag + '"';
+	}
+}
@@ -0,0 +1,81 @@
+package com.grievance.model;
+
+// one element of the streamed import response: a rejected line, the progress after a committed batch, or the
+// final totals (which include lines committed by earlier, interrupted runs of the same import)
+public class GrievanceImportResult {
+
+    public enum Type { ERROR, PROGRESS, COMPLETED }
+
+    private Type type;
+    private long line;
+    private String message;
+    private long imported;
+    private long duplicates;
+    private long failed;
+
+    public GrievanceImportResult() {
+    }
+
+    public GrievanceImportResult(Type type, long line, String message, long imported, long duplicates, long failed) {
+        this.type = type;
+        this.line = line;
+        this.message = message;
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.failed = failed;
+    }
+
+    public static GrievanceImportResult error(long line, String message) {
+        return new GrievanceImportResult(Type.ERROR, line, message, 0, 0, 1);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    // for PROGRESS and COMPLETED: the last line covered by the checkpoint
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    // rows already present from an earlier run of the same import
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+}
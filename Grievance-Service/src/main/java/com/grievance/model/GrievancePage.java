@@ -0,0 +1,34 @@
+package com.grievance.model;
+
+import java.util.List;
+
+// one page of a list endpoint; nextCursor is null on the last page
+public class GrievancePage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+    public GrievancePage() {
+    }
+
+    public GrievancePage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.grievance.model;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+// sort keys supported by the paged grievance lists, always descending with _id as tie-breaker
+public enum GrievanceSortKey {
+
+	CREATED_AT("createdAt", Grievance::getCreatedAt, GrievanceSummary::getCreatedAt),
+	UPDATED_AT("updatedAt", Grievance::getUpdatedAt, GrievanceSummary::getUpdatedAt);
+
+	private final String field;
+	private final Function<Grievance, LocalDateTime> accessor;
+	private final Function<GrievanceSummary, LocalDateTime> summaryAccessor;
+
+	GrievanceSortKey(String field, Function<Grievance, LocalDateTime> accessor,
+			Function<GrievanceSummary, LocalDateTime> summaryAccessor) {
+		this.field = field;
+		this.accessor = accessor;
+		this.summaryAccessor = summaryAccessor;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public LocalDateTime valueOf(Grievance grievance) {
+		return accessor.apply(grievance);
+	}
+
+	public LocalDateTime valueOf(GrievanceSummary summary) {
+		return summaryAccessor.apply(summary);
+	}
+
+	// accepts the field name (createdAt) or the enum name (CREATED_AT); defaults to createdAt
+	public static GrievanceSortKey from(String value) {
+		if (value == null || value.isBlank()) {
+			return CREATED_AT;
+		}
+		for (GrievanceSortKey key : values()) {
+			if (key.field.equalsIgnoreCase(value) || key.name().equalsIgnoreCase(value)) {
+				return key;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported sort: " + value);
+	}
+}
@@ -0,0 +1,51 @@
+package com.grievance.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// materialized grievance counters for one department and one bucket: "all" or the creation day (yyyy-MM-dd);
+// counts describe the current state of the grievances created in the bucket
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@Document(collection = "grievance_stats")
+@CompoundIndexes({
+	@CompoundIndex(name = "department_bucket", def = "{'departmentId': 1, 'bucket': 1}"),
+	@CompoundIndex(name = "bucket_department", def = "{'bucket': 1, 'departmentId': 1}")
+})
+public class GrievanceStats {
+
+	public static final String ALL_TIME = "all";
+
+	// departmentId|bucket
+	@Id
+	@EqualsAndHashCode.Include
+	private String id;
+
+	private String departmentId;
+
+	private String bucket;
+
+	private long total;
+
+	private long assigned;
+
+	private long unassigned;
+
+	private long escalated;
+
+	private Map<String, Long> byStatus;
+
+	// last grievance id folded in by a rebuild, so a resumed rebuild does not count a batch twice
+	private String rebuiltThrough;
+
+	private LocalDateTime updatedAt;
+}
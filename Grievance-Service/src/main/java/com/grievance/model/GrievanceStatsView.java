@@ -0,0 +1,112 @@
+package com.grievance.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// /stats response: counters summed over the requested department and creation-day range
+public class GrievanceStatsView {
+
+    private String departmentId;
+    private LocalDate from;
+    private LocalDate to;
+    private long total;
+    private long assigned;
+    private long unassigned;
+    private long escalated;
+    private Map<String, Long> byStatus = new TreeMap<>();
+    private List<CaseWorkerRosterEntry> caseWorkers;
+
+    public GrievanceStatsView() {
+    }
+
+    public GrievanceStatsView(String departmentId, LocalDate from, LocalDate to) {
+        this.departmentId = departmentId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public GrievanceStatsView add(GrievanceStats stats) {
+        total += stats.getTotal();
+        assigned += stats.getAssigned();
+        unassigned += stats.getUnassigned();
+        escalated += stats.getEscalated();
+        if (stats.getByStatus() != null) {
+            stats.getByStatus().forEach((status, count) -> byStatus.merge(status, count, Long::sum));
+        }
+        return this;
+    }
+
+    public String getDepartmentId() {
+        return departmentId;
+    }
+
+    public void setDepartmentId(String departmentId) {
+        this.departmentId = departmentId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getAssigned() {
+        return assigned;
+    }
+
+    public void setAssigned(long assigned) {
+        this.assigned = assigned;
+    }
+
+    public long getUnassigned() {
+        return unassigned;
+    }
+
+    public void setUnassigned(long unassigned) {
+        this.unassigned = unassigned;
+    }
+
+    public long getEscalated() {
+        return escalated;
+    }
+
+    public void setEscalated(long escalated) {
+        this.escalated = escalated;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public List<CaseWorkerRosterEntry> getCaseWorkers() {
+        return caseWorkers;
+    }
+
+    public void setCaseWorkers(List<CaseWorkerRosterEntry> caseWorkers) {
+        this.caseWorkers = caseWorkers;
+    }
+}
@@ -13,5 +13,10 @@ public enum GrievanceStatus {
 	RESOLVED,
 	REOPENED,
 	ESCALATED,
-	CLOSED
+	CLOSED;
+
+	// a completed grievance no longer counts against its case worker's workload
+	public boolean isCompleted() {
+		return this == RESOLVED || this == CLOSED || this == WORK_DONE;
+	}
 }
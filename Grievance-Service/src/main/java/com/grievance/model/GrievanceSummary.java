@@ -0,0 +1,154 @@
+package com.grievance.model;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// list-row view of a grievance, read through a Mongo field projection so the description and contact details never
+// leave the database; fields that were not selected stay null and are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GrievanceSummary {
+
+	// fields a ?fields= selector may name; they are both the property and the stored field names
+	public static final List<String> FIELDS = List.of("id", "citizenId", "departmentId", "assignedWokerId",
+			"categoryCode", "subCategoryCode", "status", "escalated", "duplicateOf", "createdAt", "updatedAt", "assignedAt");
+	// what ?fields=summary selects: what the dashboards render
+	public static final List<String> DEFAULT_FIELDS = List.of("id", "status", "departmentId", "subCategoryCode",
+			"createdAt", "updatedAt");
+	private static final String SUMMARY = "summary";
+
+	private String id;
+	private String citizenId;
+	private String departmentId;
+	private String assignedWokerId;
+	private String categoryCode;
+	private String subCategoryCode;
+	private GrievanceStatus status;
+	private Boolean escalated;
+	private String duplicateOf;
+	private LocalDateTime createdAt;
+	private LocalDateTime updatedAt;
+	private LocalDateTime assignedAt;
+
+	public GrievanceSummary() {
+	}
+
+	// "summary" or a comma separated subset of FIELDS; the id is always included
+	public static Set<String> fields(String selector) {
+		if (selector == null || selector.isBlank() || SUMMARY.equalsIgnoreCase(selector.trim())) {
+			return new LinkedHashSet<>(DEFAULT_FIELDS);
+		}
+		Set<String> fields = new LinkedHashSet<>();
+		fields.add("id");
+		Arrays.stream(selector.split(","))
+				.map(String::trim)
+				.filter(field -> !field.isEmpty())
+				.forEach(field -> {
+					if (!FIELDS.contains(field)) {
+						throw new IllegalArgumentException("Unsupported field: " + field);
+					}
+					fields.add(field);
+				});
+		return fields;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getCitizenId() {
+		return citizenId;
+	}
+
+	public void setCitizenId(String citizenId) {
+		this.citizenId = citizenId;
+	}
+
+	public String getDepartmentId() {
+		return departmentId;
+	}
+
+	public void setDepartmentId(String departmentId) {
+		this.departmentId = departmentId;
+	}
+
+	public String getAssignedWokerId() {
+		return assignedWokerId;
+	}
+
+	public void setAssignedWokerId(String assignedWokerId) {
+		this.assignedWokerId = assignedWokerId;
+	}
+
+	public String getCategoryCode() {
+		return categoryCode;
+	}
+
+	public void setCategoryCode(String categoryCode) {
+		this.categoryCode = categoryCode;
+	}
+
+	public String getSubCategoryCode() {
+		return subCategoryCode;
+	}
+
+	public void setSubCategoryCode(String subCategoryCode) {
+		this.subCategoryCode = subCategoryCode;
+	}
+
+	public GrievanceStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(GrievanceStatus status) {
+		this.status = status;
+	}
+
+	public Boolean getEscalated() {
+		return escalated;
+	}
+
+	public void setEscalated(Boolean escalated) {
+		this.escalated = escalated;
+	}
+
+	public String getDuplicateOf() {
+		return duplicateOf;
+	}
+
+	public void setDuplicateOf(String duplicateOf) {
+		this.duplicateOf = duplicateOf;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public LocalDateTime getAssignedAt() {
+		return assignedAt;
+	}
+
+	public void setAssignedAt(LocalDateTime assignedAt) {
+		this.assignedAt = assignedAt;
+	}
+}
@@ -0,0 +1,54 @@
+package com.grievance.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.grievance.event.GrievanceEvent;
+
+import java.time.LocalDateTime;
+
+// grievance event waiting to be relayed to Kafka; written alongside the grievance change it describes
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@Document(collection = "grievance_outbox")
+@CompoundIndex(name = "status_available", def = "{'status': 1, 'availableAt': 1}")
+public class OutboxEvent {
+
+	public enum Status { PENDING, SENT }
+
+	@Id
+	@EqualsAndHashCode.Include
+	private String id;
+
+	private String grievanceId;
+
+	private String eventType;
+
+	private GrievanceEvent payload;
+
+	private Status status;
+
+	// number of failed relay attempts
+	private int attempts;
+
+	private LocalDateTime createdAt;
+
+	// earliest time the relay may pick the record up; pushed forward while claimed and after a failed send
+	private LocalDateTime availableAt;
+
+	// set by the relay instance that currently holds the record
+	@Indexed(name = "claim_token", sparse = true)
+	private String claimToken;
+
+	// sent records expire after a week
+	@Indexed(name = "sent_ttl", expireAfter = "7d")
+	private LocalDateTime sentAt;
+
+	private String lastError;
+}
@@ -0,0 +1,59 @@
+package com.grievance.model;
+
+// summary of one auto-routing backlog run
+public class RoutingRunResult {
+
+    private int scanned;
+    private int assigned;
+    // no case worker of the department had a free slot
+    private int unrouted;
+    // picked a worker but the assignment was refused (changed concurrently, worker filled up meanwhile)
+    private int failed;
+
+    public RoutingRunResult() {
+    }
+
+    public RoutingRunResult(int scanned, int assigned, int unrouted, int failed) {
+        this.scanned = scanned;
+        this.assigned = assigned;
+        this.unrouted = unrouted;
+        this.failed = failed;
+    }
+
+    public RoutingRunResult add(RoutingRunResult other) {
+        return new RoutingRunResult(scanned + other.scanned, assigned + other.assigned,
+                unrouted + other.unrouted, failed + other.failed);
+    }
+
+    public int getScanned() {
+        return scanned;
+    }
+
+    public void setScanned(int scanned) {
+        this.scanned = scanned;
+    }
+
+    public int getAssigned() {
+        return assigned;
+    }
+
+    public void setAssigned(int assigned) {
+        this.assigned = assigned;
+    }
+
+    public int getUnrouted() {
+        return unrouted;
+    }
+
+    public void setUnrouted(int unrouted) {
+        this.unrouted = unrouted;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+}
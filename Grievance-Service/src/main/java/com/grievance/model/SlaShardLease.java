@@ -0,0 +1,25 @@
+package com.grievance.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// which instance currently fires SLA escalations for a shard of grievance ids
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@Document(collection = "sla_shard_leases")
+public class SlaShardLease {
+
+	@Id
+	@EqualsAndHashCode.Include
+	private Integer shard;
+
+	private String owner;
+
+	private LocalDateTime expiresAt;
+}
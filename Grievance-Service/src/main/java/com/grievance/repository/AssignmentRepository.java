@@ -4,7 +4,7 @@ import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import com.grievance.model.Assignment;
 import reactor.core.publisher.Flux;
 
-public interface AssignmentRepository  extends ReactiveMongoRepository<Assignment, String> {
+public interface AssignmentRepository  extends ReactiveMongoRepository<Assignment, String>, AssignmentRepositoryCustom {
 	 Flux<Assignment> findByGrievanceId(String grievanceId);
 
 	 Flux<Assignment> findByAssignedBy(String assignedBy);
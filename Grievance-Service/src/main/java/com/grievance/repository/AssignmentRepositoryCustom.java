@@ -0,0 +1,10 @@
+package com.grievance.repository;
+
+import reactor.core.publisher.Flux;
+
+// queries that derived repository methods cannot express
+public interface AssignmentRepositoryCustom {
+
+	// every case worker an officer has assigned to, de-duplicated by the server off the officer_worker index
+	Flux<String> findDistinctAssignedTo(String assignedBy);
+}
@@ -0,0 +1,25 @@
+package com.grievance.repository;
+
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.grievance.model.Assignment;
+
+import reactor.core.publisher.Flux;
+
+public class AssignmentRepositoryCustomImpl implements AssignmentRepositoryCustom {
+
+	private final ReactiveMongoOperations mongoOperations;
+
+	public AssignmentRepositoryCustomImpl(ReactiveMongoOperations mongoOperations) {
+		this.mongoOperations = mongoOperations;
+	}
+
+	@Override
+	public Flux<String> findDistinctAssignedTo(String assignedBy) {
+		Query byOfficer = new Query(Criteria.where("assignedBy").is(assignedBy));
+		return mongoOperations.findDistinct(byOfficer, "assignedTo", Assignment.class, String.class)
+				.filter(caseWorkerId -> !caseWorkerId.isBlank());
+	}
+}
@@ -0,0 +1,66 @@
+package com.grievance.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceSortKey;
+import com.grievance.model.GrievanceSummary;
+
+// opaque keyset position (sortKey, sort value, _id) handed to clients as a url-safe token
+public final class GrievanceCursor {
+
+	private static final String SEPARATOR = "|";
+	private static final String NULL_VALUE = "-";
+
+	private final GrievanceSortKey sortKey;
+	private final LocalDateTime value;
+	private final String id;
+
+	private GrievanceCursor(GrievanceSortKey sortKey, LocalDateTime value, String id) {
+		this.sortKey = sortKey;
+		this.value = value;
+		this.id = id;
+	}
+
+	public static GrievanceCursor after(GrievanceSortKey sortKey, Grievance last) {
+		return new GrievanceCursor(sortKey, sortKey.valueOf(last), last.getId());
+	}
+
+	public static GrievanceCursor after(GrievanceSortKey sortKey, GrievanceSummary last) {
+		return new GrievanceCursor(sortKey, sortKey.valueOf(last), last.getId());
+	}
+
+	public static GrievanceCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|", 3);
+			if (parts.length != 3 || parts[2].isBlank()) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
+			LocalDateTime value = NULL_VALUE.equals(parts[1]) ? null : LocalDateTime.parse(parts[1]);
+			return new GrievanceCursor(GrievanceSortKey.valueOf(parts[0]), value, parts[2]);
+		} catch (IllegalArgumentException | DateTimeParseException ex) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+	}
+
+	public String encode() {
+		String raw = sortKey.name() + SEPARATOR + (value == null ? NULL_VALUE : value.toString()) + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public GrievanceSortKey getSortKey() {
+		return sortKey;
+	}
+
+	public LocalDateTime getValue() {
+		return value;
+	}
+
+	public String getId() {
+		return id;
+	}
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import com.grievance.model.Grievance;
 import com.grievance.model.GrievanceStatus;
@@ -11,7 +12,7 @@ import com.grievance.model.GrievanceStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface GrievanceRepository  extends ReactiveMongoRepository<Grievance, String> {
+public interface GrievanceRepository  extends ReactiveMongoRepository<Grievance, String>, GrievanceRepositoryCustom {
 	
 	Flux<Grievance> findByDepartmentId(String departmentId);
 
@@ -23,6 +24,9 @@ public interface GrievanceRepository  extends ReactiveMongoRepository<Grievance,
 	Mono<Grievance> findById(ObjectId objectId);
 
 	Flux<Grievance> findByAssignedWokerId(String assignedWokerId);
+
+	// values must already be normalized with AssigneeKeys
+	Flux<Grievance> findByAssigneeKeysIn(List<String> assigneeKeys);
 	
 	// for SLA
 	Flux<Grievance> findByStatusInAndAssignedAtBeforeAndEscalatedFalse(
@@ -30,4 +34,11 @@ public interface GrievanceRepository  extends ReactiveMongoRepository<Grievance,
 	        LocalDateTime time
 	    );
 
+	// members of a near-duplicate cluster, oldest first
+	Flux<Grievance> findByDuplicateOfOrderByCreatedAtAsc(String duplicateOf);
+
+	// seeds the in-memory SLA deadline queue; only the fields a deadline is computed from
+	@Query(fields = "{ '_id': 1, 'status': 1, 'assignedAt': 1, 'escalated': 1 }")
+	Flux<Grievance> findByStatusInAndEscalatedFalse(List<GrievanceStatus> statuses);
+
 }
@@ -0,0 +1,56 @@
+package com.grievance.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.grievance.model.EscalatedGrievanceView;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievancePage;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.model.GrievanceSummary;
+import com.grievance.request.GrievanceListRequest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// queries that derived repository methods cannot express
+public interface GrievanceRepositoryCustom {
+
+	// keyset page over the given filter, newest first by the requested sort key
+	Mono<GrievancePage<Grievance>> findPage(Criteria filter, GrievanceListRequest request);
+
+	// findPage reading only the fields the request's fields= selector names (see GrievanceSummary.fields), projected
+	// by Mongo; the sort key is always read too, the cursor needs it
+	Mono<GrievancePage<GrievanceSummary>> findSummaryPage(Criteria filter, GrievanceListRequest request);
+
+	// full-text search over descriptions within the filter, most relevant first (then newest _id); keyset paged on
+	// (text score, _id) with a GrievanceSearchCursor
+	Mono<GrievancePage<Grievance>> search(String text, Criteria filter, String cursor, Integer limit);
+
+	// field-level write guarded by the version the grievance was read with; bumps the version and emits the updated
+	// document, empty when another write changed it in the meantime
+	Mono<Grievance> updateIfVersion(Grievance expected, Update changes);
+
+	// sets the case worker only if the grievance is still unassigned (and in the department, when given);
+	// emits the document as it was before the update, empty when the precondition did not hold
+	Mono<Grievance> assignIfUnassigned(String grievanceId, String caseWorkerId, String departmentId, LocalDateTime assignedAt);
+
+	// bulk status change, one bulkWrite: each grievance is updated only if it is still at the version it was read with
+	// (as updateIfVersion); emits the ids this call updated
+	Flux<String> updateStatuses(Collection<Grievance> expected, GrievanceStatus status, LocalDateTime updatedAt);
+
+	// bulk assignIfUnassigned, one bulkWrite guarded per grievance by "still at the version it was read with" - the
+	// caller only passes ones it read unassigned; emits the ids this call assigned
+	Flux<String> assignAllIfUnassigned(Collection<Grievance> expected, String caseWorkerId, LocalDateTime assignedAt);
+
+	// escalates every grievance of the batch that is still open in one of the statuses, not escalated and assigned
+	// before the cutoff with one updateMany; emits only the rows this call escalated, not ones escalated elsewhere
+	Flux<Grievance> escalateOverdue(Collection<String> grievanceIds, List<GrievanceStatus> statuses, LocalDateTime assignedBefore);
+
+	// escalated grievances joined with their latest assignment in one aggregation; null department means all
+	Flux<EscalatedGrievanceView> findEscalatedViews(String departmentId);
+}
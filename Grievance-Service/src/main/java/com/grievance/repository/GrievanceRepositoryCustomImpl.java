@@ -0,0 +1,305 @@
+package com.grievance.repository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.grievance.model.AssigneeKeys;
+import com.grievance.model.EscalatedGrievanceView;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievancePage;
+import com.grievance.model.GrievanceSortKey;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.model.GrievanceSummary;
+import com.grievance.request.GrievanceListRequest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class GrievanceRepositoryCustomImpl implements GrievanceRepositoryCustom {
+
+	private static final String FIELD_ID = "id";
+	private static final String FIELD_STATUS = "status";
+	private static final String FIELD_WORKER = "assignedWokerId";
+	private static final String FIELD_ASSIGNEE_KEYS = "assigneeKeys";
+	private static final String FIELD_ESCALATED = "escalated";
+	private static final String FIELD_ESCALATED_AT = "escalatedAt";
+	private static final String FIELD_SCORE = "score";
+	// every write below bumps it, so a version-guarded write notices any change made in between
+	private static final String FIELD_VERSION = "version";
+	private static final String ASSIGNMENTS = "assignments";
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final int defaultPageSize;
+	private final int maxPageSize;
+
+	public GrievanceRepositoryCustomImpl(
+			ReactiveMongoOperations mongoOperations,
+			@Value("${grievance.pagination.default-size:50}") int defaultPageSize,
+			@Value("${grievance.pagination.max-size:200}") int maxPageSize) {
+		this.mongoOperations = mongoOperations;
+		this.defaultPageSize = defaultPageSize;
+		this.maxPageSize = maxPageSize;
+	}
+
+	@Override
+	public Mono<GrievancePage<Grievance>> findPage(Criteria filter, GrievanceListRequest request) {
+		GrievanceListRequest page = request != null ? request : GrievanceListRequest.firstPage();
+		GrievanceSortKey sortKey = GrievanceSortKey.from(page.getSort());
+		int limit = resolveLimit(page.getLimit());
+		return pageQuery(filter, page, sortKey, limit)
+				.flatMap(query -> mongoOperations.find(query, Grievance.class)
+						.collectList()
+						.map(rows -> toPage(rows, limit, last -> GrievanceCursor.after(sortKey, last))));
+	}
+
+	@Override
+	public Mono<GrievancePage<GrievanceSummary>> findSummaryPage(Criteria filter, GrievanceListRequest request) {
+		GrievanceListRequest page = request != null ? request : GrievanceListRequest.firstPage();
+		GrievanceSortKey sortKey = GrievanceSortKey.from(page.getSort());
+		int limit = resolveLimit(page.getLimit());
+		return pageQuery(filter, page, sortKey, limit)
+				.flatMap(query -> {
+					Set<String> fields = GrievanceSummary.fields(page.getFields());
+					fields.add(sortKey.getField());
+					query.fields().include(fields.toArray(String[]::new));
+					return mongoOperations.find(query, GrievanceSummary.class, mongoOperations.getCollectionName(Grievance.class))
+							.collectList()
+							.map(rows -> toPage(rows, limit, last -> GrievanceCursor.after(sortKey, last)));
+				});
+	}
+
+	@Override
+	public Mono<GrievancePage<Grievance>> search(String text, Criteria filter, String cursor, Integer limit) {
+		int pageSize = resolveLimit(limit);
+		List<AggregationOperation> stages = new ArrayList<>();
+		// $text has to be in the first stage; the other filters then only look at the text index's matches
+		stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(text)));
+		stages.add(Aggregation.match(filter));
+		stages.add(context -> new Document("$addFields", new Document(FIELD_SCORE, new Document("$meta", "textScore"))));
+		if (cursor != null && !cursor.isBlank()) {
+			GrievanceSearchCursor after = GrievanceSearchCursor.decode(cursor);
+			Object afterId = ObjectId.isValid(after.getId()) ? new ObjectId(after.getId()) : after.getId();
+			stages.add(context -> new Document("$match", new Document("$or", List.of(
+					new Document(FIELD_SCORE, new Document("$lt", after.getScore())),
+					new Document(FIELD_SCORE, after.getScore()).append("_id", new Document("$lt", afterId))))));
+		}
+		// $sort followed by $limit keeps only the top rows in memory, however many grievances match
+		stages.add(context -> new Document("$sort", new Document(FIELD_SCORE, -1).append("_id", -1)));
+		stages.add(Aggregation.limit(pageSize + 1L));
+		return mongoOperations.aggregate(Aggregation.newAggregation(Grievance.class, stages), Document.class)
+				.collectList()
+				.map(rows -> toSearchPage(rows, pageSize));
+	}
+
+	@Override
+	public Mono<Grievance> updateIfVersion(Grievance expected, Update changes) {
+		return mongoOperations.findAndModify(unchanged(expected), changes.inc(FIELD_VERSION, 1),
+				FindAndModifyOptions.options().returnNew(true), Grievance.class);
+	}
+
+	// matches the grievance only while it is still at the version it was read with
+	private static Query unchanged(Grievance expected) {
+		return new Query(Criteria.where(FIELD_ID).is(expected.getId()).and(FIELD_VERSION).is(expected.getVersion()));
+	}
+
+	@Override
+	public Mono<Grievance> assignIfUnassigned(String grievanceId, String caseWorkerId, String departmentId, LocalDateTime assignedAt) {
+		Criteria precondition = Criteria.where(FIELD_ID).is(grievanceId).and(FIELD_WORKER).is(null);
+		if (departmentId != null) {
+			// same case-insensitive department rule as the service; the _id match keeps this a single-document check
+			precondition = precondition.and("departmentId").regex("^" + Pattern.quote(departmentId) + "$", "i");
+		}
+		Update update = new Update()
+				.set(FIELD_WORKER, caseWorkerId)
+				.set(FIELD_ASSIGNEE_KEYS, AssigneeKeys.of(caseWorkerId))
+				.set("status", GrievanceStatus.ASSIGNED)
+				.set("assignedAt", assignedAt)
+				.set("updatedAt", assignedAt)
+				.inc(FIELD_VERSION, 1);
+		return mongoOperations.findAndModify(new Query(precondition), update,
+				FindAndModifyOptions.options().returnNew(false), Grievance.class);
+	}
+
+	@Override
+	public Flux<String> updateStatuses(Collection<Grievance> expected, GrievanceStatus status, LocalDateTime updatedAt) {
+		ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkMode.UNORDERED, Grievance.class);
+		expected.forEach(grievance -> bulk.updateOne(unchanged(grievance),
+				new Update().set(FIELD_STATUS, status).set("updatedAt", updatedAt).inc(FIELD_VERSION, 1)));
+		return executeAndReadBack(bulk, expected, Criteria.where("updatedAt").is(updatedAt));
+	}
+
+	@Override
+	public Flux<String> assignAllIfUnassigned(Collection<Grievance> expected, String caseWorkerId, LocalDateTime assignedAt) {
+		ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkMode.UNORDERED, Grievance.class);
+		Update update = new Update()
+				.set(FIELD_WORKER, caseWorkerId)
+				.set(FIELD_ASSIGNEE_KEYS, AssigneeKeys.of(caseWorkerId))
+				.set(FIELD_STATUS, GrievanceStatus.ASSIGNED)
+				.set("assignedAt", assignedAt)
+				.set("updatedAt", assignedAt)
+				.inc(FIELD_VERSION, 1);
+		expected.forEach(grievance -> bulk.updateOne(unchanged(grievance), update));
+		return executeAndReadBack(bulk, expected,
+				Criteria.where(FIELD_WORKER).is(caseWorkerId).and("assignedAt").is(assignedAt));
+	}
+
+	@Override
+	public Flux<Grievance> escalateOverdue(Collection<String> grievanceIds, List<GrievanceStatus> statuses, LocalDateTime assignedBefore) {
+		// Mongo keeps milliseconds, so the stamp has to be truncated for the read-back to match it exactly
+		LocalDateTime escalatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		Query overdue = new Query(Criteria.where(FIELD_ID).in(grievanceIds)
+				.and(FIELD_ESCALATED).is(false)
+				.and("status").in(statuses)
+				.and("assignedAt").lte(assignedBefore));
+		// pipeline update so the pre-escalation status can be copied before it is overwritten
+		AggregationUpdate escalate = AggregationUpdate.update()
+				.set("escalatedFrom").toValueOf(Fields.field("status"))
+				.set("status").toValue(GrievanceStatus.ESCALATED.name())
+				.set(FIELD_ESCALATED).toValue(true)
+				.set(FIELD_ESCALATED_AT).toValue(escalatedAt)
+				.set("updatedAt").toValue(escalatedAt)
+				// $inc is not a pipeline stage; documents written before versioning have no version yet
+				.set(FIELD_VERSION).toValue(ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull(FIELD_VERSION).then(0)).add(1));
+		Query escalatedHere = new Query(Criteria.where(FIELD_ID).in(grievanceIds).and(FIELD_ESCALATED_AT).is(escalatedAt));
+		return mongoOperations.updateMulti(overdue, escalate, Grievance.class)
+				.flatMapMany(result -> result.getModifiedCount() == 0
+						? Flux.empty()
+						: mongoOperations.find(escalatedHere, Grievance.class));
+	}
+
+	@Override
+	public Flux<EscalatedGrievanceView> findEscalatedViews(String departmentId) {
+		Criteria escalated = Criteria.where("status").is(GrievanceStatus.ESCALATED);
+		if (departmentId != null) {
+			escalated = escalated.and("departmentId").regex("^" + Pattern.quote(departmentId) + "$", "i");
+		}
+		// assignments reference the grievance by its hex id, and the lookup runs off the grievance_assigned index
+		Aggregation pipeline = Aggregation.newAggregation(
+				Aggregation.match(escalated),
+				context -> new Document("$addFields", new Document("grievanceKey", new Document("$toString", "$_id"))),
+				context -> new Document("$lookup", new Document("from", ASSIGNMENTS)
+						.append("localField", "grievanceKey")
+						.append("foreignField", "grievanceId")
+						.append("pipeline", List.of(
+								new Document("$sort", new Document("assignedAt", -1)),
+								new Document("$limit", 1)))
+						.append("as", "latest")),
+				context -> new Document("$project", new Document("_id", 0)
+						.append("grievanceId", "$grievanceKey")
+						.append("description", 1)
+						.append("departmentId", 1)
+						.append("status", 1)
+						// grievances assigned before assignments were recorded fall back to the worker on the document
+						.append("assignedTo", new Document("$ifNull", List.of(
+								new Document("$first", "$latest.assignedTo"), "$" + FIELD_WORKER)))
+						.append("assignedBy", new Document("$first", "$latest.assignedBy"))));
+		return mongoOperations.aggregate(pipeline, Grievance.class, EscalatedGrievanceView.class);
+	}
+
+	// a bulk write only reports counts: when some guards missed, the ids that were written are read back by the stamp
+	// the update left on them (callers truncate it to milliseconds, which is what Mongo keeps)
+	private Flux<String> executeAndReadBack(ReactiveBulkOperations bulk, Collection<Grievance> expected, Criteria writtenHere) {
+		List<String> ids = expected.stream().map(Grievance::getId).toList();
+		if (ids.isEmpty()) {
+			return Flux.empty();
+		}
+		return bulk.execute().flatMapMany(result -> {
+			if (result.getMatchedCount() == ids.size()) {
+				return Flux.fromIterable(ids);
+			}
+			if (result.getMatchedCount() == 0) {
+				return Flux.empty();
+			}
+			Query query = new Query(Criteria.where(FIELD_ID).in(ids).andOperator(writtenHere));
+			query.fields().include(FIELD_ID);
+			return mongoOperations.find(query, Grievance.class).map(Grievance::getId);
+		});
+	}
+
+	int resolveLimit(Integer requested) {
+		if (requested == null || requested <= 0) {
+			return Math.min(defaultPageSize, maxPageSize);
+		}
+		return Math.min(requested, maxPageSize);
+	}
+
+	// rows strictly after the cursor in (sortKey desc, _id desc) order; nulls sort last when descending
+	private Criteria after(GrievanceCursor cursor) {
+		String field = cursor.getSortKey().getField();
+		if (cursor.getValue() == null) {
+			return new Criteria().andOperator(
+					Criteria.where(field).is(null),
+					Criteria.where(FIELD_ID).lt(cursor.getId()));
+		}
+		return new Criteria().orOperator(
+				Criteria.where(field).lt(cursor.getValue()),
+				new Criteria().andOperator(
+						Criteria.where(field).is(cursor.getValue()),
+						Criteria.where(FIELD_ID).lt(cursor.getId())),
+				Criteria.where(field).is(null));
+	}
+
+	private GrievancePage<Grievance> toSearchPage(List<Document> rows, int limit) {
+		List<Grievance> items = rows.stream()
+				.limit(limit)
+				.map(row -> mongoOperations.getConverter().read(Grievance.class, row))
+				.toList();
+		if (rows.size() <= limit) {
+			return new GrievancePage<>(items, null);
+		}
+		Document last = rows.get(limit - 1);
+		String next = new GrievanceSearchCursor(((Number) last.get(FIELD_SCORE)).doubleValue(), String.valueOf(last.get("_id")))
+				.encode();
+		return new GrievancePage<>(items, next);
+	}
+
+	// the keyset query behind both page reads: filter, position after the cursor, (sortKey, _id) desc, one extra row
+	private Mono<Query> pageQuery(Criteria filter, GrievanceListRequest page, GrievanceSortKey sortKey, int limit) {
+		Criteria where = filter;
+		if (page.getCursor() != null && !page.getCursor().isBlank()) {
+			GrievanceCursor cursor = GrievanceCursor.decode(page.getCursor());
+			if (cursor.getSortKey() != sortKey) {
+				return Mono.error(new IllegalArgumentException("Cursor does not match sort " + sortKey.getField()));
+			}
+			where = new Criteria().andOperator(filter, after(cursor));
+		}
+		Query query = new Query(where);
+		// one extra row tells us whether another page exists without a count query
+		query.with(Sort.by(Sort.Direction.DESC, sortKey.getField(), FIELD_ID)).limit(limit + 1);
+		return Mono.just(query);
+	}
+
+	private <T> GrievancePage<T> toPage(List<T> rows, int limit, Function<T, GrievanceCursor> cursorAfter) {
+		if (rows.size() <= limit) {
+			return new GrievancePage<>(rows, null);
+		}
+		List<T> items = rows.subList(0, limit);
+		String next = cursorAfter.apply(items.get(items.size() - 1)).encode();
+		return new GrievancePage<>(List.copyOf(items), next);
+	}
+}
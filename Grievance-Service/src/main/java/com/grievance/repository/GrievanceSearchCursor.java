@@ -0,0 +1,45 @@
+package com.grievance.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// opaque keyset position of a search page: (text score, _id), both descending
+public final class GrievanceSearchCursor {
+
+	private static final String SEPARATOR = "|";
+
+	private final double score;
+	private final String id;
+
+	public GrievanceSearchCursor(double score, String id) {
+		this.score = score;
+		this.id = id;
+	}
+
+	public static GrievanceSearchCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|", 2);
+			if (parts.length != 2 || parts[1].isBlank()) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
+			return new GrievanceSearchCursor(Double.parseDouble(parts[0]), parts[1]);
+		} catch (IllegalArgumentException ex) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+	}
+
+	// Double.toString round-trips exactly, so the next page starts right after the last hit
+	public String encode() {
+		String raw = Double.toString(score) + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public String getId() {
+		return id;
+	}
+}
@@ -0,0 +1,13 @@
+package com.grievance.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.grievance.model.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+
+public interface OutboxRepository extends ReactiveMongoRepository<OutboxEvent, String> {
+
+	Flux<OutboxEvent> findByClaimTokenOrderByCreatedAtAsc(String claimToken);
+
+}
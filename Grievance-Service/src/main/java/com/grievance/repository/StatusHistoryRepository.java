@@ -4,9 +4,13 @@ import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import com.grievance.model.GrievanceHistory;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface StatusHistoryRepository  extends ReactiveMongoRepository<GrievanceHistory, String> {
 
 	Flux<GrievanceHistory> findByGrievanceIdOrderByUpdatedAtAsc(String grievanceId);
 
+	// newest entry, read backwards off the grievance_updated index
+	Mono<GrievanceHistory> findFirstByGrievanceIdOrderByUpdatedAtDesc(String grievanceId);
+
 }
@@ -0,0 +1,19 @@
+package com.grievance.request;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkAssignmentRequest {
+
+    @NotEmpty(message = "Grievance IDs are required")
+    @Size(max = 500, message = "At most 500 grievances per request")
+    private List<@NotBlank(message = "Grievance ID is required") String> grievanceIds;
+
+    @NotBlank(message = "Assigned To is required")
+    private String assignedTo;  // Case Worker ID
+}
@@ -0,0 +1,23 @@
+package com.grievance.request;
+
+import java.util.List;
+
+import com.grievance.model.GrievanceStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkStatusUpdateRequest {
+
+    @NotEmpty(message = "Grievance IDs are required")
+    @Size(max = 500, message = "At most 500 grievances per request")
+    private List<@NotBlank(message = "Grievance ID is required") String> grievanceIds;
+
+    @NotNull(message = "Status is required") // enum
+    private GrievanceStatus status;
+
+    private String remarks;
+}
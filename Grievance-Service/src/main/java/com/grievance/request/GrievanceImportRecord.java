@@ -0,0 +1,51 @@
+package com.grievance.request;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Data;
+
+// one legacy grievance from an import file (an NDJSON object or a CSV row); values stay raw strings so a bad
+// value is reported against its line instead of failing the decode of the whole stream
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GrievanceImportRecord {
+
+    private String citizenId;
+
+    private String citizenEmail;
+
+    private String departmentId;
+
+    private String categoryCode;
+
+    private String subCategoryCode;
+
+    private String description;
+
+    // defaults to SUBMITTED
+    private String status;
+
+    // ISO date or date-time; defaults to the import time
+    private String createdAt;
+
+    // CSV columns are matched to fields by header name, ignoring case; unknown columns are ignored
+    public static GrievanceImportRecord fromColumns(Map<String, String> columns) {
+        GrievanceImportRecord importRecord = new GrievanceImportRecord();
+        columns.forEach((name, value) -> {
+            switch (name.toLowerCase()) {
+                case "citizenid" -> importRecord.setCitizenId(value);
+                case "citizenemail" -> importRecord.setCitizenEmail(value);
+                case "departmentid" -> importRecord.setDepartmentId(value);
+                case "categorycode" -> importRecord.setCategoryCode(value);
+                case "subcategorycode" -> importRecord.setSubCategoryCode(value);
+                case "description" -> importRecord.setDescription(value);
+                case "status" -> importRecord.setStatus(value);
+                case "createdat" -> importRecord.setCreatedAt(value);
+                default -> { }
+            }
+        });
+        return importRecord;
+    }
+}
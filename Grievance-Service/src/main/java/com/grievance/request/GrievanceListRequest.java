@@ -0,0 +1,28 @@
+package com.grievance.request;
+
+import lombok.Data;
+
+@Data
+public class GrievanceListRequest {
+
+    // opaque cursor from the previous page's nextCursor
+    private String cursor;
+
+    // page size, capped server side
+    private Integer limit;
+
+    // createdAt (default) or updatedAt, newest first
+    private String sort;
+
+    // "summary" or a comma separated subset of GrievanceSummary.FIELDS; unset returns full grievances
+    private String fields;
+
+    // without cursor or limit a list endpoint returns everything, as it did before paging
+    public boolean isPaged() {
+        return cursor != null || limit != null;
+    }
+
+    public static GrievanceListRequest firstPage() {
+        return new GrievanceListRequest();
+    }
+}
@@ -0,0 +1,33 @@
+package com.grievance.request;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.grievance.model.GrievanceStatus;
+import lombok.Data;
+
+@Data
+public class GrievanceSearchRequest {
+
+    // words to look for in the description; "quoted phrases" and -excluded words follow Mongo $text syntax
+    private String q;
+
+    // optional filters; department officers and case workers are always limited to their own department
+    private String departmentId;
+
+    private GrievanceStatus status;
+
+    // creation date range, both ends inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    // opaque cursor from the previous page's nextCursor
+    private String cursor;
+
+    // page size, capped server side
+    private Integer limit;
+}
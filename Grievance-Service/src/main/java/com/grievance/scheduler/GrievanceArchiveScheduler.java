@@ -0,0 +1,40 @@
+package com.grievance.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.service.GrievanceArchive;
+
+import reactor.core.publisher.Mono;
+
+// periodic archival of cold closed grievances; runs are idempotent, so an interrupted one is finished by the next
+@Component
+public class GrievanceArchiveScheduler {
+
+	private static final Logger log = LoggerFactory.getLogger(GrievanceArchiveScheduler.class);
+
+	private final GrievanceArchive archive;
+
+	public GrievanceArchiveScheduler(GrievanceArchive archive) {
+		this.archive = archive;
+	}
+
+	@Scheduled(fixedDelayString = "${grievance.archive.interval:PT6H}", initialDelayString = "${grievance.archive.initial-delay:PT15M}")
+	public void archiveClosed() {
+		if (!archive.isEnabled() || archive.isRunning()) {
+			return;
+		}
+		archive.run()
+				// a stats rebuild is running: archival waits for the next run
+				.onErrorResume(ResponseStatusException.class, error -> {
+					log.info("Grievance archival skipped: {}", error.getReason());
+					return Mono.empty();
+				})
+				.doOnError(error -> log.error("Grievance archival failed, it resumes on the next run", error))
+				.onErrorResume(error -> Mono.empty())
+				.subscribe();
+	}
+}
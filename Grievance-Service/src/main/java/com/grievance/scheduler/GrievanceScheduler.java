@@ -1,57 +1,161 @@
 package com.grievance.scheduler;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.grievance.model.GrievanceStatus;
 import com.grievance.repository.GrievanceRepository;
 import com.grievance.service.GrievanceService;
+import com.grievance.service.SlaDeadlineQueue;
+import com.grievance.service.SlaShardLeases;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// SLA escalation engine: deadlines live in an in-memory queue and are fired when due by the instance
+// holding the lease for the grievance's shard; Mongo is only read at startup, on shard takeover and on resync
 @Component
 public class GrievanceScheduler {
 
-    private static final long CHECK_DELAY_MS = 10_000L; // run every 10 seconds
-	
 	private static final Logger log = LoggerFactory.getLogger(GrievanceScheduler.class);
+
 	private final GrievanceRepository grievanceRepository;
 	private final GrievanceService grievanceService;
+	private final SlaDeadlineQueue deadlines;
+	private final SlaShardLeases leases;
+	private final MeterRegistry meterRegistry;
+	private final int batchSize;
+	private final int concurrency;
+	private final Duration retryDelay;
+	private final AtomicBoolean firing = new AtomicBoolean();
 
-	public GrievanceScheduler(GrievanceRepository grievanceRepository, GrievanceService grievanceService) {
+	public GrievanceScheduler(
+			GrievanceRepository grievanceRepository,
+			GrievanceService grievanceService,
+			SlaDeadlineQueue deadlines,
+			SlaShardLeases leases,
+			MeterRegistry meterRegistry,
+			@Value("${grievance.sla.batch-size:100}") int batchSize,
+			@Value("${grievance.sla.concurrency:4}") int concurrency,
+			@Value("${grievance.sla.retry-delay:PT30S}") Duration retryDelay) {
 		this.grievanceRepository = grievanceRepository;
 		this.grievanceService = grievanceService;
+		this.deadlines = deadlines;
+		this.leases = leases;
+		this.meterRegistry = meterRegistry;
+		this.batchSize = batchSize;
+		this.concurrency = concurrency;
+		this.retryDelay = retryDelay;
+		meterRegistry.gauge("grievance.sla.deadlines", deadlines, SlaDeadlineQueue::size);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		leases.renew()
+				.then(resync())
+				.doOnError(error -> log.error("SLA engine startup failed", error))
+				.onErrorResume(error -> Mono.empty())
+				.subscribe();
+	}
+
+	// cheap when nothing is due: only the head of the queue is inspected
+	@Scheduled(fixedDelayString = "${grievance.sla.tick:PT1S}")
+	public void fireDueDeadlines() {
+		if (!firing.compareAndSet(false, true)) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		List<String> due = deadlines.pollDue(now, leases::owns, batchSize * concurrency);
+		if (due.isEmpty()) {
+			firing.set(false);
+			return;
+		}
+		long started = System.nanoTime();
+		// a backlog (e.g. after a holiday) goes out as a few bulk writes instead of a round trip per grievance
+		Flux.fromIterable(due)
+				.buffer(batchSize)
+				.flatMap(batch -> escalate(batch, now), concurrency)
+				.reduce(SweepResult.EMPTY, SweepResult::plus)
+				.doOnNext(result -> record(result, due.size(), System.nanoTime() - started))
+				.doFinally(signal -> firing.set(false))
+				.subscribe();
+	}
+
+	@Scheduled(fixedDelayString = "${grievance.sla.lease-renew-interval:PT10S}")
+	public void renewLeases() {
+		leases.renew()
+				.filter(gained -> gained > 0)
+				// a newly owned shard may hold deadlines this instance never saw assigned
+				.flatMap(gained -> resync())
+				.doOnError(error -> log.error("SLA lease renewal failed", error))
+				.onErrorResume(error -> Mono.empty())
+				.subscribe();
+	}
+
+	// safety net for deadlines set on other instances or missed events
+	@Scheduled(fixedDelayString = "${grievance.sla.resync-interval:PT5M}", initialDelayString = "${grievance.sla.resync-interval:PT5M}")
+	public void scheduledResync() {
+		resync().doOnError(error -> log.error("SLA deadline resync failed", error))
+				.onErrorResume(error -> Mono.empty())
+				.subscribe();
+	}
+
+	// only this instance's shards are kept; deadlines tracked while the read runs are newer than it and survive
+	Mono<Void> resync() {
+		return Mono.defer(() -> {
+			long mark = deadlines.mark();
+			return grievanceRepository.findByStatusInAndEscalatedFalse(SlaDeadlineQueue.SLA_STATUSES)
+					.filter(grievance -> leases.owns(grievance.getId()))
+					.collectList()
+					.doOnNext(open -> {
+						deadlines.replaceAll(open, mark);
+						log.info("SLA deadlines loaded: {} open grievances, {} owned shards", deadlines.size(), leases.ownedCount());
+					});
+		}).then();
+	}
+
+	private Mono<SweepResult> escalate(List<String> batch, LocalDateTime firedAt) {
+		return grievanceService.escalateOverdue(batch)
+				.count()
+				.map(escalated -> new SweepResult(escalated.intValue(), batch.size() - escalated.intValue(), 0))
+				.onErrorResume(error -> {
+					log.error("SLA escalation failed for a batch of {} grievances", batch.size(), error);
+					batch.forEach(grievanceId -> deadlines.schedule(grievanceId, firedAt.plus(retryDelay)));
+					return Mono.just(new SweepResult(0, 0, batch.size()));
+				});
+	}
+
+	private void record(SweepResult result, int due, long elapsedNanos) {
+		log.info("SLA sweep: due={} escalated={} skipped={} failed={} in {}ms", due, result.escalated(),
+				result.skipped(), result.failed(), Duration.ofNanos(elapsedNanos).toMillis());
+		count("escalated", result.escalated());
+		count("skipped", result.skipped());
+		count("failed", result.failed());
+		meterRegistry.summary("grievance.sla.sweep.size").record(due);
+		meterRegistry.timer("grievance.sla.sweep.duration").record(Duration.ofNanos(elapsedNanos));
+	}
+
+	private void count(String outcome, int amount) {
+		meterRegistry.counter("grievance.sla.escalations", "outcome", outcome).increment(amount);
+	}
+
+	// skipped: no longer overdue in Mongo (status changed, reassigned or escalated elsewhere)
+	private record SweepResult(int escalated, int skipped, int failed) {
+
+		static final SweepResult EMPTY = new SweepResult(0, 0, 0);
+
+		SweepResult plus(SweepResult other) {
+			return new SweepResult(escalated + other.escalated, skipped + other.skipped, failed + other.failed);
+		}
 	}
-	
-	 @Scheduled(fixedDelay = CHECK_DELAY_MS)
-	    public void checkSlaBreaches() {
-
-	        LocalDateTime threshold = LocalDateTime.now().minusDays(7);
-	        log.info("SLA check started. threshold={}", threshold);
-
-	        grievanceRepository
-	            .findByStatusInAndAssignedAtBeforeAndEscalatedFalse(
-	                List.of(
-	                    GrievanceStatus.ASSIGNED,
-	                    GrievanceStatus.IN_PROGRESS
-	                ),
-	                threshold
-	            )
-	            .doOnNext(grievance -> log.info("Escalating grievanceId={} status={} assignedAt={}",
-	                    grievance.getId(), grievance.getStatus(), grievance.getAssignedAt()))
-	            .flatMap(grievance ->
-	                grievanceService.escalateGrievance(
-	                    grievance.getId(),
-	                    "SYSTEM"
-	                )
-	            )
-	            .doOnNext(updated -> log.info("Escalated grievanceId={} status={} escalated={}",
-	                    updated.getId(), updated.getStatus(), updated.isEscalated()))
-	            .doOnError(error -> log.error("SLA escalation failed", error))
-	            .subscribe();
-	    }
-	}
-	
+}
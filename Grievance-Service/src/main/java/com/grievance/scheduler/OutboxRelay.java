@@ -0,0 +1,173 @@
+package com.grievance.scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.OutboxEvent;
+import com.grievance.repository.OutboxRepository;
+import com.grievance.service.GrievanceEventPublisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// polls the outbox and delivers pending events to Kafka at least once
+@Component
+public class OutboxRelay {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+	private static final String METRIC_RELAYED = "grievance.outbox.relayed";
+	private static final int MAX_ERROR_LENGTH = 500;
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final OutboxRepository outboxRepository;
+	private final GrievanceEventPublisher grievanceEventPublisher;
+	private final int batchSize;
+	private final Duration lease;
+	private final Duration retryDelay;
+	private final boolean enabled;
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private final Counter sent;
+	private final Counter failed;
+
+	public OutboxRelay(
+			ReactiveMongoOperations mongoOperations,
+			OutboxRepository outboxRepository,
+			GrievanceEventPublisher grievanceEventPublisher,
+			MeterRegistry meterRegistry,
+			@Value("${grievance.outbox.batch-size:100}") int batchSize,
+			@Value("${grievance.outbox.lease:PT30S}") Duration lease,
+			@Value("${grievance.outbox.retry-delay:PT5S}") Duration retryDelay,
+			@Value("${grievance.outbox.relay-enabled:true}") boolean enabled) {
+		this.mongoOperations = mongoOperations;
+		this.outboxRepository = outboxRepository;
+		this.grievanceEventPublisher = grievanceEventPublisher;
+		this.batchSize = batchSize;
+		this.lease = lease;
+		this.retryDelay = retryDelay;
+		this.enabled = enabled;
+		this.sent = Counter.builder(METRIC_RELAYED).tag("outcome", "sent").register(meterRegistry);
+		this.failed = Counter.builder(METRIC_RELAYED).tag("outcome", "failed").register(meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${grievance.outbox.poll-interval:PT1S}")
+	public void poll() {
+		if (!enabled || !running.compareAndSet(false, true)) {
+			return;
+		}
+		drain()
+				.doOnNext(count -> {
+					if (count > 0) {
+						log.debug("Relayed {} outbox events", count);
+					}
+				})
+				.doOnError(error -> log.warn("Outbox relay run failed", error))
+				.doFinally(signal -> running.set(false))
+				.subscribe();
+	}
+
+	// keeps claiming batches while they come back full
+	public Mono<Integer> drain() {
+		return relayBatch()
+				.expand(count -> count >= batchSize ? relayBatch() : Mono.empty())
+				.reduce(0, Integer::sum);
+	}
+
+	// claim, send and mark one batch; returns how many records were claimed
+	public Mono<Integer> relayBatch() {
+		String claimToken = UUID.randomUUID().toString();
+		return claim(claimToken)
+				.flatMapMany(claimed -> claimed == 0 ? Flux.empty() : outboxRepository.findByClaimTokenOrderByCreatedAtAsc(claimToken))
+				// sends are issued in createdAt order from one worker so the producer keeps per-grievance order,
+				// then all acknowledgements for the batch are awaited together
+				.publishOn(Schedulers.boundedElastic())
+				.flatMap(record -> grievanceEventPublisher.send(record)
+						.then(Mono.just(new Delivery(record, null)))
+						.onErrorResume(error -> Mono.just(new Delivery(record, error))), Math.max(batchSize, 1))
+				.collectList()
+				.flatMap(this::complete);
+	}
+
+	private Mono<Long> claim(String claimToken) {
+		LocalDateTime now = LocalDateTime.now();
+		Criteria claimable = Criteria.where("status").is(OutboxEvent.Status.PENDING).and("availableAt").lte(now);
+		Query candidates = new Query(claimable).with(Sort.by("availableAt")).limit(batchSize);
+		candidates.fields().include("id");
+		return mongoOperations.find(candidates, OutboxEvent.class)
+				.map(OutboxEvent::getId)
+				.collectList()
+				.flatMap(ids -> {
+					if (ids.isEmpty()) {
+						return Mono.just(0L);
+					}
+					// re-checks claimability so two relays racing on the same ids cannot both win a record
+					Query owned = new Query(Criteria.where("id").in(ids)
+							.and("status").is(OutboxEvent.Status.PENDING)
+							.and("availableAt").lte(now));
+					Update lock = new Update().set("claimToken", claimToken).set("availableAt", now.plus(lease));
+					return mongoOperations.updateMulti(owned, lock, OutboxEvent.class)
+							.map(result -> result.getModifiedCount());
+				});
+	}
+
+	private Mono<Integer> complete(List<Delivery> deliveries) {
+		if (deliveries.isEmpty()) {
+			return Mono.just(0);
+		}
+		List<String> delivered = deliveries.stream()
+				.filter(delivery -> delivery.error() == null)
+				.map(delivery -> delivery.record().getId())
+				.toList();
+
+		Mono<Void> markSent = delivered.isEmpty() ? Mono.empty()
+				: mongoOperations.updateMulti(
+						new Query(Criteria.where("id").in(delivered)),
+						new Update().set("status", OutboxEvent.Status.SENT)
+								.set("sentAt", LocalDateTime.now())
+								.unset("claimToken"),
+						OutboxEvent.class).then();
+
+		Mono<Void> reschedule = Flux.fromIterable(deliveries)
+				.filter(delivery -> delivery.error() != null)
+				.concatMap(this::reschedule)
+				.then();
+
+		sent.increment(delivered.size());
+		failed.increment(deliveries.size() - (double) delivered.size());
+		return markSent.then(reschedule).thenReturn(deliveries.size());
+	}
+
+	// failed sends go back to PENDING with a linear backoff
+	private Mono<Void> reschedule(Delivery delivery) {
+		OutboxEvent record = delivery.record();
+		log.warn("Outbox event {} for grievance {} not delivered (attempt {})",
+				record.getId(), record.getGrievanceId(), record.getAttempts() + 1, delivery.error());
+		String message = String.valueOf(delivery.error().getMessage());
+		Update retry = new Update()
+				.inc("attempts", 1)
+				.set("availableAt", LocalDateTime.now().plus(retryDelay.multipliedBy(record.getAttempts() + 1L)))
+				.set("lastError", message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message)
+				.unset("claimToken");
+		return mongoOperations.updateFirst(new Query(Criteria.where("id").is(record.getId())), retry, OutboxEvent.class).then();
+	}
+
+	private record Delivery(OutboxEvent record, Throwable error) {
+	}
+}
@@ -0,0 +1,285 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.BulkItemResult;
+import com.grievance.model.CaseWorkerWorkload;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.model.RoutingRunResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// automatic case-worker routing (grievance.routing.enabled, off by default). A new or department-reviewed grievance
+// goes to the department's least loaded case worker with a free slot, preferring one who has handled the
+// sub-category before; backlog runs serve the oldest unassigned grievances first. Assignments go through
+// GrievanceService, so the workload, history, outbox and SLA bookkeeping is the same as for a hand-picked worker.
+@Service
+public class CaseWorkerRouter {
+
+	private static final Logger log = LoggerFactory.getLogger(CaseWorkerRouter.class);
+	static final List<GrievanceStatus> ROUTABLE_STATUSES = List.of(GrievanceStatus.SUBMITTED, GrievanceStatus.DEPT_REVIEW);
+	private static final String ROLE_ADMIN = "ADMIN";
+	private static final String ROLE_DEPARTMENT_OFFICER = "DEPARTMENT_OFFICER";
+	private static final String FIELD_DEPARTMENT_ID = "departmentId";
+	private static final String FIELD_WORKER = "assignedWokerId";
+	private static final String FIELD_SUB_CATEGORY = "subCategoryCode";
+
+	private final GrievanceService grievanceService;
+	private final GrievanceBulkService grievanceBulkService;
+	private final ReactiveMongoOperations mongoOperations;
+	private final boolean enabled;
+	private final int capacity;
+	private final int batchSize;
+	private final int skillPreference;
+	private final Duration skillWindow;
+	private final long skillsTtlNanos;
+	private final AtomicBoolean backlogRunning = new AtomicBoolean();
+	private final ConcurrentHashMap<String, Skills> skillsByDepartment = new ConcurrentHashMap<>();
+
+	public CaseWorkerRouter(
+			GrievanceService grievanceService,
+			GrievanceBulkService grievanceBulkService,
+			ReactiveMongoOperations mongoOperations,
+			@Value("${grievance.routing.enabled:false}") boolean enabled,
+			@Value("${grievance.case-worker.capacity:1}") int capacity,
+			@Value("${grievance.routing.batch-size:5000}") int batchSize,
+			@Value("${grievance.routing.skill-preference:1}") int skillPreference,
+			@Value("${grievance.routing.skill-window:P180D}") Duration skillWindow,
+			@Value("${grievance.routing.skills-ttl:PT10M}") Duration skillsTtl) {
+		this.grievanceService = grievanceService;
+		this.grievanceBulkService = grievanceBulkService;
+		this.mongoOperations = mongoOperations;
+		this.enabled = enabled;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.skillPreference = skillPreference;
+		this.skillWindow = skillWindow;
+		this.skillsTtlNanos = skillsTtl.toNanos();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// routes one grievance that just entered a routable status; empty when it is not routable or nobody is free
+	public Mono<Grievance> route(String grievanceId) {
+		if (!enabled) {
+			return Mono.empty();
+		}
+		return mongoOperations.findById(grievanceId, Grievance.class)
+				.filter(CaseWorkerRouter::isRoutable)
+				.flatMap(grievance -> workerQueue(grievance.getDepartmentId())
+						.flatMap(queue -> Mono.justOrEmpty(queue.next(grievance.getSubCategoryCode())))
+						.flatMap(caseWorkerId -> grievanceService.assignAsSystem(grievanceId, caseWorkerId, grievance.getDepartmentId())))
+				// assigned by hand in the meantime, or the worker filled up: the next backlog run picks it up
+				.onErrorResume(ResponseStatusException.class, ex -> {
+					log.debug("Auto-routing skipped grievance {}: {}", grievanceId, ex.getReason());
+					return Mono.empty();
+				});
+	}
+
+	// one pass over the oldest unassigned grievances (all departments, or one): workers are picked in memory per
+	// department and each worker's share is assigned with one bulk assignment
+	public Mono<RoutingRunResult> routeBacklog(String role, String requesterDepartmentId, String departmentId) {
+		if (!enabled) {
+			return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Auto-routing is disabled"));
+		}
+		String scope = departmentId;
+		if (ROLE_DEPARTMENT_OFFICER.equalsIgnoreCase(role)) {
+			if (requesterDepartmentId == null || (departmentId != null && !requesterDepartmentId.equalsIgnoreCase(departmentId))) {
+				return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized for this department"));
+			}
+			scope = requesterDepartmentId;
+		} else if (!ROLE_ADMIN.equalsIgnoreCase(role)) {
+			return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+		}
+		if (!backlogRunning.compareAndSet(false, true)) {
+			return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "An auto-routing run is already in progress"));
+		}
+		return backlog(scope)
+				.collectList()
+				.flatMap(this::routeAll)
+				.doFinally(signal -> backlogRunning.set(false));
+	}
+
+	private Flux<Grievance> backlog(String departmentId) {
+		Criteria unassigned = Criteria.where("status").in(ROUTABLE_STATUSES).and(FIELD_WORKER).is(null);
+		if (departmentId != null) {
+			unassigned = unassigned.and(FIELD_DEPARTMENT_ID).is(departmentId);
+		} else {
+			unassigned = unassigned.and(FIELD_DEPARTMENT_ID).ne(null);
+		}
+		Query query = new Query(unassigned).with(Sort.by("createdAt", "_id")).limit(batchSize);
+		query.fields().include(FIELD_DEPARTMENT_ID, FIELD_SUB_CATEGORY, "createdAt");
+		return mongoOperations.find(query, Grievance.class);
+	}
+
+	private Mono<RoutingRunResult> routeAll(List<Grievance> backlog) {
+		Map<String, List<Grievance>> byDepartment = new LinkedHashMap<>();
+		backlog.forEach(grievance -> byDepartment.computeIfAbsent(grievance.getDepartmentId(), key -> new ArrayList<>()).add(grievance));
+		return Flux.fromIterable(byDepartment.entrySet())
+				.concatMap(department -> workerQueue(department.getKey())
+						.defaultIfEmpty(new WorkerQueue(List.of(), Map.of(), capacity, skillPreference))
+						.flatMap(queue -> routeDepartment(department.getKey(), queue, department.getValue())))
+				.reduce(new RoutingRunResult(), RoutingRunResult::add);
+	}
+
+	// the department's grievances arrive oldest first, so the longest waiting ones get the free slots
+	private Mono<RoutingRunResult> routeDepartment(String departmentId, WorkerQueue queue, List<Grievance> grievances) {
+		Map<String, List<String>> plan = new LinkedHashMap<>();
+		int unrouted = 0;
+		for (Grievance grievance : grievances) {
+			String caseWorkerId = queue.next(grievance.getSubCategoryCode());
+			if (caseWorkerId == null) {
+				unrouted++;
+			} else {
+				plan.computeIfAbsent(caseWorkerId, key -> new ArrayList<>()).add(grievance.getId());
+			}
+		}
+		RoutingRunResult unroutedResult = new RoutingRunResult(grievances.size(), 0, unrouted, 0);
+		return Flux.fromIterable(plan.entrySet())
+				.concatMap(share -> grievanceBulkService.bulkAssignAsSystem(share.getValue(), share.getKey(), departmentId))
+				.map(outcome -> outcome.getOutcome() == BulkItemResult.Outcome.UPDATED
+						? new RoutingRunResult(0, 1, 0, 0)
+						: new RoutingRunResult(0, 0, 0, 1))
+				.reduce(unroutedResult, RoutingRunResult::add);
+	}
+
+	private static boolean isRoutable(Grievance grievance) {
+		return ROUTABLE_STATUSES.contains(grievance.getStatus())
+				&& grievance.getAssignedWokerId() == null
+				&& grievance.getDepartmentId() != null;
+	}
+
+	// the department's workloads (one index-backed read) and who has handled which sub-category
+	private Mono<WorkerQueue> workerQueue(String departmentId) {
+		Query query = new Query(Criteria.where("departmentIds").is(departmentId));
+		query.fields().exclude("activeGrievanceIds");
+		return mongoOperations.find(query, CaseWorkerWorkload.class)
+				.collectList()
+				.zipWith(skills(departmentId))
+				.map(tuple -> new WorkerQueue(tuple.getT1(), tuple.getT2(), capacity, skillPreference));
+	}
+
+	// distinct (worker, sub-category) pairs of the department's recent grievances; cached, experience changes slowly
+	private Mono<Map<String, Set<String>>> skills(String departmentId) {
+		Skills cached = skillsByDepartment.get(departmentId);
+		if (cached != null && System.nanoTime() - cached.loadedAt() < skillsTtlNanos) {
+			return Mono.just(cached.bySubCategory());
+		}
+		Aggregation pipeline = Aggregation.newAggregation(
+				Aggregation.match(Criteria.where(FIELD_DEPARTMENT_ID).is(departmentId)
+						.and("createdAt").gte(LocalDateTime.now().minus(skillWindow))
+						.and(FIELD_WORKER).ne(null)),
+				Aggregation.group(FIELD_WORKER, FIELD_SUB_CATEGORY));
+		return mongoOperations.aggregate(pipeline, Grievance.class, Document.class)
+				.collect(HashMap<String, Set<String>>::new, (skills, row) -> {
+					Document pair = row.get("_id", Document.class);
+					String subCategory = pair.getString(FIELD_SUB_CATEGORY);
+					if (subCategory != null) {
+						skills.computeIfAbsent(subCategory, key -> new HashSet<>()).add(pair.getString(FIELD_WORKER));
+					}
+				})
+				.map(skills -> {
+					skillsByDepartment.put(departmentId, new Skills(Map.copyOf(skills), System.nanoTime()));
+					return (Map<String, Set<String>>) skills;
+				});
+	}
+
+	private record Skills(Map<String, Set<String>> bySubCategory, long loadedAt) {
+	}
+
+	// the department's case workers with a free slot, least loaded first; each sub-category has its own queue of
+	// the workers who handled it. A skilled worker wins unless they carry more than skillPreference extra grievances.
+	static final class WorkerQueue {
+
+		private static final Comparator<Candidate> BY_LOAD =
+				Comparator.comparingInt(Candidate::load).thenComparing(Candidate::caseWorkerId);
+
+		private final PriorityQueue<Candidate> all = new PriorityQueue<>(BY_LOAD);
+		private final Map<String, PriorityQueue<Candidate>> skilled = new HashMap<>();
+		private final int capacity;
+		private final int skillPreference;
+
+		WorkerQueue(List<CaseWorkerWorkload> workloads, Map<String, Set<String>> skills, int capacity, int skillPreference) {
+			this.capacity = capacity;
+			this.skillPreference = skillPreference;
+			for (CaseWorkerWorkload workload : workloads) {
+				Candidate candidate = new Candidate(workload.getCaseWorkerId(), workload.getActiveCount());
+				skills.forEach((subCategory, workers) -> {
+					if (workers.contains(candidate.caseWorkerId())) {
+						candidate.subCategories().add(subCategory);
+					}
+				});
+				offer(candidate);
+			}
+		}
+
+		// picks a worker for a grievance of the sub-category and counts the slot as taken; null when nobody is free
+		String next(String subCategory) {
+			Candidate least = all.peek();
+			if (least == null) {
+				return null;
+			}
+			PriorityQueue<Candidate> experts = subCategory != null ? skilled.get(subCategory) : null;
+			Candidate expert = experts != null ? experts.peek() : null;
+			Candidate pick = expert != null && expert.load() <= least.load() + skillPreference ? expert : least;
+			take(pick);
+			return pick.caseWorkerId();
+		}
+
+		private void take(Candidate candidate) {
+			all.remove(candidate);
+			candidate.subCategories().forEach(subCategory -> skilled.get(subCategory).remove(candidate));
+			Candidate loaded = candidate.plusOne();
+			offer(loaded);
+		}
+
+		private void offer(Candidate candidate) {
+			if (candidate.load() >= capacity) {
+				return;
+			}
+			all.add(candidate);
+			candidate.subCategories().forEach(subCategory ->
+					skilled.computeIfAbsent(subCategory, key -> new PriorityQueue<>(BY_LOAD)).add(candidate));
+		}
+	}
+
+	private record Candidate(String caseWorkerId, int load, Set<String> subCategories) {
+
+		Candidate(String caseWorkerId, int load) {
+			this(caseWorkerId, load, new HashSet<>());
+		}
+
+		Candidate plusOne() {
+			return new Candidate(caseWorkerId, load + 1, subCategories);
+		}
+	}
+}
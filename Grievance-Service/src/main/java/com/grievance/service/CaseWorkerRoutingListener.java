@@ -0,0 +1,73 @@
+package com.grievance.service;
+
+import java.time.Duration;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+// feeds grievances entering SUBMITTED or DEPT_REVIEW to the router; all instances share one consumer group, so
+// each event is routed once, and the outbox relay has already committed the write the event describes. Routing runs
+// off the consumer thread; a record's offset is acknowledged when its routing finishes (see KafkaConsumerConfig),
+// and max.poll.records bounds the routings in flight. Two events of one grievance may route concurrently - the
+// conditional assignment lets only one of them win
+@Component
+@ConditionalOnProperty(name = "grievance.routing.enabled", havingValue = "true")
+public class CaseWorkerRoutingListener {
+
+	private static final Logger log = LoggerFactory.getLogger(CaseWorkerRoutingListener.class);
+	private static final Duration ROUTE_TIMEOUT = Duration.ofSeconds(30);
+
+	private final CaseWorkerRouter router;
+	private final ObjectMapper objectMapper;
+
+	public CaseWorkerRoutingListener(CaseWorkerRouter router, ObjectMapper objectMapper) {
+		this.router = router;
+		this.objectMapper = objectMapper;
+	}
+
+	@KafkaListener(
+			topics = "grievance-events",
+			groupId = "grievance-routing",
+			containerPostProcessor = "routingContainerPostProcessor",
+			properties = {
+					"key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+					"value.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+					"max.poll.records=${grievance.routing.max-in-flight:50}" })
+	public void onGrievanceEvent(ConsumerRecord<String, String> record, Acknowledgment ack) {
+		if (!isRoutable(record)) {
+			ack.acknowledge();
+			return;
+		}
+		router.route(record.key())
+				.timeout(ROUTE_TIMEOUT)
+				// a missed event only delays the grievance until the next backlog run
+				.doOnError(ex -> log.warn("Auto-routing failed for grievance {}: {}", record.key(), ex.getMessage()))
+				.onErrorResume(ex -> Mono.empty())
+				.doFinally(signal -> ack.acknowledge())
+				.subscribe();
+	}
+
+	private boolean isRoutable(ConsumerRecord<String, String> record) {
+		if (record.key() == null || record.value() == null) {
+			return false;
+		}
+		try {
+			JsonNode event = objectMapper.readTree(record.value());
+			String eventType = event.path("eventType").asText();
+			return CaseWorkerRouter.ROUTABLE_STATUSES.stream().anyMatch(status -> status.name().equals(eventType));
+		} catch (Exception ex) {
+			log.warn("Unreadable grievance event {}: {}", record.key(), ex.getMessage());
+			return false;
+		}
+	}
+}
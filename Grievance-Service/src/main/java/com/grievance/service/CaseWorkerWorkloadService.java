@@ -0,0 +1,242 @@
+package com.grievance.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.CaseWorkerRosterEntry;
+import com.grievance.model.CaseWorkerWorkload;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// point lookups / conditional updates on case_worker_workload instead of scanning a worker's grievance history
+@Service
+public class CaseWorkerWorkloadService {
+
+	private static final Logger log = LoggerFactory.getLogger(CaseWorkerWorkloadService.class);
+	private static final String FIELD_ACTIVE_COUNT = "activeCount";
+	private static final String FIELD_ACTIVE_IDS = "activeGrievanceIds";
+	private static final String FIELD_DEPARTMENT_IDS = "departmentIds";
+	private static final int MAX_ACQUIRE_RETRIES = 3;
+	private static final String MSG_CASE_WORKER_BUSY = "Case worker already has an active assignment";
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final int capacity;
+	private final Counter releaseFailures;
+
+	public CaseWorkerWorkloadService(
+			ReactiveMongoOperations mongoOperations,
+			MeterRegistry meterRegistry,
+			@Value("${grievance.case-worker.capacity:1}") int capacity) {
+		this.mongoOperations = mongoOperations;
+		this.capacity = capacity;
+		this.releaseFailures = Counter.builder("grievance.workload.release.failed").register(meterRegistry);
+	}
+
+	// takes one slot for the grievance, or fails with 409 when the worker is at capacity.
+	// The capacity check and the increment are one findAndModify; when the record exists but is full the
+	// upsert collides on _id, which is how the database reports "no slot" atomically.
+	public Mono<CaseWorkerWorkload> acquire(String caseWorkerId, String grievanceId, String departmentId) {
+		Query query = new Query(Criteria.where("caseWorkerId").is(caseWorkerId)
+				.and(FIELD_ACTIVE_COUNT).lt(capacity)
+				.and(FIELD_ACTIVE_IDS).ne(grievanceId));
+		Update update = new Update()
+				.inc(FIELD_ACTIVE_COUNT, 1)
+				.addToSet(FIELD_ACTIVE_IDS, grievanceId)
+				.set("updatedAt", LocalDateTime.now());
+		addDepartment(update, departmentId);
+		return mongoOperations.findAndModify(query, update,
+						FindAndModifyOptions.options().upsert(true).returnNew(true), CaseWorkerWorkload.class)
+				.onErrorMap(DuplicateKeyException.class,
+						ex -> new ResponseStatusException(HttpStatus.CONFLICT, MSG_CASE_WORKER_BUSY));
+	}
+
+	// acquire for a batch: one conditional update takes as many free slots as the list needs, in list order, and emits
+	// the ids that hold one afterwards. The update is guarded by the count the slots were computed from; a concurrent
+	// change makes the upsert collide on _id and the slots are recomputed.
+	public Mono<List<String>> acquireAll(String caseWorkerId, List<String> grievanceIds, String departmentId) {
+		if (grievanceIds.isEmpty()) {
+			return Mono.just(List.of());
+		}
+		return Mono.defer(() -> find(caseWorkerId)
+						.defaultIfEmpty(new CaseWorkerWorkload())
+						.flatMap(current -> takeSlots(current, caseWorkerId, grievanceIds, departmentId)))
+				.retryWhen(Retry.max(MAX_ACQUIRE_RETRIES).filter(DuplicateKeyException.class::isInstance))
+				.onErrorMap(ex -> Exceptions.isRetryExhausted(ex) && ex.getCause() instanceof DuplicateKeyException,
+						ex -> new ResponseStatusException(HttpStatus.CONFLICT, MSG_CASE_WORKER_BUSY));
+	}
+
+	private Mono<List<String>> takeSlots(CaseWorkerWorkload current, String caseWorkerId, List<String> grievanceIds,
+			String departmentId) {
+		Set<String> held = current.getActiveGrievanceIds() != null ? current.getActiveGrievanceIds() : Set.of();
+		List<String> fresh = grievanceIds.stream()
+				.filter(id -> !held.contains(id))
+				.limit(Math.max(0, capacity - current.getActiveCount()))
+				.toList();
+		List<String> granted = grievanceIds.stream().filter(id -> held.contains(id) || fresh.contains(id)).toList();
+		if (fresh.isEmpty()) {
+			return Mono.just(granted);
+		}
+		Query query = new Query(Criteria.where("caseWorkerId").is(caseWorkerId)
+				.and(FIELD_ACTIVE_COUNT).is(current.getActiveCount()));
+		Update update = new Update()
+				.inc(FIELD_ACTIVE_COUNT, fresh.size())
+				.set("updatedAt", LocalDateTime.now());
+		update.addToSet(FIELD_ACTIVE_IDS).each(fresh.toArray());
+		addDepartment(update, departmentId);
+		return mongoOperations.findAndModify(query, update,
+						FindAndModifyOptions.options().upsert(true).returnNew(true), CaseWorkerWorkload.class)
+				.thenReturn(granted);
+	}
+
+	// a worker can handle grievances of several departments and is listed on each of their rosters
+	private static void addDepartment(Update update, String departmentId) {
+		if (departmentId != null) {
+			update.addToSet(FIELD_DEPARTMENT_IDS, departmentId);
+		}
+	}
+
+	// frees the slot held by the grievance; a no-op when it holds none
+	public Mono<Void> release(String caseWorkerId, String grievanceId) {
+		Query query = new Query(Criteria.where("caseWorkerId").is(caseWorkerId).and(FIELD_ACTIVE_IDS).is(grievanceId));
+		Update update = new Update()
+				.inc(FIELD_ACTIVE_COUNT, -1)
+				.pull(FIELD_ACTIVE_IDS, grievanceId)
+				.set("updatedAt", LocalDateTime.now());
+		return mongoOperations.updateFirst(query, update, CaseWorkerWorkload.class).then();
+	}
+
+	// hands back a slot taken for an assignment that did not happen. The caller's own error is what the client has
+	// to see, so a failure here is not passed on; it leaves the worker a slot short until the workload is rebuilt,
+	// which is why it is logged and counted
+	public Mono<Void> releaseUnused(String caseWorkerId, String grievanceId) {
+		return release(caseWorkerId, grievanceId)
+				.onErrorResume(ex -> {
+					releaseFailures.increment();
+					log.error("Could not free the slot case worker {} took for grievance {}", caseWorkerId, grievanceId, ex);
+					return Mono.empty();
+				});
+	}
+
+	// lists the worker under the department of a grievance assigned without a department scope (e.g. by an admin),
+	// where acquire could not be told the department
+	public Mono<Void> listUnder(String caseWorkerId, String departmentId) {
+		if (departmentId == null) {
+			return Mono.empty();
+		}
+		Update update = new Update().set("updatedAt", LocalDateTime.now());
+		addDepartment(update, departmentId);
+		return mongoOperations.updateFirst(new Query(Criteria.where("caseWorkerId").is(caseWorkerId)), update,
+				CaseWorkerWorkload.class).then();
+	}
+
+	// counts a completed grievance as active again (e.g. reopened); not capacity checked, the work already exists
+	public Mono<Void> reactivate(String caseWorkerId, String grievanceId, String departmentId) {
+		Query query = new Query(Criteria.where("caseWorkerId").is(caseWorkerId).and(FIELD_ACTIVE_IDS).ne(grievanceId));
+		Update update = new Update()
+				.inc(FIELD_ACTIVE_COUNT, 1)
+				.addToSet(FIELD_ACTIVE_IDS, grievanceId)
+				.set("updatedAt", LocalDateTime.now());
+		addDepartment(update, departmentId);
+		return mongoOperations.upsert(query, update, CaseWorkerWorkload.class)
+				// already tracked: the upsert collides with the existing record, nothing to do
+				.onErrorResume(DuplicateKeyException.class, ex -> Mono.empty())
+				.then();
+	}
+
+	// keeps the workload in step with a status change made by someone other than the assigner
+	public Mono<Void> onStatusChange(Grievance grievance, GrievanceStatus previous, GrievanceStatus next) {
+		if (grievance.getAssignedWokerId() == null || previous == next) {
+			return Mono.empty();
+		}
+		boolean wasActive = previous == null || !previous.isCompleted();
+		if (wasActive && next.isCompleted()) {
+			return release(grievance.getAssignedWokerId(), grievance.getId());
+		}
+		if (!wasActive && !next.isCompleted()) {
+			return reactivate(grievance.getAssignedWokerId(), grievance.getId(), grievance.getDepartmentId());
+		}
+		return Mono.empty();
+	}
+
+	public Mono<CaseWorkerWorkload> find(String caseWorkerId) {
+		return mongoOperations.findById(caseWorkerId, CaseWorkerWorkload.class);
+	}
+
+	// the department roster (every worker who has handled one of its grievances) in one index-backed read;
+	// the id list is left on the server
+	public Flux<CaseWorkerRosterEntry> roster(String departmentId) {
+		Query query = new Query(Criteria.where(FIELD_DEPARTMENT_IDS).is(departmentId))
+				.with(Sort.by("caseWorkerId"));
+		query.fields().exclude(FIELD_ACTIVE_IDS);
+		return mongoOperations.find(query, CaseWorkerWorkload.class)
+				.map(workload -> new CaseWorkerRosterEntry(workload.getCaseWorkerId(), workload.getActiveCount()));
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildIfEmpty() {
+		mongoOperations.estimatedCount(CaseWorkerWorkload.class)
+				.filter(count -> count == 0)
+				.flatMap(count -> rebuild())
+				.doOnError(ex -> log.warn("Case worker workload rebuild failed", ex))
+				.onErrorResume(ex -> Mono.empty())
+				.subscribe();
+	}
+
+	// recomputes every workload record from the grievances in one server-side pipeline; workers whose
+	// grievances are all completed keep a zero-count record so they stay on the department roster
+	public Mono<Void> rebuild() {
+		List<String> completed = Arrays.stream(GrievanceStatus.values())
+				.filter(GrievanceStatus::isCompleted)
+				.map(Enum::name)
+				.toList();
+		Document isActive = new Document("$not", List.of(new Document("$in", List.of("$status", completed))));
+		Aggregation pipeline = Aggregation.newAggregation(
+				Aggregation.match(Criteria.where("assignedWokerId").nin(Arrays.asList(null, ""))),
+				context -> new Document("$group", new Document("_id", "$assignedWokerId")
+						.append(FIELD_DEPARTMENT_IDS, new Document("$addToSet", "$departmentId"))
+						.append(FIELD_ACTIVE_COUNT, new Document("$sum", new Document("$cond", List.of(isActive, 1, 0))))
+						.append(FIELD_ACTIVE_IDS, new Document("$addToSet", new Document("$cond",
+								List.of(isActive, new Document("$toString", "$_id"), null))))
+						.append("updatedAt", new Document("$max", "$$NOW"))),
+				// completed grievances (and grievances without a department) contribute a null to the sets above
+				context -> new Document("$set", new Document(FIELD_ACTIVE_IDS,
+						new Document("$setDifference", List.of("$" + FIELD_ACTIVE_IDS, Arrays.asList((Object) null))))
+						.append(FIELD_DEPARTMENT_IDS,
+								new Document("$setDifference", List.of("$" + FIELD_DEPARTMENT_IDS, Arrays.asList((Object) null))))),
+				Aggregation.merge()
+						.intoCollection(mongoOperations.getCollectionName(CaseWorkerWorkload.class))
+						.whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+						.build());
+		return mongoOperations.aggregate(pipeline, Grievance.class, Document.class)
+				.then()
+				.doOnSuccess(ignored -> log.info("Case worker workload rebuilt from grievances"));
+	}
+}
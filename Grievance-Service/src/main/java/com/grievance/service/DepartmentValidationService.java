@@ -1,6 +1,6 @@
 package com.grievance.service;
 
-import com.grievance.client.DepartmentClient;
+import com.grievance.client.DepartmentCatalogCache;
 import com.grievance.exception.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
@@ -8,10 +8,10 @@ import reactor.core.publisher.Mono;
 @Service
 public class DepartmentValidationService {
 
-    private final DepartmentClient departmentClient;
+    private final DepartmentCatalogCache departmentCatalogCache;
 
-    public DepartmentValidationService(DepartmentClient departmentClient) {
-        this.departmentClient = departmentClient;
+    public DepartmentValidationService(DepartmentCatalogCache departmentCatalogCache) {
+        this.departmentCatalogCache = departmentCatalogCache;
     }
 
     // validating departments
@@ -20,7 +20,7 @@ public class DepartmentValidationService {
             String categoryCode,
             String subCategoryCode) {
 
-        return departmentClient
+        return departmentCatalogCache
                 .isValidDepartment(departmentCode, categoryCode, subCategoryCode)
                 .flatMap(valid -> {
                     if (!Boolean.TRUE.equals(valid)) {
@@ -0,0 +1,319 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.ArchiveRunResult;
+import com.grievance.model.Assignment;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// cold tier (grievance.archive.enabled, off by default): CLOSED grievances untouched for min-age leave the grievance,
+// status_history and assignments collections in batches and become one grievance_archive document each, with their
+// history and assignments embedded and no index but _id. Reads that miss the live collections fall through to it,
+// so archived grievances stay readable; they are no longer writable.
+@Service
+public class GrievanceArchive {
+
+	private static final Logger log = LoggerFactory.getLogger(GrievanceArchive.class);
+	static final String ARCHIVE_COLLECTION = "grievance_archive";
+	private static final String FIELD_ID = "_id";
+	private static final String FIELD_GRIEVANCE_ID = "grievanceId";
+	private static final String FIELD_STATUS = "status";
+	private static final String FIELD_UPDATED_AT = "updatedAt";
+	private static final String FIELD_HISTORY = "history";
+	private static final String FIELD_ASSIGNMENTS = "assignments";
+	// derived lookup keys and type hints are dead weight once a grievance is cold
+	private static final Set<String> DROPPED_FIELDS = Set.of(FIELD_ID, "_class", "assigneeKeys");
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final GrievanceTransactions transactions;
+	private final GrievanceStatsService grievanceStatsService;
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+	private final Duration minAge;
+	private final int batchSize;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final Map<String, AtomicLong> workingSetBytes = new ConcurrentHashMap<>();
+
+	@Autowired
+	public GrievanceArchive(
+			ReactiveMongoOperations mongoOperations,
+			GrievanceTransactions transactions,
+			GrievanceStatsService grievanceStatsService,
+			MeterRegistry meterRegistry,
+			@Value("${grievance.archive.enabled:false}") boolean enabled,
+			@Value("${grievance.archive.min-age:P365D}") Duration minAge,
+			@Value("${grievance.archive.batch-size:500}") int batchSize) {
+		this.mongoOperations = mongoOperations;
+		this.transactions = transactions;
+		this.grievanceStatsService = grievanceStatsService;
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.minAge = minAge;
+		this.batchSize = batchSize;
+	}
+
+	// no archive at all: reads find nothing, runs are refused; for tests and tools
+	public static GrievanceArchive disabled() {
+		return new GrievanceArchive(null, GrievanceTransactions.none(), null, new SimpleMeterRegistry(), false, Duration.ZERO, 1);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	// archived copy of a grievance, without the embedded history and assignments
+	public Mono<Grievance> findGrievance(String grievanceId) {
+		if (mongoOperations == null) {
+			return Mono.empty();
+		}
+		Query query = new Query(Criteria.where(FIELD_ID).is(grievanceId));
+		query.fields().exclude(FIELD_HISTORY, FIELD_ASSIGNMENTS);
+		return mongoOperations.findOne(query, Grievance.class, ARCHIVE_COLLECTION);
+	}
+
+	// archived status history, oldest first
+	public Flux<GrievanceHistory> findHistory(String grievanceId) {
+		if (mongoOperations == null) {
+			return Flux.empty();
+		}
+		Query query = new Query(Criteria.where(FIELD_ID).is(grievanceId));
+		query.fields().include(FIELD_HISTORY);
+		return mongoOperations.findOne(query, Document.class, ARCHIVE_COLLECTION)
+				.flatMapIterable(archived -> archived.getList(FIELD_HISTORY, Document.class, List.of()))
+				.map(entry -> {
+					GrievanceHistory history = mongoOperations.getConverter().read(GrievanceHistory.class, entry);
+					history.setGrievanceId(grievanceId);
+					return history;
+				});
+	}
+
+	// moves every grievance that is cold now, batch after batch, and reports the working set before and after.
+	// Archived grievances keep counting in grievance_stats (the rebuild scans the archive as well), but a grievance
+	// moved while a rebuild runs could be counted by both of its passes, so archival waits for rebuilds.
+	public Mono<ArchiveRunResult> run() {
+		if (!enabled) {
+			return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Archival is disabled"));
+		}
+		if (!running.compareAndSet(false, true)) {
+			return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "An archival run is already in progress"));
+		}
+		LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+		long started = System.nanoTime();
+		return grievanceStatsService.isRebuildPending()
+				.flatMap(pending -> pending
+						? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "A grievance stats rebuild is in progress"))
+						: workingSet())
+				.flatMap(before -> archiveBatch(cutoff)
+						// a short batch means the backlog is drained; anything reopened meanwhile waits for the next run
+						.expand(batch -> batch.getArchived() < batchSize ? Mono.empty() : archiveBatch(cutoff))
+						.reduce(new ArchiveRunResult(), ArchiveRunResult::add)
+						.zipWith(workingSet(), (result, after) -> {
+							result.setWorkingSetBefore(before);
+							result.setWorkingSetAfter(after);
+							return result;
+						}))
+				.doOnNext(result -> record(result, System.nanoTime() - started))
+				.doFinally(signal -> running.set(false));
+	}
+
+	// an empty result (which ends the run) once a stats rebuild has started in the meantime
+	Mono<ArchiveRunResult> archiveBatch(LocalDateTime cutoff) {
+		Query candidates = new Query(cold(new Criteria(), cutoff))
+				.with(Sort.by(FIELD_ID))
+				.limit(batchSize);
+		return grievanceStatsService.isRebuildPending()
+				.filter(pending -> !pending)
+				.flatMapMany(idle -> mongoOperations.find(candidates, Document.class, mongoOperations.getCollectionName(Grievance.class)))
+				.collectList()
+				.filter(grievances -> !grievances.isEmpty())
+				.flatMap(grievances -> {
+					List<Object> ids = grievances.stream().map(grievance -> grievance.get(FIELD_ID)).toList();
+					List<String> grievanceIds = ids.stream().map(Object::toString).toList();
+					return Mono.zip(
+							related(GrievanceHistory.class, grievanceIds, Sort.by(FIELD_GRIEVANCE_ID, FIELD_UPDATED_AT)),
+							related(Assignment.class, grievanceIds,
+									Sort.by(Sort.Order.asc(FIELD_GRIEVANCE_ID), Sort.Order.desc("assignedAt"))))
+							.flatMap(related -> copy(grievances, related.getT1(), related.getT2())
+									.then(release(ids, cutoff, related.getT1(), related.getT2())));
+				})
+				.defaultIfEmpty(new ArchiveRunResult());
+	}
+
+	private static Criteria cold(Criteria criteria, LocalDateTime cutoff) {
+		return criteria.and(FIELD_STATUS).is(GrievanceStatus.CLOSED.name()).and(FIELD_UPDATED_AT).lt(cutoff);
+	}
+
+	// entries of the batch's grievances, grouped by grievance
+	private Mono<Map<String, Collection<Document>>> related(Class<?> type, List<String> grievanceIds, Sort order) {
+		Query query = new Query(Criteria.where(FIELD_GRIEVANCE_ID).in(grievanceIds)).with(order);
+		return mongoOperations.find(query, Document.class, mongoOperations.getCollectionName(type))
+				.collectMultimap(entry -> entry.getString(FIELD_GRIEVANCE_ID));
+	}
+
+	// an entry as embedded in the archive document, without the fields that document implies
+	private static Document embedded(Document entry) {
+		Document embedded = new Document(entry);
+		embedded.remove(FIELD_GRIEVANCE_ID);
+		embedded.remove("_class");
+		return embedded;
+	}
+
+	// upserts that merge history and assignments into what is already archived, so a batch repeated after a crash,
+	// or run by two instances at once, never drops entries another pass already moved
+	private Mono<Void> copy(List<Document> grievances, Map<String, Collection<Document>> history,
+			Map<String, Collection<Document>> assignments) {
+		Date archivedAt = new Date();
+		ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkMode.UNORDERED, ARCHIVE_COLLECTION);
+		for (Document grievance : grievances) {
+			String grievanceId = grievance.get(FIELD_ID).toString();
+			Update update = new Update().set("archivedAt", archivedAt);
+			grievance.forEach((field, value) -> {
+				if (!DROPPED_FIELDS.contains(field)) {
+					update.set(field, value);
+				}
+			});
+			update.addToSet(FIELD_HISTORY).each(history.getOrDefault(grievanceId, List.of()).stream()
+					.map(GrievanceArchive::embedded).toArray());
+			update.addToSet(FIELD_ASSIGNMENTS).each(assignments.getOrDefault(grievanceId, List.of()).stream()
+					.map(GrievanceArchive::embedded).toArray());
+			bulk.upsert(new Query(Criteria.where(FIELD_ID).is(grievance.get(FIELD_ID))), update);
+		}
+		return bulk.execute().then();
+	}
+
+	// history and assignments go first, by the ids that were copied and only for grievances still closed and cold,
+	// then the grievances under the same condition. A run stopped in between leaves cold grievances without live
+	// entries; the next run picks them again (the copy merges, so nothing archived is lost) and reads find the
+	// entries in the archive meanwhile. A grievance reopened between the two steps gets its entries back, and the
+	// archived copy of any grievance that stays live is dropped.
+	private Mono<ArchiveRunResult> release(List<Object> ids, LocalDateTime cutoff,
+			Map<String, Collection<Document>> history, Map<String, Collection<Document>> assignments) {
+		String liveCollection = mongoOperations.getCollectionName(Grievance.class);
+		return transactions.execute(liveIds(cold(Criteria.where(FIELD_ID).in(ids), cutoff))
+				.flatMap(coldIds -> {
+					List<String> coldGrievanceIds = coldIds.stream().map(Object::toString).toList();
+					return transactions.writeAll(
+									removeEntries(GrievanceHistory.class, history, coldGrievanceIds),
+									removeEntries(Assignment.class, assignments, coldGrievanceIds))
+							.then(mongoOperations.remove(new Query(cold(Criteria.where(FIELD_ID).in(coldIds), cutoff)), liveCollection))
+							.then(liveIds(Criteria.where(FIELD_ID).in(coldIds)))
+							.flatMap(reopened -> {
+								List<String> reopenedIds = reopened.stream().map(Object::toString).toList();
+								List<String> moved = coldGrievanceIds.stream().filter(id -> !reopenedIds.contains(id)).toList();
+								List<Object> keptLive = ids.stream()
+										.filter(id -> !coldIds.contains(id) || reopened.contains(id))
+										.toList();
+								return transactions.writeAll(
+												restoreEntries(GrievanceHistory.class, history, reopenedIds),
+												restoreEntries(Assignment.class, assignments, reopenedIds),
+												keptLive.isEmpty()
+														? Mono.empty()
+														: mongoOperations.remove(new Query(Criteria.where(FIELD_ID).in(keptLive)), ARCHIVE_COLLECTION))
+										.thenReturn(new ArchiveRunResult(moved.size(), count(history, moved), count(assignments, moved)));
+							});
+				}));
+	}
+
+	private Mono<Set<Object>> liveIds(Criteria criteria) {
+		Query query = new Query(criteria);
+		query.fields().include(FIELD_ID);
+		return mongoOperations.find(query, Document.class, mongoOperations.getCollectionName(Grievance.class))
+				.map(grievance -> grievance.get(FIELD_ID))
+				.collect(HashSet::new, Set::add);
+	}
+
+	// by entry id, so entries written after the batch was read (e.g. on a reopen) are never touched
+	private Mono<Void> removeEntries(Class<?> type, Map<String, Collection<Document>> entries, List<String> grievanceIds) {
+		List<Object> entryIds = grievanceIds.stream()
+				.flatMap(id -> entries.getOrDefault(id, List.of()).stream())
+				.map(entry -> entry.get(FIELD_ID))
+				.toList();
+		if (entryIds.isEmpty()) {
+			return Mono.empty();
+		}
+		return mongoOperations.remove(new Query(Criteria.where(FIELD_ID).in(entryIds)), type).then();
+	}
+
+	private Mono<Void> restoreEntries(Class<?> type, Map<String, Collection<Document>> entries, List<String> grievanceIds) {
+		List<Document> restored = grievanceIds.stream()
+				.flatMap(id -> entries.getOrDefault(id, List.of()).stream())
+				.toList();
+		if (restored.isEmpty()) {
+			return Mono.empty();
+		}
+		return mongoOperations.insert(restored, mongoOperations.getCollectionName(type)).then();
+	}
+
+	private static int count(Map<String, Collection<Document>> entries, List<String> grievanceIds) {
+		return grievanceIds.stream().mapToInt(id -> entries.getOrDefault(id, List.of()).size()).sum();
+	}
+
+	// data plus index bytes of each live collection, i.e. what archiving is meant to shrink
+	private Mono<Map<String, Long>> workingSet() {
+		return Flux.just(Grievance.class, GrievanceHistory.class, Assignment.class)
+				.map(mongoOperations::getCollectionName)
+				.concatMap(collection -> mongoOperations.executeCommand(new Document("collStats", collection))
+						.map(stats -> bytes(stats, "size") + bytes(stats, "totalIndexSize"))
+						.onErrorReturn(0L)
+						.map(size -> Map.entry(collection, size)))
+				.collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new);
+	}
+
+	private static long bytes(Document stats, String field) {
+		Object value = stats.get(field);
+		return value instanceof Number number ? number.longValue() : 0L;
+	}
+
+	private void record(ArchiveRunResult result, long elapsedNanos) {
+		log.info("Grievance archival: archived={} history={} assignments={} in {}ms; working set {} -> {} bytes",
+				result.getArchived(), result.getHistoryEntries(), result.getAssignments(),
+				Duration.ofNanos(elapsedNanos).toMillis(), result.getWorkingSetBefore(), result.getWorkingSetAfter());
+		meterRegistry.counter("grievance.archive.moved", "kind", "grievances").increment(result.getArchived());
+		meterRegistry.counter("grievance.archive.moved", "kind", FIELD_HISTORY).increment(result.getHistoryEntries());
+		meterRegistry.counter("grievance.archive.moved", "kind", FIELD_ASSIGNMENTS).increment(result.getAssignments());
+		meterRegistry.timer("grievance.archive.run.duration").record(Duration.ofNanos(elapsedNanos));
+		result.getWorkingSetAfter().forEach((collection, size) -> workingSetBytes
+				.computeIfAbsent(collection, key -> meterRegistry.gauge("grievance.archive.working-set.bytes",
+						Tags.of("collection", key), new AtomicLong()))
+				.set(size));
+	}
+}
@@ -0,0 +1,261 @@
+package com.grievance.service;
+
+import com.grievance.model.BulkItemResult;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.repository.AssignmentRepository;
+import com.grievance.repository.GrievanceRepository;
+import com.grievance.repository.StatusHistoryRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// bulk variants of GrievanceService.updateStatus / assignGrievance for officers closing out or reassigning many
+// grievances at once: one $in read for the department check, one bulkWrite, one history insertMany and one outbox
+// insertMany. Every requested id gets an outcome; a failed check is reported for that id instead of failing the request.
+@Service
+public class GrievanceBulkService {
+
+	private static final String MSG_CASE_WORKER_FULL = "Case worker has no free slot for this grievance";
+	private static final String MSG_CHANGED_CONCURRENTLY = "Grievance changed while the bulk update ran, retry it";
+
+	private final GrievanceRepository grievanceRepository;
+	private final AssignmentRepository assignmentRepository;
+	private final StatusHistoryRepository statusHistoryRepository;
+	private final GrievanceEventPublisher grievanceEventPublisher;
+	private final GrievanceTransactions transactions;
+	private final CaseWorkerWorkloadService caseWorkerWorkloadService;
+	private final SlaDeadlineQueue slaDeadlineQueue;
+	private final GrievanceStatsService grievanceStatsService;
+	private final GrievanceCache grievanceCache;
+	private final RequestCoalescer requestCoalescer;
+	private final GrievanceDuplicateIndex duplicateIndex;
+
+	public GrievanceBulkService(
+			GrievanceRepository grievanceRepository,
+			AssignmentRepository assignmentRepository,
+			StatusHistoryRepository statusHistoryRepository,
+			GrievanceEventPublisher grievanceEventPublisher,
+			GrievanceTransactions transactions,
+			CaseWorkerWorkloadService caseWorkerWorkloadService,
+			SlaDeadlineQueue slaDeadlineQueue,
+			GrievanceStatsService grievanceStatsService,
+			GrievanceCache grievanceCache,
+			RequestCoalescer requestCoalescer,
+			GrievanceDuplicateIndex duplicateIndex) {
+		this.grievanceRepository = grievanceRepository;
+		this.assignmentRepository = assignmentRepository;
+		this.statusHistoryRepository = statusHistoryRepository;
+		this.grievanceEventPublisher = grievanceEventPublisher;
+		this.transactions = transactions;
+		this.caseWorkerWorkloadService = caseWorkerWorkloadService;
+		this.slaDeadlineQueue = slaDeadlineQueue;
+		this.grievanceStatsService = grievanceStatsService;
+		this.grievanceCache = grievanceCache;
+		this.requestCoalescer = requestCoalescer;
+		this.duplicateIndex = duplicateIndex;
+	}
+
+	public Flux<BulkItemResult> bulkUpdateStatus(List<String> grievanceIds, GrievanceStatus status, String updatedBy, String remarks, String requesterRole, String requesterDepartmentId) {
+
+		if (GrievanceService.isDepartmentRestrictedRole(requesterRole) && requesterDepartmentId == null) {
+			return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, GrievanceService.MSG_UNAUTHORIZED_DEPT));
+		}
+		// truncated to what Mongo keeps, so the repository can read back which guards held
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		String departmentScope = GrievanceService.isDepartmentRestrictedRole(requesterRole) ? requesterDepartmentId : null;
+
+		return loadBulkBatch(grievanceIds, departmentScope).flatMapMany(batch -> {
+			Map<String, Grievance> pending = batch.allowed();
+			Map<String, GrievanceStatus> previous = new HashMap<>();
+			pending.forEach((id, grievance) -> previous.put(id, grievance.getStatus()));
+
+			return transactions.execute(grievanceRepository.updateStatuses(pending.values(), status, now)
+					.map(pending::get)
+					.collectList()
+					.flatMap(updated -> {
+						updated.forEach(grievance -> {
+							grievance.setStatus(status);
+							grievance.setUpdatedAt(now);
+							grievance.setVersion(GrievanceService.nextVersion(grievance));
+						});
+						if (updated.isEmpty()) {
+							return Mono.just(updated);
+						}
+						return transactions.writeAll(
+										Mono.defer(() -> Flux.fromIterable(updated)
+												.concatMap(grievance -> caseWorkerWorkloadService.onStatusChange(grievance,
+														previous.get(grievance.getId()), status))
+												.then()),
+										Mono.defer(() -> statusHistoryRepository.saveAll(updated.stream()
+												.map(grievance -> GrievanceService.statusHistory(grievance.getId(), status, updatedBy, remarks))
+												.toList()).then()),
+										Mono.defer(() -> grievanceEventPublisher.publishStatusChanges(updated, status, remarks)))
+								.thenReturn(updated);
+					}))
+					.flatMap(updated -> grievanceStatsService.onStatusChange(updated, grievance -> previous.get(grievance.getId()), status)
+							.thenReturn(updated))
+					.doOnNext(updated -> updated.forEach(duplicateIndex::onStatusChange))
+					.doOnNext(this::afterBulkWrite)
+					.flatMapIterable(updated -> batch.outcomes(updated));
+		});
+	}
+
+	public Flux<BulkItemResult> bulkAssign(List<String> grievanceIds, String assignedBy, String assignedTo, String requesterRole, String requesterDepartmentId) {
+
+		if (GrievanceService.isDepartmentRestrictedRole(requesterRole) && requesterDepartmentId == null) {
+			return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, GrievanceService.MSG_UNAUTHORIZED_DEPT));
+		}
+		return assignAll(grievanceIds, assignedBy, assignedTo, GrievanceService.isDepartmentRestrictedRole(requesterRole) ? requesterDepartmentId : null);
+	}
+
+	// bulk GrievanceService.assignAsSystem: a backlog routing run's share for one case worker of the department
+	public Flux<BulkItemResult> bulkAssignAsSystem(List<String> grievanceIds, String assignedTo, String departmentId) {
+		return assignAll(grievanceIds, GrievanceService.SYSTEM_ACTOR, assignedTo, departmentId);
+	}
+
+	private Flux<BulkItemResult> assignAll(List<String> grievanceIds, String assignedBy, String assignedTo, String departmentScope) {
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+		return loadBulkBatch(grievanceIds, departmentScope).flatMapMany(batch -> {
+			// already assigned ones are reported without a write, as GrievanceService.explainFailedAssign does for a single one
+			batch.allowed().values().stream()
+					.filter(grievance -> grievance.getAssignedWokerId() != null)
+					.toList()
+					.forEach(grievance -> batch.reject(grievance.getId(), BulkItemResult.Outcome.CONFLICT,
+							"Grievance already assigned to " + grievance.getAssignedWokerId()));
+			Map<String, Grievance> pending = batch.allowed();
+			List<String> pendingIds = List.copyOf(pending.keySet());
+			if (pendingIds.isEmpty()) {
+				return Flux.fromIterable(batch.outcomes(List.of()));
+			}
+			String workloadDepartment = departmentScope != null ? departmentScope : pending.get(pendingIds.get(0)).getDepartmentId();
+
+			// slots first, as GrievanceService.assignGrievance does: only grievances the worker has room for are written
+			return transactions.execute(caseWorkerWorkloadService.acquireAll(assignedTo, pendingIds, workloadDepartment)
+					.flatMap(granted -> {
+						pendingIds.stream().filter(id -> !granted.contains(id))
+								.forEach(id -> batch.reject(id, BulkItemResult.Outcome.CONFLICT, MSG_CASE_WORKER_FULL));
+						return grievanceRepository.assignAllIfUnassigned(granted.stream().map(pending::get).toList(), assignedTo, now)
+								.collectList()
+								.onErrorResume(ex -> releaseUnused(assignedTo, granted).then(Mono.error(ex)))
+								// ones changed since they were read keep their slot only until here
+								.flatMap(assignedIds -> releaseUnused(assignedTo, granted.stream()
+										.filter(id -> !assignedIds.contains(id)).toList())
+										.thenReturn(assignedIds));
+					})
+					.flatMap(assignedIds -> {
+						List<Grievance> assigned = assignedIds.stream()
+								.map(id -> GrievanceService.assignedCopy(pending.get(id), assignedTo, now))
+								.toList();
+						if (assigned.isEmpty()) {
+							return Mono.just(assigned);
+						}
+						return transactions.writeAll(
+										Mono.defer(() -> assignmentRepository.saveAll(assigned.stream()
+												.map(grievance -> GrievanceService.assignment(grievance.getId(), assignedBy, assignedTo, now))
+												.toList()).then()),
+										Mono.defer(() -> statusHistoryRepository.saveAll(assigned.stream()
+												.map(grievance -> GrievanceService.statusHistory(grievance.getId(), GrievanceStatus.ASSIGNED,
+														assignedBy, "Assigned to case worker"))
+												.toList()).then()),
+										Mono.defer(() -> grievanceEventPublisher.publishStatusChanges(assigned,
+												GrievanceStatus.ASSIGNED, "Assigned to case worker " + assignedTo)))
+								.thenReturn(assigned);
+					}))
+					.flatMap(assigned -> grievanceStatsService.onAssigned(assigned,
+							grievance -> pending.get(grievance.getId()).getStatus()).thenReturn(assigned))
+					.doOnNext(this::afterBulkWrite)
+					.flatMapIterable(assigned -> batch.outcomes(assigned));
+		});
+	}
+
+	// the one $in read behind the bulk operations; unknown ids and ones outside the department scope (when there is
+	// one) are rejected here and never reach the write
+	private Mono<BulkBatch> loadBulkBatch(List<String> grievanceIds, String departmentScope) {
+		List<String> ids = grievanceIds.stream().distinct().toList();
+		return grievanceRepository.findAllById(ids)
+				.collectMap(Grievance::getId)
+				.map(found -> {
+					BulkBatch batch = new BulkBatch(ids);
+					for (String id : ids) {
+						Grievance grievance = found.get(id);
+						if (grievance == null) {
+							batch.reject(id, BulkItemResult.Outcome.NOT_FOUND, GrievanceService.MSG_GRIEVANCE_NOT_FOUND);
+						} else if (departmentScope != null && !GrievanceService.isSameDepartment(departmentScope, grievance.getDepartmentId())) {
+							batch.reject(id, BulkItemResult.Outcome.UNAUTHORIZED, GrievanceService.MSG_UNAUTHORIZED_DEPT);
+						} else {
+							batch.allow(grievance);
+						}
+					}
+					return batch;
+				});
+	}
+
+	// hands back slots acquired for a bulk assignment that did not write these grievances
+	private Mono<Void> releaseUnused(String caseWorkerId, List<String> grievanceIds) {
+		return Flux.fromIterable(grievanceIds)
+				.concatMap(id -> caseWorkerWorkloadService.releaseUnused(caseWorkerId, id))
+				.then();
+	}
+
+	private void afterBulkWrite(List<Grievance> written) {
+		written.forEach(grievance -> {
+			evict(grievance.getId());
+			slaDeadlineQueue.track(grievance);
+		});
+	}
+
+	// after a write: drop the cached copy and the coalesced history read, as GrievanceService.evict does
+	private void evict(String grievanceId) {
+		grievanceCache.invalidate(grievanceId);
+		requestCoalescer.forget(GrievanceService.OPERATION_HISTORY, grievanceId);
+	}
+
+	// per-request bookkeeping of a bulk operation: the grievances still in play and the outcome of the ones already
+	// decided; ids neither rejected nor written lost a guard to a concurrent change
+	private static final class BulkBatch {
+
+		private final List<String> requestedIds;
+		private final Map<String, Grievance> allowed = new LinkedHashMap<>();
+		private final Map<String, BulkItemResult> rejected = new HashMap<>();
+
+		private BulkBatch(List<String> requestedIds) {
+			this.requestedIds = requestedIds;
+		}
+
+		void allow(Grievance grievance) {
+			allowed.put(grievance.getId(), grievance);
+		}
+
+		void reject(String grievanceId, BulkItemResult.Outcome outcome, String message) {
+			allowed.remove(grievanceId);
+			rejected.put(grievanceId, new BulkItemResult(grievanceId, outcome, message));
+		}
+
+		Map<String, Grievance> allowed() {
+			return allowed;
+		}
+
+		List<BulkItemResult> outcomes(List<Grievance> written) {
+			Set<String> writtenIds = new HashSet<>();
+			written.forEach(grievance -> writtenIds.add(grievance.getId()));
+			return requestedIds.stream()
+					.map(id -> rejected.containsKey(id) ? rejected.get(id)
+							: writtenIds.contains(id) ? BulkItemResult.updated(id)
+							: new BulkItemResult(id, BulkItemResult.Outcome.CONFLICT, MSG_CHANGED_CONCURRENTLY))
+					.toList();
+		}
+	}
+}
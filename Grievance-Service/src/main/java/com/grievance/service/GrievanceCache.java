@@ -0,0 +1,139 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.Grievance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+// read-through cache in front of findById for GET /{id}; bounded by size (least recently read goes first) and by a
+// TTL that caps how long a change made on another instance can go unseen. Writers invalidate after they commit.
+// Misses for the same id are coalesced into one findById.
+@Component
+public class GrievanceCache {
+
+	private static final String METRIC_REQUESTS = "grievance.cache.requests";
+	private static final String METRIC_EVICTIONS = "grievance.cache.evictions";
+	static final String OPERATION_LOAD = "getById";
+
+	private final RequestCoalescer requestCoalescer;
+	private final int maxSize;
+	private final long ttlNanos;
+	// access-ordered, guarded by this
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	// bumped by every invalidation; a load that overlapped one is not cached, as it may have read the old version
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictedBySize;
+	private final Counter evictedByTtl;
+	private final Counter evictedByWrite;
+
+	@Autowired
+	public GrievanceCache(
+			MeterRegistry meterRegistry,
+			RequestCoalescer requestCoalescer,
+			@Value("${grievance.cache.max-size:10000}") int maxSize,
+			@Value("${grievance.cache.ttl:PT30S}") Duration ttl) {
+		this.requestCoalescer = requestCoalescer;
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl.toNanos();
+		this.hits = Counter.builder(METRIC_REQUESTS).tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder(METRIC_REQUESTS).tag("result", "miss").register(meterRegistry);
+		this.evictedBySize = Counter.builder(METRIC_EVICTIONS).tag("cause", "size").register(meterRegistry);
+		this.evictedByTtl = Counter.builder(METRIC_EVICTIONS).tag("cause", "expired").register(meterRegistry);
+		this.evictedByWrite = Counter.builder(METRIC_EVICTIONS).tag("cause", "invalidated").register(meterRegistry);
+		Gauge.builder("grievance.cache.size", this, GrievanceCache::size).register(meterRegistry);
+		Gauge.builder("grievance.cache.hit.ratio", this, GrievanceCache::hitRatio).register(meterRegistry);
+	}
+
+	// pass-through variant for tests and tools
+	public static GrievanceCache disabled() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		return new GrievanceCache(meterRegistry, new RequestCoalescer(meterRegistry), 0, Duration.ZERO);
+	}
+
+	public Mono<Grievance> get(String grievanceId, Function<String, Mono<Grievance>> loader) {
+		Grievance cached = lookup(grievanceId);
+		if (cached != null) {
+			hits.increment();
+			return Mono.just(cached);
+		}
+		misses.increment();
+		long seen = invalidations.get();
+		return requestCoalescer.coalesce(OPERATION_LOAD, grievanceId, () -> loader.apply(grievanceId))
+				.doOnNext(loaded -> store(loaded, seen));
+	}
+
+	public void invalidate(String grievanceId) {
+		invalidations.incrementAndGet();
+		requestCoalescer.forget(OPERATION_LOAD, grievanceId);
+		synchronized (this) {
+			if (entries.remove(grievanceId) != null) {
+				evictedByWrite.increment();
+			}
+		}
+	}
+
+	public void invalidateAll(Collection<Grievance> grievances) {
+		grievances.forEach(grievance -> invalidate(grievance.getId()));
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private synchronized Grievance lookup(String grievanceId) {
+		Entry entry = entries.get(grievanceId);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.expiresAt() - System.nanoTime() <= 0) {
+			entries.remove(grievanceId);
+			evictedByTtl.increment();
+			return null;
+		}
+		return entry.grievance();
+	}
+
+	private void store(Grievance grievance, long seenInvalidations) {
+		if (maxSize <= 0 || grievance.getId() == null) {
+			return;
+		}
+		synchronized (this) {
+			if (invalidations.get() != seenInvalidations) {
+				return;
+			}
+			entries.put(grievance.getId(), new Entry(grievance, System.nanoTime() + ttlNanos));
+			Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+			while (entries.size() > maxSize && eldest.hasNext()) {
+				eldest.next();
+				eldest.remove();
+				evictedBySize.increment();
+			}
+		}
+	}
+
+	private double hitRatio() {
+		double total = hits.count() + misses.count();
+		return total == 0 ? 0 : hits.count() / total;
+	}
+
+	private record Entry(Grievance grievance, long expiresAt) {
+	}
+}
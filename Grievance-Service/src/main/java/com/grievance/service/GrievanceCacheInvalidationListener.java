@@ -0,0 +1,35 @@
+package com.grievance.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+// drops cached grievances changed on other instances as soon as their outbox event is relayed, instead of waiting
+// for the TTL; every instance joins its own consumer group so each one sees every event. The group is named after the
+// instance (grievance.cache.instance-id, the container hostname by default) so a restart rejoins it rather than
+// leaving an orphaned group behind
+@Component
+@ConditionalOnProperty(name = "grievance.cache.kafka-invalidation", havingValue = "true")
+public class GrievanceCacheInvalidationListener {
+
+	private final GrievanceCache grievanceCache;
+
+	public GrievanceCacheInvalidationListener(GrievanceCache grievanceCache) {
+		this.grievanceCache = grievanceCache;
+	}
+
+	// events are keyed by grievance id, so the payload does not need to be read
+	@KafkaListener(
+			topics = "grievance-events",
+			groupId = "grievance-cache-${grievance.cache.instance-id}",
+			properties = {
+					"auto.offset.reset=latest",
+					"key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+					"value.deserializer=org.apache.kafka.common.serialization.StringDeserializer" })
+	public void onGrievanceEvent(ConsumerRecord<String, String> record) {
+		if (record.key() != null) {
+			grievanceCache.invalidate(record.key());
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+// near-duplicate detection for new grievances: a MinHash signature of the description's word shingles, looked up in
+// an in-memory LSH index of recent open grievances per (department, sub-category). Duplicates are linked to the
+// cluster's first grievance through Grievance.duplicateOf. Each instance indexes what it sees plus a startup
+// warm-up, so a duplicate filed on another instance in the meantime is missed, never mislinked.
+@Component
+public class GrievanceDuplicateIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(GrievanceDuplicateIndex.class);
+	static final int SIGNATURE_SIZE = 64;
+	// 16 bands of 4 rows: pairs at 0.7 similarity collide in some band with ~99% probability, pairs at 0.3 ~12%
+	private static final int ROWS_PER_BAND = 4;
+	private static final int BANDS = SIGNATURE_SIZE / ROWS_PER_BAND;
+	private static final int SHINGLE_WORDS = 2;
+	private static final long[] SEEDS = seeds();
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final boolean enabled;
+	private final double threshold;
+	private final Duration window;
+	private final int maxPerGroup;
+	private final Counter detected;
+	private final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<>();
+
+	@Autowired
+	public GrievanceDuplicateIndex(
+			ReactiveMongoOperations mongoOperations,
+			MeterRegistry meterRegistry,
+			@Value("${grievance.duplicates.enabled:true}") boolean enabled,
+			@Value("${grievance.duplicates.threshold:0.7}") double threshold,
+			@Value("${grievance.duplicates.window:PT48H}") Duration window,
+			@Value("${grievance.duplicates.max-per-group:5000}") int maxPerGroup) {
+		this.mongoOperations = mongoOperations;
+		this.enabled = enabled;
+		this.threshold = threshold;
+		this.window = window;
+		this.maxPerGroup = maxPerGroup;
+		this.detected = Counter.builder("grievance.duplicates.detected").register(meterRegistry);
+	}
+
+	// index that never links anything, for tests and tools
+	public static GrievanceDuplicateIndex disabled() {
+		return new GrievanceDuplicateIndex(null, new SimpleMeterRegistry(), false, 1, Duration.ZERO, 0);
+	}
+
+	// the cluster the new grievance belongs to (the id of the cluster's first grievance), or null when it looks new
+	public String findCluster(Grievance grievance) {
+		if (!enabled || grievance.getDescription() == null) {
+			return null;
+		}
+		Group group = groups.get(groupKey(grievance));
+		if (group == null) {
+			return null;
+		}
+		Entry match = group.mostSimilar(signature(grievance.getDescription()), threshold, cutoff());
+		if (match == null) {
+			return null;
+		}
+		detected.increment();
+		return match.clusterId();
+	}
+
+	public void add(Grievance grievance) {
+		if (!enabled || grievance.getId() == null || grievance.getDescription() == null) {
+			return;
+		}
+		String clusterId = grievance.getDuplicateOf() != null ? grievance.getDuplicateOf() : grievance.getId();
+		LocalDateTime createdAt = grievance.getCreatedAt() != null ? grievance.getCreatedAt() : LocalDateTime.now();
+		groups.computeIfAbsent(groupKey(grievance), key -> new Group())
+				.add(new Entry(grievance.getId(), clusterId, signature(grievance.getDescription()), createdAt), maxPerGroup);
+	}
+
+	// completed grievances stop attracting duplicates
+	public void onStatusChange(Grievance grievance) {
+		if (!enabled || grievance.getStatus() == null || !grievance.getStatus().isCompleted()) {
+			return;
+		}
+		Group group = groups.get(groupKey(grievance));
+		if (group != null) {
+			group.remove(grievance.getId());
+		}
+	}
+
+	// re-indexes the open grievances of the window, oldest first so cluster roots are indexed before their members
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		if (!enabled) {
+			return;
+		}
+		List<GrievanceStatus> completed = Arrays.stream(GrievanceStatus.values()).filter(GrievanceStatus::isCompleted).toList();
+		Query recent = new Query(Criteria.where("createdAt").gte(cutoff()).and("status").nin(completed))
+				.with(Sort.by("createdAt"));
+		recent.fields().include("departmentId", "subCategoryCode", "description", "duplicateOf", "createdAt");
+		mongoOperations.find(recent, Grievance.class)
+				.doOnNext(this::add)
+				.count()
+				.doOnNext(count -> log.info("Duplicate index warmed up with {} open grievances", count))
+				.doOnError(ex -> log.warn("Duplicate index warm-up failed, only new grievances will be matched", ex))
+				.onErrorResume(ex -> Mono.empty())
+				.subscribe();
+	}
+
+	int size() {
+		return groups.values().stream().mapToInt(Group::size).sum();
+	}
+
+	private LocalDateTime cutoff() {
+		return LocalDateTime.now().minus(window);
+	}
+
+	private static String groupKey(Grievance grievance) {
+		return normalize(grievance.getDepartmentId()) + '|' + normalize(grievance.getSubCategoryCode());
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// MinHash over word shingles; descriptions shorter than a shingle fall back to their words
+	static int[] signature(String text) {
+		String[] words = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+				.filter(word -> !word.isEmpty())
+				.toArray(String[]::new);
+		if (words.length == 0) {
+			words = new String[] { text };
+		}
+		int width = Math.min(SHINGLE_WORDS, Math.max(1, words.length));
+		int[] signature = new int[SIGNATURE_SIZE];
+		Arrays.fill(signature, Integer.MAX_VALUE);
+		for (int start = 0; start + width <= words.length; start++) {
+			long shingle = String.join(" ", Arrays.copyOfRange(words, start, start + width)).hashCode();
+			for (int i = 0; i < SIGNATURE_SIZE; i++) {
+				int hash = (int) mix(shingle ^ SEEDS[i]);
+				if (hash < signature[i]) {
+					signature[i] = hash;
+				}
+			}
+		}
+		return signature;
+	}
+
+	// the share of equal positions estimates the Jaccard similarity of the two shingle sets
+	static double similarity(int[] left, int[] right) {
+		int equal = 0;
+		for (int i = 0; i < SIGNATURE_SIZE; i++) {
+			if (left[i] == right[i]) {
+				equal++;
+			}
+		}
+		return (double) equal / SIGNATURE_SIZE;
+	}
+
+	private static long[] bandKeys(int[] signature) {
+		long[] keys = new long[BANDS];
+		for (int band = 0; band < BANDS; band++) {
+			int hash = Arrays.hashCode(Arrays.copyOfRange(signature, band * ROWS_PER_BAND, (band + 1) * ROWS_PER_BAND));
+			keys[band] = ((long) band << 32) | (hash & 0xffffffffL);
+		}
+		return keys;
+	}
+
+	// splitmix64 finalizer
+	private static long mix(long value) {
+		long z = value + 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static long[] seeds() {
+		long[] seeds = new long[SIGNATURE_SIZE];
+		for (int i = 0; i < SIGNATURE_SIZE; i++) {
+			seeds[i] = mix(i * 0x632be59bd9b4e019L);
+		}
+		return seeds;
+	}
+
+	private record Entry(String grievanceId, String clusterId, int[] signature, LocalDateTime createdAt) {
+	}
+
+	// one (department, sub-category); entries in insertion order, which is creation order, so expiry and the size
+	// bound both drop from the head
+	private static final class Group {
+
+		private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+		private final Map<Long, Set<String>> buckets = new HashMap<>();
+
+		synchronized Entry mostSimilar(int[] signature, double threshold, LocalDateTime cutoff) {
+			expire(cutoff);
+			Set<String> candidates = new HashSet<>();
+			for (long key : bandKeys(signature)) {
+				candidates.addAll(buckets.getOrDefault(key, Set.of()));
+			}
+			Entry best = null;
+			double bestSimilarity = threshold;
+			for (String id : candidates) {
+				Entry candidate = entries.get(id);
+				double similarity = similarity(signature, candidate.signature());
+				if (similarity >= bestSimilarity) {
+					best = candidate;
+					bestSimilarity = similarity;
+				}
+			}
+			return best;
+		}
+
+		synchronized void add(Entry entry, int maxEntries) {
+			remove(entry.grievanceId());
+			entries.put(entry.grievanceId(), entry);
+			for (long key : bandKeys(entry.signature())) {
+				buckets.computeIfAbsent(key, k -> new HashSet<>()).add(entry.grievanceId());
+			}
+			while (entries.size() > maxEntries) {
+				remove(entries.keySet().iterator().next());
+			}
+		}
+
+		synchronized void remove(String grievanceId) {
+			Entry removed = entries.remove(grievanceId);
+			if (removed == null) {
+				return;
+			}
+			for (long key : bandKeys(removed.signature())) {
+				Set<String> bucket = buckets.get(key);
+				if (bucket != null && bucket.remove(grievanceId) && bucket.isEmpty()) {
+					buckets.remove(key);
+				}
+			}
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
+
+		private void expire(LocalDateTime cutoff) {
+			Iterator<Entry> oldest = entries.values().iterator();
+			List<String> expired = new ArrayList<>();
+			while (oldest.hasNext()) {
+				Entry entry = oldest.next();
+				if (!entry.createdAt().isBefore(cutoff)) {
+					break;
+				}
+				expired.add(entry.grievanceId());
+			}
+			expired.forEach(this::remove);
+		}
+	}
+}
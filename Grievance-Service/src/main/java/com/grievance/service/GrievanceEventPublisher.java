@@ -3,35 +3,61 @@ package com.grievance.service;
 import com.grievance.event.GrievanceEvent;
 import com.grievance.model.Grievance;
 import com.grievance.model.GrievanceStatus;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.grievance.model.OutboxEvent;
+import com.grievance.repository.OutboxRepository;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class GrievanceEventPublisher {
 
-    private static final Logger log = LoggerFactory.getLogger(GrievanceEventPublisher.class);
     private static final String TOPIC = "grievance-events";
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxRepository outboxRepository;
 
-    public GrievanceEventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
+    public GrievanceEventPublisher(KafkaTemplate<String, Object> kafkaTemplate, OutboxRepository outboxRepository) {
         this.kafkaTemplate = kafkaTemplate;
+        this.outboxRepository = outboxRepository;
     }
 
+    // records the event in the outbox; OutboxRelay delivers it to Kafka after the write has committed
     public Mono<Void> publishStatusChange(Grievance grievance, GrievanceStatus newStatus, String remarks) {
-        GrievanceEvent event = buildEvent(grievance, newStatus, remarks);
+        return outboxRepository.save(toOutbox(grievance, newStatus, remarks)).then();
+    }
 
-        return Mono.fromCallable(() -> kafkaTemplate.send(TOPIC, event))
-                .subscribeOn(Schedulers.boundedElastic())
-                .doOnError(error -> log.warn("Failed to publish grievance {} event {}", grievance.getId(), newStatus, error))
-                .onErrorResume(error -> Mono.empty())
+    // batch variant for bulk transitions; saveAll of new documents is a single insertMany
+    public Mono<Void> publishStatusChanges(List<Grievance> grievances, GrievanceStatus newStatus, String remarks) {
+        if (grievances.isEmpty()) {
+            return Mono.empty();
+        }
+        List<OutboxEvent> events = grievances.stream().map(grievance -> toOutbox(grievance, newStatus, remarks)).toList();
+        return outboxRepository.saveAll(events).then();
+    }
+
+    // sends one relayed event and completes only once the broker has acknowledged it;
+    // keyed by grievance id so every event of a grievance lands on one partition in order
+    public Mono<Void> send(OutboxEvent outboxEvent) {
+        return Mono.defer(() -> Mono.fromFuture(kafkaTemplate.send(TOPIC, outboxEvent.getGrievanceId(), outboxEvent.getPayload())))
                 .then();
     }
 
+    OutboxEvent toOutbox(Grievance grievance, GrievanceStatus newStatus, String remarks) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setGrievanceId(grievance.getId());
+        outboxEvent.setEventType(newStatus.name());
+        outboxEvent.setPayload(buildEvent(grievance, newStatus, remarks));
+        outboxEvent.setStatus(OutboxEvent.Status.PENDING);
+        outboxEvent.setCreatedAt(now);
+        outboxEvent.setAvailableAt(now);
+        return outboxEvent;
+    }
+
     private GrievanceEvent buildEvent(Grievance grievance, GrievanceStatus newStatus, String remarks) {
         GrievanceEvent event = new GrievanceEvent();
         event.setGrievanceId(grievance.getId());
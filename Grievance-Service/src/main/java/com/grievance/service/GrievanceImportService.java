@@ -0,0 +1,383 @@
+package com.grievance.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grievance.client.DepartmentCatalogCache;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceImportResult;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.request.GrievanceImportRecord;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// bulk import of legacy grievances: the input is streamed line by line, validated against the cached department
+// catalog and written with unordered insertMany per batch. Ids are derived from the import id and line number, so
+// re-running an interrupted import (it resumes after the last checkpointed line) cannot create duplicates.
+@Service
+public class GrievanceImportService {
+
+	public enum Format { NDJSON, CSV }
+
+	static final String CHECKPOINT_COLLECTION = "grievance_imports";
+	private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+	private static final int DUPLICATE_KEY = 11000;
+	// imported rows carry no assignment or escalation state, so statuses that need one are rejected
+	private static final Set<GrievanceStatus> IMPORTABLE_STATUSES = EnumSet.of(GrievanceStatus.SUBMITTED,
+			GrievanceStatus.DEPT_REVIEW, GrievanceStatus.WORK_DONE, GrievanceStatus.RESOLVED,
+			GrievanceStatus.REOPENED, GrievanceStatus.CLOSED);
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final DepartmentCatalogCache departmentCatalogCache;
+	private final GrievanceStatsService grievanceStatsService;
+	private final ObjectMapper objectMapper;
+	private final int batchSize;
+
+	public GrievanceImportService(
+			ReactiveMongoOperations mongoOperations,
+			DepartmentCatalogCache departmentCatalogCache,
+			GrievanceStatsService grievanceStatsService,
+			ObjectMapper objectMapper,
+			@Value("${grievance.import.batch-size:500}") int batchSize) {
+		this.mongoOperations = mongoOperations;
+		this.departmentCatalogCache = departmentCatalogCache;
+		this.grievanceStatsService = grievanceStatsService;
+		this.objectMapper = objectMapper;
+		this.batchSize = batchSize;
+	}
+
+	// lines are numbered from 1 as in the file (a CSV header is line 1); emits the rejected lines as they are found,
+	// a PROGRESS element per committed batch and a final COMPLETED element
+	public Flux<GrievanceImportResult> importGrievances(String importId, Format format, Flux<String> lines, String importedBy) {
+		if (importId == null || !IMPORT_ID.matcher(importId).matches()) {
+			return Flux.error(new IllegalArgumentException("importId must be 1-64 letters, digits, '.', '_' or '-'"));
+		}
+		return startOrResume(importId).flatMapMany(run -> {
+			Flux<Row> rows = format == Format.CSV ? csvRows(run, lines) : ndjsonRows(run, lines);
+			return rows
+					.filter(row -> row.line() > run.lastLine())
+					.buffer(batchSize)
+					// one batch at a time, so the checkpoint always marks a prefix of the file as done
+					.concatMap(batch -> writeBatch(importId, batch, importedBy))
+					.concatWith(Mono.defer(() -> complete(importId)));
+		});
+	}
+
+	private Flux<Row> ndjsonRows(ImportRun run, Flux<String> lines) {
+		return lines.index((index, line) -> new NumberedLine(index + 1, line))
+				.filter(numbered -> StringUtils.hasText(numbered.text()))
+				.map(numbered -> {
+					try {
+						return toRow(run, numbered.number(), objectMapper.readValue(numbered.text(), GrievanceImportRecord.class));
+					} catch (JsonProcessingException ex) {
+						return Row.rejected(numbered.number(), "Malformed JSON: " + ex.getOriginalMessage());
+					}
+				});
+	}
+
+	private Flux<Row> csvRows(ImportRun run, Flux<String> lines) {
+		return lines.index((index, line) -> new NumberedLine(index + 1, line))
+				.switchOnFirst((first, all) -> {
+					if (!first.hasValue()) {
+						return all.map(numbered -> Row.rejected(numbered.number(), "Missing CSV header"));
+					}
+					List<String> header = parseCsvLine(first.get().text());
+					return all.skip(1)
+							.filter(numbered -> StringUtils.hasText(numbered.text()))
+							.map(numbered -> {
+								List<String> values = parseCsvLine(numbered.text());
+								if (values.size() != header.size()) {
+									return Row.rejected(numbered.number(),
+											"Expected " + header.size() + " columns but found " + values.size());
+								}
+								Map<String, String> columns = new LinkedHashMap<>();
+								for (int i = 0; i < header.size(); i++) {
+									columns.put(header.get(i).trim(), values.get(i));
+								}
+								return toRow(run, numbered.number(), GrievanceImportRecord.fromColumns(columns));
+							});
+				});
+	}
+
+	// RFC 4180 fields on one line: commas inside double quotes, "" for a literal quote; no line breaks inside fields
+	static List<String> parseCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					current.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(current.toString());
+				current.setLength(0);
+			} else if (c != '\r') {
+				current.append(c);
+			}
+		}
+		values.add(current.toString());
+		return values;
+	}
+
+	// same rules as POST /create, plus the fields a legacy record brings along
+	private Row toRow(ImportRun run, long line, GrievanceImportRecord importRecord) {
+		if (!StringUtils.hasText(importRecord.getCitizenId())) {
+			return Row.rejected(line, "citizenId is required");
+		}
+		if (!StringUtils.hasText(importRecord.getCategoryCode()) || !StringUtils.hasText(importRecord.getSubCategoryCode())) {
+			return Row.rejected(line, "categoryCode and subCategoryCode are required");
+		}
+		String description = importRecord.getDescription() != null ? importRecord.getDescription().trim() : "";
+		if (description.length() < 10 || description.length() > 2000) {
+			return Row.rejected(line, "Description must be between 10 and 2000 characters");
+		}
+		GrievanceStatus status;
+		LocalDateTime createdAt;
+		try {
+			status = StringUtils.hasText(importRecord.getStatus())
+					? GrievanceStatus.valueOf(importRecord.getStatus().trim().toUpperCase())
+					: GrievanceStatus.SUBMITTED;
+			createdAt = parseCreatedAt(importRecord.getCreatedAt(), run.startedAt());
+		} catch (IllegalArgumentException | DateTimeParseException ex) {
+			return Row.rejected(line, "Invalid status or createdAt: " + ex.getMessage());
+		}
+		if (!IMPORTABLE_STATUSES.contains(status)) {
+			return Row.rejected(line, "Status " + status + " cannot be imported; allowed: " + IMPORTABLE_STATUSES);
+		}
+
+		Grievance grievance = new Grievance();
+		grievance.setId(importedId(run.importId() + ":" + line, createdAt));
+		grievance.setCitizenId(importRecord.getCitizenId().trim());
+		if (StringUtils.hasText(importRecord.getCitizenEmail())) {
+			grievance.setCitizenEmail(importRecord.getCitizenEmail().trim());
+		}
+		grievance.setDepartmentId(StringUtils.hasText(importRecord.getDepartmentId()) ? importRecord.getDepartmentId().trim() : null);
+		grievance.setCategoryCode(importRecord.getCategoryCode().trim());
+		grievance.setSubCategoryCode(importRecord.getSubCategoryCode().trim());
+		grievance.setDescription(description);
+		grievance.setStatus(status);
+		grievance.setEscalated(false);
+		grievance.setCreatedAt(createdAt);
+		grievance.setUpdatedAt(createdAt);
+		return new Row(line, grievance, null);
+	}
+
+	// a row without one takes the import's start time, which every run of the import reads back from its checkpoint,
+	// so the row's derived id (and a re-run's duplicate check) does not depend on when it was written
+	private static LocalDateTime parseCreatedAt(String value, LocalDateTime importStartedAt) {
+		if (!StringUtils.hasText(value)) {
+			return importStartedAt;
+		}
+		String trimmed = value.trim();
+		return trimmed.length() == 10 ? LocalDate.parse(trimmed).atStartOfDay() : LocalDateTime.parse(trimmed);
+	}
+
+	private Flux<GrievanceImportResult> writeBatch(String importId, List<Row> batch, String importedBy) {
+		return Flux.fromIterable(batch)
+				.concatMap(this::checkDepartment)
+				.collectList()
+				.flatMapMany(checked -> {
+					List<Row> valid = checked.stream().filter(row -> row.error() == null).toList();
+					Map<Long, String> failures = new HashMap<>();
+					checked.stream().filter(row -> row.error() != null).forEach(row -> failures.put(row.line(), row.error()));
+
+					return insertUnordered(Grievance.class, valid.stream().map(Row::grievance).toList())
+							.flatMapMany(grievanceErrors -> {
+								List<Grievance> inserted = new ArrayList<>();
+								List<Row> present = new ArrayList<>();
+								long duplicates = 0;
+								for (int i = 0; i < valid.size(); i++) {
+									Row row = valid.get(i);
+									BulkWriteError error = grievanceErrors.get(i);
+									if (error == null) {
+										inserted.add(row.grievance());
+										present.add(row);
+									} else if (error.getCode() == DUPLICATE_KEY) {
+										duplicates++;
+										present.add(row);
+									} else {
+										failures.put(row.line(), error.getMessage());
+									}
+								}
+								long duplicateCount = duplicates;
+								// a re-run writes history for every row that is present; the derived id keeps it single
+								List<GrievanceHistory> histories = present.stream()
+										.map(row -> history(importId, row, importedBy))
+										.toList();
+								return insertUnordered(GrievanceHistory.class, histories)
+										.doOnNext(historyErrors -> historyErrors.forEach((index, error) -> {
+											if (error.getCode() != DUPLICATE_KEY) {
+												failures.putIfAbsent(present.get(index).line(),
+														"Grievance imported but its status history was not: " + error.getMessage());
+											}
+										}))
+										.flatMap(historyErrors -> grievanceStatsService.onImported(inserted))
+										.then(checkpoint(importId, batch.get(batch.size() - 1).line(), inserted.size(),
+												duplicateCount, failures.size(), importedBy))
+										.thenMany(Flux.fromIterable(failures.entrySet())
+												.sort(Map.Entry.comparingByKey())
+												.map(failure -> GrievanceImportResult.error(failure.getKey(), failure.getValue()))
+												.concatWithValues(new GrievanceImportResult(GrievanceImportResult.Type.PROGRESS,
+														batch.get(batch.size() - 1).line(), null, inserted.size(),
+														duplicateCount, failures.size())));
+							});
+				});
+	}
+
+	// the catalog is held in memory, so this is a hash lookup per row rather than a call to the department service
+	private Mono<Row> checkDepartment(Row row) {
+		if (row.error() != null) {
+			return Mono.just(row);
+		}
+		Grievance grievance = row.grievance();
+		return departmentCatalogCache
+				.isValidDepartment(grievance.getDepartmentId(), grievance.getCategoryCode(), grievance.getSubCategoryCode())
+				.map(valid -> Boolean.TRUE.equals(valid) ? row
+						: Row.rejected(row.line(), "Department / category / sub-category not found"));
+	}
+
+	// ordered=false lets Mongo write every other document when some fail; failures come back by position
+	private Mono<Map<Integer, BulkWriteError>> insertUnordered(Class<?> entityType, List<?> entities) {
+		if (entities.isEmpty()) {
+			return Mono.just(Map.of());
+		}
+		List<Document> documents = entities.stream().map(entity -> {
+			Document document = new Document();
+			mongoOperations.getConverter().write(entity, document);
+			return document;
+		}).toList();
+		return mongoOperations.getCollection(mongoOperations.getCollectionName(entityType))
+				.flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+				.map(result -> Map.<Integer, BulkWriteError>of())
+				.onErrorResume(MongoBulkWriteException.class, ex -> {
+					if (ex.getWriteConcernError() != null) {
+						return Mono.error(ex);
+					}
+					Map<Integer, BulkWriteError> byIndex = new HashMap<>();
+					ex.getWriteErrors().forEach(error -> byIndex.put(error.getIndex(), error));
+					return Mono.just(byIndex);
+				});
+	}
+
+	private GrievanceHistory history(String importId, Row row, String importedBy) {
+		Grievance grievance = row.grievance();
+		GrievanceHistory history = new GrievanceHistory();
+		history.setId(importedId(importId + ":" + row.line() + ":history", grievance.getCreatedAt()));
+		history.setGrievanceId(grievance.getId());
+		history.setStatus(grievance.getStatus());
+		history.setUpdatedBy(importedBy);
+		history.setRemarks("Imported (" + importId + " line " + row.line() + ")");
+		history.setUpdatedAt(grievance.getCreatedAt());
+		return history;
+	}
+
+	// the first run creates the checkpoint and stamps its start; later runs resume after its last committed line.
+	// $ifNull also stamps a checkpoint written before startedAt was kept
+	private Mono<ImportRun> startOrResume(String importId) {
+		Query byId = new Query(Criteria.where("_id").is(importId));
+		AggregationUpdate start = AggregationUpdate.update()
+				.set("startedAt").toValue(ConditionalOperators.ifNull("startedAt").then(new Date()))
+				.set("lastLine").toValue(ConditionalOperators.ifNull("lastLine").then(0L));
+		return mongoOperations.upsert(byId, start, CHECKPOINT_COLLECTION)
+				.then(mongoOperations.findOne(byId, Document.class, CHECKPOINT_COLLECTION))
+				.map(checkpoint -> new ImportRun(importId, count(checkpoint, "lastLine"),
+						LocalDateTime.ofInstant(checkpoint.getDate("startedAt").toInstant(), ZoneId.systemDefault())));
+	}
+
+	private Mono<Void> checkpoint(String importId, long lastLine, long imported, long duplicates, long failed, String importedBy) {
+		Update progress = new Update()
+				.max("lastLine", lastLine)
+				.inc("imported", imported)
+				.inc("duplicates", duplicates)
+				.inc("failed", failed)
+				.set("updatedAt", LocalDateTime.now())
+				.setOnInsert("startedBy", importedBy);
+		return mongoOperations.upsert(new Query(Criteria.where("_id").is(importId)), progress, CHECKPOINT_COLLECTION).then();
+	}
+
+	// totals over every run of this import id
+	private Mono<GrievanceImportResult> complete(String importId) {
+		Query byId = new Query(Criteria.where("_id").is(importId));
+		return mongoOperations.upsert(byId, new Update().set("completedAt", LocalDateTime.now()).setOnInsert("lastLine", 0L),
+						CHECKPOINT_COLLECTION)
+				.then(mongoOperations.findOne(byId, Document.class, CHECKPOINT_COLLECTION))
+				.map(totals -> new GrievanceImportResult(GrievanceImportResult.Type.COMPLETED,
+						count(totals, "lastLine"), null, count(totals, "imported"), count(totals, "duplicates"),
+						count(totals, "failed")));
+	}
+
+	private static long count(Document document, String field) {
+		Number value = document.get(field, Number.class);
+		return value != null ? value.longValue() : 0;
+	}
+
+	// creation time in the leading four bytes (as in a driver-generated ObjectId), a hash of the row's key after them
+	static String importedId(String key, LocalDateTime createdAt) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			ByteBuffer id = ByteBuffer.allocate(12)
+					.putInt((int) createdAt.toEpochSecond(ZoneOffset.UTC))
+					.put(hash, 0, 8);
+			return new ObjectId(id.array()).toHexString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not available", ex);
+		}
+	}
+
+	private record NumberedLine(long number, String text) {
+	}
+
+	private record ImportRun(String importId, long lastLine, LocalDateTime startedAt) {
+	}
+
+	record Row(long line, Grievance grievance, String error) {
+
+		static Row rejected(long line, String error) {
+			return new Row(line, null, error);
+		}
+	}
+}
@@ -5,6 +5,12 @@ import com.grievance.repository.AssignmentRepository;
 import com.grievance.repository.GrievanceRepository;
 import com.grievance.repository.StatusHistoryRepository;
 import com.grievance.request.GrievanceCreateRequest;
+import com.grievance.request.GrievanceListRequest;
+import com.grievance.request.GrievanceSearchRequest;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -12,9 +18,12 @@ import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class GrievanceService {
@@ -23,27 +32,66 @@ public class GrievanceService {
 	private static final String ROLE_SUPERVISORY_OFFICER = "SUPERVISORY_OFFICER";
 	private static final String ROLE_ADMIN = "ADMIN";
 	private static final String ROLE_CASE_WORKER = "CASE_WORKER";
-	private static final String MSG_GRIEVANCE_NOT_FOUND = "Grievance not found";
-	private static final String MSG_UNAUTHORIZED_DEPT = "Unauthorized for this department";
+	static final String MSG_GRIEVANCE_NOT_FOUND = "Grievance not found";
+	static final String MSG_UNAUTHORIZED_DEPT = "Unauthorized for this department";
 	private static final String MSG_UNAUTHORIZED = "Unauthorized";
+	private static final String MSG_SLA_BREACHED = "SLA breached escalated to supervisory officer";
+	private static final String MSG_ESCALATION_NOTICE = "We escalated your grievance for quicker attention";
+	static final String SYSTEM_ACTOR = "SYSTEM";
+	private static final String FIELD_DEPARTMENT_ID = "departmentId";
+	private static final String FIELD_ASSIGNED_WORKER_ID = "assignedWokerId";
+	private static final String FIELD_ASSIGNEE_KEYS = "assigneeKeys";
+	private static final String FIELD_STATUS = "status";
+	private static final String FIELD_UPDATED_AT = "updatedAt";
+	private static final int MAX_SEARCH_LENGTH = 200;
+	static final String OPERATION_HISTORY = "getStatusHistory";
+	private static final String OPERATION_UPDATE_STATUS = "updateStatus";
+	private static final String OPERATION_ESCALATE = "escalateGrievance";
 
 	private final GrievanceRepository grievanceRepository;
     private final AssignmentRepository assignmentRepository;
     private final StatusHistoryRepository statusHistoryRepository;
     private final DepartmentValidationService departmentValidationService;
     private final GrievanceEventPublisher grievanceEventPublisher;
+    private final GrievanceTransactions transactions;
+    private final CaseWorkerWorkloadService caseWorkerWorkloadService;
+    private final SlaDeadlineQueue slaDeadlineQueue;
+    private final GrievanceStatsService grievanceStatsService;
+    private final GrievanceCache grievanceCache;
+    private final RequestCoalescer requestCoalescer;
+    private final GrievanceDuplicateIndex duplicateIndex;
+    private final GrievanceVersionRetry versionRetry;
+    private final GrievanceArchive archive;
 
 	public GrievanceService(
 			GrievanceRepository grievanceRepository,
 			AssignmentRepository assignmentRepository,
 			StatusHistoryRepository statusHistoryRepository,
 			DepartmentValidationService departmentValidationService,
-			GrievanceEventPublisher grievanceEventPublisher) {
+			GrievanceEventPublisher grievanceEventPublisher,
+			GrievanceTransactions transactions,
+			CaseWorkerWorkloadService caseWorkerWorkloadService,
+			SlaDeadlineQueue slaDeadlineQueue,
+			GrievanceStatsService grievanceStatsService,
+			GrievanceCache grievanceCache,
+			RequestCoalescer requestCoalescer,
+			GrievanceDuplicateIndex duplicateIndex,
+			GrievanceVersionRetry versionRetry,
+			GrievanceArchive archive) {
 		this.grievanceRepository = grievanceRepository;
 		this.assignmentRepository = assignmentRepository;
 		this.statusHistoryRepository = statusHistoryRepository;
 		this.departmentValidationService = departmentValidationService;
 		this.grievanceEventPublisher = grievanceEventPublisher;
+		this.transactions = transactions;
+		this.caseWorkerWorkloadService = caseWorkerWorkloadService;
+		this.slaDeadlineQueue = slaDeadlineQueue;
+		this.grievanceStatsService = grievanceStatsService;
+		this.grievanceCache = grievanceCache;
+		this.requestCoalescer = requestCoalescer;
+		this.duplicateIndex = duplicateIndex;
+		this.versionRetry = versionRetry;
+		this.archive = archive;
 	}
 
 	// to create a grievance
@@ -70,8 +118,10 @@ public class GrievanceService {
 	                grievance.setEscalated(false);
 	                grievance.setCreatedAt(LocalDateTime.now());
 	                grievance.setUpdatedAt(LocalDateTime.now());
+	                // in-memory LSH lookup, no query: links an outage's repeat reports to the first one
+	                grievance.setDuplicateOf(duplicateIndex.findCluster(grievance));
 
-	                return grievanceRepository.save(grievance)
+	                return transactions.execute(grievanceRepository.save(grievance)
 	                        .flatMap(saved ->
 	                                saveStatusHistory(
 	                                        saved.getId(),
@@ -82,72 +132,108 @@ public class GrievanceService {
 	                        .flatMap(saved ->
 	                                grievanceEventPublisher
 	                                        .publishStatusChange(saved, GrievanceStatus.SUBMITTED, "Grievance submitted")
-	                                        .thenReturn(saved));
+	                                        .thenReturn(saved)))
+	                        .flatMap(saved -> grievanceStatsService.onCreated(saved).thenReturn(saved))
+	                        .doOnNext(duplicateIndex::add);
 	            }));
 	}
 
 
 	// to assign a grievance - assigned by Dept Officer to a Case Worker
+	// the worker's slot is taken first, so a full worker is a 409 before anything is written. The "still unassigned"
+	// check and the update are then one findAndModify, so concurrent officers cannot both win; when it does not match
+	// the slot is handed back. Everything runs in one transaction, so a later failed write undoes all of it.
 	public Mono<Grievance> assignGrievance(String grievanceId, String assignedBy, String assignedTo, String requesterRole, String requesterDepartmentId) {
 
-		return ensureCaseWorkerAvailable(assignedTo)
-				.then(grievanceRepository.findById(grievanceId))
-				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, MSG_GRIEVANCE_NOT_FOUND)))
-				.flatMap(grievance -> ensureSameDepartmentForRestrictedRole(requesterRole, requesterDepartmentId, grievance))
-				.flatMap(grievance -> {
+		if (isDepartmentRestrictedRole(requesterRole) && requesterDepartmentId == null) {
+			return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT));
+		}
+		String departmentScope = isDepartmentRestrictedRole(requesterRole) ? requesterDepartmentId : null;
+		return assign(grievanceId, assignedBy, assignedTo, departmentScope,
+				Mono.defer(() -> explainFailedAssign(grievanceId, requesterRole, requesterDepartmentId)));
+	}
 
-					if (grievance.getAssignedWokerId() != null) {
-						return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
-								"Grievance already assigned to " + grievance.getAssignedWokerId()));
-					}
-
-					grievance.setAssignedWokerId(assignedTo);
-					grievance.setStatus(GrievanceStatus.ASSIGNED);
-					grievance.setAssignedAt(LocalDateTime.now());
-					grievance.setUpdatedAt(LocalDateTime.now());
-
-					Assignment assignment = new Assignment();
-					assignment.setGrievanceId(grievanceId);
-					assignment.setAssignedBy(assignedBy);
-					assignment.setAssignedTo(assignedTo);
-					assignment.setAssignedAt(LocalDateTime.now());
-
-					return assignmentRepository.save(assignment)
-							.then(grievanceRepository.save(grievance))
-							.flatMap(updatedGrievance -> saveStatusHistory(grievanceId, GrievanceStatus.ASSIGNED,
-											assignedBy, "Assigned to case worker").thenReturn(updatedGrievance))
-							.flatMap(updatedGrievance -> grievanceEventPublisher
-											.publishStatusChange(updatedGrievance, GrievanceStatus.ASSIGNED,
-													"Assigned to case worker " + assignedTo)
-											.thenReturn(updatedGrievance));
-				});
+	// assignment made by the service itself (auto-routing) to a case worker picked from the grievance's department;
+	// there is no requester to check, the grievance only has to still be in that department
+	public Mono<Grievance> assignAsSystem(String grievanceId, String assignedTo, String departmentId) {
+		return assign(grievanceId, SYSTEM_ACTOR, assignedTo, departmentId,
+				Mono.defer(() -> explainFailedAssign(grievanceId, ROLE_DEPARTMENT_OFFICER, departmentId)));
+	}
+
+	// departmentScope: the department the grievance has to be in, null for none
+	private Mono<Grievance> assign(String grievanceId, String assignedBy, String assignedTo, String departmentScope,
+			Mono<Grievance> whenNotAssigned) {
+		LocalDateTime now = LocalDateTime.now();
+
+		return transactions.execute(caseWorkerWorkloadService.acquire(assignedTo, grievanceId, departmentScope)
+				.then(Mono.defer(() -> grievanceRepository.assignIfUnassigned(grievanceId, assignedTo, departmentScope, now)
+						.switchIfEmpty(whenNotAssigned)
+						.onErrorResume(ex -> caseWorkerWorkloadService.releaseUnused(assignedTo, grievanceId).then(Mono.error(ex)))))
+				.flatMap(previous -> {
+
+					Grievance assigned = assignedCopy(previous, assignedTo, now);
+
+					Assignment assignment = assignment(grievanceId, assignedBy, assignedTo, now);
+
+					return transactions.writeAll(
+									departmentScope == null
+											? Mono.defer(() -> caseWorkerWorkloadService.listUnder(assignedTo, previous.getDepartmentId()))
+											: Mono.empty(),
+									Mono.defer(() -> assignmentRepository.save(assignment)),
+									Mono.defer(() -> saveStatusHistory(grievanceId, GrievanceStatus.ASSIGNED,
+											assignedBy, "Assigned to case worker")),
+									Mono.defer(() -> grievanceEventPublisher.publishStatusChange(assigned,
+											GrievanceStatus.ASSIGNED, "Assigned to case worker " + assignedTo)))
+							.thenReturn(previous);
+				}))
+				.flatMap(previous -> {
+					Grievance assigned = assignedCopy(previous, assignedTo, now);
+					return grievanceStatsService.onAssigned(assigned, previous.getStatus()).thenReturn(assigned);
+				})
+				.doOnNext(assigned -> evict(grievanceId))
+				.doOnNext(slaDeadlineQueue::track);
 	}
 
 	// to update the status of a grievance - done by dept officer / case worker
+	// only status and updatedAt are written, guarded by the version read; a lost race re-reads and retries
 	public Mono<Grievance> updateStatus(String grievanceId, GrievanceStatus status, String updatedBy, String remarks, String requesterRole, String requesterDepartmentId) {
 
-		return grievanceRepository.findById(grievanceId)
+		return versionRetry.run(OPERATION_UPDATE_STATUS, () -> grievanceRepository.findById(grievanceId)
 				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, MSG_GRIEVANCE_NOT_FOUND)))
 				.flatMap(grievance -> ensureSameDepartmentForRestrictedRole(requesterRole, requesterDepartmentId, grievance))
 				.flatMap(grievance -> {
 
-					grievance.setStatus(status);
-					grievance.setUpdatedAt(LocalDateTime.now());
+					GrievanceStatus previous = grievance.getStatus();
+					Update changes = new Update()
+							.set(FIELD_STATUS, status)
+							.set(FIELD_UPDATED_AT, LocalDateTime.now());
 
-					return grievanceRepository.save(grievance).flatMap(
+					return transactions.execute(updateIfVersion(grievance, changes)
+							.flatMap(updated -> caseWorkerWorkloadService.onStatusChange(updated, previous, status).thenReturn(updated))
+							.flatMap(
 							updated -> saveStatusHistory(grievanceId, status, updatedBy, remarks).thenReturn(updated))
 							.flatMap(updated -> grievanceEventPublisher
 									.publishStatusChange(updated, status, remarks)
-									.thenReturn(updated));
-				});
+									.thenReturn(updated)))
+							.flatMap(updated -> grievanceStatsService.onStatusChange(updated, previous, status).thenReturn(updated))
+							.doOnNext(duplicateIndex::onStatusChange)
+							.doOnNext(updated -> evict(grievanceId))
+							.doOnNext(slaDeadlineQueue::track);
+				}));
 	}
 
-	// mono to get one object of grievance - get by id
+	// mono to get one object of grievance - get by id (served from GrievanceCache when warm, archived ones included)
 	public Mono<Grievance> getById(String grievanceId) {
-		return grievanceRepository.findById(grievanceId)
+		return grievanceCache.get(grievanceId, this::findLiveOrArchived)
 				.switchIfEmpty(Mono.error(new RuntimeException(MSG_GRIEVANCE_NOT_FOUND)));
 	}
 
+	// the live grievance, else its cold copy (see GrievanceArchive)
+	private Mono<Grievance> findLiveOrArchived(String grievanceId) {
+		return grievanceRepository.findById(grievanceId)
+				.switchIfEmpty(Mono.defer(() -> archive.findGrievance(grievanceId)));
+	}
+
 	// flux to get multiple objects - get all
 	public Flux<Grievance> getAllForRole(String role, String requesterDepartmentId) {
 		if (isDepartmentRestrictedRole(role)) {
@@ -159,51 +245,163 @@ public class GrievanceService {
 		return grievanceRepository.findAll();
 	}
 
+	// keyset page variant of getAllForRole - the department filter is applied in the query
+	public Mono<GrievancePage<Grievance>> getAllForRole(String role, String requesterDepartmentId, GrievanceListRequest page) {
+		return allForRole(role, requesterDepartmentId, filter -> grievanceRepository.findPage(filter, page));
+	}
+
+	// getAllForRole reading only the page's selected fields
+	public Mono<GrievancePage<GrievanceSummary>> getSummariesForRole(String role, String requesterDepartmentId, GrievanceListRequest page) {
+		return allForRole(role, requesterDepartmentId, filter -> grievanceRepository.findSummaryPage(filter, page));
+	}
+
+	private <T> Mono<GrievancePage<T>> allForRole(String role, String requesterDepartmentId,
+			Function<Criteria, Mono<GrievancePage<T>>> pageQuery) {
+		if (isDepartmentRestrictedRole(role)) {
+			if (requesterDepartmentId == null) {
+				return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT));
+			}
+			return pageQuery.apply(Criteria.where(FIELD_DEPARTMENT_ID).is(requesterDepartmentId));
+		}
+		return pageQuery.apply(new Criteria());
+	}
+
+	// full-text search over descriptions, most relevant first; department scoping as in getAllForRole
+	public Mono<GrievancePage<Grievance>> search(GrievanceSearchRequest request, String role, String requesterDepartmentId) {
+		if (request == null || !StringUtils.hasText(request.getQ())) {
+			return Mono.error(new IllegalArgumentException("q is required"));
+		}
+		if (request.getQ().length() > MAX_SEARCH_LENGTH) {
+			return Mono.error(new IllegalArgumentException("q must be at most " + MAX_SEARCH_LENGTH + " characters"));
+		}
+		if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+			return Mono.error(new IllegalArgumentException("from must not be after to"));
+		}
+		String departmentId = request.getDepartmentId();
+		if (isDepartmentRestrictedRole(role)) {
+			if (requesterDepartmentId == null || (departmentId != null && !isSameDepartment(requesterDepartmentId, departmentId))) {
+				return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT));
+			}
+			departmentId = requesterDepartmentId;
+		}
+
+		Criteria filter = new Criteria();
+		if (departmentId != null) {
+			filter.and(FIELD_DEPARTMENT_ID).is(departmentId);
+		}
+		if (request.getStatus() != null) {
+			filter.and("status").is(request.getStatus());
+		}
+		if (request.getFrom() != null || request.getTo() != null) {
+			Criteria created = filter.and("createdAt");
+			if (request.getFrom() != null) {
+				created.gte(request.getFrom().atStartOfDay());
+			}
+			if (request.getTo() != null) {
+				created.lt(request.getTo().plusDays(1).atStartOfDay());
+			}
+		}
+		return grievanceRepository.search(request.getQ().trim(), filter, request.getCursor(), request.getLimit());
+	}
+
+	// the near-duplicate cluster the grievance belongs to, first grievance first, so officers can handle it in bulk
+	public Flux<Grievance> getDuplicates(String grievanceId, String role, String requesterDepartmentId) {
+		// same loader as getById: the cache coalesces loads by id, so every caller has to load the same thing
+		return grievanceCache.get(grievanceId, this::findLiveOrArchived)
+				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, MSG_GRIEVANCE_NOT_FOUND)))
+				.flatMap(grievance -> ensureSameDepartmentForRestrictedRole(role, requesterDepartmentId, grievance))
+				.flatMapMany(grievance -> {
+					String clusterId = grievance.getDuplicateOf() != null ? grievance.getDuplicateOf() : grievance.getId();
+					Mono<Grievance> first = clusterId.equals(grievance.getId())
+							? Mono.just(grievance)
+							: grievanceCache.get(clusterId, this::findLiveOrArchived);
+					return first.concatWith(grievanceRepository.findByDuplicateOfOrderByCreatedAtAsc(clusterId));
+				});
+	}
+
 	// flux to get multiple objects - get status history
 	public Flux<GrievanceHistory> getStatusHistory(String grievanceId, String role, String requesterDepartmentId) {
-		return grievanceRepository.findById(grievanceId)
+		return grievanceCache.get(grievanceId, this::findLiveOrArchived)
 				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, MSG_GRIEVANCE_NOT_FOUND)))
 				.flatMap(grievance -> ensureSameDepartmentForRestrictedRole(role, requesterDepartmentId, grievance))
-				.flatMapMany(grievance -> statusHistoryRepository.findByGrievanceIdOrderByUpdatedAtAsc(grievanceId)
+				// concurrent readers of one grievance's history share a single query
+				.flatMapMany(grievance -> requestCoalescer
+						.coalesce(OPERATION_HISTORY, grievanceId,
+								() -> statusHistoryRepository.findByGrievanceIdOrderByUpdatedAtAsc(grievanceId)
+										.switchIfEmpty(Flux.defer(() -> archive.findHistory(grievanceId)))
+										.collectList())
+						.flatMapIterable(history -> history)
 						.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, MSG_GRIEVANCE_NOT_FOUND))));
 	}
 
 	// list grievances by department with access control
 	public Flux<Grievance> getByDepartment(String departmentId, String role, String requesterDepartmentId) {
-		if (!isSupervisoryOfficer(role)) {
-			return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Only supervisory officers can view department grievances"));
-		}
-		if (requesterDepartmentId != null && !requesterDepartmentId.equalsIgnoreCase(departmentId) && !ROLE_ADMIN.equalsIgnoreCase(role)) {
-			return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT));
+		ResponseStatusException denied = departmentAccessError(departmentId, role, requesterDepartmentId);
+		if (denied != null) {
+			return Flux.error(denied);
 		}
 		return grievanceRepository.findByDepartmentId(departmentId);
 	}
 
+	// keyset page variant of getByDepartment
+	public Mono<GrievancePage<Grievance>> getByDepartment(String departmentId, String role, String requesterDepartmentId, GrievanceListRequest page) {
+		return byDepartment(departmentId, role, requesterDepartmentId, filter -> grievanceRepository.findPage(filter, page));
+	}
+
+	// getByDepartment reading only the page's selected fields
+	public Mono<GrievancePage<GrievanceSummary>> getSummariesByDepartment(String departmentId, String role,
+			String requesterDepartmentId, GrievanceListRequest page) {
+		return byDepartment(departmentId, role, requesterDepartmentId, filter -> grievanceRepository.findSummaryPage(filter, page));
+	}
+
+	private <T> Mono<GrievancePage<T>> byDepartment(String departmentId, String role, String requesterDepartmentId,
+			Function<Criteria, Mono<GrievancePage<T>>> pageQuery) {
+		ResponseStatusException denied = departmentAccessError(departmentId, role, requesterDepartmentId);
+		if (denied != null) {
+			return Mono.error(denied);
+		}
+		return pageQuery.apply(Criteria.where(FIELD_DEPARTMENT_ID).is(departmentId));
+	}
+
     // list grievances assigned to a case worker (department officer / supervisory officer / admin)
     public Flux<Grievance> getByCaseWorker(String caseWorkerId, String role, String requesterDepartmentId) {
-        if (caseWorkerId == null) {
-            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "caseWorkerId is required"));
-        }
-        boolean isCaseWorkerSelf = role != null && role.equalsIgnoreCase(ROLE_CASE_WORKER);
-        boolean allowedRole = role != null && (role.equalsIgnoreCase(ROLE_DEPARTMENT_OFFICER)
-                || role.equalsIgnoreCase(ROLE_SUPERVISORY_OFFICER)
-                || role.equalsIgnoreCase(ROLE_ADMIN));
-        if (!allowedRole && !isCaseWorkerSelf) {
-            return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
-        }
-
-        boolean enforceDepartment = isDepartmentRestrictedRole(role);
-        if (enforceDepartment && requesterDepartmentId == null) {
-            return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT));
+        ResponseStatusException denied = caseWorkerAccessError(caseWorkerId, role, requesterDepartmentId);
+        if (denied != null) {
+            return Flux.error(denied);
         }
 
         Flux<Grievance> base = grievanceRepository.findByAssignedWokerId(caseWorkerId);
-        if (enforceDepartment) {
+        if (isDepartmentRestrictedRole(role)) {
             return base.filter(grievance -> isSameDepartment(requesterDepartmentId, grievance.getDepartmentId()));
         }
         return base;
     }
 
+    // keyset page variant of getByCaseWorker - the department restriction is pushed into the query as an exact match
+    public Mono<GrievancePage<Grievance>> getByCaseWorker(String caseWorkerId, String role, String requesterDepartmentId, GrievanceListRequest page) {
+        return byCaseWorker(caseWorkerId, role, requesterDepartmentId, filter -> grievanceRepository.findPage(filter, page));
+    }
+
+    // getByCaseWorker reading only the page's selected fields
+    public Mono<GrievancePage<GrievanceSummary>> getSummariesByCaseWorker(String caseWorkerId, String role,
+            String requesterDepartmentId, GrievanceListRequest page) {
+        return byCaseWorker(caseWorkerId, role, requesterDepartmentId, filter -> grievanceRepository.findSummaryPage(filter, page));
+    }
+
+    private <T> Mono<GrievancePage<T>> byCaseWorker(String caseWorkerId, String role, String requesterDepartmentId,
+            Function<Criteria, Mono<GrievancePage<T>>> pageQuery) {
+        ResponseStatusException denied = caseWorkerAccessError(caseWorkerId, role, requesterDepartmentId);
+        if (denied != null) {
+            return Mono.error(denied);
+        }
+
+        Criteria filter = Criteria.where(FIELD_ASSIGNED_WORKER_ID).is(caseWorkerId);
+        if (isDepartmentRestrictedRole(role)) {
+            filter = filter.and(FIELD_DEPARTMENT_ID).is(requesterDepartmentId);
+        }
+        return pageQuery.apply(filter);
+    }
+
     // compatibility overload
     public Flux<Grievance> getByCaseWorkerSelf(String primaryId, String alternateId, String requesterDepartmentId) {
         return getByCaseWorkerSelf(primaryId, alternateId, null, requesterDepartmentId);
@@ -211,32 +409,46 @@ public class GrievanceService {
 
     // list grievances for the authenticated case worker, tolerant to ids used during assignment (user id, email, or display name) and case differences
     public Flux<Grievance> getByCaseWorkerSelf(String primaryId, String alternateId, String displayName, String requesterDepartmentId) {
-        List<String> candidates = new ArrayList<>();
-        if (StringUtils.hasText(primaryId)) {
-            candidates.add(primaryId);
-            candidates.add(primaryId.toLowerCase());
-        }
-        if (StringUtils.hasText(alternateId) && !alternateId.equalsIgnoreCase(primaryId)) {
-            candidates.add(alternateId);
-            candidates.add(alternateId.toLowerCase());
-        }
-        if (StringUtils.hasText(displayName)
-                && !displayName.equalsIgnoreCase(primaryId)
-                && !displayName.equalsIgnoreCase(alternateId)) {
-            candidates.add(displayName);
-            candidates.add(displayName.toLowerCase());
+        List<String> keys = AssigneeKeys.of(primaryId, alternateId, displayName);
+        if (keys.isEmpty()) {
+            return Flux.empty();
         }
 
-        Flux<Grievance> combined = Flux.fromIterable(candidates)
-                .distinct()
-                .flatMap(id -> grievanceRepository.findByAssignedWokerId(id))
-                .distinct(Grievance::getId);
+        Flux<Grievance> assigned = grievanceRepository.findByAssigneeKeysIn(keys);
 
         if (StringUtils.hasText(requesterDepartmentId)) {
-            return combined.filter(grievance -> isSameDepartment(requesterDepartmentId, grievance.getDepartmentId()));
+            return assigned.filter(grievance -> isSameDepartment(requesterDepartmentId, grievance.getDepartmentId()));
         }
 
-        return combined;
+        return assigned;
+    }
+
+    // keyset page variant of getByCaseWorkerSelf - one multikey $in over the normalized aliases
+    public Mono<GrievancePage<Grievance>> getByCaseWorkerSelf(String primaryId, String alternateId, String displayName,
+            String requesterDepartmentId, GrievanceListRequest page) {
+        return byCaseWorkerSelf(primaryId, alternateId, displayName, requesterDepartmentId,
+                filter -> grievanceRepository.findPage(filter, page));
+    }
+
+    // getByCaseWorkerSelf reading only the page's selected fields
+    public Mono<GrievancePage<GrievanceSummary>> getSummariesByCaseWorkerSelf(String primaryId, String alternateId,
+            String displayName, String requesterDepartmentId, GrievanceListRequest page) {
+        return byCaseWorkerSelf(primaryId, alternateId, displayName, requesterDepartmentId,
+                filter -> grievanceRepository.findSummaryPage(filter, page));
+    }
+
+    private <T> Mono<GrievancePage<T>> byCaseWorkerSelf(String primaryId, String alternateId, String displayName,
+            String requesterDepartmentId, Function<Criteria, Mono<GrievancePage<T>>> pageQuery) {
+        List<String> keys = AssigneeKeys.of(primaryId, alternateId, displayName);
+        if (keys.isEmpty()) {
+            return Mono.just(new GrievancePage<>(List.of(), null));
+        }
+
+        Criteria filter = Criteria.where(FIELD_ASSIGNEE_KEYS).in(keys);
+        if (StringUtils.hasText(requesterDepartmentId)) {
+            filter = filter.and(FIELD_DEPARTMENT_ID).is(requesterDepartmentId);
+        }
+        return pageQuery.apply(filter);
     }
 
 	// list grievances for the authenticated citizen
@@ -247,6 +459,22 @@ public class GrievanceService {
 		return grievanceRepository.findByCitizenId(citizenId);
 	}
 
+	// keyset page variant of getByCitizen
+	public Mono<GrievancePage<Grievance>> getByCitizen(String citizenId, GrievanceListRequest page) {
+		if (citizenId == null) {
+			return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
+		}
+		return grievanceRepository.findPage(Criteria.where("citizenId").is(citizenId), page);
+	}
+
+	// getByCitizen reading only the page's selected fields
+	public Mono<GrievancePage<GrievanceSummary>> getSummariesByCitizen(String citizenId, GrievanceListRequest page) {
+		if (citizenId == null) {
+			return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
+		}
+		return grievanceRepository.findSummaryPage(Criteria.where("citizenId").is(citizenId), page);
+	}
+
 	// list distinct case workers assigned by the current department officer
 	public Flux<String> getCaseWorkersForOfficer(String officerId, String role) {
 		if (officerId == null) {
@@ -258,23 +486,23 @@ public class GrievanceService {
 		if (!allowedRole) {
 			return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
 		}
-		return assignmentRepository.findByAssignedBy(officerId)
-				.flatMap(assignment -> Mono.justOrEmpty(assignment.getAssignedTo()))
-				.distinct();
+		return assignmentRepository.findDistinctAssignedTo(officerId);
 	}
 
 	// helper function
 	private Mono<GrievanceHistory> saveStatusHistory(String grievanceId, GrievanceStatus status, String updatedBy,
 			String remarks) {
+		return statusHistoryRepository.save(statusHistory(grievanceId, status, updatedBy, remarks));
+	}
 
+	static GrievanceHistory statusHistory(String grievanceId, GrievanceStatus status, String updatedBy, String remarks) {
 		GrievanceHistory history = new GrievanceHistory();
 		history.setGrievanceId(grievanceId);
 		history.setStatus(status);
 		history.setUpdatedBy(updatedBy);
 		history.setRemarks(remarks);
 		history.setUpdatedAt(LocalDateTime.now());
-
-		return statusHistoryRepository.save(history);
+		return history;
 	}
 	
 	private Mono<Grievance> ensureSameDepartmentForRestrictedRole(String role, String requesterDepartmentId, Grievance grievance) {
@@ -284,7 +512,36 @@ public class GrievanceService {
 		return Mono.just(grievance);
 	}
 
-	private boolean isDepartmentRestrictedRole(String role) {
+	// null when the requester may list the department
+	private ResponseStatusException departmentAccessError(String departmentId, String role, String requesterDepartmentId) {
+		if (!isSupervisoryOfficer(role)) {
+			return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Only supervisory officers can view department grievances");
+		}
+		if (requesterDepartmentId != null && !requesterDepartmentId.equalsIgnoreCase(departmentId) && !ROLE_ADMIN.equalsIgnoreCase(role)) {
+			return new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT);
+		}
+		return null;
+	}
+
+	// null when the requester may list the case worker's grievances
+	private ResponseStatusException caseWorkerAccessError(String caseWorkerId, String role, String requesterDepartmentId) {
+		if (caseWorkerId == null) {
+			return new ResponseStatusException(HttpStatus.BAD_REQUEST, "caseWorkerId is required");
+		}
+		boolean isCaseWorkerSelf = role != null && role.equalsIgnoreCase(ROLE_CASE_WORKER);
+		boolean allowedRole = role != null && (role.equalsIgnoreCase(ROLE_DEPARTMENT_OFFICER)
+				|| role.equalsIgnoreCase(ROLE_SUPERVISORY_OFFICER)
+				|| role.equalsIgnoreCase(ROLE_ADMIN));
+		if (!allowedRole && !isCaseWorkerSelf) {
+			return new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED);
+		}
+		if (isDepartmentRestrictedRole(role) && requesterDepartmentId == null) {
+			return new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT);
+		}
+		return null;
+	}
+
+	static boolean isDepartmentRestrictedRole(String role) {
 		return role != null &&
 				(role.equalsIgnoreCase(ROLE_DEPARTMENT_OFFICER) || role.equalsIgnoreCase(ROLE_CASE_WORKER));
 	}
@@ -293,81 +550,142 @@ public class GrievanceService {
 		return role != null && role.equalsIgnoreCase(ROLE_SUPERVISORY_OFFICER);
 	}
 
-	private boolean isCompletedStatus(GrievanceStatus status) {
-		return status == GrievanceStatus.RESOLVED ||
-				status == GrievanceStatus.CLOSED ||
-				status == GrievanceStatus.WORK_DONE;
+	// the conditional update matched nothing: read the grievance once to report why
+	private Mono<Grievance> explainFailedAssign(String grievanceId, String requesterRole, String requesterDepartmentId) {
+		return grievanceRepository.findById(grievanceId)
+				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, MSG_GRIEVANCE_NOT_FOUND)))
+				.flatMap(grievance -> ensureSameDepartmentForRestrictedRole(requesterRole, requesterDepartmentId, grievance))
+				.flatMap(grievance -> Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+						"Grievance already assigned to " + grievance.getAssignedWokerId())));
+	}
+
+	static Grievance assignedCopy(Grievance previous, String assignedTo, LocalDateTime now) {
+		Grievance assigned = new Grievance();
+		BeanUtils.copyProperties(previous, assigned);
+		assigned.setAssignedWokerId(assignedTo);
+		assigned.setAssigneeKeys(AssigneeKeys.of(assignedTo));
+		assigned.setStatus(GrievanceStatus.ASSIGNED);
+		assigned.setAssignedAt(now);
+		assigned.setUpdatedAt(now);
+		assigned.setVersion(nextVersion(previous));
+		return assigned;
 	}
 
-	private Mono<Void> ensureCaseWorkerAvailable(String caseWorkerId) {
-			return grievanceRepository.findByAssignedWokerId(caseWorkerId)
-					.filter(grievance -> !isCompletedStatus(grievance.getStatus()))
-					.hasElements()
-					.flatMap(hasActive -> {
-						if (Boolean.TRUE.equals(hasActive)) {
-							return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
-									"Case worker already has an active assignment"));
-						}
-						return Mono.empty();
-					});
+	// the version the repository's $inc leaves behind (a document from before versioning gets 1)
+	static Long nextVersion(Grievance grievance) {
+		return grievance.getVersion() != null ? grievance.getVersion() + 1 : 1L;
 	}
 
-	private boolean isSameDepartment(String requesterDepartmentId, String targetDepartmentId) {
+	static Assignment assignment(String grievanceId, String assignedBy, String assignedTo, LocalDateTime assignedAt) {
+		Assignment assignment = new Assignment();
+		assignment.setGrievanceId(grievanceId);
+		assignment.setAssignedBy(assignedBy);
+		assignment.setAssignedTo(assignedTo);
+		assignment.setAssignedAt(assignedAt);
+		return assignment;
+	}
+
+	// the version-guarded write; losing the race is signalled for GrievanceVersionRetry to re-read and try again
+	private Mono<Grievance> updateIfVersion(Grievance current, Update changes) {
+		return grievanceRepository.updateIfVersion(current, changes)
+				.switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+						"Grievance " + current.getId() + " changed since version " + current.getVersion())));
+	}
+
+	// after a write: drop the cached copy and let later reads start their own queries instead of joining older ones
+	private void evict(String grievanceId) {
+		grievanceCache.invalidate(grievanceId);
+		requestCoalescer.forget(OPERATION_HISTORY, grievanceId);
+	}
+
+	static boolean isSameDepartment(String requesterDepartmentId, String targetDepartmentId) {
 		return requesterDepartmentId != null && targetDepartmentId != null
 				&& requesterDepartmentId.equalsIgnoreCase(targetDepartmentId);
 	}
 	
 	// escalation method
+	// version-guarded like updateStatus, so it cannot overwrite an officer's concurrent change
 	public Mono<Grievance> escalateGrievance(String grievanceId, String escalatedBy) {
 
-	    return grievanceRepository.findById(grievanceId)
+	    return versionRetry.run(OPERATION_ESCALATE, () -> grievanceRepository.findById(grievanceId)
 	        .flatMap(grievance -> {
 
 	            if (grievance.isEscalated()) {
 	                return Mono.just(grievance);
 	            }
 
-	            grievance.setStatus(GrievanceStatus.ESCALATED);
-	            grievance.setEscalated(true);
-	            grievance.setUpdatedAt(LocalDateTime.now());
+	            LocalDateTime escalatedAt = LocalDateTime.now();
+	            Update changes = new Update()
+	                    .set("escalatedFrom", grievance.getStatus())
+	                    .set(FIELD_STATUS, GrievanceStatus.ESCALATED)
+	                    .set("escalated", true)
+	                    .set("escalatedAt", escalatedAt)
+	                    .set(FIELD_UPDATED_AT, escalatedAt);
 
-	        return grievanceRepository.save(grievance)
+	        return transactions.execute(updateIfVersion(grievance, changes)
 	                .flatMap(updated ->
 	                    saveStatusHistory(
 	                        grievanceId,
 	                        GrievanceStatus.ESCALATED,
 	                        escalatedBy,
-	                        "SLA breached escalated to supervisory officer"
+	                        MSG_SLA_BREACHED
 	                    ).thenReturn(updated)
 	                )
 	                .flatMap(updated -> grievanceEventPublisher
 	                        .publishStatusChange(updated, GrievanceStatus.ESCALATED,
-	                                "We escalated your grievance for quicker attention")
-	                        .thenReturn(updated));
-	        });
+	                                MSG_ESCALATION_NOTICE)
+	                        .thenReturn(updated)))
+	                .flatMap(updated -> grievanceStatsService.onEscalated(List.of(updated)).thenReturn(updated))
+	                .doOnNext(updated -> evict(grievanceId))
+	                .doOnNext(slaDeadlineQueue::track);
+	        }));
+	}
+
+	// SLA engine entry point for a batch of due deadlines: one updateMany guarded by the overdue condition, one
+	// history insertMany and one outbox insertMany, so a stale queue entry or a lease handover escalates at most once
+	public Flux<Grievance> escalateOverdue(Collection<String> grievanceIds) {
+		LocalDateTime assignedBefore = LocalDateTime.now().minus(slaDeadlineQueue.getSlaTimeout());
+
+		return transactions.execute(grievanceRepository
+				.escalateOverdue(grievanceIds, SlaDeadlineQueue.SLA_STATUSES, assignedBefore)
+				.collectList()
+				.filter(escalated -> !escalated.isEmpty())
+				.flatMap(escalated -> transactions.writeAll(
+								Mono.defer(() -> statusHistoryRepository.saveAll(escalated.stream()
+										.map(grievance -> statusHistory(grievance.getId(), GrievanceStatus.ESCALATED,
+												SYSTEM_ACTOR, MSG_SLA_BREACHED))
+										.toList()).then()),
+								Mono.defer(() -> grievanceEventPublisher.publishStatusChanges(escalated,
+										GrievanceStatus.ESCALATED, MSG_ESCALATION_NOTICE)))
+						.thenReturn(escalated)))
+				.flatMap(escalated -> grievanceStatsService.onEscalated(escalated).thenReturn(escalated))
+				.doOnNext(escalated -> escalated.forEach(grievance -> evict(grievance.getId())))
+				.flatMapIterable(escalated -> escalated)
+				.doOnNext(slaDeadlineQueue::track);
 	}
 
-	
     public Flux<String> getAllCaseWorkersInDepartment(String role, String departmentId) {
+        return getCaseWorkerRoster(role, departmentId).map(CaseWorkerRosterEntry::getCaseWorkerId);
+    }
+
+    // case workers of the department with their active-assignment counts, read from the workload records
+    public Flux<CaseWorkerRosterEntry> getCaseWorkerRoster(String role, String departmentId) {
 
         boolean allowed =
                 ROLE_DEPARTMENT_OFFICER.equalsIgnoreCase(role) ||
                 ROLE_SUPERVISORY_OFFICER.equalsIgnoreCase(role) ||
                 ROLE_ADMIN.equalsIgnoreCase(role);
 
-	    if (!allowed) {
-	        return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-	    }
+        if (!allowed) {
+            return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        }
 
-	    if (departmentId == null) {
-	        return Flux.error(new ResponseStatusException(
-	                HttpStatus.UNAUTHORIZED, "Department missing"));
-	    }
+        if (departmentId == null) {
+            return Flux.error(new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED, "Department missing"));
+        }
 
-            return grievanceRepository.findByDepartmentId(departmentId)
-                    .map(Grievance::getAssignedWokerId)
-                    .filter(workerId -> workerId != null && !workerId.isBlank())
-                    .distinct();
+        return caseWorkerWorkloadService.roster(departmentId);
     }
 
     public Flux<EscalatedGrievanceView> getEscalatedForSupervisor(String role, String departmentId) {
@@ -376,38 +694,45 @@ public class GrievanceService {
             return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
         }
 
-        Flux<Grievance> base = grievanceRepository.findByStatus(GrievanceStatus.ESCALATED);
-
-        if (!isAdmin && StringUtils.hasText(departmentId)) {
-            base = base.filter(grievance -> isSameDepartment(departmentId, grievance.getDepartmentId()));
-        }
-
-        return base.flatMap(this::mapToEscalatedView);
+        // supervisors only see their department; the filter and the latest-assignment join both run in Mongo
+        String departmentScope = !isAdmin && StringUtils.hasText(departmentId) ? departmentId : null;
+        return grievanceRepository.findEscalatedViews(departmentScope);
     }
 
-    private Mono<EscalatedGrievanceView> mapToEscalatedView(Grievance grievance) {
-        return assignmentRepository.findByGrievanceId(grievance.getId())
-                .collectList()
-                .map(assignments -> {
-                    Assignment latest = pickLatestAssignment(assignments);
-                    return new EscalatedGrievanceView(
-                            grievance.getId(),
-                            grievance.getDescription(),
-                            grievance.getDepartmentId(),
-                            latest != null ? latest.getAssignedTo() : grievance.getAssignedWokerId(),
-                            latest != null ? latest.getAssignedBy() : null,
-                            grievance.getStatus()
-                    );
-                });
+    // dashboard counters; admins may look at any department or all of them, officers only at their own
+    public Mono<GrievanceStatsView> getStats(String role, String requesterDepartmentId, String departmentId,
+            LocalDate from, LocalDate to) {
+        boolean isAdmin = ROLE_ADMIN.equalsIgnoreCase(role);
+        boolean isOfficer = ROLE_SUPERVISORY_OFFICER.equalsIgnoreCase(role) || ROLE_DEPARTMENT_OFFICER.equalsIgnoreCase(role);
+        if (!isAdmin && !isOfficer) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return Mono.error(new IllegalArgumentException("from must not be after to"));
+        }
+        String departmentScope = isAdmin && StringUtils.hasText(departmentId) ? departmentId : null;
+        if (!isAdmin) {
+            if (!StringUtils.hasText(requesterDepartmentId)
+                    || (StringUtils.hasText(departmentId) && !isSameDepartment(requesterDepartmentId, departmentId))) {
+                return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED_DEPT));
+            }
+            departmentScope = requesterDepartmentId;
+        }
+        if (departmentScope == null) {
+            return grievanceStatsService.summarize(null, from, to);
+        }
+        String scope = departmentScope;
+        return grievanceStatsService.summarize(scope, from, to)
+                .flatMap(view -> caseWorkerWorkloadService.roster(scope)
+                        .collectList()
+                        .doOnNext(view::setCaseWorkers)
+                        .thenReturn(view));
     }
 
-    private Assignment pickLatestAssignment(java.util.List<Assignment> assignments) {
-        return assignments.stream()
-                .filter(a -> a.getAssignedAt() != null)
-                .max(java.util.Comparator.comparing(Assignment::getAssignedAt))
-                .orElseGet(() -> assignments.isEmpty() ? null : assignments.get(assignments.size() - 1));
+    public Mono<Void> rebuildStats(String role) {
+        if (!ROLE_ADMIN.equalsIgnoreCase(role)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, MSG_UNAUTHORIZED));
+        }
+        return grievanceStatsService.startRebuild();
     }
-
-
-
 }
@@ -0,0 +1,543 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStats;
+import com.grievance.model.GrievanceStatsView;
+import com.grievance.model.GrievanceStatus;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// keeps grievance_stats in step with the service's own writes ($inc per department and creation day), so
+// dashboards read a handful of counter documents instead of pulling grievance lists.
+// While a rebuild is pending the changes go to a journal instead, stamped with the grievance version they produced:
+// the rebuild records the version it scanned of each grievance and applies just the journal entries newer than
+// that, so a change is counted once whether it landed before, during or after its batch was read. The live
+// counters stand still meanwhile, they are replaced when the rebuild is swapped in.
+@Service
+public class GrievanceStatsService {
+
+	private static final Logger log = LoggerFactory.getLogger(GrievanceStatsService.class);
+	static final String STAGING_COLLECTION = "grievance_stats_staging";
+	static final String CHECKPOINT_COLLECTION = "grievance_stats_rebuild";
+	static final String JOURNAL_COLLECTION = "grievance_stats_journal";
+	static final String SCANNED_COLLECTION = "grievance_stats_rebuild_scanned";
+	private static final String CHECKPOINT_ID = "rebuild";
+	private static final String UNSPECIFIED_DEPARTMENT = "UNSPECIFIED";
+	private static final String FIELD_DEPARTMENT_ID = "departmentId";
+	private static final String FIELD_BUCKET = "bucket";
+	private static final String FIELD_LAST_ID = "lastId";
+	private static final String FIELD_REBUILT_THROUGH = "rebuiltThrough";
+	private static final String FIELD_LIVE_SCANNED = "liveScanned";
+	private static final String FIELD_ARCHIVE_LAST_ID = "archiveLastId";
+	private static final String FIELD_STARTED_AT = "startedAt";
+	private static final String FIELD_GRIEVANCE_ID = "grievanceId";
+	private static final String FIELD_VERSION = "version";
+	private static final String FIELD_DAY = "day";
+	private static final String FIELD_INC = "inc";
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final GrievanceTransactions transactions;
+	private final Counter writeFailures;
+	private final int rebuildBatchSize;
+	private final Duration settle;
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+	@Autowired
+	public GrievanceStatsService(
+			ReactiveMongoOperations mongoOperations,
+			GrievanceTransactions transactions,
+			MeterRegistry meterRegistry,
+			@Value("${grievance.stats.rebuild-batch-size:1000}") int rebuildBatchSize,
+			@Value("${grievance.stats.rebuild-settle:PT30S}") Duration settle) {
+		this.mongoOperations = mongoOperations;
+		this.transactions = transactions;
+		this.writeFailures = Counter.builder("grievance.stats.write.failed").register(meterRegistry);
+		this.rebuildBatchSize = rebuildBatchSize;
+		this.settle = settle;
+	}
+
+	// no counters at all: changes are not recorded; for tests and tools
+	public static GrievanceStatsService disabled() {
+		return new GrievanceStatsService(null, GrievanceTransactions.none(), new SimpleMeterRegistry(), 1, Duration.ZERO);
+	}
+
+	// counters are derivable (see rebuild), so a failed write is counted and logged rather than failing a change
+	// that is already stored; callers still wait for it, so the counters keep up with the writes that feed them
+
+	public Mono<Void> onCreated(Grievance grievance) {
+		return record(List.of(grievance), this::snapshot);
+	}
+
+	public Mono<Void> onImported(Collection<Grievance> imported) {
+		return record(imported, this::snapshot);
+	}
+
+	public Mono<Void> onAssigned(Grievance assigned, GrievanceStatus previousStatus) {
+		return onAssigned(List.of(assigned), g -> previousStatus);
+	}
+
+	// bulk variant: one counters write for the whole batch
+	public Mono<Void> onAssigned(Collection<Grievance> assigned, Function<Grievance, GrievanceStatus> previousStatus) {
+		return record(assigned, g -> new Delta()
+				.add("unassigned", -1).add("assigned", 1)
+				.add(statusField(previousStatus.apply(g)), -1).add(statusField(GrievanceStatus.ASSIGNED), 1));
+	}
+
+	public Mono<Void> onStatusChange(Grievance grievance, GrievanceStatus previous, GrievanceStatus next) {
+		return onStatusChange(List.of(grievance), g -> previous, next);
+	}
+
+	// bulk variant: one counters write for the whole batch
+	public Mono<Void> onStatusChange(Collection<Grievance> changed, Function<Grievance, GrievanceStatus> previous, GrievanceStatus next) {
+		List<Grievance> moved = changed.stream().filter(g -> previous.apply(g) != next).toList();
+		return record(moved, g -> new Delta().add(statusField(previous.apply(g)), -1).add(statusField(next), 1));
+	}
+
+	public Mono<Void> onEscalated(Collection<Grievance> escalated) {
+		return record(escalated, g -> new Delta()
+				.add("escalated", 1)
+				.add(statusField(g.getEscalatedFrom()), -1).add(statusField(GrievanceStatus.ESCALATED), 1));
+	}
+
+	// sums the department's (or, when null, every department's) buckets; without a range the all-time bucket is read
+	public Mono<GrievanceStatsView> summarize(String departmentId, LocalDate from, LocalDate to) {
+		Criteria criteria = departmentId != null ? Criteria.where(FIELD_DEPARTMENT_ID).is(departmentId) : new Criteria();
+		if (from == null && to == null) {
+			criteria = criteria.and(FIELD_BUCKET).is(GrievanceStats.ALL_TIME);
+		} else {
+			// ISO days sort lexicographically, and "all" sorts after every day
+			Criteria range = criteria.and(FIELD_BUCKET);
+			range = from != null ? range.gte(from.toString()) : range.gte("0");
+			criteria = to != null ? range.lte(to.toString()) : range.lt(GrievanceStats.ALL_TIME);
+		}
+		return mongoOperations.find(new Query(criteria), GrievanceStats.class)
+				.reduce(new GrievanceStatsView(departmentId, from, to), GrievanceStatsView::add);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeOrSeed() {
+		mongoOperations.exists(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), CHECKPOINT_COLLECTION)
+				.flatMap(interrupted -> interrupted
+						? Mono.just(true)
+						: mongoOperations.estimatedCount(GrievanceStats.class).map(count -> count == 0))
+				.filter(Boolean::booleanValue)
+				.flatMap(needed -> rebuild())
+				.onErrorResume(ResponseStatusException.class, ex -> Mono.empty())
+				.doOnError(ex -> log.warn("Grievance stats rebuild did not complete", ex))
+				.onErrorResume(ex -> Mono.empty())
+				.subscribe();
+	}
+
+	// journal entries of changes that read the checkpoint just before a swap removed it; they belong in the
+	// rebuilt counters that are live now
+	@Scheduled(fixedDelayString = "${grievance.stats.rebuild-settle:PT30S}", initialDelayString = "${grievance.stats.rebuild-settle:PT30S}")
+	public void applyLateChanges() {
+		isRebuildPending()
+				.filter(pending -> !pending)
+				.flatMap(idle -> applyJournal(mongoOperations.getCollectionName(GrievanceStats.class)))
+				.filter(applied -> applied > 0)
+				.doOnNext(applied -> log.info("Applied {} late grievance stats changes", applied))
+				.doOnError(ex -> log.warn("Applying late grievance stats changes failed, retrying on the next run: {}", ex.getMessage()))
+				.onErrorResume(ex -> Mono.empty())
+				.subscribe();
+	}
+
+	// recomputes every counter into a staging collection in _id order, checkpointing after each batch so an
+	// interrupted rebuild resumes where it stopped, then applies the journal and swaps the staging collection in;
+	// emits grievances scanned.
+	// Grievances moved to grievance_archive are scanned too: archiving takes a grievance out of the working set,
+	// not out of the dashboards, so a rebuild reproduces the counters the incremental writes kept.
+	public Mono<Long> rebuild() {
+		return Mono.defer(() -> rebuilding.compareAndSet(false, true) ? runRebuild() : Mono.error(alreadyRunning()));
+	}
+
+	// admin trigger: claims the rebuild up front so a second request gets 409, then lets it run in the background
+	public Mono<Void> startRebuild() {
+		return Mono.defer(() -> {
+			if (!rebuilding.compareAndSet(false, true)) {
+				return Mono.error(alreadyRunning());
+			}
+			runRebuild()
+					.doOnError(ex -> log.warn("Grievance stats rebuild did not complete, it resumes on the next run", ex))
+					.onErrorResume(ex -> Mono.empty())
+					.subscribe();
+			return Mono.empty();
+		});
+	}
+
+	private Mono<Long> runRebuild() {
+		return Mono.defer(this::startOrResume)
+				.flatMap(checkpoint -> {
+					Mono<Long> live = checkpoint.getBoolean(FIELD_LIVE_SCANNED, false)
+							? Mono.just(0L)
+							: scan(RebuildPass.LIVE, checkpoint.getString(FIELD_LAST_ID))
+									.flatMap(scanned -> markLiveScanned().thenReturn(scanned));
+					return live.flatMap(liveScanned -> scan(RebuildPass.ARCHIVE, checkpoint.getString(FIELD_ARCHIVE_LAST_ID))
+									.map(archivedScanned -> liveScanned + archivedScanned))
+							.flatMap(scanned -> applyJournal(STAGING_COLLECTION)
+									.then(settled(checkpoint))
+									.then(swapIn())
+									.thenReturn(scanned));
+				})
+				.doOnNext(scanned -> log.info("Grievance stats rebuilt from {} grievances", scanned))
+				.doFinally(signal -> rebuilding.set(false));
+	}
+
+	public boolean isRebuilding() {
+		return rebuilding.get();
+	}
+
+	// true while a rebuild on any instance has a checkpoint, i.e. has started and not been swapped in
+	public Mono<Boolean> isRebuildPending() {
+		return mongoOperations.exists(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), CHECKPOINT_COLLECTION);
+	}
+
+	private static ResponseStatusException alreadyRunning() {
+		return new ResponseStatusException(HttpStatus.CONFLICT, "Grievance stats rebuild already running");
+	}
+
+	// the checkpoint to resume from. A fresh rebuild first settles what the last one left in the journal, then
+	// starts from an empty staging collection and no scanned versions
+	private Mono<Document> startOrResume() {
+		Query checkpoint = new Query(Criteria.where("_id").is(CHECKPOINT_ID));
+		Date startedAt = new Date();
+		Update start = new Update().setOnInsert(FIELD_STARTED_AT, startedAt);
+		return mongoOperations.findOne(checkpoint, Document.class, CHECKPOINT_COLLECTION)
+				.flatMap(resumed -> ensureStagingIndexes().thenReturn(resumed))
+				.switchIfEmpty(Mono.defer(() -> applyJournal(mongoOperations.getCollectionName(GrievanceStats.class))
+						.then(mongoOperations.dropCollection(STAGING_COLLECTION))
+						.then(mongoOperations.dropCollection(SCANNED_COLLECTION))
+						.then(ensureStagingIndexes())
+						.then(mongoOperations.upsert(checkpoint, start, CHECKPOINT_COLLECTION))
+						.thenReturn(new Document(FIELD_STARTED_AT, startedAt))));
+	}
+
+	private Mono<Long> scan(RebuildPass pass, String lastId) {
+		return rebuildBatch(pass, lastId != null ? lastId : "")
+				.expand(batch -> batch.lastId() == null ? Mono.empty() : rebuildBatch(pass, batch.lastId()))
+				.map(RebuildBatch::scanned)
+				.reduce(0L, Long::sum);
+	}
+
+	private Mono<RebuildBatch> rebuildBatch(RebuildPass pass, String afterId) {
+		Query batch = new Query(afterId.isEmpty() ? new Criteria() : Criteria.where("id").gt(afterId))
+				.with(Sort.by("id"))
+				.limit(rebuildBatchSize);
+		batch.fields().include(FIELD_DEPARTMENT_ID, "createdAt", "status", "assignedWokerId", "escalated", FIELD_VERSION);
+		String collection = pass == RebuildPass.LIVE
+				? mongoOperations.getCollectionName(Grievance.class)
+				: GrievanceArchive.ARCHIVE_COLLECTION;
+		return mongoOperations.find(batch, Grievance.class, collection)
+				.collectList()
+				.flatMap(grievances -> {
+					if (grievances.isEmpty()) {
+						return Mono.just(new RebuildBatch(0, null));
+					}
+					String lastId = grievances.get(grievances.size() - 1).getId();
+					return saveScannedVersions(grievances)
+							.then(foldIntoStaging(grievances, pass.foldMark(lastId)))
+							.then(saveCheckpoint(pass.checkpointField(), lastId))
+							.thenReturn(new RebuildBatch(grievances.size(), lastId));
+				});
+	}
+
+	// the versions the batch's counters were taken at; journal entries up to these are already in staging
+	private Mono<Void> saveScannedVersions(List<Grievance> grievances) {
+		ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkMode.UNORDERED, SCANNED_COLLECTION);
+		grievances.forEach(grievance -> bulk.upsert(new Query(Criteria.where("_id").is(grievance.getId())),
+				new Update().set(FIELD_VERSION, versionOf(grievance))));
+		return bulk.execute().then();
+	}
+
+	// rebuiltThrough makes each counter document take a given batch once, even when the batch is redone after a crash
+	private Mono<Void> foldIntoStaging(List<Grievance> grievances, String foldMark) {
+		ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkMode.ORDERED, GrievanceStats.class, STAGING_COLLECTION);
+		deltasByKey(grievances, this::snapshot).forEach((key, delta) -> {
+			Query byKey = new Query(Criteria.where("_id").is(key.id()));
+			bulk.upsert(byKey, new Update()
+					.setOnInsert(FIELD_DEPARTMENT_ID, key.departmentId())
+					.setOnInsert(FIELD_BUCKET, key.bucket()));
+			Query notYetFolded = new Query(Criteria.where("_id").is(key.id()).orOperator(
+					Criteria.where(FIELD_REBUILT_THROUGH).exists(false),
+					Criteria.where(FIELD_REBUILT_THROUGH).lt(foldMark)));
+			bulk.updateOne(notYetFolded, delta.toUpdate().set(FIELD_REBUILT_THROUGH, foldMark));
+		});
+		return bulk.execute().then();
+	}
+
+	private Mono<Void> saveCheckpoint(String field, String lastId) {
+		Update progress = new Update().max(field, lastId).set("updatedAt", LocalDateTime.now());
+		return mongoOperations.upsert(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), progress, CHECKPOINT_COLLECTION)
+				.then();
+	}
+
+	private Mono<Void> markLiveScanned() {
+		Update scanned = new Update().set(FIELD_LIVE_SCANNED, true).set("updatedAt", LocalDateTime.now());
+		return mongoOperations.upsert(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), scanned, CHECKPOINT_COLLECTION)
+				.then();
+	}
+
+	// a counters write that found no checkpoint just before this rebuild started still lands in the live
+	// collection; the swap waits long enough after the start for all of those to have landed in the old one
+	private Mono<Void> settled(Document checkpoint) {
+		Date startedAt = checkpoint.getDate(FIELD_STARTED_AT);
+		Duration remaining = startedAt == null
+				? Duration.ZERO
+				: settle.minus(Duration.between(startedAt.toInstant(), Instant.now()));
+		return remaining.isNegative() || remaining.isZero() ? Mono.empty() : Mono.delay(remaining).then();
+	}
+
+	// renameCollection keeps the staging indexes and replaces the live collection in one step; a resumed rebuild
+	// that was interrupted after the rename only has the checkpoint left to remove
+	private Mono<Void> swapIn() {
+		String live = mongoOperations.getCollectionName(GrievanceStats.class);
+		return mongoOperations.collectionExists(STAGING_COLLECTION)
+				.filter(Boolean::booleanValue)
+				.flatMap(exists -> mongoOperations.getCollection(STAGING_COLLECTION))
+				.flatMap(staging -> Mono.from(staging.renameCollection(
+						new MongoNamespace(staging.getNamespace().getDatabaseName(), live),
+						new RenameCollectionOptions().dropTarget(true))))
+				.then(mongoOperations.remove(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), CHECKPOINT_COLLECTION))
+				.then();
+	}
+
+	private Mono<Void> ensureStagingIndexes() {
+		IndexResolver resolver = IndexResolver.create((MongoMappingContext) mongoOperations.getConverter().getMappingContext());
+		return Flux.fromIterable(resolver.resolveIndexFor(GrievanceStats.class))
+				.concatMap(definition -> mongoOperations.indexOps(STAGING_COLLECTION).ensureIndex(definition))
+				.then();
+	}
+
+	// the pending check comes first: a change that finds a checkpoint never writes the live counters, because the
+	// journal entry is what carries it into the counters that replace them
+	private Mono<Void> record(Collection<Grievance> grievances, Function<Grievance, Delta> deltaOf) {
+		if (mongoOperations == null || grievances.isEmpty()) {
+			return Mono.empty();
+		}
+		return isRebuildPending()
+				.flatMap(pending -> pending
+						? journal(grievances, deltaOf)
+						: write(deltasByKey(grievances, deltaOf), mongoOperations.getCollectionName(GrievanceStats.class)))
+				.doOnError(ex -> {
+					writeFailures.increment();
+					log.warn("Grievance stats update failed, counters will drift until the next rebuild: {}", ex.getMessage());
+				})
+				.onErrorResume(ex -> Mono.empty());
+	}
+
+	private Mono<Void> journal(Collection<Grievance> grievances, Function<Grievance, Delta> deltaOf) {
+		List<Document> entries = grievances.stream()
+				.map(grievance -> new Document(FIELD_GRIEVANCE_ID, grievance.getId())
+						.append(FIELD_VERSION, versionOf(grievance))
+						.append(FIELD_DEPARTMENT_ID, departmentOf(grievance))
+						.append(FIELD_DAY, dayOf(grievance))
+						.append(FIELD_INC, deltaOf.apply(grievance).toDocument()))
+				.toList();
+		return mongoOperations.insert(entries, JOURNAL_COLLECTION).then();
+	}
+
+	// drains the journal into the given counters, oldest entries first; emits the entries applied
+	private Mono<Long> applyJournal(String collection) {
+		return applyJournalBatch(collection)
+				.expand(batch -> batch.drained() < rebuildBatchSize ? Mono.empty() : applyJournalBatch(collection))
+				.map(JournalBatch::applied)
+				.reduce(0L, Long::sum);
+	}
+
+	// read, applied and removed in one transaction, so two instances draining at once cannot both apply an entry
+	private Mono<JournalBatch> applyJournalBatch(String collection) {
+		Query oldest = new Query().with(Sort.by("_id")).limit(rebuildBatchSize);
+		return transactions.execute(mongoOperations.find(oldest, Document.class, JOURNAL_COLLECTION)
+				.collectList()
+				.flatMap(entries -> entries.isEmpty()
+						? Mono.just(new JournalBatch(0, 0))
+						: scannedVersions(entries).flatMap(scanned -> {
+							List<Document> newer = entries.stream()
+									.filter(entry -> isNewer(entry, scanned.get(entry.getString(FIELD_GRIEVANCE_ID))))
+									.toList();
+							Query applied = new Query(Criteria.where("_id").in(entries.stream().map(entry -> entry.get("_id")).toList()));
+							return (newer.isEmpty() ? Mono.<Void>empty() : write(journalDeltas(newer), collection))
+									.then(mongoOperations.remove(applied, JOURNAL_COLLECTION))
+									.thenReturn(new JournalBatch(entries.size(), newer.size()));
+						})));
+	}
+
+	private Mono<Map<String, Long>> scannedVersions(List<Document> entries) {
+		Query scanned = new Query(Criteria.where("_id").in(entries.stream().map(entry -> entry.getString(FIELD_GRIEVANCE_ID)).distinct().toList()));
+		return mongoOperations.find(scanned, Document.class, SCANNED_COLLECTION)
+				.collectMap(doc -> doc.getString("_id"), doc -> ((Number) doc.get(FIELD_VERSION)).longValue());
+	}
+
+	// a grievance the rebuild never scanned was created after its batch, so all of its changes are new
+	private static boolean isNewer(Document entry, Long scannedVersion) {
+		return scannedVersion == null || ((Number) entry.get(FIELD_VERSION)).longValue() > scannedVersion;
+	}
+
+	private static Map<StatsKey, Delta> journalDeltas(List<Document> entries) {
+		Map<StatsKey, Delta> byKey = new LinkedHashMap<>();
+		for (Document entry : entries) {
+			Delta delta = Delta.of(entry.get(FIELD_INC, Document.class));
+			String departmentId = entry.getString(FIELD_DEPARTMENT_ID);
+			byKey.computeIfAbsent(new StatsKey(departmentId, GrievanceStats.ALL_TIME), key -> new Delta()).merge(delta);
+			if (entry.getString(FIELD_DAY) != null) {
+				byKey.computeIfAbsent(new StatsKey(departmentId, entry.getString(FIELD_DAY)), key -> new Delta()).merge(delta);
+			}
+		}
+		return byKey;
+	}
+
+	private Mono<Void> write(Map<StatsKey, Delta> deltas, String collection) {
+		ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkMode.UNORDERED, GrievanceStats.class, collection);
+		deltas.forEach((key, delta) -> bulk.upsert(new Query(Criteria.where("_id").is(key.id())), delta.toUpdate()
+				.set(FIELD_DEPARTMENT_ID, key.departmentId())
+				.set(FIELD_BUCKET, key.bucket())
+				.set("updatedAt", LocalDateTime.now())));
+		return bulk.execute().then();
+	}
+
+	// the full contribution of one grievance in its current state
+	private Delta snapshot(Grievance grievance) {
+		Delta delta = new Delta()
+				.add("total", 1)
+				.add(grievance.getAssignedWokerId() != null ? "assigned" : "unassigned", 1)
+				.add(statusField(grievance.getStatus()), 1);
+		return grievance.isEscalated() ? delta.add("escalated", 1) : delta;
+	}
+
+	// every grievance counts towards its department's all-time bucket and its creation-day bucket
+	private Map<StatsKey, Delta> deltasByKey(Collection<Grievance> grievances, Function<Grievance, Delta> deltaOf) {
+		Map<StatsKey, Delta> byKey = new LinkedHashMap<>();
+		for (Grievance grievance : grievances) {
+			Delta delta = deltaOf.apply(grievance);
+			String departmentId = departmentOf(grievance);
+			byKey.computeIfAbsent(new StatsKey(departmentId, GrievanceStats.ALL_TIME), key -> new Delta()).merge(delta);
+			if (dayOf(grievance) != null) {
+				byKey.computeIfAbsent(new StatsKey(departmentId, dayOf(grievance)), key -> new Delta()).merge(delta);
+			}
+		}
+		return byKey;
+	}
+
+	private static String departmentOf(Grievance grievance) {
+		return grievance.getDepartmentId() != null ? grievance.getDepartmentId() : UNSPECIFIED_DEPARTMENT;
+	}
+
+	private static String dayOf(Grievance grievance) {
+		return grievance.getCreatedAt() != null ? grievance.getCreatedAt().toLocalDate().toString() : null;
+	}
+
+	// documents written before versioning have none; their first versioned write makes it 1
+	private static long versionOf(Grievance grievance) {
+		return grievance.getVersion() != null ? grievance.getVersion() : 0L;
+	}
+
+	private static String statusField(GrievanceStatus status) {
+		return "byStatus." + (status != null ? status.name() : "NONE");
+	}
+
+	record StatsKey(String departmentId, String bucket) {
+		String id() {
+			return departmentId + "|" + bucket;
+		}
+	}
+
+	private record RebuildBatch(long scanned, String lastId) {
+	}
+
+	private record JournalBatch(int drained, int applied) {
+	}
+
+	// live grievances first, then archived ones, each with its own checkpoint cursor
+	private enum RebuildPass {
+		LIVE(FIELD_LAST_ID, ""),
+		// '~' sorts after every hex id, so archive batches count as later than all live ones for rebuiltThrough
+		ARCHIVE(FIELD_ARCHIVE_LAST_ID, "~");
+
+		private final String checkpointField;
+		private final String foldPrefix;
+
+		RebuildPass(String checkpointField, String foldPrefix) {
+			this.checkpointField = checkpointField;
+			this.foldPrefix = foldPrefix;
+		}
+
+		String checkpointField() {
+			return checkpointField;
+		}
+
+		String foldMark(String lastId) {
+			return foldPrefix + lastId;
+		}
+	}
+
+	// field -> increment
+	static final class Delta {
+
+		private final Map<String, Long> increments = new LinkedHashMap<>();
+
+		Delta add(String field, long amount) {
+			increments.merge(field, amount, Long::sum);
+			return this;
+		}
+
+		Delta merge(Delta other) {
+			other.increments.forEach(this::add);
+			return this;
+		}
+
+		static Delta of(Document increments) {
+			Delta delta = new Delta();
+			increments.forEach((field, amount) -> delta.add(field, ((Number) amount).longValue()));
+			return delta;
+		}
+
+		Document toDocument() {
+			return new Document(new LinkedHashMap<String, Object>(increments));
+		}
+
+		Update toUpdate() {
+			Update update = new Update();
+			increments.forEach(update::inc);
+			return update;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.grievance.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// runs a grievance write, its history entry and its outbox record as one Mongo transaction, so a change is never
+// stored without its event or the other way round. Transactions need a replica set; there is deliberately no
+// non-transactional mode, a standalone mongod fails these writes instead of splitting them.
+@Component
+public class GrievanceTransactions {
+
+	private final TransactionalOperator operator;
+
+	@Autowired
+	public GrievanceTransactions(ReactiveTransactionManager transactionManager) {
+		this.operator = TransactionalOperator.create(transactionManager);
+	}
+
+	private GrievanceTransactions() {
+		this.operator = null;
+	}
+
+	// no-op variant for unit tests
+	public static GrievanceTransactions none() {
+		return new GrievanceTransactions();
+	}
+
+	public <T> Mono<T> execute(Mono<T> work) {
+		return operator == null ? work : operator.transactional(work);
+	}
+
+	// independent writes, one after another: a transaction's session does not allow concurrent operations
+	public Mono<Void> writeAll(Mono<?>... writes) {
+		return Flux.concat(writes).then();
+	}
+}
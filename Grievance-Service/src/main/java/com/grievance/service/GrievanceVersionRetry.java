@@ -0,0 +1,88 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// re-runs a read-modify-write whose version-guarded write lost to a concurrent one. Each attempt re-reads, so it
+// applies its change to the latest document; attempts are bounded and spaced by exponential backoff with jitter so
+// the SLA engine and officers on other instances do not keep colliding in lockstep. Conflicts and exhausted retries
+// are counted per operation.
+@Component
+public class GrievanceVersionRetry {
+
+	private static final String METRIC_CONFLICTS = "grievance.version.conflicts";
+	private static final String METRIC_EXHAUSTED = "grievance.version.retries.exhausted";
+	static final String MSG_CONFLICT = "Grievance was changed concurrently, please retry";
+
+	private final MeterRegistry meterRegistry;
+	private final int maxRetries;
+	private final Duration minBackoff;
+	private final Duration maxBackoff;
+	private final Map<String, Counter> conflicts = new ConcurrentHashMap<>();
+	private final Map<String, Counter> exhausted = new ConcurrentHashMap<>();
+
+	@Autowired
+	public GrievanceVersionRetry(
+			MeterRegistry meterRegistry,
+			@Value("${grievance.concurrency.max-retries:3}") int maxRetries,
+			@Value("${grievance.concurrency.min-backoff:PT0.02S}") Duration minBackoff,
+			@Value("${grievance.concurrency.max-backoff:PT0.5S}") Duration maxBackoff) {
+		this.meterRegistry = meterRegistry;
+		this.maxRetries = maxRetries;
+		this.minBackoff = minBackoff;
+		this.maxBackoff = maxBackoff;
+	}
+
+	// retries without waiting, for tests and tools
+	public static GrievanceVersionRetry immediate() {
+		return new GrievanceVersionRetry(new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO);
+	}
+
+	// the attempt signals a lost race with OptimisticLockingFailureException; once the retries are used up the
+	// caller gets a 409
+	public <T> Mono<T> run(String operation, Supplier<Mono<T>> attempt) {
+		Retry retry = minBackoff.isZero()
+				? Retry.max(maxRetries)
+						.filter(OptimisticLockingFailureException.class::isInstance)
+						.onRetryExhaustedThrow((spec, signal) -> exhausted(operation, signal))
+				: Retry.backoff(maxRetries, minBackoff)
+						.maxBackoff(maxBackoff)
+						.jitter(0.5)
+						.filter(OptimisticLockingFailureException.class::isInstance)
+						.onRetryExhaustedThrow((spec, signal) -> exhausted(operation, signal));
+		return Mono.defer(attempt)
+				.doOnError(OptimisticLockingFailureException.class,
+						ex -> counter(conflicts, METRIC_CONFLICTS, operation).increment())
+				.retryWhen(retry);
+	}
+
+	double conflicts(String operation) {
+		Counter counter = conflicts.get(operation);
+		return counter == null ? 0 : counter.count();
+	}
+
+	private Throwable exhausted(String operation, Retry.RetrySignal signal) {
+		counter(exhausted, METRIC_EXHAUSTED, operation).increment();
+		return new ResponseStatusException(HttpStatus.CONFLICT, MSG_CONFLICT, signal.failure());
+	}
+
+	private Counter counter(Map<String, Counter> counters, String name, String operation) {
+		return counters.computeIfAbsent(operation,
+				key -> Counter.builder(name).tag("operation", key).register(meterRegistry));
+	}
+}
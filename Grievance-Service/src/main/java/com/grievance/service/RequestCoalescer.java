@@ -0,0 +1,64 @@
+package com.grievance.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+// single-flight for reads: concurrent callers asking for the same operation and id subscribe to one in-flight Mono
+// instead of each sending the same query to Mongo; the entry is dropped as soon as that query terminates
+@Component
+public class RequestCoalescer {
+
+	private static final String METRIC_COALESCED = "grievance.requests.coalesced";
+
+	private final ConcurrentHashMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry;
+
+	public RequestCoalescer(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> Mono<T> coalesce(String operation, String id, Supplier<Mono<T>> query) {
+		String key = key(operation, id);
+		return Mono.defer(() -> {
+			AtomicReference<Mono<T>> started = new AtomicReference<>();
+			Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+				started.set(share(k, query));
+				return started.get();
+			});
+			if (started.get() == null) {
+				meterRegistry.counter(METRIC_COALESCED, "operation", operation).increment();
+			}
+			return (Mono<T>) shared;
+		});
+	}
+
+	// writers call this so a read arriving after their commit does not join a query that may predate it
+	public void forget(String operation, String id) {
+		inFlight.remove(key(operation, id));
+	}
+
+	int inFlightCount() {
+		return inFlight.size();
+	}
+
+	// share() cancels the query only once every subscriber has cancelled
+	private <T> Mono<T> share(String key, Supplier<Mono<T>> query) {
+		AtomicReference<Mono<T>> self = new AtomicReference<>();
+		Mono<T> shared = Mono.defer(query)
+				.doFinally(signal -> inFlight.remove(key, self.get()))
+				.share();
+		self.set(shared);
+		return shared;
+	}
+
+	private static String key(String operation, String id) {
+		return operation + ':' + id;
+	}
+}
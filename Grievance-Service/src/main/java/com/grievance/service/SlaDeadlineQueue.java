@@ -0,0 +1,147 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+
+// in-memory SLA deadlines ordered by due time; the scheduler only ever looks at the head of the queue
+@Component
+public class SlaDeadlineQueue {
+
+	// statuses whose clock is running; anything else has no deadline
+	public static final List<GrievanceStatus> SLA_STATUSES = List.of(GrievanceStatus.ASSIGNED, GrievanceStatus.IN_PROGRESS);
+
+	private final Duration slaTimeout;
+	private final ConcurrentSkipListSet<Deadline> queue = new ConcurrentSkipListSet<>(
+			Comparator.comparing(Deadline::dueAt).thenComparing(Deadline::grievanceId));
+	private final Map<String, Deadline> byGrievance = new HashMap<>();
+	// change sequence of each grievance scheduled, cancelled or polled since the last replaceAll
+	private final Map<String, Long> changedAt = new HashMap<>();
+	private long changes;
+
+	public SlaDeadlineQueue(@Value("${grievance.sla.timeout:P7D}") Duration slaTimeout) {
+		this.slaTimeout = slaTimeout;
+	}
+
+	public Duration getSlaTimeout() {
+		return slaTimeout;
+	}
+
+	// schedules, moves or drops the grievance's deadline to match its current state
+	public void track(Grievance grievance) {
+		LocalDateTime dueAt = dueAt(grievance);
+		if (dueAt == null) {
+			cancel(grievance.getId());
+		} else {
+			schedule(grievance.getId(), dueAt);
+		}
+	}
+
+	public synchronized void schedule(String grievanceId, LocalDateTime dueAt) {
+		Deadline next = new Deadline(dueAt, grievanceId);
+		Deadline previous = byGrievance.put(grievanceId, next);
+		if (previous != null) {
+			queue.remove(previous);
+		}
+		queue.add(next);
+		changedAt.put(grievanceId, ++changes);
+	}
+
+	public synchronized void cancel(String grievanceId) {
+		changedAt.put(grievanceId, ++changes);
+		Deadline previous = byGrievance.remove(grievanceId);
+		if (previous != null) {
+			queue.remove(previous);
+		}
+	}
+
+	// removes and returns up to max due grievance ids accepted by the filter; due entries the filter rejects
+	// (shards owned by another instance) are dropped too, the owner has its own copy
+	public synchronized List<String> pollDue(LocalDateTime now, Predicate<String> owned, int max) {
+		List<String> due = new ArrayList<>();
+		Iterator<Deadline> head = queue.iterator();
+		while (head.hasNext() && due.size() < max) {
+			Deadline deadline = head.next();
+			if (deadline.dueAt().isAfter(now)) {
+				break;
+			}
+			head.remove();
+			byGrievance.remove(deadline.grievanceId());
+			changedAt.put(deadline.grievanceId(), ++changes);
+			if (owned.test(deadline.grievanceId())) {
+				due.add(deadline.grievanceId());
+			}
+		}
+		return due;
+	}
+
+	// taken before reading a snapshot from Mongo, see replaceAll
+	public synchronized long mark() {
+		return changes;
+	}
+
+	// swaps in a freshly loaded set of grievances, e.g. after startup or a resync from Mongo
+	public synchronized void replaceAll(Collection<Grievance> grievances) {
+		replaceAll(grievances, changes);
+	}
+
+	// as above for a snapshot whose read started at mark: grievances scheduled, cancelled or fired after that are
+	// newer than the snapshot and keep their current state
+	public synchronized void replaceAll(Collection<Grievance> grievances, long mark) {
+		List<Deadline> newer = byGrievance.values().stream()
+				.filter(deadline -> changedAt.getOrDefault(deadline.grievanceId(), 0L) > mark)
+				.toList();
+		queue.clear();
+		byGrievance.clear();
+		newer.forEach(deadline -> {
+			byGrievance.put(deadline.grievanceId(), deadline);
+			queue.add(deadline);
+		});
+		for (Grievance grievance : grievances) {
+			if (changedAt.getOrDefault(grievance.getId(), 0L) > mark) {
+				continue;
+			}
+			LocalDateTime dueAt = dueAt(grievance);
+			if (dueAt != null) {
+				Deadline deadline = new Deadline(dueAt, grievance.getId());
+				byGrievance.put(grievance.getId(), deadline);
+				queue.add(deadline);
+			}
+		}
+		changedAt.values().removeIf(sequence -> sequence <= mark);
+	}
+
+	public LocalDateTime nextDueAt() {
+		Deadline first = queue.isEmpty() ? null : queue.first();
+		return first == null ? null : first.dueAt();
+	}
+
+	public int size() {
+		return queue.size();
+	}
+
+	private LocalDateTime dueAt(Grievance grievance) {
+		if (grievance.getId() == null || grievance.isEscalated() || grievance.getAssignedAt() == null
+				|| !SLA_STATUSES.contains(grievance.getStatus())) {
+			return null;
+		}
+		return grievance.getAssignedAt().plus(slaTimeout);
+	}
+
+	private record Deadline(LocalDateTime dueAt, String grievanceId) {
+	}
+}
@@ -0,0 +1,93 @@
+package com.grievance.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.grievance.model.SlaShardLease;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Mongo-backed leases so each shard of SLA deadlines is escalated by exactly one instance
+@Component
+public class SlaShardLeases {
+
+	private static final Logger log = LoggerFactory.getLogger(SlaShardLeases.class);
+
+	private final ReactiveMongoOperations mongoOperations;
+	private final int shardCount;
+	private final Duration leaseDuration;
+	private final String instanceId = UUID.randomUUID().toString();
+	private final Set<Integer> owned = ConcurrentHashMap.newKeySet();
+
+	public SlaShardLeases(
+			ReactiveMongoOperations mongoOperations,
+			@Value("${grievance.sla.shards:16}") int shardCount,
+			@Value("${grievance.sla.lease:PT30S}") Duration leaseDuration) {
+		this.mongoOperations = mongoOperations;
+		this.shardCount = shardCount;
+		this.leaseDuration = leaseDuration;
+	}
+
+	public int shardOf(String grievanceId) {
+		return Math.floorMod(grievanceId.hashCode(), shardCount);
+	}
+
+	public boolean owns(String grievanceId) {
+		return owned.contains(shardOf(grievanceId));
+	}
+
+	// renews held leases and takes over expired ones; emits how many shards were newly gained
+	public Mono<Integer> renew() {
+		return Flux.range(0, shardCount)
+				.concatMap(shard -> tryAcquire(shard).map(acquired -> {
+					boolean gained = acquired && owned.add(shard);
+					if (!acquired && owned.remove(shard)) {
+						log.info("Lost SLA shard {} lease", shard);
+					}
+					return gained ? 1 : 0;
+				}))
+				.reduce(0, Integer::sum)
+				.doOnNext(gained -> {
+					if (gained > 0) {
+						log.info("Acquired {} SLA shard leases, now owning {}/{}", gained, owned.size(), shardCount);
+					}
+				});
+	}
+
+	// upsert that only matches our own or an expired lease; a live lease held elsewhere makes the insert collide
+	private Mono<Boolean> tryAcquire(int shard) {
+		LocalDateTime now = LocalDateTime.now();
+		Query claimable = new Query(Criteria.where("shard").is(shard)
+				.orOperator(Criteria.where("owner").is(instanceId), Criteria.where("expiresAt").lt(now)));
+		Update lease = new Update().set("owner", instanceId).set("expiresAt", now.plus(leaseDuration));
+		return mongoOperations.findAndModify(claimable, lease,
+						FindAndModifyOptions.options().upsert(true).returnNew(true), SlaShardLease.class)
+				.map(held -> instanceId.equals(held.getOwner()))
+				.defaultIfEmpty(false)
+				.onErrorResume(DuplicateKeyException.class, ex -> Mono.just(false))
+				.onErrorResume(ex -> {
+					// without a confirmed renewal the lease may lapse, so stop firing for the shard
+					log.warn("SLA shard {} lease renewal failed: {}", shard, ex.getMessage());
+					return Mono.just(false);
+				});
+	}
+
+	public int ownedCount() {
+		return owned.size();
+	}
+}
@@ -0,0 +1,151 @@
+package com.grievance.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.grievance.exception.ServiceException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class DepartmentCatalogCacheTest {
+
+    @Mock
+    private DepartmentClient departmentClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void coldCacheLoadsOnceThenServesFromIndex() {
+        DepartmentCatalogCache cache = cache(Duration.ofMinutes(10));
+        when(departmentClient.fetchCatalog(null)).thenReturn(Mono.just(catalog(null, Instant.now())));
+
+        StepVerifier.create(cache.isValidDepartment("d1", "c1", "s1"))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(cache.isValidDepartment("D1", "C1", "S2"))
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(departmentClient, times(1)).fetchCatalog(any());
+        assertThat(lookups("miss")).isEqualTo(1.0);
+        assertThat(lookups("hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    void staleCatalogIsServedWhileRefreshRuns() {
+        DepartmentCatalogCache cache = cache(Duration.ofSeconds(1));
+        when(departmentClient.fetchCatalog(null))
+                .thenReturn(Mono.just(catalog("\"v1\"", Instant.now().minusSeconds(60))));
+        when(departmentClient.fetchCatalog("\"v1\"")).thenReturn(Mono.empty());
+
+        StepVerifier.create(cache.refresh()).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(cache.isValidDepartment("D1", "C1", "S1"))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(departmentClient).fetchCatalog("\"v1\"");
+        assertThat(refreshes("not_modified")).isEqualTo(1.0);
+        assertThat(cache.currentCatalog().getLoadedAt()).isAfter(Instant.now().minusSeconds(5));
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousCatalog() {
+        DepartmentCatalogCache cache = cache(Duration.ofMinutes(10));
+        when(departmentClient.fetchCatalog(null))
+                .thenReturn(Mono.just(catalog(null, Instant.now())))
+                .thenReturn(Mono.error(new RuntimeException("timeout")));
+
+        StepVerifier.create(cache.refresh()).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.refresh()).expectError().verify();
+
+        StepVerifier.create(cache.isValidDepartment("D1", "C1", "S1"))
+                .expectNext(true)
+                .verifyComplete();
+        assertThat(refreshes("failed")).isEqualTo(1.0);
+    }
+
+    @Test
+    void coldCacheMapsFetchFailureToServiceException() {
+        DepartmentCatalogCache cache = cache(Duration.ofMinutes(10));
+        when(departmentClient.fetchCatalog(null)).thenReturn(Mono.error(new RuntimeException("down")));
+
+        StepVerifier.create(cache.isValidDepartment("D1", "C1", "S1"))
+                .expectError(ServiceException.class)
+                .verify();
+    }
+
+    @Test
+    void nullArgumentsShortCircuit() {
+        DepartmentCatalogCache cache = cache(Duration.ofMinutes(10));
+
+        StepVerifier.create(cache.isValidDepartment(null, "C1", "S1"))
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(departmentClient, never()).fetchCatalog(any());
+    }
+
+    @Test
+    void unchangedContentHashCountsAsNotModified() {
+        DepartmentCatalogCache cache = cache(Duration.ofMinutes(10));
+        when(departmentClient.fetchCatalog(null))
+                .thenReturn(Mono.just(catalog(null, Instant.now())))
+                .thenReturn(Mono.just(catalog(null, Instant.now())));
+
+        StepVerifier.create(cache.refresh()).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.refresh()).expectNextCount(1).verifyComplete();
+
+        assertThat(refreshes("updated")).isEqualTo(1.0);
+        assertThat(refreshes("not_modified")).isEqualTo(1.0);
+    }
+
+    private DepartmentCatalogCache cache(Duration maxAge) {
+        return new DepartmentCatalogCache(departmentClient, meterRegistry, maxAge, Duration.ofSeconds(1));
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("grievance.department.catalog.lookups").tag("result", result).counter().count();
+    }
+
+    private double refreshes(String outcome) {
+        return meterRegistry.get("grievance.department.catalog.refreshes").tag("outcome", outcome).counter().count();
+    }
+
+    private DepartmentCatalog catalog(String etag, Instant loadedAt) {
+        SubCategoryResponse sub = new SubCategoryResponse();
+        sub.setCode("S1");
+        CategoryResponse category = new CategoryResponse();
+        category.setCode("C1");
+        category.setSubCategories(List.of(sub));
+        DepartmentResponse department = new DepartmentResponse();
+        department.setId("D1");
+        department.setCategories(List.of(category));
+
+        DepartmentsResponse response = new DepartmentsResponse();
+        response.setCentralGovernmentDepartments(List.of(department));
+        return DepartmentCatalog.of(response, etag, loadedAt);
+    }
+}
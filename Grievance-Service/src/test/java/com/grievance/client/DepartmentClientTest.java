@@ -1,5 +1,7 @@
 package com.grievance.client;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -116,6 +118,19 @@ class DepartmentClientTest {
                 .verify();
     }
 
+    @Test
+    void fetchCatalogSendsEtagAndCompletesEmptyWhenNotModified() {
+        ExchangeFunction exchange = request -> {
+            assertThat(request.headers().getIfNoneMatch()).containsExactly("\"v1\"");
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        };
+        DepartmentClient client = new DepartmentClient(WebClient.builder().exchangeFunction(exchange),
+                "http://localhost:3001", "/api/auth/departments");
+
+        StepVerifier.create(client.fetchCatalog("\"v1\""))
+                .verifyComplete();
+    }
+
     private DepartmentClient clientWithResponses(List<DepartmentResponse> central, List<DepartmentResponse> state) {
         ObjectMapper mapper = new ObjectMapper();
         ExchangeFunction exchange = request -> {
@@ -10,6 +10,8 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class KafkaProducerConfigTest {
 
     @Test
@@ -25,6 +27,24 @@ class KafkaProducerConfigTest {
         assertThat(props.get("value.serializer")).isNotNull();
     }
 
+    @Test
+    void producerFactoryAppliesThroughputProfile() {
+        KafkaProducerConfig config = new KafkaProducerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:1234");
+        ReflectionTestUtils.setField(config, "lingerMs", 50);
+        ReflectionTestUtils.setField(config, "meterRegistry", new SimpleMeterRegistry());
+
+        DefaultKafkaProducerFactory<String, Object> factory =
+                (DefaultKafkaProducerFactory<String, Object>) config.producerFactory();
+        Map<String, Object> props = factory.getConfigurationProperties();
+
+        assertThat(props).containsEntry("enable.idempotence", true)
+                .containsEntry("acks", "all")
+                .containsEntry("linger.ms", 50)
+                .containsEntry("compression.type", "lz4");
+        assertThat(factory.getListeners()).hasSize(1);
+    }
+
     @Test
     void kafkaTemplateBuildsFromProducerFactory() {
         KafkaProducerConfig config = new KafkaProducerConfig();
@@ -0,0 +1,122 @@
+package com.grievance.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.grievance.config.MongoIndexInitializer.PlanCheckMode;
+import com.grievance.model.Assignment;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MongoIndexInitializerTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+    @Mock
+    private ReactiveIndexOperations indexOperations;
+
+    private MongoMappingContext mappingContext;
+
+    @BeforeEach
+    void setUp() {
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(Grievance.class, GrievanceHistory.class, Assignment.class));
+        mappingContext.afterPropertiesSet();
+    }
+
+    @Test
+    void provisionIndexesEnsuresDeclaredIndexesIncludingPartialSlaIndex() {
+        List<IndexDefinition> ensured = new ArrayList<>();
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+        when(indexOperations.ensureIndex(any())).thenAnswer(invocation -> {
+            ensured.add(invocation.getArgument(0));
+            return Mono.just("ok");
+        });
+
+        StepVerifier.create(initializer(PlanCheckMode.WARN).provisionIndexes())
+                .verifyComplete();
+
+        assertThat(ensured).extracting(definition -> definition.getIndexOptions().getString("name"))
+                .contains("department_created_id", "worker_created_id", "worker_status", "sla_open_unescalated",
+                        "grievance_updated", "grievance_assigned", "officer_worker", "Grievance_TextIndex");
+        IndexDefinition sla = ensured.stream()
+                .filter(definition -> "sla_open_unescalated".equals(definition.getIndexOptions().getString("name")))
+                .findFirst()
+                .orElseThrow();
+        assertThat(sla.getIndexOptions().get("partialFilterExpression", Document.class))
+                .containsEntry("escalated", false);
+    }
+
+    @Test
+    void provisionIndexesContinuesWhenOneIndexConflicts() {
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+        when(indexOperations.ensureIndex(any())).thenReturn(Mono.error(new IllegalStateException("IndexOptionsConflict")));
+
+        StepVerifier.create(initializer(PlanCheckMode.WARN).provisionIndexes())
+                .verifyComplete();
+    }
+
+    @Test
+    void verifyQueryPlansFailsOnCollectionScanInStrictMode() {
+        when(mongoOperations.executeCommand(any(Document.class))).thenReturn(Mono.just(plan("COLLSCAN")));
+
+        StepVerifier.create(initializer(PlanCheckMode.FAIL).verifyQueryPlans())
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void verifyQueryPlansOnlyWarnsByDefault() {
+        when(mongoOperations.executeCommand(any(Document.class))).thenReturn(Mono.just(plan("COLLSCAN")));
+
+        StepVerifier.create(initializer(PlanCheckMode.WARN).verifyQueryPlans())
+                .verifyComplete();
+    }
+
+    @Test
+    void usesCollectionScanIgnoresRejectedPlans() {
+        Document explain = plan("IXSCAN");
+        explain.get("queryPlanner", Document.class)
+                .append("rejectedPlans", List.of(new Document("stage", "COLLSCAN")));
+
+        assertThat(MongoIndexInitializer.usesCollectionScan(explain)).isFalse();
+        assertThat(MongoIndexInitializer.usesCollectionScan(plan("COLLSCAN"))).isTrue();
+    }
+
+    private MongoIndexInitializer initializer(PlanCheckMode mode) {
+        return new MongoIndexInitializer(mongoOperations, mappingContext, true, mode, Duration.ofSeconds(5));
+    }
+
+    private Document plan(String leafStage) {
+        Document winningPlan = new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", leafStage));
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+}
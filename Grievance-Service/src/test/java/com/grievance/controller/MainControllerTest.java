@@ -4,21 +4,45 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import com.grievance.model.BulkItemResult;
+import com.grievance.model.CaseWorkerRosterEntry;
 import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceETags;
 import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievancePage;
+import com.grievance.model.GrievanceStatsView;
 import com.grievance.model.GrievanceStatus;
+import com.grievance.model.GrievanceSummary;
 import com.grievance.request.AssignmentRequest;
+import com.grievance.request.BulkStatusUpdateRequest;
 import com.grievance.request.GrievanceCreateRequest;
+import com.grievance.request.GrievanceListRequest;
 import com.grievance.request.StatusUpdateRequest;
+import com.grievance.service.CaseWorkerRouter;
+import com.grievance.service.GrievanceArchive;
+import com.grievance.service.GrievanceBulkService;
+import com.grievance.service.GrievanceImportService;
 import com.grievance.service.GrievanceService;
 
 import reactor.core.publisher.Flux;
@@ -30,7 +54,15 @@ class MainControllerTest {
     @Mock
     private GrievanceService grievanceService;
     @Mock
+    private GrievanceBulkService grievanceBulkService;
+    @Mock
     private com.grievance.client.AuthClient authClient;
+    @Mock
+    private GrievanceImportService grievanceImportService;
+    @Mock
+    private CaseWorkerRouter caseWorkerRouter;
+    @Mock
+    private GrievanceArchive grievanceArchive;
 
     @InjectMocks
     private MainController controller;
@@ -109,45 +141,138 @@ class MainControllerTest {
     }
 
     @Test
-    void getByIdDelegatesToService() {
+    void bulkUpdateStatusStreamsPerItemOutcomes() {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setGrievanceIds(List.of("g1", "g2"));
+        request.setStatus(GrievanceStatus.CLOSED);
+        request.setRemarks("drive closed");
+
+        when(grievanceBulkService.bulkUpdateStatus(List.of("g1", "g2"), GrievanceStatus.CLOSED, "officer-1", "drive closed",
+                "DEPARTMENT_OFFICER", "D1"))
+                .thenReturn(Flux.just(BulkItemResult.updated("g1"),
+                        new BulkItemResult("g2", BulkItemResult.Outcome.NOT_FOUND, "Grievance not found")));
+
+        StepVerifier.create(controller.bulkUpdateStatus(request, officerJwt))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.UPDATED))
+                .assertNext(result -> assertThat(result.getGrievanceId()).isEqualTo("g2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getByIdDelegatesToServiceAndSetsETag() {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
+        grievance.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
         when(grievanceService.getById("g1")).thenReturn(Mono.just(grievance));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/grievances/g1"));
 
-        StepVerifier.create(controller.getGrievanceById("g1"))
+        StepVerifier.create(controller.getGrievanceById("g1", exchange))
                 .expectNext(grievance)
                 .verifyComplete();
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(GrievanceETags.of(grievance));
+        assertThat(exchange.getResponse().getHeaders().getCacheControl()).isEqualTo("private, no-cache");
     }
 
     @Test
-    void getStatusHistoryReturnsFlux() {
+    void getByIdAnswersNotModifiedFromTheGrievanceItLoads() {
+        Grievance grievance = new Grievance();
+        grievance.setId("g1");
+        grievance.setVersion(3L);
+        when(grievanceService.getById("g1")).thenReturn(Mono.just(grievance));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/grievances/g1")
+                .ifNoneMatch(GrievanceETags.of(grievance)));
+
+        StepVerifier.create(controller.getGrievanceById("g1", exchange)).verifyComplete();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(grievanceService, times(1)).getById("g1");
+    }
+
+    @Test
+    void getStatusHistoryReturnsFluxAndAnswersNotModified() {
         GrievanceHistory history = new GrievanceHistory();
         history.setId("h1");
         when(grievanceService.getStatusHistory("g1", "CITIZEN", "D1")).thenReturn(Flux.just(history));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/grievances/history/g1"));
 
-        StepVerifier.create(controller.getStatusHistory("g1", citizenJwt))
+        StepVerifier.create(controller.getStatusHistory("g1", citizenJwt, exchange))
                 .expectNext(history)
                 .verifyComplete();
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(GrievanceETags.ofHistory(history));
+
+        MockServerWebExchange unchanged = MockServerWebExchange.from(MockServerHttpRequest.get("/api/grievances/history/g1")
+                .ifNoneMatch(GrievanceETags.ofHistory(history)));
+        StepVerifier.create(controller.getStatusHistory("g1", citizenJwt, unchanged)).verifyComplete();
+        assertThat(unchanged.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
     }
 
     @Test
     void getAllGrievancesUsesRoleAndDepartment() {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
-        when(grievanceService.getAllForRole("CITIZEN", "D1")).thenReturn(Flux.just(grievance));
+        GrievanceListRequest page = paged();
+        when(grievanceService.getAllForRole("CITIZEN", "D1", page)).thenReturn(Mono.just(pageOf(grievance)));
 
-        StepVerifier.create(controller.getAllGrievances(citizenJwt))
+        StepVerifier.create(controller.getAllGrievances(citizenJwt, page, exchange()))
                 .expectNext(grievance)
                 .verifyComplete();
     }
 
+    @Test
+    void getAllGrievancesWithoutPagingParamsReturnsTheWholeList() {
+        Grievance first = new Grievance();
+        first.setId("g1");
+        Grievance second = new Grievance();
+        second.setId("g2");
+        when(grievanceService.getAllForRole("CITIZEN", "D1")).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(controller.getAllGrievances(citizenJwt, GrievanceListRequest.firstPage(), exchange()))
+                .expectNext(first, second)
+                .verifyComplete();
+        verify(grievanceService, never()).getAllForRole(any(), any(), any(GrievanceListRequest.class));
+    }
+
+    @Test
+    void pagedListLinksTheNextPageInsteadOfWrappingTheItems() {
+        Grievance grievance = new Grievance();
+        grievance.setId("g1");
+        GrievanceListRequest page = paged();
+        when(grievanceService.getByDepartment("D1", "DEPARTMENT_OFFICER", "D1", page))
+                .thenReturn(Mono.just(new GrievancePage<>(List.of(grievance), "abc_1")));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/grievances/department/D1?limit=20&sort=updatedAt"));
+
+        StepVerifier.create(controller.getByDepartment("D1", officerJwt, page, exchange))
+                .expectNext(grievance)
+                .verifyComplete();
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.LINK))
+                .isEqualTo("</api/grievances/department/D1?limit=20&sort=updatedAt&cursor=abc_1>; rel=\"next\"");
+    }
+
+    @Test
+    void getAllGrievanceSummariesUsesRoleAndDepartment() {
+        GrievanceSummary summary = new GrievanceSummary();
+        summary.setId("g1");
+        GrievanceListRequest page = new GrievanceListRequest();
+        page.setFields("id,status");
+        when(grievanceService.getSummariesForRole("CITIZEN", "D1", page))
+                .thenReturn(Mono.just(new GrievancePage<>(List.of(summary), null)));
+
+        MockServerWebExchange exchange = exchange();
+        StepVerifier.create(controller.getAllGrievanceSummaries(citizenJwt, page, exchange))
+                .expectNext(summary)
+                .verifyComplete();
+        assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.LINK)).isFalse();
+    }
+
     @Test
     void getByDepartmentUsesRequesterContext() {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
-        when(grievanceService.getByDepartment("D1", "DEPARTMENT_OFFICER", "D1")).thenReturn(Flux.just(grievance));
+        GrievanceListRequest page = paged();
+        when(grievanceService.getByDepartment("D1", "DEPARTMENT_OFFICER", "D1", page)).thenReturn(Mono.just(pageOf(grievance)));
 
-        StepVerifier.create(controller.getByDepartment("D1", officerJwt))
+        StepVerifier.create(controller.getByDepartment("D1", officerJwt, page, exchange()))
                 .expectNext(grievance)
                 .verifyComplete();
     }
@@ -156,9 +281,38 @@ class MainControllerTest {
     void getMyGrievancesUsesSubject() {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
-        when(grievanceService.getByCitizen("citizen-1")).thenReturn(Flux.just(grievance));
+        GrievanceListRequest page = paged();
+        when(grievanceService.getByCitizen("citizen-1", page)).thenReturn(Mono.just(pageOf(grievance)));
 
-        StepVerifier.create(controller.getMyGrievances(citizenJwt))
+        StepVerifier.create(controller.getMyGrievances(citizenJwt, page, exchange()))
+                .expectNext(grievance)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamAllGrievancesEmitsEachRow() {
+        Grievance first = new Grievance();
+        first.setId("g1");
+        Grievance second = new Grievance();
+        second.setId("g2");
+        when(grievanceService.getAllForRole("DEPARTMENT_OFFICER", "D1")).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(controller.streamAllGrievances(officerJwt), 1)
+                .expectNext(first)
+                .thenRequest(1)
+                .expectNext(second)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamMyAssignedGrievancesUsesCaseWorkerIdentity() {
+        Grievance grievance = new Grievance();
+        grievance.setId("g1");
+        Jwt caseWorkerJwt = jwtWith("case-1", "CASE_WORKER", "D1");
+        when(grievanceService.getByCaseWorkerSelf("case-1", "case-1@example.com", null, "D1"))
+                .thenReturn(Flux.just(grievance));
+
+        StepVerifier.create(controller.streamMyAssignedGrievances(caseWorkerJwt))
                 .expectNext(grievance)
                 .verifyComplete();
     }
@@ -178,10 +332,10 @@ class MainControllerTest {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
         Jwt caseWorkerJwt = jwtWith("case-1", "CASE_WORKER", "D1");
-        when(grievanceService.getByCaseWorkerSelf(any(), any(), any(), any()))
-                .thenReturn(Flux.just(grievance));
+        when(grievanceService.getByCaseWorkerSelf(any(), any(), any(), any(), any(GrievanceListRequest.class)))
+                .thenReturn(Mono.just(pageOf(grievance)));
 
-        StepVerifier.create(controller.getMyAssignedGrievances(caseWorkerJwt))
+        StepVerifier.create(controller.getMyAssignedGrievances(caseWorkerJwt, paged(), exchange()))
                 .expectNext(grievance)
                 .verifyComplete();
     }
@@ -190,7 +344,7 @@ class MainControllerTest {
     void getMyAssignedGrievancesRejectsNonCaseWorker() {
         Jwt nonWorker = jwtWith("user-1", "CITIZEN", "D1");
 
-        org.assertj.core.api.Assertions.assertThatThrownBy(() -> controller.getMyAssignedGrievances(nonWorker))
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> controller.getMyAssignedGrievances(nonWorker, GrievanceListRequest.firstPage(), exchange()))
                 .isInstanceOf(org.springframework.web.server.ResponseStatusException.class);
     }
 
@@ -204,14 +358,25 @@ class MainControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getCaseWorkerRosterWrapsEntries() {
+        CaseWorkerRosterEntry entry = new CaseWorkerRosterEntry("cw-1", 2);
+        when(grievanceService.getCaseWorkerRoster("DEPARTMENT_OFFICER", "D1")).thenReturn(Flux.just(entry));
+
+        StepVerifier.create(controller.getCaseWorkerRoster(officerJwt))
+                .assertNext(map -> assertThat(map.get("caseWorkers")).containsExactly(entry))
+                .verifyComplete();
+    }
+
     @Test
     void getByCaseWorkerDelegatesWithContext() {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
-        when(grievanceService.getByCaseWorker("cw-1", "DEPARTMENT_OFFICER", "D1"))
-                .thenReturn(Flux.just(grievance));
+        GrievanceListRequest page = paged();
+        when(grievanceService.getByCaseWorker("cw-1", "DEPARTMENT_OFFICER", "D1", page))
+                .thenReturn(Mono.just(pageOf(grievance)));
 
-        StepVerifier.create(controller.getByCaseWorker("cw-1", officerJwt))
+        StepVerifier.create(controller.getByCaseWorker("cw-1", officerJwt, page, exchange()))
                 .expectNext(grievance)
                 .verifyComplete();
     }
@@ -225,6 +390,58 @@ class MainControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getStatsPassesClaimsAndFilters() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        GrievanceStatsView view = new GrievanceStatsView("D1", from, null);
+        when(grievanceService.getStats("DEPARTMENT_OFFICER", "D1", "D1", from, null)).thenReturn(Mono.just(view));
+
+        StepVerifier.create(controller.getStats(officerJwt, "D1", from, null))
+                .expectNext(view)
+                .verifyComplete();
+    }
+
+    @Test
+    void rebuildStatsAcknowledges() {
+        when(grievanceService.rebuildStats("DEPARTMENT_OFFICER")).thenReturn(Mono.empty());
+
+        StepVerifier.create(controller.rebuildStats(officerJwt))
+                .assertNext(body -> assertThat(body).containsEntry("status", "REBUILDING"))
+                .verifyComplete();
+    }
+
+    @Test
+    void importGrievancesPicksCsvFormatFromContentType() {
+        Jwt admin = jwtWith("admin-1", "ADMIN", null);
+        Flux<String> lines = Flux.just("citizenId,description");
+        when(grievanceImportService.importGrievances("legacy-1", GrievanceImportService.Format.CSV, lines, "admin-1"))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(controller.importGrievances(admin, "legacy-1", MediaType.parseMediaType("text/csv"), lines))
+                .verifyComplete();
+    }
+
+    @Test
+    void importGrievancesIsAdminOnly() {
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> controller.importGrievances(officerJwt, "legacy-1",
+                        MediaType.APPLICATION_NDJSON, Flux.empty()))
+                .isInstanceOf(org.springframework.web.server.ResponseStatusException.class);
+    }
+
+    private static GrievanceListRequest paged() {
+        GrievanceListRequest page = new GrievanceListRequest();
+        page.setLimit(20);
+        return page;
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/grievances"));
+    }
+
+    private GrievancePage<Grievance> pageOf(Grievance... grievances) {
+        return new GrievancePage<>(List.of(grievances), null);
+    }
+
     private Jwt jwtWith(String subject, String role, String departmentId) {
         return Jwt.withTokenValue("token")
                 .header("alg", "none")
@@ -0,0 +1,74 @@
+package com.grievance.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.grievance.model.Grievance;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class AssigneeKeysMigrationTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Test
+    void backfillsMissingKeysAndRecordsCompletion() {
+        AssigneeKeysMigration migration = new AssigneeKeysMigration(mongoOperations, true);
+        when(mongoOperations.exists(any(Query.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION))).thenReturn(Mono.just(false));
+        when(mongoOperations.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Grievance.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(3, 3L, null)));
+        when(mongoOperations.insert(any(Document.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(migration.run())
+                .expectNext(3L)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> missing = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).updateMulti(missing.capture(), any(UpdateDefinition.class), eq(Grievance.class));
+        assertThat(missing.getValue().getQueryObject().toJson()).contains("assigneeKeys").contains("$exists");
+    }
+
+    @Test
+    void skipsWhenAlreadyApplied() {
+        AssigneeKeysMigration migration = new AssigneeKeysMigration(mongoOperations, true);
+        when(mongoOperations.exists(any(Query.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(migration.run()).verifyComplete();
+
+        verify(mongoOperations, never()).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Grievance.class));
+    }
+
+    @Test
+    void concurrentCompletionByAnotherInstanceIsNotAnError() {
+        AssigneeKeysMigration migration = new AssigneeKeysMigration(mongoOperations, true);
+        when(mongoOperations.exists(any(Query.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION))).thenReturn(Mono.just(false));
+        when(mongoOperations.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Grievance.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+        when(mongoOperations.insert(any(Document.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION)))
+                .thenReturn(Mono.error(new DuplicateKeyException("dup")));
+
+        StepVerifier.create(migration.run())
+                .expectNext(0L)
+                .verifyComplete();
+    }
+}
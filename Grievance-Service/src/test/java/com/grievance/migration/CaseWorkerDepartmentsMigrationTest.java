@@ -0,0 +1,54 @@
+package com.grievance.migration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.grievance.service.CaseWorkerWorkloadService;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class CaseWorkerDepartmentsMigrationTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+    @Mock
+    private CaseWorkerWorkloadService caseWorkerWorkloadService;
+
+    @Test
+    void rebuildsOnceAndRecordsCompletion() {
+        CaseWorkerDepartmentsMigration migration = new CaseWorkerDepartmentsMigration(mongoOperations, caseWorkerWorkloadService, true);
+        when(mongoOperations.exists(any(Query.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION))).thenReturn(Mono.just(false));
+        when(caseWorkerWorkloadService.rebuild()).thenReturn(Mono.empty());
+        when(mongoOperations.insert(any(Document.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(migration.run())
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(caseWorkerWorkloadService).rebuild();
+    }
+
+    @Test
+    void skipsWhenAlreadyApplied() {
+        CaseWorkerDepartmentsMigration migration = new CaseWorkerDepartmentsMigration(mongoOperations, caseWorkerWorkloadService, true);
+        when(mongoOperations.exists(any(Query.class), eq(AssigneeKeysMigration.MIGRATIONS_COLLECTION))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(migration.run()).verifyComplete();
+
+        verify(caseWorkerWorkloadService, never()).rebuild();
+    }
+}
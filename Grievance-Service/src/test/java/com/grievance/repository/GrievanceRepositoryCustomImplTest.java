@@ -0,0 +1,341 @@
+package com.grievance.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.grievance.model.EscalatedGrievanceView;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceSortKey;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.model.GrievanceSummary;
+import com.grievance.request.GrievanceListRequest;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class GrievanceRepositoryCustomImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Test
+    void findPageFetchesOneExtraRowAndReturnsCursorForNextPage() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        when(mongoOperations.find(any(Query.class), eq(Grievance.class)))
+                .thenReturn(Flux.just(grievance("g3", T0), grievance("g2", T0), grievance("g1", T0.minusDays(1))));
+
+        StepVerifier.create(repository.findPage(Criteria.where("departmentId").is("D1"), GrievanceListRequest.firstPage()))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting(Grievance::getId).containsExactly("g3", "g2");
+                    GrievanceCursor next = GrievanceCursor.decode(page.getNextCursor());
+                    assertThat(next.getId()).isEqualTo("g2");
+                    assertThat(next.getValue()).isEqualTo(T0);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(Grievance.class));
+        assertThat(query.getValue().getLimit()).isEqualTo(3);
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("createdAt", -1).append("id", -1));
+    }
+
+    @Test
+    void findPageReturnsNoCursorOnLastPage() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        when(mongoOperations.find(any(Query.class), eq(Grievance.class)))
+                .thenReturn(Flux.just(grievance("g1", T0)));
+
+        StepVerifier.create(repository.findPage(new Criteria(), null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPageAppliesCursorAsKeysetCondition() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        when(mongoOperations.find(any(Query.class), eq(Grievance.class))).thenReturn(Flux.empty());
+        GrievanceListRequest request = new GrievanceListRequest();
+        request.setCursor(GrievanceCursor.after(GrievanceSortKey.CREATED_AT, grievance("g2", T0)).encode());
+
+        StepVerifier.create(repository.findPage(new Criteria(), request))
+                .assertNext(page -> assertThat(page.getItems()).isEmpty())
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(Grievance.class));
+        assertThat(query.getValue().getQueryObject().toString()).contains("$or").contains("g2");
+    }
+
+    @Test
+    void findSummaryPageProjectsSelectedFieldsPlusSortKeyInMongo() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 1, 10);
+        when(mongoOperations.getCollectionName(Grievance.class)).thenReturn("grievance");
+        when(mongoOperations.find(any(Query.class), eq(GrievanceSummary.class), eq("grievance")))
+                .thenReturn(Flux.just(summary("g2", T0), summary("g1", T0.minusDays(1))));
+        GrievanceListRequest request = new GrievanceListRequest();
+        request.setFields("status, departmentId");
+        request.setSort("updatedAt");
+
+        StepVerifier.create(repository.findSummaryPage(new Criteria(), request))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting(GrievanceSummary::getId).containsExactly("g2");
+                    assertThat(GrievanceCursor.decode(page.getNextCursor()).getValue()).isEqualTo(T0);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(GrievanceSummary.class), eq("grievance"));
+        assertThat(query.getValue().getFieldsObject())
+                .isEqualTo(new Document("id", 1).append("status", 1).append("departmentId", 1).append("updatedAt", 1));
+        verify(mongoOperations, never()).find(any(Query.class), eq(Grievance.class));
+    }
+
+    @Test
+    void findSummaryPageRejectsUnknownFieldsWithoutQuerying() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 1, 10);
+        GrievanceListRequest request = new GrievanceListRequest();
+        request.setFields("id,description");
+
+        StepVerifier.create(repository.findSummaryPage(new Criteria(), request))
+                .expectErrorMessage("Unsupported field: description")
+                .verify();
+        assertThat(GrievanceSummary.fields("summary")).containsExactlyElementsOf(GrievanceSummary.DEFAULT_FIELDS);
+    }
+
+    @Test
+    void updateIfVersionGuardsOnTheVersionReadAndBumpsIt() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        Grievance read = grievance("g1", T0);
+        read.setVersion(7L);
+        when(mongoOperations.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Grievance.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(repository.updateIfVersion(read, new Update().set("status", GrievanceStatus.RESOLVED)))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoOperations).findAndModify(query.capture(), update.capture(), options.capture(), eq(Grievance.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("id", "g1").append("version", 7L));
+        assertThat(update.getValue().getUpdateObject())
+                .containsEntry("$set", new Document("status", GrievanceStatus.RESOLVED))
+                .containsEntry("$inc", new Document("version", 1));
+        assertThat(options.getValue().isReturnNew()).isTrue();
+    }
+
+    @Test
+    void findPageRejectsCursorFromDifferentSort() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        GrievanceListRequest request = new GrievanceListRequest();
+        request.setSort("updatedAt");
+        request.setCursor(GrievanceCursor.after(GrievanceSortKey.CREATED_AT, grievance("g2", T0)).encode());
+
+        StepVerifier.create(repository.findPage(new Criteria(), request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void assignIfUnassignedIsConditionalOnNoWorkerAndDepartment() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        Grievance previous = grievance("g1", T0);
+        when(mongoOperations.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Grievance.class))).thenReturn(Mono.just(previous));
+
+        StepVerifier.create(repository.assignIfUnassigned("g1", " CW-1", "D1", T0))
+                .expectNext(previous)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoOperations).findAndModify(query.capture(), update.capture(), options.capture(), eq(Grievance.class));
+        Document filter = query.getValue().getQueryObject();
+        assertThat(filter).containsEntry("assignedWokerId", null).containsKey("departmentId");
+        assertThat((Document) update.getValue().getUpdateObject().get("$set")).containsEntry("assigneeKeys", List.of("cw-1"));
+        assertThat(options.getValue().isReturnNew()).isFalse();
+    }
+
+    @Test
+    void escalateOverdueUpdatesBatchOnceAndReadsBackOnlyItsOwnRows() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        when(mongoOperations.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Grievance.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(2, 2L, null)));
+        when(mongoOperations.find(any(Query.class), eq(Grievance.class)))
+                .thenReturn(Flux.just(grievance("g1", T0), grievance("g2", T0)));
+
+        StepVerifier.create(repository.escalateOverdue(List.of("g1", "g2", "g3"),
+                        List.of(GrievanceStatus.ASSIGNED, GrievanceStatus.IN_PROGRESS), T0))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> overdue = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoOperations).updateMulti(overdue.capture(), update.capture(), eq(Grievance.class));
+        assertThat(overdue.getValue().getQueryObject()).containsEntry("escalated", false).containsKeys("status", "assignedAt");
+        List<Document> pipeline = ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        // the previous status is copied in an earlier stage than the one overwriting it
+        assertThat((Document) pipeline.get(0).get("$set")).containsEntry("escalatedFrom", "$status");
+        Document set = new Document();
+        pipeline.forEach(stage -> set.putAll((Document) stage.get("$set")));
+        assertThat(set).containsEntry("status", "ESCALATED");
+
+        ArgumentCaptor<Query> readBack = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(readBack.capture(), eq(Grievance.class));
+        assertThat(readBack.getValue().getQueryObject()).containsKey("escalatedAt");
+        assertThat(set).containsKey("escalatedAt");
+    }
+
+    @Test
+    void escalateOverdueSkipsReadBackWhenNothingChanged() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        when(mongoOperations.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Grievance.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        StepVerifier.create(repository.escalateOverdue(List.of("g1"), List.of(GrievanceStatus.ASSIGNED), T0))
+                .verifyComplete();
+
+        verify(mongoOperations, never()).find(any(Query.class), eq(Grievance.class));
+    }
+
+    @Test
+    void findEscalatedViewsJoinsLatestAssignmentInOnePipeline() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        EscalatedGrievanceView view = new EscalatedGrievanceView("g1", "desc", "D1", "cw", "mgr", GrievanceStatus.ESCALATED);
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Grievance.class), eq(EscalatedGrievanceView.class)))
+                .thenReturn(Flux.just(view));
+
+        StepVerifier.create(repository.findEscalatedViews("D1"))
+                .expectNext(view)
+                .verifyComplete();
+
+        ArgumentCaptor<Aggregation> pipeline = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoOperations).aggregate(pipeline.capture(), eq(Grievance.class), eq(EscalatedGrievanceView.class));
+        List<Document> stages = pipeline.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document match = (Document) stages.get(0).get("$match");
+        assertThat(match).containsEntry("status", GrievanceStatus.ESCALATED).containsKey("departmentId");
+        Document lookup = (Document) stages.get(2).get("$lookup");
+        assertThat(lookup).containsEntry("from", "assignments").containsEntry("foreignField", "grievanceId");
+        assertThat(lookup.getList("pipeline", Document.class))
+                .containsExactly(new Document("$sort", new Document("assignedAt", -1)), new Document("$limit", 1));
+    }
+
+    @Test
+    void findEscalatedViewsWithoutDepartmentMatchesStatusOnly() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Grievance.class), eq(EscalatedGrievanceView.class)))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(repository.findEscalatedViews(null)).verifyComplete();
+
+        ArgumentCaptor<Aggregation> pipeline = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoOperations).aggregate(pipeline.capture(), eq(Grievance.class), eq(EscalatedGrievanceView.class));
+        Document match = (Document) pipeline.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$match");
+        assertThat(match).doesNotContainKey("departmentId");
+    }
+
+    @Test
+    void searchRanksByTextScoreAndPagesOnScoreAndId() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 2, 10);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.aggregate(any(TypedAggregation.class), eq(Document.class))).thenReturn(Flux.just(
+                new Document("_id", "g3").append("description", "water leak").append("score", 2.5),
+                new Document("_id", "g2").append("description", "water leak again").append("score", 1.25),
+                new Document("_id", "g1").append("description", "no water").append("score", 1.25)));
+        String cursor = new GrievanceSearchCursor(3.0, "g9").encode();
+
+        StepVerifier.create(repository.search("water leak", Criteria.where("departmentId").is("D1"), cursor, null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting(Grievance::getId).containsExactly("g3", "g2");
+                    GrievanceSearchCursor next = GrievanceSearchCursor.decode(page.getNextCursor());
+                    assertThat(next.getScore()).isEqualTo(1.25);
+                    assertThat(next.getId()).isEqualTo("g2");
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<TypedAggregation<?>> pipeline = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoOperations).aggregate(pipeline.capture(), eq(Document.class));
+        List<Document> stages = pipeline.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(stages.get(0).get("$match", Document.class).get("$text", Document.class))
+                .containsEntry("$search", "water leak");
+        assertThat(stages.get(1).get("$match", Document.class)).containsEntry("departmentId", "D1");
+        assertThat(stages.get(3).get("$match", Document.class)).containsKey("$or");
+        assertThat(stages.get(4).get("$sort", Document.class)).containsEntry("score", -1).containsEntry("_id", -1);
+        assertThat(stages.get(5)).containsEntry("$limit", 3L);
+    }
+
+    @Test
+    void resolveLimitCapsAtMaximum() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(mongoOperations, 50, 200);
+
+        assertThat(repository.resolveLimit(null)).isEqualTo(50);
+        assertThat(repository.resolveLimit(0)).isEqualTo(50);
+        assertThat(repository.resolveLimit(500)).isEqualTo(200);
+        assertThat(repository.resolveLimit(20)).isEqualTo(20);
+    }
+
+    @Test
+    void cursorRoundTripsNullSortValueAndRejectsGarbage() {
+        Grievance legacy = grievance("g9", null);
+        GrievanceCursor cursor = GrievanceCursor.decode(GrievanceCursor.after(GrievanceSortKey.UPDATED_AT, legacy).encode());
+
+        assertThat(cursor.getSortKey()).isEqualTo(GrievanceSortKey.UPDATED_AT);
+        assertThat(cursor.getValue()).isNull();
+        assertThat(cursor.getId()).isEqualTo("g9");
+        assertThatThrownBy(() -> GrievanceCursor.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Grievance grievance(String id, LocalDateTime createdAt) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setCreatedAt(createdAt);
+        return grievance;
+    }
+
+    private GrievanceSummary summary(String id, LocalDateTime updatedAt) {
+        GrievanceSummary summary = new GrievanceSummary();
+        summary.setId(id);
+        summary.setUpdatedAt(updatedAt);
+        return summary;
+    }
+}
@@ -0,0 +1,139 @@
+package com.grievance.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievancePage;
+import com.grievance.model.GrievanceStatus;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// opt-in latency benchmark for GrievanceRepositoryCustomImpl.search against a real Mongo; skipped unless a uri is given:
+//   mvn test -Dtest=GrievanceSearchBenchmarkTest -Dgrievance.benchmark.mongo-uri=mongodb://localhost:27017/grievance_bench
+// seeds grievance.benchmark.size (default 1,000,000) grievances once and reuses them on later runs
+@EnabledIfSystemProperty(named = "grievance.benchmark.mongo-uri", matches = ".+")
+class GrievanceSearchBenchmarkTest {
+
+    private static final String[] WORDS = { "water", "supply", "leak", "pipeline", "electricity", "outage", "meter",
+            "billing", "road", "pothole", "streetlight", "garbage", "collection", "drainage", "overflow", "sewage",
+            "pension", "delay", "certificate", "ration", "card", "hospital", "staff", "school", "teacher", "bus",
+            "route", "tax", "assessment", "encroachment", "noise", "stray", "dogs", "flooding", "tree", "fallen" };
+    private static final int DEPARTMENTS = 20;
+    private static final int SEED_BATCH = 10_000;
+    private static final int QUERIES = 200;
+
+    private static MongoClient client;
+    private static ReactiveMongoTemplate template;
+
+    @BeforeAll
+    static void seed() {
+        String uri = System.getProperty("grievance.benchmark.mongo-uri");
+        int size = Integer.getInteger("grievance.benchmark.size", 1_000_000);
+        client = MongoClients.create(uri);
+        template = new ReactiveMongoTemplate(client, new ConnectionString(uri).getDatabase());
+
+        MongoMappingContext mappingContext = (MongoMappingContext) template.getConverter().getMappingContext();
+        Flux.fromIterable(IndexResolver.create(mappingContext).resolveIndexFor(Grievance.class))
+                .concatMap(definition -> template.indexOps(Grievance.class).ensureIndex(definition))
+                .blockLast(Duration.ofHours(1));
+
+        long existing = template.estimatedCount(Grievance.class).block();
+        Random random = new Random(42);
+        Flux.range(0, (int) Math.max(0, (size - existing + SEED_BATCH - 1) / SEED_BATCH))
+                .concatMap(batch -> template.getCollection("grievance")
+                        .flatMap(collection -> Mono.from(collection.insertMany(
+                                IntStream.range(0, SEED_BATCH).mapToObj(i -> grievance(random)).toList()))))
+                .blockLast(Duration.ofHours(1));
+    }
+
+    @AfterAll
+    static void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    void searchLatency() {
+        GrievanceRepositoryCustomImpl repository = new GrievanceRepositoryCustomImpl(template, 50, 200);
+        Random random = new Random(7);
+
+        report("search(text)", IntStream.range(0, QUERIES)
+                .mapToLong(i -> time(repository, words(random, 1), new Criteria()))
+                .toArray());
+        report("search(text, department, status)", IntStream.range(0, QUERIES)
+                .mapToLong(i -> time(repository, words(random, 2), Criteria.where("departmentId").is(department(random))
+                        .and("status").is(GrievanceStatus.SUBMITTED)))
+                .toArray());
+    }
+
+    private long time(GrievanceRepositoryCustomImpl repository, String text, Criteria filter) {
+        long start = System.nanoTime();
+        GrievancePage<Grievance> page = repository.search(text, filter, null, 50).block(Duration.ofMinutes(1));
+        long elapsed = System.nanoTime() - start;
+        assertThat(page).isNotNull();
+        return elapsed;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-36s n=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n", name, sorted.length,
+                millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static Document grievance(Random random) {
+        LocalDateTime createdAt = LocalDateTime.of(2023, 1, 1, 0, 0).plusMinutes(random.nextInt(60 * 24 * 700));
+        Date created = Date.from(createdAt.atZone(ZoneOffset.UTC).toInstant());
+        GrievanceStatus[] statuses = GrievanceStatus.values();
+        return new Document("citizenId", "citizen-" + random.nextInt(200_000))
+                .append("departmentId", department(random))
+                .append("categoryCode", "CAT")
+                .append("subCategoryCode", "SUB")
+                .append("description", words(random, 12 + random.nextInt(30)))
+                .append("status", statuses[random.nextInt(statuses.length)].name())
+                .append("escalated", false)
+                .append("createdAt", created)
+                .append("updatedAt", created);
+    }
+
+    private static String department(Random random) {
+        return "D" + random.nextInt(DEPARTMENTS);
+    }
+
+    private static String words(Random random, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return String.join(" ", words);
+    }
+}
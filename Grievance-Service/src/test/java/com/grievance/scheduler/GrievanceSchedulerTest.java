@@ -4,18 +4,25 @@ import com.grievance.model.Grievance;
 import com.grievance.model.GrievanceStatus;
 import com.grievance.repository.GrievanceRepository;
 import com.grievance.service.GrievanceService;
+import com.grievance.service.SlaDeadlineQueue;
+import com.grievance.service.SlaShardLeases;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static org.mockito.ArgumentMatchers.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,37 +36,105 @@ class GrievanceSchedulerTest {
     @Mock
     private GrievanceService grievanceService;
 
-    @InjectMocks
+    @Mock
+    private SlaShardLeases leases;
+
+    private SlaDeadlineQueue deadlines;
+    private SimpleMeterRegistry meterRegistry;
     private GrievanceScheduler scheduler;
 
+    @BeforeEach
+    void setUp() {
+        deadlines = new SlaDeadlineQueue(Duration.ofDays(7));
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new GrievanceScheduler(grievanceRepository, grievanceService, deadlines, leases, meterRegistry,
+                100, 4, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void fireDueDeadlines_escalatesDueGrievancesInBulkBatches() {
+        scheduler = new GrievanceScheduler(grievanceRepository, grievanceService, deadlines, leases, meterRegistry,
+                2, 4, Duration.ofSeconds(30));
+        deadlines.track(open("g1", LocalDateTime.now().minusDays(10)));
+        deadlines.track(open("g2", LocalDateTime.now().minusDays(9)));
+        deadlines.track(open("g3", LocalDateTime.now().minusDays(8)));
+        when(leases.owns(anyString())).thenReturn(true);
+        when(grievanceService.escalateOverdue(List.of("g1", "g2"))).thenReturn(Flux.just(new Grievance(), new Grievance()));
+        when(grievanceService.escalateOverdue(List.of("g3"))).thenReturn(Flux.empty());
+
+        scheduler.fireDueDeadlines();
+
+        verify(grievanceService, timeout(500)).escalateOverdue(List.of("g1", "g2"));
+        verify(grievanceService, timeout(500)).escalateOverdue(List.of("g3"));
+        assertThat(deadlines.size()).isZero();
+        assertThat(escalations("escalated")).isEqualTo(2.0);
+        assertThat(escalations("skipped")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("grievance.sla.sweep.size").summary().totalAmount()).isEqualTo(3.0);
+    }
+
     @Test
-    void checkSlaBreaches_escalatesOverdueGrievances() {
-        Grievance overdue = new Grievance();
-        overdue.setId("g1");
-        overdue.setStatus(GrievanceStatus.ASSIGNED);
-        overdue.setAssignedAt(LocalDateTime.now().minusDays(8));
-        overdue.setEscalated(false);
+    void fireDueDeadlines_leavesOtherShardsAndFutureDeadlinesAlone() {
+        deadlines.track(open("mine", LocalDateTime.now().minusDays(1)));
+        deadlines.track(open("theirs", LocalDateTime.now().minusDays(8)));
+        when(leases.owns("theirs")).thenReturn(false);
 
-        when(grievanceRepository.findByStatusInAndAssignedAtBeforeAndEscalatedFalse(
-                eq(List.of(GrievanceStatus.ASSIGNED, GrievanceStatus.IN_PROGRESS)),
-                org.mockito.ArgumentMatchers.any(LocalDateTime.class)
-        )).thenReturn(Flux.just(overdue));
+        scheduler.fireDueDeadlines();
 
-        when(grievanceService.escalateGrievance("g1", "SYSTEM")).thenReturn(Mono.just(overdue));
+        verify(grievanceService, never()).escalateOverdue(anyList());
+        assertThat(deadlines.size()).isEqualTo(1);
+    }
+
+    @Test
+    void fireDueDeadlines_reschedulesFailures() {
+        deadlines.track(open("g1", LocalDateTime.now().minusDays(8)));
+        when(leases.owns("g1")).thenReturn(true);
+        when(grievanceService.escalateOverdue(List.of("g1"))).thenReturn(Flux.error(new RuntimeException("db down")));
 
-        scheduler.checkSlaBreaches();
+        scheduler.fireDueDeadlines();
 
-        verify(grievanceService, timeout(500)).escalateGrievance("g1", "SYSTEM");
+        verify(grievanceService, timeout(500)).escalateOverdue(List.of("g1"));
+        assertThat(deadlines.size()).isEqualTo(1);
+        assertThat(escalations("failed")).isEqualTo(1.0);
     }
 
     @Test
-    void checkSlaBreaches_logsFailures() {
-        when(grievanceRepository.findByStatusInAndAssignedAtBeforeAndEscalatedFalse(
-                org.mockito.ArgumentMatchers.anyList(),
-                org.mockito.ArgumentMatchers.any(LocalDateTime.class)
-        )).thenReturn(Flux.<Grievance>error(new RuntimeException("db down"))
-                .onErrorResume(e -> Flux.empty()));
-
-        scheduler.checkSlaBreaches();
+    void renewLeases_resyncsWhenShardsAreGained() {
+        when(leases.renew()).thenReturn(Mono.just(2));
+        when(grievanceRepository.findByStatusInAndEscalatedFalse(SlaDeadlineQueue.SLA_STATUSES))
+                .thenReturn(Flux.just(open("g1", LocalDateTime.now()), open("g2", LocalDateTime.now()),
+                        open("theirs", LocalDateTime.now())));
+        when(leases.owns(anyString())).thenAnswer(invocation -> !"theirs".equals(invocation.getArgument(0)));
+
+        scheduler.renewLeases();
+
+        assertThat(deadlines.size()).isEqualTo(2);
+    }
+
+    @Test
+    void resync_keepsDeadlinesTrackedWhileTheSnapshotWasRead() {
+        when(leases.owns(anyString())).thenReturn(true);
+        when(grievanceRepository.findByStatusInAndEscalatedFalse(SlaDeadlineQueue.SLA_STATUSES))
+                .thenReturn(Flux.defer(() -> {
+                    // assigned on this instance after the read started, so not in the snapshot
+                    deadlines.track(open("fresh", LocalDateTime.now()));
+                    return Flux.just(open("g1", LocalDateTime.now()));
+                }));
+
+        scheduler.resync().block();
+
+        assertThat(deadlines.size()).isEqualTo(2);
+    }
+
+    private double escalations(String outcome) {
+        return meterRegistry.get("grievance.sla.escalations").tag("outcome", outcome).counter().count();
+    }
+
+    private Grievance open(String id, LocalDateTime assignedAt) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setStatus(GrievanceStatus.ASSIGNED);
+        grievance.setAssignedAt(assignedAt);
+        grievance.setEscalated(false);
+        return grievance;
     }
 }
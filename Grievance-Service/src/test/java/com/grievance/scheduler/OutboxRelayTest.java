@@ -0,0 +1,114 @@
+package com.grievance.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.grievance.model.OutboxEvent;
+import com.grievance.repository.OutboxRepository;
+import com.grievance.service.GrievanceEventPublisher;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+    @Mock
+    private OutboxRepository outboxRepository;
+    @Mock
+    private GrievanceEventPublisher grievanceEventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(mongoOperations, outboxRepository, grievanceEventPublisher, meterRegistry,
+                10, Duration.ofSeconds(30), Duration.ofSeconds(5), true);
+    }
+
+    @Test
+    void relayBatchSendsClaimedRecordsAndMarksThemSent() {
+        OutboxEvent first = record("o1");
+        OutboxEvent second = record("o2");
+        when(mongoOperations.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(Flux.just(first, second));
+        when(mongoOperations.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(OutboxEvent.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(2, 2L, null)));
+        when(outboxRepository.findByClaimTokenOrderByCreatedAtAsc(anyString())).thenReturn(Flux.just(first, second));
+        when(grievanceEventPublisher.send(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(relay.relayBatch())
+                .expectNext(2)
+                .verifyComplete();
+
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoOperations, times(2))
+                .updateMulti(any(Query.class), updates.capture(), eq(OutboxEvent.class));
+        assertThat(updates.getAllValues().get(1).getUpdateObject().toString()).contains("SENT");
+        assertThat(meterRegistry.get("grievance.outbox.relayed").tag("outcome", "sent").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void relayBatchReschedulesFailedSends() {
+        OutboxEvent record = record("o1");
+        when(mongoOperations.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(Flux.just(record));
+        when(mongoOperations.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(OutboxEvent.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(outboxRepository.findByClaimTokenOrderByCreatedAtAsc(anyString())).thenReturn(Flux.just(record));
+        when(grievanceEventPublisher.send(any())).thenReturn(Mono.error(new RuntimeException("broker down")));
+        when(mongoOperations.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(OutboxEvent.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(relay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        ArgumentCaptor<UpdateDefinition> retry = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoOperations).updateFirst(any(Query.class), retry.capture(), eq(OutboxEvent.class));
+        assertThat(retry.getValue().getUpdateObject().toString()).contains("attempts").contains("broker down");
+        assertThat(meterRegistry.get("grievance.outbox.relayed").tag("outcome", "failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void relayBatchDoesNothingWhenOutboxIsEmpty() {
+        when(mongoOperations.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(relay.drain())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(grievanceEventPublisher, never()).send(any());
+    }
+
+    private OutboxEvent record(String id) {
+        OutboxEvent record = new OutboxEvent();
+        record.setId(id);
+        record.setGrievanceId("g-" + id);
+        record.setStatus(OutboxEvent.Status.PENDING);
+        return record;
+    }
+}
@@ -0,0 +1,118 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.BulkItemResult;
+import com.grievance.model.CaseWorkerWorkload;
+import com.grievance.model.Grievance;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class CaseWorkerRouterTest {
+
+    @Mock
+    private GrievanceService grievanceService;
+    @Mock
+    private GrievanceBulkService grievanceBulkService;
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Test
+    void workerQueuePrefersExperienceWithinPreferenceAndStopsAtCapacity() {
+        CaseWorkerRouter.WorkerQueue queue = new CaseWorkerRouter.WorkerQueue(
+                List.of(workload("idle", 0), workload("expert", 1)),
+                Map.of("PIPES", Set.of("expert")), 3, 1);
+
+        assertThat(queue.next("PIPES")).isEqualTo("expert");   // 1 vs 0: within the preference
+        assertThat(queue.next("PIPES")).isEqualTo("idle");     // 2 vs 0: too far ahead
+        assertThat(queue.next("METERS")).isEqualTo("idle");
+        assertThat(queue.next("PIPES")).isEqualTo("expert");   // 2 vs 2
+        assertThat(queue.next(null)).isEqualTo("idle");
+        assertThat(queue.next("PIPES")).isNull();               // both at capacity 3
+    }
+
+    @Test
+    void routeBacklogPlansInMemoryAndBulkAssignsEachWorkersShare() {
+        when(mongoOperations.find(any(Query.class), eq(Grievance.class)))
+                .thenReturn(Flux.just(grievance("g1", "PIPES"), grievance("g2", "PIPES"), grievance("g3", "METERS")));
+        when(mongoOperations.find(any(Query.class), eq(CaseWorkerWorkload.class)))
+                .thenReturn(Flux.just(workload("cw-a", 0), workload("cw-b", 0)));
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Grievance.class), eq(Document.class)))
+                .thenReturn(Flux.just(new Document("_id", new Document("assignedWokerId", "cw-b").append("subCategoryCode", "PIPES"))));
+        when(grievanceBulkService.bulkAssignAsSystem(List.of("g1"), "cw-b", "D1"))
+                .thenReturn(Flux.just(BulkItemResult.updated("g1")));
+        when(grievanceBulkService.bulkAssignAsSystem(List.of("g2"), "cw-a", "D1"))
+                .thenReturn(Flux.just(new BulkItemResult("g2", BulkItemResult.Outcome.CONFLICT, "changed")));
+
+        StepVerifier.create(router(true, 1).routeBacklog("DEPARTMENT_OFFICER", "D1", null))
+                .assertNext(result -> {
+                    assertThat(result.getScanned()).isEqualTo(3);
+                    assertThat(result.getAssigned()).isEqualTo(1);
+                    assertThat(result.getFailed()).isEqualTo(1);
+                    assertThat(result.getUnrouted()).isEqualTo(1);
+                })
+                .verifyComplete();
+
+        verify(grievanceBulkService).bulkAssignAsSystem(List.of("g1"), "cw-b", "D1");
+    }
+
+    @Test
+    void routeBacklogIsOffByDefaultAndLimitedToOfficersOwnDepartment() {
+        StepVerifier.create(router(false, 1).routeBacklog("ADMIN", null, null))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT))
+                .verify();
+        StepVerifier.create(router(true, 1).routeBacklog("DEPARTMENT_OFFICER", "D1", "D2"))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.UNAUTHORIZED))
+                .verify();
+        StepVerifier.create(router(false, 1).route("g1")).verifyComplete();
+
+        verifyNoInteractions(mongoOperations, grievanceService);
+    }
+
+    private CaseWorkerRouter router(boolean enabled, int capacity) {
+        return new CaseWorkerRouter(grievanceService, grievanceBulkService, mongoOperations, enabled, capacity, 100, 1,
+                Duration.ofDays(180), Duration.ofMinutes(10));
+    }
+
+    private CaseWorkerWorkload workload(String caseWorkerId, int activeCount) {
+        CaseWorkerWorkload workload = new CaseWorkerWorkload();
+        workload.setCaseWorkerId(caseWorkerId);
+        workload.setActiveCount(activeCount);
+        return workload;
+    }
+
+    private Grievance grievance(String id, String subCategoryCode) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setDepartmentId("D1");
+        grievance.setSubCategoryCode(subCategoryCode);
+        grievance.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return grievance;
+    }
+}
@@ -0,0 +1,173 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.CaseWorkerWorkload;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class CaseWorkerWorkloadServiceTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Test
+    void acquireIsOneConditionalUpsertBoundedByCapacity() {
+        CaseWorkerWorkload workload = new CaseWorkerWorkload();
+        workload.setActiveCount(1);
+        when(mongoOperations.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(CaseWorkerWorkload.class))).thenReturn(Mono.just(workload));
+
+        StepVerifier.create(service(3).acquire("cw-1", "g1", "D1"))
+                .expectNext(workload)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoOperations).findAndModify(query.capture(), update.capture(), options.capture(),
+                eq(CaseWorkerWorkload.class));
+        assertThat(query.getValue().getQueryObject().get("activeCount", org.bson.Document.class)).containsEntry("$lt", 3);
+        // departments accumulate, so the worker stays on every roster they have worked for
+        assertThat(update.getValue().getUpdateObject().get("$addToSet", org.bson.Document.class))
+                .containsEntry("departmentIds", "D1");
+        assertThat(options.getValue().isUpsert()).isTrue();
+    }
+
+    @Test
+    void acquireMapsFullWorkloadToConflict() {
+        when(mongoOperations.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(CaseWorkerWorkload.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+        StepVerifier.create(service(1).acquire("cw-1", "g1", "D1"))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT))
+                .verify();
+    }
+
+    @Test
+    void acquireAllTakesOnlyTheFreeSlotsAndRetriesWhenTheCountMoved() {
+        CaseWorkerWorkload workload = new CaseWorkerWorkload();
+        workload.setCaseWorkerId("cw-1");
+        workload.setActiveCount(1);
+        when(mongoOperations.findById("cw-1", CaseWorkerWorkload.class)).thenReturn(Mono.just(workload));
+        when(mongoOperations.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(CaseWorkerWorkload.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000")))
+                .thenReturn(Mono.just(workload));
+
+        StepVerifier.create(service(3).acquireAll("cw-1", List.of("g1", "g2", "g3"), "D1"))
+                .expectNext(List.of("g1", "g2"))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoOperations, times(2)).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(CaseWorkerWorkload.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("activeCount", 1);
+        assertThat(update.getValue().getUpdateObject().get("$inc", org.bson.Document.class)).containsEntry("activeCount", 2);
+    }
+
+    @Test
+    void onStatusChangeReleasesWhenGrievanceCompletes() {
+        when(mongoOperations.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CaseWorkerWorkload.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(service(1).onStatusChange(assigned(), GrievanceStatus.IN_PROGRESS, GrievanceStatus.RESOLVED))
+                .verifyComplete();
+
+        verify(mongoOperations).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CaseWorkerWorkload.class));
+    }
+
+    @Test
+    void onStatusChangeReactivatesReopenedGrievance() {
+        when(mongoOperations.upsert(any(Query.class), any(UpdateDefinition.class), eq(CaseWorkerWorkload.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(service(1).onStatusChange(assigned(), GrievanceStatus.CLOSED, GrievanceStatus.REOPENED))
+                .verifyComplete();
+
+        verify(mongoOperations, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CaseWorkerWorkload.class));
+    }
+
+    @Test
+    void onStatusChangeIgnoresUnassignedGrievances() {
+        StepVerifier.create(service(1).onStatusChange(new Grievance(), GrievanceStatus.SUBMITTED, GrievanceStatus.CLOSED))
+                .verifyComplete();
+
+        verifyNoInteractions(mongoOperations);
+    }
+
+    @Test
+    void rosterReadsDepartmentRecordsWithoutIdLists() {
+        CaseWorkerWorkload workload = new CaseWorkerWorkload();
+        workload.setCaseWorkerId("cw-1");
+        workload.setActiveCount(2);
+        when(mongoOperations.find(any(Query.class), eq(CaseWorkerWorkload.class))).thenReturn(Flux.just(workload));
+
+        StepVerifier.create(service(1).roster("D1"))
+                .assertNext(entry -> {
+                    assertThat(entry.getCaseWorkerId()).isEqualTo("cw-1");
+                    assertThat(entry.getActiveCount()).isEqualTo(2);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(CaseWorkerWorkload.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("departmentIds", "D1");
+        assertThat(query.getValue().getFieldsObject()).containsEntry("activeGrievanceIds", 0);
+    }
+
+    @Test
+    void releaseUnusedCountsAFailedReleaseInsteadOfReplacingTheCallersError() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        when(mongoOperations.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CaseWorkerWorkload.class)))
+                .thenReturn(Mono.error(new RuntimeException("primary stepped down")));
+
+        StepVerifier.create(new CaseWorkerWorkloadService(mongoOperations, meterRegistry, 1).releaseUnused("cw-1", "g1"))
+                .verifyComplete();
+
+        assertThat(meterRegistry.counter("grievance.workload.release.failed").count()).isEqualTo(1.0);
+    }
+
+    private CaseWorkerWorkloadService service(int capacity) {
+        return new CaseWorkerWorkloadService(mongoOperations, new SimpleMeterRegistry(), capacity);
+    }
+
+    private Grievance assigned() {
+        Grievance grievance = new Grievance();
+        grievance.setId("g1");
+        grievance.setDepartmentId("D1");
+        grievance.setAssignedWokerId("cw-1");
+        return grievance;
+    }
+}
@@ -1,6 +1,6 @@
 package com.grievance.service;
 
-import com.grievance.client.DepartmentClient;
+import com.grievance.client.DepartmentCatalogCache;
 import com.grievance.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,18 +17,18 @@ import static org.mockito.Mockito.when;
 class DepartmentValidationServiceTest {
 
     @Mock
-    private DepartmentClient departmentClient;
+    private DepartmentCatalogCache departmentCatalogCache;
 
     private DepartmentValidationService service;
 
     @BeforeEach
     void setUp() {
-        service = new DepartmentValidationService(departmentClient);
+        service = new DepartmentValidationService(departmentCatalogCache);
     }
 
     @Test
     void validateDepartmentCompletesWhenValid() {
-        when(departmentClient.isValidDepartment("D1", "C1", "S1")).thenReturn(Mono.just(true));
+        when(departmentCatalogCache.isValidDepartment("D1", "C1", "S1")).thenReturn(Mono.just(true));
 
         StepVerifier.create(service.validateDepartment("D1", "C1", "S1"))
                 .verifyComplete();
@@ -36,7 +36,7 @@ class DepartmentValidationServiceTest {
 
     @Test
     void validateDepartmentErrorsWhenInvalid() {
-        when(departmentClient.isValidDepartment("D1", "C1", "S1")).thenReturn(Mono.just(false));
+        when(departmentCatalogCache.isValidDepartment("D1", "C1", "S1")).thenReturn(Mono.just(false));
 
         StepVerifier.create(service.validateDepartment("D1", "C1", "S1"))
                 .expectErrorSatisfies(ex -> assertThat(ex)
@@ -0,0 +1,177 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.Assignment;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceStatus;
+import com.mongodb.client.result.DeleteResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class GrievanceArchiveTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+    @Mock
+    private ReactiveBulkOperations bulk;
+    @Mock
+    private GrievanceStatsService grievanceStatsService;
+
+    @Test
+    void runMovesColdGrievancesWithTheirEntriesAndKeepsReopenedOnesLive() {
+        when(grievanceStatsService.isRebuildPending()).thenReturn(Mono.just(false));
+        when(mongoOperations.getCollectionName(Grievance.class)).thenReturn("grievance");
+        when(mongoOperations.getCollectionName(GrievanceHistory.class)).thenReturn("status_history");
+        when(mongoOperations.getCollectionName(Assignment.class)).thenReturn("assignments");
+        when(mongoOperations.executeCommand(any(Document.class)))
+                .thenReturn(Mono.just(new Document("size", 900).append("totalIndexSize", 100)))
+                .thenReturn(Mono.just(new Document("size", 400).append("totalIndexSize", 100)));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("grievance")))
+                .thenReturn(Flux.just(new Document("_id", "g1").append("status", "CLOSED").append("assigneeKeys", List.of("cw-1")),
+                        new Document("_id", "g2").append("status", "CLOSED")))
+                // both still cold when the release starts
+                .thenReturn(Flux.just(new Document("_id", "g1"), new Document("_id", "g2")))
+                // g2 was reopened while its entries were being removed
+                .thenReturn(Flux.just(new Document("_id", "g2")));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("status_history")))
+                .thenReturn(Flux.just(entry("h1", "g1"), entry("h2", "g1"), entry("h3", "g2")));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("assignments")))
+                .thenReturn(Flux.just(entry("a1", "g1")));
+        when(mongoOperations.bulkOps(BulkMode.UNORDERED, GrievanceArchive.ARCHIVE_COLLECTION)).thenReturn(bulk);
+        when(bulk.upsert(any(Query.class), any(Update.class))).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(Mono.empty());
+        when(mongoOperations.remove(any(Query.class), eq("grievance"))).thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoOperations.remove(any(Query.class), eq(GrievanceHistory.class))).thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+        when(mongoOperations.remove(any(Query.class), eq(Assignment.class))).thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoOperations.remove(any(Query.class), eq(GrievanceArchive.ARCHIVE_COLLECTION)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoOperations.insert(anyList(), eq("status_history"))).thenReturn(Flux.just(entry("h3", "g2")));
+
+        StepVerifier.create(archive(true).run())
+                .assertNext(result -> {
+                    assertThat(result.getArchived()).isEqualTo(1);
+                    assertThat(result.getHistoryEntries()).isEqualTo(2);
+                    assertThat(result.getAssignments()).isEqualTo(1);
+                    assertThat(result.getWorkingSetBefore()).containsEntry("grievance", 1000L);
+                    assertThat(result.getWorkingSetAfter()).containsEntry("assignments", 500L);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Update> copied = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(any(Query.class), copied.capture());
+        Document first = copied.getAllValues().get(0).getUpdateObject();
+        assertThat(first.get("$set", Document.class)).containsKey("status").doesNotContainKeys("_id", "assigneeKeys");
+        Update.Modifier history = (Update.Modifier) first.get("$addToSet", Document.class).get("history");
+        assertThat((Object[]) history.getValue()).hasSize(2)
+                .allSatisfy(embedded -> assertThat((Document) embedded).doesNotContainKey("grievanceId"));
+
+        // entries leave by the ids that were copied, before the grievances themselves
+        InOrder order = inOrder(mongoOperations);
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        order.verify(mongoOperations).remove(released.capture(), eq(GrievanceHistory.class));
+        order.verify(mongoOperations).remove(any(Query.class), eq("grievance"));
+        assertThat(released.getValue().getQueryObject().get("_id", Document.class).get("$in", Collection.class))
+                .containsExactlyInAnyOrder("h1", "h2", "h3");
+        ArgumentCaptor<List<Document>> restored = ArgumentCaptor.forClass(List.class);
+        verify(mongoOperations).insert(restored.capture(), eq("status_history"));
+        assertThat(restored.getValue()).extracting(entry -> entry.get("_id")).containsExactly("h3");
+        assertThat(restored.getValue().get(0)).containsEntry("grievanceId", "g2");
+        ArgumentCaptor<Query> dropped = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).remove(dropped.capture(), eq(GrievanceArchive.ARCHIVE_COLLECTION));
+        assertThat(dropped.getValue().getQueryObject().get("_id", Document.class).get("$in", Collection.class))
+                .containsExactly("g2");
+    }
+
+    @Test
+    void runWaitsForAPendingStatsRebuild() {
+        when(grievanceStatsService.isRebuildPending()).thenReturn(Mono.just(true));
+        GrievanceArchive archive = archive(true);
+
+        StepVerifier.create(archive.run())
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT))
+                .verify();
+
+        assertThat(archive.isRunning()).isFalse();
+        verify(mongoOperations, never()).bulkOps(any(BulkMode.class), any(String.class));
+    }
+
+    @Test
+    void findHistoryReadsTheEmbeddedEntries() throws Exception {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoOperations.getConverter()).thenReturn(converter);
+        when(mongoOperations.findOne(any(Query.class), eq(Document.class), eq(GrievanceArchive.ARCHIVE_COLLECTION)))
+                .thenReturn(Mono.just(new Document("_id", "g1").append("history", List.of(
+                        new Document("_id", "h1").append("status", "SUBMITTED"),
+                        new Document("_id", "h2").append("status", "CLOSED")))));
+
+        StepVerifier.create(archive(true).findHistory("g1"))
+                .assertNext(history -> {
+                    assertThat(history.getId()).isEqualTo("h1");
+                    assertThat(history.getGrievanceId()).isEqualTo("g1");
+                })
+                .assertNext(history -> assertThat(history.getStatus()).isEqualTo(GrievanceStatus.CLOSED))
+                .verifyComplete();
+    }
+
+    @Test
+    void runIsRefusedWhenDisabled() {
+        StepVerifier.create(GrievanceArchive.disabled().run())
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT))
+                .verify();
+        StepVerifier.create(GrievanceArchive.disabled().findGrievance("g1")).verifyComplete();
+    }
+
+    private GrievanceArchive archive(boolean enabled) {
+        return new GrievanceArchive(mongoOperations, GrievanceTransactions.none(), grievanceStatsService,
+                new SimpleMeterRegistry(), enabled, Duration.ofDays(365), 500);
+    }
+
+    private static Document entry(String id, String grievanceId) {
+        return new Document("_id", id).append("grievanceId", grievanceId).append("updatedAt", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,162 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.grievance.model.Assignment;
+import com.grievance.model.BulkItemResult;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceStatus;
+import com.grievance.repository.AssignmentRepository;
+import com.grievance.repository.GrievanceRepository;
+import com.grievance.repository.StatusHistoryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class GrievanceBulkServiceTest {
+
+    @Mock
+    private GrievanceRepository grievanceRepository;
+    @Mock
+    private AssignmentRepository assignmentRepository;
+    @Mock
+    private StatusHistoryRepository statusHistoryRepository;
+    @Mock
+    private GrievanceEventPublisher grievanceEventPublisher;
+    @Spy
+    private GrievanceTransactions transactions = GrievanceTransactions.none();
+    @Mock
+    private CaseWorkerWorkloadService caseWorkerWorkloadService;
+    @Mock
+    private SlaDeadlineQueue slaDeadlineQueue;
+    @Spy
+    private GrievanceStatsService grievanceStatsService = GrievanceStatsService.disabled();
+    @Spy
+    private GrievanceCache grievanceCache = GrievanceCache.disabled();
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry());
+    @Spy
+    private GrievanceDuplicateIndex duplicateIndex = GrievanceDuplicateIndex.disabled();
+
+    @InjectMocks
+    private GrievanceBulkService grievanceBulkService;
+
+    private Grievance bulkGrievance(String id, String departmentId, GrievanceStatus status) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setDepartmentId(departmentId);
+        grievance.setStatus(status);
+        return grievance;
+    }
+
+    @Test
+    void bulkUpdateStatusReportsOutcomePerIdWithOneReadAndOneWrite() {
+        Grievance own = bulkGrievance("g1", "D1", GrievanceStatus.IN_PROGRESS);
+        Grievance raced = bulkGrievance("g2", "D1", GrievanceStatus.IN_PROGRESS);
+        Grievance foreign = bulkGrievance("g3", "D2", GrievanceStatus.IN_PROGRESS);
+        when(grievanceRepository.findAllById(List.of("g1", "g2", "g3", "g4"))).thenReturn(Flux.just(own, raced, foreign));
+        when(grievanceRepository.updateStatuses(any(), eq(GrievanceStatus.RESOLVED), any(LocalDateTime.class)))
+                .thenReturn(Flux.just("g1"));
+        when(caseWorkerWorkloadService.onStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+        when(statusHistoryRepository.saveAll(any(Iterable.class))).thenReturn(Flux.just(new GrievanceHistory()));
+        when(grievanceEventPublisher.publishStatusChanges(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceBulkService.bulkUpdateStatus(List.of("g1", "g2", "g3", "g4", "g1"), GrievanceStatus.RESOLVED,
+                        "officer", "Field drive", "DEPARTMENT_OFFICER", "D1"))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.UPDATED))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.CONFLICT))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.UNAUTHORIZED))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.NOT_FOUND))
+                .verifyComplete();
+
+        ArgumentCaptor<Collection<Grievance>> written = ArgumentCaptor.forClass(Collection.class);
+        verify(grievanceRepository).updateStatuses(written.capture(), eq(GrievanceStatus.RESOLVED), any(LocalDateTime.class));
+        assertThat(written.getValue()).extracting(Grievance::getId).containsExactly("g1", "g2");
+        ArgumentCaptor<List<Grievance>> published = ArgumentCaptor.forClass(List.class);
+        verify(grievanceEventPublisher).publishStatusChanges(published.capture(), eq(GrievanceStatus.RESOLVED), eq("Field drive"));
+        assertThat(published.getValue()).extracting(Grievance::getId).containsExactly("g1");
+        verify(caseWorkerWorkloadService).onStatusChange(own, GrievanceStatus.IN_PROGRESS, GrievanceStatus.RESOLVED);
+        verify(grievanceRepository, never()).save(any(Grievance.class));
+    }
+
+    @Test
+    void bulkAssignWritesOnlyGrievancesTheCaseWorkerHasASlotFor() {
+        Grievance first = bulkGrievance("g1", "D1", GrievanceStatus.SUBMITTED);
+        Grievance changed = bulkGrievance("g2", "D1", GrievanceStatus.SUBMITTED);
+        Grievance taken = bulkGrievance("g3", "D1", GrievanceStatus.ASSIGNED);
+        taken.setAssignedWokerId("worker9");
+        Grievance noSlot = bulkGrievance("g4", "D1", GrievanceStatus.SUBMITTED);
+        when(grievanceRepository.findAllById(List.of("g1", "g2", "g3", "g4"))).thenReturn(Flux.just(first, changed, taken, noSlot));
+        when(caseWorkerWorkloadService.acquireAll("worker1", List.of("g1", "g2", "g4"), "D1")).thenReturn(Mono.just(List.of("g1", "g2")));
+        when(grievanceRepository.assignAllIfUnassigned(any(), eq("worker1"), any(LocalDateTime.class)))
+                .thenReturn(Flux.just("g1"));
+        when(caseWorkerWorkloadService.releaseUnused("worker1", "g2")).thenReturn(Mono.empty());
+        when(assignmentRepository.saveAll(any(Iterable.class))).thenReturn(Flux.just(new Assignment()));
+        when(statusHistoryRepository.saveAll(any(Iterable.class))).thenReturn(Flux.just(new GrievanceHistory()));
+        when(grievanceEventPublisher.publishStatusChanges(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceBulkService.bulkAssign(List.of("g1", "g2", "g3", "g4"), "officer", "worker1", "DEPARTMENT_OFFICER", "D1"))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.UPDATED))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.CONFLICT))
+                .assertNext(result -> assertThat(result.getMessage()).isEqualTo("Grievance already assigned to worker9"))
+                .assertNext(result -> assertThat(result.getMessage()).isEqualTo("Case worker has no free slot for this grievance"))
+                .verifyComplete();
+
+        ArgumentCaptor<Collection<Grievance>> written = ArgumentCaptor.forClass(Collection.class);
+        verify(grievanceRepository).assignAllIfUnassigned(written.capture(), eq("worker1"), any(LocalDateTime.class));
+        assertThat(written.getValue()).extracting(Grievance::getId).containsExactly("g1", "g2");
+        verify(caseWorkerWorkloadService, never()).releaseUnused("worker1", "g1");
+        ArgumentCaptor<List<Grievance>> published = ArgumentCaptor.forClass(List.class);
+        verify(grievanceEventPublisher).publishStatusChanges(published.capture(), eq(GrievanceStatus.ASSIGNED), any());
+        assertThat(published.getValue()).extracting(Grievance::getId).containsExactly("g1");
+    }
+
+    @Test
+    void bulkAssignHandsTheSlotsBackWhenTheConditionalWriteFails() {
+        when(grievanceRepository.findAllById(List.of("g1"))).thenReturn(Flux.just(bulkGrievance("g1", "D1", GrievanceStatus.SUBMITTED)));
+        when(caseWorkerWorkloadService.acquireAll("worker1", List.of("g1"), "D1")).thenReturn(Mono.just(List.of("g1")));
+        when(grievanceRepository.assignAllIfUnassigned(any(), eq("worker1"), any(LocalDateTime.class)))
+                .thenReturn(Flux.error(new IllegalStateException("write failed")));
+        when(caseWorkerWorkloadService.releaseUnused("worker1", "g1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceBulkService.bulkAssign(List.of("g1"), "officer", "worker1", "DEPARTMENT_OFFICER", "D1"))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(caseWorkerWorkloadService).releaseUnused("worker1", "g1");
+        verifyNoInteractions(assignmentRepository);
+    }
+
+    @Test
+    void bulkAssignAsSystemRejectsGrievancesOutsideTheRoutedDepartment() {
+        when(grievanceRepository.findAllById(List.of("g1"))).thenReturn(Flux.just(bulkGrievance("g1", "D2", GrievanceStatus.SUBMITTED)));
+
+        StepVerifier.create(grievanceBulkService.bulkAssignAsSystem(List.of("g1"), "worker1", "D1"))
+                .assertNext(result -> assertThat(result.getOutcome()).isEqualTo(BulkItemResult.Outcome.UNAUTHORIZED))
+                .verifyComplete();
+
+        verify(grievanceRepository, never()).assignAllIfUnassigned(any(), any(), any());
+    }
+}
@@ -0,0 +1,79 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.grievance.model.Grievance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class GrievanceCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void secondReadIsServedFromCacheUntilInvalidated() {
+        GrievanceCache cache = new GrievanceCache(meterRegistry, new RequestCoalescer(meterRegistry), 10, Duration.ofMinutes(1));
+
+        StepVerifier.create(cache.get("g1", this::load)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get("g1", this::load)).expectNextCount(1).verifyComplete();
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("grievance.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+
+        cache.invalidate("g1");
+
+        StepVerifier.create(cache.get("g1", this::load)).expectNextCount(1).verifyComplete();
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("grievance.cache.evictions").tag("cause", "invalidated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadOverlappingAWriteIsNotCached() {
+        GrievanceCache cache = new GrievanceCache(meterRegistry, new RequestCoalescer(meterRegistry), 10, Duration.ofMinutes(1));
+        Sinks.One<Grievance> slowRead = Sinks.one();
+
+        StepVerifier.create(cache.get("g1", id -> slowRead.asMono()))
+                .then(() -> {
+                    cache.invalidate("g1");
+                    slowRead.tryEmitValue(grievance("g1"));
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyReadEntryIsEvictedWhenFull() {
+        GrievanceCache cache = new GrievanceCache(meterRegistry, new RequestCoalescer(meterRegistry), 2, Duration.ofMinutes(1));
+        cache.get("g1", this::load).block();
+        cache.get("g2", this::load).block();
+        cache.get("g1", this::load).block();
+        cache.get("g3", this::load).block();
+
+        cache.get("g1", this::load).block();
+        assertThat(loads).hasValue(3);
+        cache.get("g2", this::load).block();
+        assertThat(loads).hasValue(4);
+        assertThat(meterRegistry.get("grievance.cache.evictions").tag("cause", "size").counter().count()).isEqualTo(2);
+    }
+
+    private Mono<Grievance> load(String id) {
+        loads.incrementAndGet();
+        return Mono.just(grievance(id));
+    }
+
+    private Grievance grievance(String id) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        return grievance;
+    }
+}
@@ -0,0 +1,77 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GrievanceDuplicateIndexTest {
+
+    private static final String OUTAGE = "Water supply has been cut off in ward 12 near the main market since "
+            + "yesterday morning and nobody from the department has responded to our calls";
+
+    @Test
+    void linksNearDuplicateToTheFirstGrievanceOfItsCluster() {
+        GrievanceDuplicateIndex index = index(Duration.ofHours(48));
+        index.add(grievance("g1", "WATER", "SUPPLY", OUTAGE, null));
+        index.add(grievance("g2", "WATER", "SUPPLY", OUTAGE + " at all", "g1"));
+
+        assertThat(index.findCluster(grievance(null, "water", "supply", OUTAGE + " so far", null))).isEqualTo("g1");
+        assertThat(index.findCluster(grievance(null, "WATER", "SUPPLY",
+                "Streetlight outside house number 4 has not worked for two weeks", null))).isNull();
+        assertThat(index.findCluster(grievance(null, "WATER", "BILLING", OUTAGE, null))).isNull();
+    }
+
+    @Test
+    void completedAndExpiredGrievancesStopAttractingDuplicates() {
+        GrievanceDuplicateIndex index = index(Duration.ofHours(1));
+        Grievance resolved = grievance("g1", "WATER", "SUPPLY", OUTAGE, null);
+        index.add(resolved);
+        Grievance old = grievance("g2", "POWER", "OUTAGE", OUTAGE, null);
+        old.setCreatedAt(LocalDateTime.now().minusHours(2));
+        index.add(old);
+
+        resolved.setStatus(GrievanceStatus.RESOLVED);
+        index.onStatusChange(resolved);
+
+        assertThat(index.findCluster(grievance(null, "WATER", "SUPPLY", OUTAGE, null))).isNull();
+        assertThat(index.findCluster(grievance(null, "POWER", "OUTAGE", OUTAGE, null))).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void signatureSimilarityTracksWordOverlap() {
+        int[] outage = GrievanceDuplicateIndex.signature(OUTAGE);
+
+        assertThat(GrievanceDuplicateIndex.similarity(outage, GrievanceDuplicateIndex.signature(OUTAGE.toUpperCase())))
+                .isEqualTo(1.0);
+        assertThat(GrievanceDuplicateIndex.similarity(outage, GrievanceDuplicateIndex.signature(OUTAGE + " again")))
+                .isGreaterThan(0.8);
+        assertThat(GrievanceDuplicateIndex.similarity(outage,
+                GrievanceDuplicateIndex.signature("Pension payment delayed for three months without explanation")))
+                .isLessThan(0.2);
+    }
+
+    private GrievanceDuplicateIndex index(Duration window) {
+        return new GrievanceDuplicateIndex(null, new SimpleMeterRegistry(), true, 0.7, window, 100);
+    }
+
+    private Grievance grievance(String id, String departmentId, String subCategoryCode, String description, String duplicateOf) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setDepartmentId(departmentId);
+        grievance.setSubCategoryCode(subCategoryCode);
+        grievance.setDescription(description);
+        grievance.setDuplicateOf(duplicateOf);
+        grievance.setStatus(GrievanceStatus.SUBMITTED);
+        grievance.setCreatedAt(LocalDateTime.now());
+        return grievance;
+    }
+}
@@ -2,10 +2,12 @@ package com.grievance.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
@@ -20,7 +22,11 @@ import org.springframework.kafka.support.SendResult;
 import com.grievance.event.GrievanceEvent;
 import com.grievance.model.Grievance;
 import com.grievance.model.GrievanceStatus;
+import com.grievance.model.OutboxEvent;
+import com.grievance.repository.OutboxRepository;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,70 +34,89 @@ class GrievanceEventPublisherTest {
 
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
+    @Mock
+    private OutboxRepository outboxRepository;
 
     @InjectMocks
     private GrievanceEventPublisher publisher;
 
     @Test
-    void publishStatusChangeSendsEvent() {
-        Grievance grievance = new Grievance();
-        grievance.setId("g1");
-        grievance.setCitizenId("user1");
+    void publishStatusChangeWritesOutboxRecordInsteadOfSending() {
+        ArgumentCaptor<OutboxEvent> outboxCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        when(outboxRepository.save(outboxCaptor.capture())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(null);
+        StepVerifier.create(publisher.publishStatusChange(grievance(), GrievanceStatus.SUBMITTED, "ok"))
+                .verifyComplete();
 
-        when(kafkaTemplate.send(any(String.class), any())).thenReturn(future);
+        OutboxEvent saved = outboxCaptor.getValue();
+        assertThat(saved.getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(saved.getGrievanceId()).isEqualTo("g1");
+        assertThat(saved.getAvailableAt()).isNotNull();
+        assertThat(saved.getPayload().getEventType()).isEqualTo("SUBMITTED");
+        verify(kafkaTemplate, never()).send(any(String.class), any(String.class), any());
+    }
 
-        StepVerifier.create(publisher.publishStatusChange(grievance, GrievanceStatus.SUBMITTED, "ok"))
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishStatusChangesWritesOneOutboxBatch() {
+        Grievance second = grievance();
+        second.setId("g2");
+        ArgumentCaptor<Iterable<OutboxEvent>> batchCaptor = ArgumentCaptor.forClass(Iterable.class);
+        when(outboxRepository.saveAll(batchCaptor.capture())).thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+        StepVerifier.create(publisher.publishStatusChanges(List.of(grievance(), second), GrievanceStatus.ESCALATED, "late"))
                 .verifyComplete();
 
-        verify(kafkaTemplate, times(1)).send(any(String.class), any());
+        assertThat(batchCaptor.getValue()).extracting(OutboxEvent::getGrievanceId).containsExactly("g1", "g2");
+        verify(outboxRepository, never()).save(any(OutboxEvent.class));
     }
 
     @Test
-    void publishStatusChangeSwallowsSendErrors() {
-        Grievance grievance = new Grievance();
-        grievance.setId("g1");
-        grievance.setCitizenId("user1");
-
-        when(kafkaTemplate.send(any(String.class), any())).thenThrow(new RuntimeException("send failed"));
+    void publishStatusChangePropagatesOutboxWriteFailure() {
+        when(outboxRepository.save(any(OutboxEvent.class))).thenReturn(Mono.error(new RuntimeException("mongo down")));
 
-        StepVerifier.create(publisher.publishStatusChange(grievance, GrievanceStatus.RESOLVED, "done"))
-                .verifyComplete();
+        StepVerifier.create(publisher.publishStatusChange(grievance(), GrievanceStatus.RESOLVED, "done"))
+                .expectError(RuntimeException.class)
+                .verify();
     }
 
     @Test
-    void publishStatusChangeUsesDefaultMessageWhenRemarksBlank() {
-        Grievance grievance = new Grievance();
-        grievance.setId("g1");
-        grievance.setCitizenId("user1");
-
+    void sendKeysByGrievanceIdAndCompletesOnAcknowledgement() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(null);
-        ArgumentCaptor<GrievanceEvent> eventCaptor = ArgumentCaptor.forClass(GrievanceEvent.class);
-
-        when(kafkaTemplate.send(any(String.class), eventCaptor.capture())).thenReturn(future);
+        when(kafkaTemplate.send(eq("grievance-events"), eq("g1"), any())).thenReturn(future);
 
-        StepVerifier.create(publisher.publishStatusChange(grievance, GrievanceStatus.CLOSED, "   "))
+        StepVerifier.create(publisher.send(publisher.toOutbox(grievance(), GrievanceStatus.ASSIGNED, null)))
                 .verifyComplete();
+    }
+
+    @Test
+    void sendPropagatesFailedAcknowledgement() {
+        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.failedFuture(new RuntimeException("timeout"));
+        when(kafkaTemplate.send(any(String.class), any(String.class), any())).thenReturn(future);
 
-        GrievanceEvent sent = eventCaptor.getValue();
-        assertThat(sent.getMessage()).contains("grievance g1 is now closed").contains("keep you posted");
+        StepVerifier.create(publisher.send(publisher.toOutbox(grievance(), GrievanceStatus.ASSIGNED, null)))
+                .expectError(RuntimeException.class)
+                .verify();
     }
 
     @Test
-    void publishStatusChangeHandlesNullRemarksBranch() {
-        Grievance grievance = new Grievance();
-        grievance.setId("g1");
-        grievance.setCitizenId("user1");
+    void toOutboxUsesDefaultMessageWhenRemarksBlank() {
+        GrievanceEvent event = publisher.toOutbox(grievance(), GrievanceStatus.CLOSED, "   ").getPayload();
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(null);
-        ArgumentCaptor<GrievanceEvent> eventCaptor = ArgumentCaptor.forClass(GrievanceEvent.class);
+        assertThat(event.getMessage()).contains("grievance g1 is now closed").contains("keep you posted");
+    }
 
-        when(kafkaTemplate.send(any(String.class), eventCaptor.capture())).thenReturn(future);
+    @Test
+    void toOutboxHandlesNullRemarksBranch() {
+        GrievanceEvent event = publisher.toOutbox(grievance(), GrievanceStatus.WORK_DONE, null).getPayload();
 
-        StepVerifier.create(publisher.publishStatusChange(grievance, GrievanceStatus.WORK_DONE, null))
-                .verifyComplete();
+        assertThat(event.getMessage()).contains("keep you posted");
+    }
 
-        assertThat(eventCaptor.getValue().getMessage()).contains("keep you posted");
+    private Grievance grievance() {
+        Grievance grievance = new Grievance();
+        grievance.setId("g1");
+        grievance.setCitizenId("user1");
+        return grievance;
     }
 }
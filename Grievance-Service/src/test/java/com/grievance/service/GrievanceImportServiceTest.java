@@ -0,0 +1,178 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grievance.client.DepartmentCatalogCache;
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievanceImportResult;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GrievanceImportServiceTest {
+
+    private static final Date STARTED_AT = new Date(1717200000000L);
+    private static final String HEADER = "citizenId,departmentId,categoryCode,subCategoryCode,description,status,createdAt";
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+    @Mock
+    private DepartmentCatalogCache departmentCatalogCache;
+    @Spy
+    private GrievanceStatsService grievanceStatsService = GrievanceStatsService.disabled();
+    @Mock
+    private MongoCollection<Document> grievances;
+    @Mock
+    private MongoCollection<Document> histories;
+
+    private GrievanceImportService service;
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        when(mongoOperations.getConverter()).thenReturn(converter);
+        when(mongoOperations.getCollectionName(Grievance.class)).thenReturn("grievance");
+        when(mongoOperations.getCollectionName(GrievanceHistory.class)).thenReturn("status_history");
+        when(mongoOperations.getCollection("grievance")).thenReturn(Mono.just(grievances));
+        when(mongoOperations.getCollection("status_history")).thenReturn(Mono.just(histories));
+        when(histories.insertMany(anyList(), any(InsertManyOptions.class))).thenReturn(Mono.just(InsertManyResult.acknowledged(Map.of())));
+        when(mongoOperations.upsert(any(Query.class), any(UpdateDefinition.class), eq(GrievanceImportService.CHECKPOINT_COLLECTION)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(departmentCatalogCache.isValidDepartment(anyString(), anyString(), anyString())).thenReturn(Mono.just(true));
+        when(departmentCatalogCache.isValidDepartment(eq("NOPE"), anyString(), anyString())).thenReturn(Mono.just(false));
+        service = new GrievanceImportService(mongoOperations, departmentCatalogCache, grievanceStatsService,
+                new ObjectMapper(), 100);
+    }
+
+    @Test
+    void csvImportInsertsValidRowsAndReportsRejectedLines() {
+        checkpointThen(started(0), new Document("lastLine", 4L).append("imported", 1L).append("failed", 2L));
+        when(grievances.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenReturn(Mono.just(InsertManyResult.acknowledged(Map.of())));
+
+        Flux<String> csv = Flux.just(HEADER,
+                "c1,D1,WATER,LEAK,\"Pipe burst, street flooded\",RESOLVED,2021-04-01",
+                "c2,NOPE,WATER,LEAK,Department does not exist,,",
+                "c3,D1,WATER,LEAK,short,,");
+
+        StepVerifier.create(service.importGrievances("legacy-1", GrievanceImportService.Format.CSV, csv, "admin"))
+                .assertNext(result -> assertThat(result.getLine()).isEqualTo(3))
+                .assertNext(result -> assertThat(result.getMessage()).contains("between 10 and 2000"))
+                .assertNext(progress -> {
+                    assertThat(progress.getType()).isEqualTo(GrievanceImportResult.Type.PROGRESS);
+                    assertThat(progress.getImported()).isEqualTo(1);
+                    assertThat(progress.getFailed()).isEqualTo(2);
+                })
+                .assertNext(done -> assertThat(done.getType()).isEqualTo(GrievanceImportResult.Type.COMPLETED))
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<InsertManyOptions> options = ArgumentCaptor.forClass(InsertManyOptions.class);
+        verify(grievances).insertMany(inserted.capture(), options.capture());
+        assertThat(inserted.getValue()).singleElement()
+                .satisfies(document -> assertThat(document.get("description")).isEqualTo("Pipe burst, street flooded"));
+        assertThat(options.getValue().isOrdered()).isFalse();
+        verify(grievanceStatsService).onImported(anyList());
+    }
+
+    @Test
+    void resumedImportSkipsCommittedLinesAndCountsExistingRowsAsDuplicates() {
+        checkpointThen(started(1), new Document("lastLine", 3L));
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0);
+        when(grievances.insertMany(anyList(), any(InsertManyOptions.class))).thenReturn(Mono.error(new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                new ServerAddress(), Set.of())));
+
+        Flux<String> ndjson = Flux.just(
+                "{\"citizenId\":\"c1\",\"departmentId\":\"D1\",\"categoryCode\":\"W\",\"subCategoryCode\":\"L\",\"description\":\"Already imported row\"}",
+                "{\"citizenId\":\"c2\",\"departmentId\":\"D1\",\"categoryCode\":\"W\",\"subCategoryCode\":\"L\",\"description\":\"Was in the batch that crashed\"}",
+                "{\"citizenId\":\"c3\",\"departmentId\":\"D1\",\"categoryCode\":\"W\",\"subCategoryCode\":\"L\",\"description\":\"Never written before\"}");
+
+        StepVerifier.create(service.importGrievances("legacy-2", GrievanceImportService.Format.NDJSON, ndjson, "admin"))
+                .assertNext(progress -> {
+                    assertThat(progress.getLine()).isEqualTo(3);
+                    assertThat(progress.getImported()).isEqualTo(1);
+                    assertThat(progress.getDuplicates()).isEqualTo(1);
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(grievances).insertMany(inserted.capture(), any(InsertManyOptions.class));
+        assertThat(inserted.getValue()).extracting(document -> document.get("citizenId")).containsExactly("c2", "c3");
+        // rows without createdAt take the import's start, so the crashed batch's row gets the id it was written with
+        LocalDateTime startedAt = LocalDateTime.ofInstant(STARTED_AT.toInstant(), ZoneId.systemDefault());
+        assertThat(inserted.getValue().get(0).get("_id").toString())
+                .isEqualTo(GrievanceImportService.importedId("legacy-2:2", startedAt));
+        assertThat(inserted.getValue().get(0).get("createdAt")).isEqualTo(STARTED_AT);
+    }
+
+    @Test
+    void rejectsUnsafeImportId() {
+        StepVerifier.create(service.importGrievances("../x", GrievanceImportService.Format.NDJSON, Flux.empty(), "admin"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(mongoOperations, never()).findOne(any(Query.class), eq(Document.class), anyString());
+    }
+
+    private void checkpointThen(Document before, Document after) {
+        when(mongoOperations.findOne(any(Query.class), eq(Document.class), eq(GrievanceImportService.CHECKPOINT_COLLECTION)))
+                .thenReturn(Mono.just(before), Mono.just(after));
+    }
+
+    private Document started(long lastLine) {
+        return new Document("lastLine", lastLine).append("startedAt", STARTED_AT);
+    }
+}
@@ -2,29 +2,55 @@ package com.grievance.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.grievance.model.Assignment;
+import com.grievance.model.CaseWorkerRosterEntry;
+import com.grievance.model.CaseWorkerWorkload;
+import com.grievance.model.EscalatedGrievanceView;
 import com.grievance.model.Grievance;
 import com.grievance.model.GrievanceHistory;
+import com.grievance.model.GrievancePage;
+import com.grievance.model.GrievanceStatsView;
 import com.grievance.model.GrievanceStatus;
+import com.grievance.model.GrievanceSummary;
 import com.grievance.repository.AssignmentRepository;
 import com.grievance.repository.GrievanceRepository;
 import com.grievance.repository.StatusHistoryRepository;
 import com.grievance.request.GrievanceCreateRequest;
+import com.grievance.request.GrievanceListRequest;
+import com.grievance.request.GrievanceSearchRequest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -42,10 +68,40 @@ class GrievanceServiceTest {
     private DepartmentValidationService departmentValidationService;
     @Mock
     private GrievanceEventPublisher grievanceEventPublisher;
+    @Spy
+    private GrievanceTransactions transactions = GrievanceTransactions.none();
+    @Mock
+    private CaseWorkerWorkloadService caseWorkerWorkloadService;
+    @Mock
+    private SlaDeadlineQueue slaDeadlineQueue;
+    @Spy
+    private GrievanceStatsService grievanceStatsService = GrievanceStatsService.disabled();
+    @Spy
+    private GrievanceCache grievanceCache = GrievanceCache.disabled();
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry());
+    @Spy
+    private GrievanceDuplicateIndex duplicateIndex = GrievanceDuplicateIndex.disabled();
+    @Spy
+    private GrievanceVersionRetry versionRetry = GrievanceVersionRetry.immediate();
+    @Spy
+    private GrievanceArchive archive = GrievanceArchive.disabled();
 
     @InjectMocks
     private GrievanceService grievanceService;
 
+    // stands in for the version-guarded findAndModify: applies the $set fields to a copy and bumps the version
+    private Mono<Grievance> applyUpdate(InvocationOnMock invocation) {
+        Grievance current = invocation.getArgument(0);
+        Update changes = invocation.getArgument(1);
+        Grievance updated = new Grievance();
+        BeanUtils.copyProperties(current, updated);
+        BeanWrapper wrapper = new BeanWrapperImpl(updated);
+        changes.getUpdateObject().get("$set", Document.class).forEach(wrapper::setPropertyValue);
+        updated.setVersion(current.getVersion() == null ? 1 : current.getVersion() + 1);
+        return Mono.just(updated);
+    }
+
     private Grievance grievanceWithDept(String departmentId) {
         Grievance grievance = new Grievance();
         grievance.setId("g1");
@@ -80,19 +136,45 @@ class GrievanceServiceTest {
                 .verifyComplete();
 
         verify(grievanceEventPublisher).publishStatusChange(any(), any(), any());
+        verify(grievanceStatsService).onCreated(any(Grievance.class));
     }
 
     @Test
-    void assignGrievanceSetsAssignmentWhenAllowed() {
-        Grievance grievance = new Grievance();
-        grievance.setId("g1");
-        grievance.setDepartmentId("D1");
-        grievance.setStatus(GrievanceStatus.SUBMITTED);
+    void createGrievanceLinksNearDuplicateToItsCluster() {
+        GrievanceCreateRequest request = new GrievanceCreateRequest();
+        request.setDepartmentId("D1");
+        request.setCategoryCode("CAT");
+        request.setSubCategoryCode("SUB");
+        request.setDescription("No water in ward 12 since morning");
 
-        when(grievanceRepository.findByAssignedWokerId("worker1")).thenReturn(Flux.empty());
-        when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
+        when(departmentValidationService.validateDepartment("D1", "CAT", "SUB")).thenReturn(Mono.empty());
+        doReturn("g0").when(duplicateIndex).findCluster(any(Grievance.class));
+        when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> {
+            Grievance saved = invocation.getArgument(0);
+            saved.setId("g1");
+            return Mono.just(saved);
+        });
+        when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
+        when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceService.createGrievance(request, "citizen-1", null))
+                .assertNext(saved -> assertThat(saved.getDuplicateOf()).isEqualTo("g0"))
+                .verifyComplete();
+
+        verify(duplicateIndex).add(any(Grievance.class));
+    }
+
+    @Test
+    void assignGrievanceSetsAssignmentWhenAllowed() {
+        Grievance previous = new Grievance();
+        previous.setId("g1");
+        previous.setDepartmentId("D1");
+        previous.setStatus(GrievanceStatus.SUBMITTED);
+
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq("D1"), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(previous));
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "D1")).thenReturn(Mono.just(new CaseWorkerWorkload()));
         when(assignmentRepository.save(any(Assignment.class))).thenReturn(Mono.just(new Assignment()));
-        when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
         when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
 
@@ -100,8 +182,48 @@ class GrievanceServiceTest {
                 .assertNext(updated -> {
                     assertThat(updated.getAssignedWokerId()).isEqualTo("worker1");
                     assertThat(updated.getStatus()).isEqualTo(GrievanceStatus.ASSIGNED);
+                    assertThat(updated.getAssignedAt()).isNotNull();
                 })
                 .verifyComplete();
+
+        verify(grievanceRepository, never()).findById(any(String.class));
+        verify(grievanceRepository, never()).save(any(Grievance.class));
+        verify(grievanceStatsService).onAssigned(any(Grievance.class), eq(GrievanceStatus.SUBMITTED));
+    }
+
+    @Test
+    void assignGrievanceDoesNotScopeDepartmentForAdmin() {
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq(null), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(grievanceWithDept("D1")));
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", null)).thenReturn(Mono.just(new CaseWorkerWorkload()));
+        when(caseWorkerWorkloadService.listUnder("worker1", "D1")).thenReturn(Mono.empty());
+        when(assignmentRepository.save(any(Assignment.class))).thenReturn(Mono.just(new Assignment()));
+        when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
+        when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceService.assignGrievance("g1", "admin", "worker1", "ADMIN", null))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // the department is only known once the grievance is written
+        verify(caseWorkerWorkloadService).listUnder("worker1", "D1");
+    }
+
+    @Test
+    void assignAsSystemScopesToTheGivenDepartmentAndRecordsTheSystemActor() {
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq("D1"), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(grievanceWithDept("D1")));
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "D1")).thenReturn(Mono.just(new CaseWorkerWorkload()));
+        when(assignmentRepository.save(any(Assignment.class))).thenReturn(Mono.just(new Assignment()));
+        when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
+        when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceService.assignAsSystem("g1", "worker1", "D1"))
+                .assertNext(updated -> assertThat(updated.getAssignedWokerId()).isEqualTo("worker1"))
+                .verifyComplete();
+
+        verify(assignmentRepository).save(argThat(assignment -> "SYSTEM".equals(assignment.getAssignedBy())));
+        verify(caseWorkerWorkloadService, never()).listUnder(any(), any());
     }
 
     @Test
@@ -110,24 +232,41 @@ class GrievanceServiceTest {
         grievance.setAssignedWokerId("existing");
         grievance.setStatus(GrievanceStatus.ASSIGNED);
 
-        when(grievanceRepository.findByAssignedWokerId("worker1")).thenReturn(Flux.empty());
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "D1")).thenReturn(Mono.just(new CaseWorkerWorkload()));
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq("D1"), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
         when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
+        when(caseWorkerWorkloadService.releaseUnused("worker1", "g1")).thenReturn(Mono.empty());
 
         StepVerifier.create(grievanceService.assignGrievance("g1", "officer", "worker1", "DEPARTMENT_OFFICER", "D1"))
                 .expectErrorSatisfies(error -> {
                     assertThat(error).isInstanceOf(ResponseStatusException.class);
                     assertThat(((ResponseStatusException) error).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                    assertThat(((ResponseStatusException) error).getReason()).contains("existing");
                 })
                 .verify();
+
+        verify(caseWorkerWorkloadService).releaseUnused("worker1", "g1");
     }
 
     @Test
-    void assignGrievanceRejectsWhenCaseWorkerBusy() {
-        Grievance activeAssignment = grievanceWithDept("D1");
-        activeAssignment.setStatus(GrievanceStatus.IN_PROGRESS);
+    void assignGrievanceReturnsNotFoundWhenMissing() {
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "D1")).thenReturn(Mono.just(new CaseWorkerWorkload()));
+        when(caseWorkerWorkloadService.releaseUnused("worker1", "g1")).thenReturn(Mono.empty());
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq("D1"), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
+        when(grievanceRepository.findById("g1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceService.assignGrievance("g1", "officer", "worker1", "DEPARTMENT_OFFICER", "D1"))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.NOT_FOUND))
+                .verify();
+    }
 
-        when(grievanceRepository.findByAssignedWokerId("worker1")).thenReturn(Flux.just(activeAssignment));
-        when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievanceWithDept("D1")));
+    @Test
+    void assignGrievanceToAFullCaseWorkerWritesNothing() {
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "D1"))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "busy")));
 
         StepVerifier.create(grievanceService.assignGrievance("g1", "officer", "worker1", "DEPARTMENT_OFFICER", "D1"))
                 .expectErrorSatisfies(error -> {
@@ -135,30 +274,25 @@ class GrievanceServiceTest {
                     assertThat(((ResponseStatusException) error).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
                 })
                 .verify();
+
+        verify(grievanceRepository, never()).assignIfUnassigned(any(), any(), any(), any());
+        verify(caseWorkerWorkloadService, never()).releaseUnused(any(), any());
+        verify(assignmentRepository, never()).save(any());
     }
 
     @Test
-    void assignGrievanceIgnoresCompletedAssignments() {
-        Grievance resolved = grievanceWithDept("D1");
-        resolved.setStatus(GrievanceStatus.RESOLVED);
-        Grievance workDone = grievanceWithDept("D1");
-        workDone.setStatus(GrievanceStatus.WORK_DONE);
-        Grievance closed = grievanceWithDept("D1");
-        closed.setStatus(GrievanceStatus.CLOSED);
-
-        Grievance grievance = grievanceWithDept("D1");
-        grievance.setId("g1");
-
-        when(grievanceRepository.findByAssignedWokerId("worker1")).thenReturn(Flux.just(resolved, workDone, closed));
-        when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
-        when(assignmentRepository.save(any(Assignment.class))).thenReturn(Mono.just(new Assignment()));
-        when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
-        when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+    void assignGrievanceHandsTheSlotBackWhenTheConditionalWriteFails() {
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "D1")).thenReturn(Mono.just(new CaseWorkerWorkload()));
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq("D1"), any(LocalDateTime.class)))
+                .thenReturn(Mono.error(new RuntimeException("write failed")));
+        when(caseWorkerWorkloadService.releaseUnused("worker1", "g1")).thenReturn(Mono.empty());
 
         StepVerifier.create(grievanceService.assignGrievance("g1", "officer", "worker1", "DEPARTMENT_OFFICER", "D1"))
-                .expectNextCount(1)
-                .verifyComplete();
+                .expectErrorMessage("write failed")
+                .verify();
+
+        verify(caseWorkerWorkloadService).releaseUnused("worker1", "g1");
+        verify(assignmentRepository, never()).save(any());
     }
 
     @Test
@@ -167,7 +301,10 @@ class GrievanceServiceTest {
         grievance.setId("g1");
         grievance.setDepartmentId("D1");
 
-        when(grievanceRepository.findByAssignedWokerId("worker1")).thenReturn(Flux.empty());
+        when(caseWorkerWorkloadService.acquire("worker1", "g1", "OTHER")).thenReturn(Mono.just(new CaseWorkerWorkload()));
+        when(caseWorkerWorkloadService.releaseUnused("worker1", "g1")).thenReturn(Mono.empty());
+        when(grievanceRepository.assignIfUnassigned(eq("g1"), eq("worker1"), eq("OTHER"), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
         when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
 
         StepVerifier.create(grievanceService.assignGrievance("g1", "officer", "worker1", "DEPARTMENT_OFFICER", "OTHER"))
@@ -188,13 +325,51 @@ class GrievanceServiceTest {
         grievance.setStatus(GrievanceStatus.SUBMITTED);
 
         when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
-        when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(grievanceRepository.updateIfVersion(any(), any())).thenAnswer(this::applyUpdate);
+        when(caseWorkerWorkloadService.onStatusChange(any(), any(), any())).thenReturn(Mono.empty());
         when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
         when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
 
         StepVerifier.create(grievanceService.updateStatus("g1", GrievanceStatus.RESOLVED, "user1", "done", "CASE_WORKER", "D1"))
                 .assertNext(updated -> assertThat(updated.getStatus()).isEqualTo(GrievanceStatus.RESOLVED))
                 .verifyComplete();
+
+        verify(grievanceCache).invalidate("g1");
+    }
+
+    @Test
+    void updateStatusRereadsAndRetriesWhenTheVersionMovedAndGivesUpWithConflict() {
+        Grievance stale = grievanceWithDept("D1");
+        stale.setStatus(GrievanceStatus.ASSIGNED);
+        stale.setVersion(4L);
+        Grievance escalated = grievanceWithDept("D1");
+        escalated.setStatus(GrievanceStatus.ESCALATED);
+        escalated.setVersion(5L);
+        when(grievanceRepository.findById("g1")).thenReturn(Mono.just(stale), Mono.just(escalated));
+        when(grievanceRepository.updateIfVersion(any(), any()))
+                .thenReturn(Mono.empty())
+                .thenAnswer(this::applyUpdate);
+        when(caseWorkerWorkloadService.onStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+        when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
+        when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceService.updateStatus("g1", GrievanceStatus.RESOLVED, "user1", "done", "CASE_WORKER", "D1"))
+                .assertNext(updated -> {
+                    assertThat(updated.getStatus()).isEqualTo(GrievanceStatus.RESOLVED);
+                    assertThat(updated.getVersion()).isEqualTo(6L);
+                })
+                .verifyComplete();
+        // the transition is computed from what the winning write replaced, not from the stale read
+        verify(grievanceStatsService).onStatusChange(any(), eq(GrievanceStatus.ESCALATED), eq(GrievanceStatus.RESOLVED));
+        verify(statusHistoryRepository, times(1)).save(any(GrievanceHistory.class));
+        assertThat(versionRetry.conflicts("updateStatus")).isEqualTo(1);
+
+        doReturn(Mono.just(stale)).when(grievanceRepository).findById("g1");
+        doReturn(Mono.empty()).when(grievanceRepository).updateIfVersion(any(), any());
+        StepVerifier.create(grievanceService.updateStatus("g1", GrievanceStatus.RESOLVED, "user1", "done", "CASE_WORKER", "D1"))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT))
+                .verify();
     }
 
     @Test
@@ -216,7 +391,8 @@ class GrievanceServiceTest {
         grievance.setId("g1");
 
         when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
-        when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(grievanceRepository.updateIfVersion(any(), any())).thenAnswer(this::applyUpdate);
+        when(caseWorkerWorkloadService.onStatusChange(any(), any(), any())).thenReturn(Mono.empty());
         when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
         when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
 
@@ -250,6 +426,39 @@ class GrievanceServiceTest {
                 .verify();
     }
 
+    @Test
+    void searchScopesRestrictedRolesToTheirDepartmentAndAppliesFilters() {
+        GrievanceSearchRequest request = new GrievanceSearchRequest();
+        request.setQ("  water leak ");
+        request.setStatus(GrievanceStatus.SUBMITTED);
+        request.setFrom(LocalDate.of(2024, 3, 1));
+        request.setTo(LocalDate.of(2024, 3, 31));
+        GrievancePage<Grievance> page = new GrievancePage<>(List.of(), null);
+        when(grievanceRepository.search(eq("water leak"), any(Criteria.class), eq(null), eq(null))).thenReturn(Mono.just(page));
+
+        StepVerifier.create(grievanceService.search(request, "DEPARTMENT_OFFICER", "D1"))
+                .expectNext(page)
+                .verifyComplete();
+
+        ArgumentCaptor<Criteria> filter = ArgumentCaptor.forClass(Criteria.class);
+        verify(grievanceRepository).search(eq("water leak"), filter.capture(), eq(null), eq(null));
+        org.bson.Document query = filter.getValue().getCriteriaObject();
+        assertThat(query).containsEntry("departmentId", "D1").containsEntry("status", GrievanceStatus.SUBMITTED);
+        assertThat(query.get("createdAt", org.bson.Document.class))
+                .containsEntry("$gte", LocalDateTime.of(2024, 3, 1, 0, 0))
+                .containsEntry("$lt", LocalDateTime.of(2024, 4, 1, 0, 0));
+
+        request.setDepartmentId("D2");
+        StepVerifier.create(grievanceService.search(request, "DEPARTMENT_OFFICER", "D1"))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.UNAUTHORIZED))
+                .verify();
+        request.setQ(" ");
+        StepVerifier.create(grievanceService.search(request, "ADMIN", null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
     @Test
     void getAllForRoleUsesDepartmentFilterForRestrictedRoles() {
         Grievance grievance = new Grievance();
@@ -322,6 +531,36 @@ class GrievanceServiceTest {
                 .verify();
     }
 
+    @Test
+    void archivedGrievanceIsReadThroughTheArchive() {
+        Grievance archived = grievanceWithDept("D1");
+        archived.setId("g1");
+        archived.setStatus(GrievanceStatus.CLOSED);
+        GrievanceHistory closed = new GrievanceHistory();
+        closed.setId("h1");
+        closed.setGrievanceId("g1");
+        when(grievanceRepository.findById("g1")).thenReturn(Mono.empty());
+        when(statusHistoryRepository.findByGrievanceIdOrderByUpdatedAtAsc("g1")).thenReturn(Flux.empty());
+        doReturn(Mono.just(archived)).when(archive).findGrievance("g1");
+        doReturn(Flux.just(closed)).when(archive).findHistory("g1");
+
+        StepVerifier.create(grievanceService.getById("g1"))
+                .expectNext(archived)
+                .verifyComplete();
+        StepVerifier.create(grievanceService.getStatusHistory("g1", "CASE_WORKER", "D1"))
+                .expectNext(closed)
+                .verifyComplete();
+
+        // its live repeat reports still come back as its cluster
+        Grievance repeat = grievanceWithDept("D1");
+        repeat.setId("g2");
+        repeat.setDuplicateOf("g1");
+        when(grievanceRepository.findByDuplicateOfOrderByCreatedAtAsc("g1")).thenReturn(Flux.just(repeat));
+        StepVerifier.create(grievanceService.getDuplicates("g1", "CASE_WORKER", "D1"))
+                .expectNext(archived, repeat)
+                .verifyComplete();
+    }
+
     @Test
     void getByDepartmentRejectsCrossDepartmentAccess() {
         StepVerifier.create(grievanceService.getByDepartment("D1", "DEPARTMENT_OFFICER", "D2"))
@@ -401,45 +640,22 @@ class GrievanceServiceTest {
     }
 
     @Test
-    void getCaseWorkersForOfficerReturnsDistinctIds() {
-        Assignment a1 = new Assignment();
-        a1.setAssignedTo("cw-1");
-        Assignment a2 = new Assignment();
-        a2.setAssignedTo("cw-1");
-        Assignment a3 = new Assignment();
-        a3.setAssignedTo("cw-2");
-
-        when(assignmentRepository.findByAssignedBy("officer-1")).thenReturn(Flux.just(a1, a2, a3));
+    void getCaseWorkersForOfficerUsesServerSideDistinct() {
+        when(assignmentRepository.findDistinctAssignedTo("officer-1")).thenReturn(Flux.just("cw-1", "cw-2"));
 
         StepVerifier.create(grievanceService.getCaseWorkersForOfficer("officer-1", "DEPARTMENT_OFFICER"))
                 .expectNext("cw-1", "cw-2")
                 .verifyComplete();
-    }
-
-    @Test
-    void getCaseWorkersForOfficerFiltersOutNullIds() {
-        Assignment valid = new Assignment();
-        valid.setAssignedTo("cw-1");
-        Assignment nullAssignment = new Assignment();
 
-        when(assignmentRepository.findByAssignedBy("officer-1")).thenReturn(Flux.just(valid, nullAssignment));
-
-        StepVerifier.create(grievanceService.getCaseWorkersForOfficer("officer-1", "SUPERVISORY_OFFICER"))
-                .expectNext("cw-1")
-                .verifyComplete();
+        verify(assignmentRepository, never()).findByAssignedBy(any());
     }
 
     @Test
     void getCaseWorkersForOfficerAllowsAdminRole() {
-        Assignment a1 = new Assignment();
-        a1.setAssignedTo("cw-1");
-        Assignment a2 = new Assignment();
-        a2.setAssignedTo("cw-2");
-
-        when(assignmentRepository.findByAssignedBy("officer-1")).thenReturn(Flux.just(a1, a2));
+        when(assignmentRepository.findDistinctAssignedTo("officer-1")).thenReturn(Flux.just("cw-1"));
 
         StepVerifier.create(grievanceService.getCaseWorkersForOfficer("officer-1", "ADMIN"))
-                .expectNext("cw-1", "cw-2")
+                .expectNext("cw-1")
                 .verifyComplete();
     }
 
@@ -538,49 +754,58 @@ class GrievanceServiceTest {
     }
 
     @Test
-    void getByCaseWorkerSelfSkipsAlternateWhenSameId() {
+    void getByCaseWorkerSelfIssuesOneQueryOverNormalizedKeys() {
         Grievance primary = grievanceWithDept("D1");
         primary.setId("p1");
 
-        when(grievanceRepository.findByAssignedWokerId("cw-1")).thenReturn(Flux.just(primary));
+        when(grievanceRepository.findByAssigneeKeysIn(List.of("cw-1", "cw@example.com", "case worker")))
+                .thenReturn(Flux.just(primary));
 
-        StepVerifier.create(grievanceService.getByCaseWorkerSelf("cw-1", "cw-1", null, "D1"))
+        StepVerifier.create(grievanceService.getByCaseWorkerSelf("CW-1", "cw@example.com", " Case Worker", "D1"))
                 .expectNext(primary)
                 .verifyComplete();
 
-        verify(grievanceRepository, times(1)).findByAssignedWokerId("cw-1");
+        verify(grievanceRepository, times(1)).findByAssigneeKeysIn(any());
     }
 
     @Test
-    void getByCaseWorkerSelfFiltersAlternateIdsByDepartment() {
+    void getByCaseWorkerSelfFiltersByDepartment() {
         Grievance primary = grievanceWithDept("D1");
         primary.setId("p1");
-        Grievance alternate = grievanceWithDept("D2");
-        alternate.setId("p2");
+        Grievance other = grievanceWithDept("D2");
+        other.setId("p2");
 
-        when(grievanceRepository.findByAssignedWokerId("cw-1")).thenReturn(Flux.just(primary));
-        when(grievanceRepository.findByAssignedWokerId("cw-alt")).thenReturn(Flux.just(alternate));
+        when(grievanceRepository.findByAssigneeKeysIn(List.of("cw-1", "cw-alt"))).thenReturn(Flux.just(primary, other));
 
-        StepVerifier.create(grievanceService.getByCaseWorkerSelf("cw-1", "cw-alt", null, "D1"))
+        StepVerifier.create(grievanceService.getByCaseWorkerSelf("cw-1", "CW-ALT", null, "d1"))
                 .expectNext(primary)
                 .verifyComplete();
+
+        verify(grievanceRepository, never()).findByAssignedWokerId(any());
     }
 
     @Test
-    void getByCaseWorkerSelfReturnsDistinctCombinedWhenNoDepartmentFilter() {
+    void getByCaseWorkerSelfReturnsEverythingWhenNoDepartmentFilter() {
         Grievance primary = grievanceWithDept("D1");
         primary.setId("g1");
-        Grievance duplicate = grievanceWithDept("D2");
-        duplicate.setId("g1");
+        Grievance other = grievanceWithDept("D2");
+        other.setId("g2");
 
-        when(grievanceRepository.findByAssignedWokerId("cw-1")).thenReturn(Flux.just(primary));
-        when(grievanceRepository.findByAssignedWokerId("cw-alt")).thenReturn(Flux.just(duplicate));
+        when(grievanceRepository.findByAssigneeKeysIn(List.of("cw-1", "cw-alt"))).thenReturn(Flux.just(primary, other));
 
         StepVerifier.create(grievanceService.getByCaseWorkerSelf("cw-1", "cw-alt", null, null))
-                .expectNext(primary)
+                .expectNext(primary, other)
                 .verifyComplete();
     }
 
+    @Test
+    void getByCaseWorkerSelfWithoutIdentityReturnsNothing() {
+        StepVerifier.create(grievanceService.getByCaseWorkerSelf(null, " ", null, "D1"))
+                .verifyComplete();
+
+        verify(grievanceRepository, never()).findByAssigneeKeysIn(any());
+    }
+
     @Test
     void getCaseWorkersForOfficerRejectsNullOfficer() {
         StepVerifier.create(grievanceService.getCaseWorkersForOfficer(null, "ADMIN"))
@@ -610,120 +835,65 @@ class GrievanceServiceTest {
     }
 
     @Test
-    void getAllCaseWorkersInDepartmentReturnsDistinctNonBlank() {
-        Grievance g1 = grievanceWithDept("D1");
-        g1.setAssignedWokerId("cw-1");
-        Grievance g2 = grievanceWithDept("D1");
-        g2.setAssignedWokerId(" ");
-        Grievance g3 = grievanceWithDept("D1");
-        g3.setAssignedWokerId("cw-2");
-
-        when(grievanceRepository.findByDepartmentId("D1")).thenReturn(Flux.just(g1, g2, g3));
+    void getAllCaseWorkersInDepartmentReadsRoster() {
+        when(caseWorkerWorkloadService.roster("D1"))
+                .thenReturn(Flux.just(new CaseWorkerRosterEntry("cw-1", 1), new CaseWorkerRosterEntry("cw-2", 0)));
 
         StepVerifier.create(grievanceService.getAllCaseWorkersInDepartment("ADMIN", "D1"))
                 .expectNext("cw-1", "cw-2")
                 .verifyComplete();
+
+        verify(grievanceRepository, never()).findByDepartmentId(any());
     }
 
     @Test
-    void getAllCaseWorkersInDepartmentAllowsSupervisoryOfficer() {
-        Grievance g1 = grievanceWithDept("D1");
-        g1.setAssignedWokerId("cw-1");
-        Grievance g2 = grievanceWithDept("D1");
-        g2.setAssignedWokerId("cw-2");
-
-        when(grievanceRepository.findByDepartmentId("D1")).thenReturn(Flux.just(g1, g2));
+    void getCaseWorkerRosterAllowsSupervisoryOfficer() {
+        CaseWorkerRosterEntry entry = new CaseWorkerRosterEntry("cw-1", 2);
+        when(caseWorkerWorkloadService.roster("D1")).thenReturn(Flux.just(entry));
 
-        StepVerifier.create(grievanceService.getAllCaseWorkersInDepartment("SUPERVISORY_OFFICER", "D1"))
-                .expectNext("cw-1", "cw-2")
+        StepVerifier.create(grievanceService.getCaseWorkerRoster("SUPERVISORY_OFFICER", "D1"))
+                .expectNext(entry)
                 .verifyComplete();
     }
 
     @Test
-    void getEscalatedForSupervisorFiltersByDepartmentForSupervisors() {
-        Grievance gDept1 = grievanceWithDept("D1");
-        gDept1.setId("g1");
-        gDept1.setStatus(GrievanceStatus.ESCALATED);
-        Grievance gDept2 = grievanceWithDept("D2");
-        gDept2.setId("g2");
-        gDept2.setStatus(GrievanceStatus.ESCALATED);
+    void getCaseWorkerRosterRejectsCaseWorkers() {
+        StepVerifier.create(grievanceService.getCaseWorkerRoster("CASE_WORKER", "D1"))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
 
-        when(grievanceRepository.findByStatus(GrievanceStatus.ESCALATED)).thenReturn(Flux.just(gDept1, gDept2));
-        when(assignmentRepository.findByGrievanceId("g1")).thenReturn(Flux.empty());
+    @Test
+    void getEscalatedForSupervisorPushesDepartmentIntoAggregation() {
+        EscalatedGrievanceView view = new EscalatedGrievanceView("g1", "desc", "D1", "cw-new", "mgr2", GrievanceStatus.ESCALATED);
+        when(grievanceRepository.findEscalatedViews("D1")).thenReturn(Flux.just(view));
 
         StepVerifier.create(grievanceService.getEscalatedForSupervisor("SUPERVISORY_OFFICER", "D1"))
-                .expectNextMatches(view -> view.getGrievanceId().equals("g1"))
+                .expectNext(view)
                 .verifyComplete();
-    }
 
-    @Test
-    void getEscalatedForSupervisorReturnsAllForAdmin() {
-        Grievance grievance = grievanceWithDept("D1");
-        grievance.setId("g1");
-        grievance.setStatus(GrievanceStatus.ESCALATED);
-        grievance.setAssignedWokerId("original");
-
-        Assignment oldAssignment = new Assignment();
-        oldAssignment.setAssignedTo("cw-old");
-        oldAssignment.setAssignedBy("mgr1");
-        oldAssignment.setAssignedAt(LocalDateTime.now().minusDays(2));
-
-        Assignment latest = new Assignment();
-        latest.setAssignedTo("cw-new");
-        latest.setAssignedBy("mgr2");
-        latest.setAssignedAt(LocalDateTime.now().minusDays(1));
-
-        when(grievanceRepository.findByStatus(GrievanceStatus.ESCALATED)).thenReturn(Flux.just(grievance));
-        when(assignmentRepository.findByGrievanceId("g1")).thenReturn(Flux.just(oldAssignment, latest));
-
-        StepVerifier.create(grievanceService.getEscalatedForSupervisor("ADMIN", null))
-                .assertNext(view -> {
-                    assertThat(view.getAssignedTo()).isEqualTo("cw-new");
-                    assertThat(view.getAssignedBy()).isEqualTo("mgr2");
-                    assertThat(view.getGrievanceId()).isEqualTo("g1");
-                })
-                .verifyComplete();
+        verify(grievanceRepository, never()).findByStatus(any(GrievanceStatus.class));
+        verify(assignmentRepository, never()).findByGrievanceId(any());
     }
 
     @Test
-    void getEscalatedForSupervisorUsesLastAssignmentWhenNoTimestamps() {
-        Grievance grievance = grievanceWithDept("D1");
-        grievance.setId("g2");
-        grievance.setStatus(GrievanceStatus.ESCALATED);
-        grievance.setAssignedWokerId("fallback");
-
-        Assignment first = new Assignment();
-        first.setAssignedTo("first");
-        Assignment last = new Assignment();
-        last.setAssignedTo("last");
-
-        when(grievanceRepository.findByStatus(GrievanceStatus.ESCALATED)).thenReturn(Flux.just(grievance));
-        when(assignmentRepository.findByGrievanceId("g2")).thenReturn(Flux.just(first, last));
+    void getEscalatedForSupervisorReturnsAllForAdmin() {
+        when(grievanceRepository.findEscalatedViews(null)).thenReturn(Flux.empty());
 
-        StepVerifier.create(grievanceService.getEscalatedForSupervisor("ADMIN", null))
-                .assertNext(view -> {
-                    assertThat(view.getAssignedTo()).isEqualTo("last");
-                    assertThat(view.getAssignedBy()).isNull();
-                })
+        StepVerifier.create(grievanceService.getEscalatedForSupervisor("ADMIN", "D1"))
                 .verifyComplete();
+
+        verify(grievanceRepository).findEscalatedViews(null);
     }
 
     @Test
     void getEscalatedForSupervisorReturnsAllWhenDepartmentMissing() {
-        Grievance g1 = grievanceWithDept("D1");
-        g1.setId("g1");
-        g1.setStatus(GrievanceStatus.ESCALATED);
-        Grievance g2 = grievanceWithDept("D2");
-        g2.setId("g2");
-        g2.setStatus(GrievanceStatus.ESCALATED);
-
-        when(grievanceRepository.findByStatus(GrievanceStatus.ESCALATED)).thenReturn(Flux.just(g1, g2));
-        when(assignmentRepository.findByGrievanceId("g1")).thenReturn(Flux.empty());
-        when(assignmentRepository.findByGrievanceId("g2")).thenReturn(Flux.empty());
+        when(grievanceRepository.findEscalatedViews(null)).thenReturn(Flux.empty());
 
         StepVerifier.create(grievanceService.getEscalatedForSupervisor("SUPERVISORY_OFFICER", ""))
-                .expectNextCount(2)
                 .verifyComplete();
+
+        verify(grievanceRepository).findEscalatedViews(null);
     }
 
     @Test
@@ -743,12 +913,15 @@ class GrievanceServiceTest {
         grievance.setAssignedAt(LocalDateTime.now().minusDays(8));
 
         when(grievanceRepository.findById("g1")).thenReturn(Mono.just(grievance));
-        when(grievanceRepository.save(any(Grievance.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(grievanceRepository.updateIfVersion(any(), any())).thenAnswer(this::applyUpdate);
         when(statusHistoryRepository.save(any(GrievanceHistory.class))).thenReturn(Mono.just(new GrievanceHistory()));
         when(grievanceEventPublisher.publishStatusChange(any(), any(), any())).thenReturn(Mono.empty());
 
         StepVerifier.create(grievanceService.escalateGrievance("g1", "SYSTEM"))
-                .assertNext(updated -> assertThat(updated.isEscalated()).isTrue())
+                .assertNext(updated -> {
+                    assertThat(updated.isEscalated()).isTrue();
+                    assertThat(updated.getEscalatedFrom()).isEqualTo(GrievanceStatus.IN_PROGRESS);
+                })
                 .verifyComplete();
 
         verify(grievanceEventPublisher).publishStatusChange(any(), any(), any());
@@ -770,4 +943,154 @@ class GrievanceServiceTest {
         verify(statusHistoryRepository, never()).save(any());
         verify(grievanceEventPublisher, never()).publishStatusChange(any(), any(), any());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void escalateOverdueWritesHistoryAndEventsInOneBatch() {
+        Grievance g1 = new Grievance();
+        g1.setId("g1");
+        g1.setEscalated(true);
+        Grievance g2 = new Grievance();
+        g2.setId("g2");
+        g2.setEscalated(true);
+
+        when(slaDeadlineQueue.getSlaTimeout()).thenReturn(Duration.ofDays(7));
+        when(grievanceRepository.escalateOverdue(eq(List.of("g1", "g2", "g3")), eq(SlaDeadlineQueue.SLA_STATUSES), any()))
+                .thenReturn(Flux.just(g1, g2));
+        when(statusHistoryRepository.saveAll(any(Iterable.class))).thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+        when(grievanceEventPublisher.publishStatusChanges(List.of(g1, g2), GrievanceStatus.ESCALATED,
+                "We escalated your grievance for quicker attention")).thenReturn(Mono.empty());
+
+        StepVerifier.create(grievanceService.escalateOverdue(List.of("g1", "g2", "g3")))
+                .expectNext(g1, g2)
+                .verifyComplete();
+
+        ArgumentCaptor<Iterable<GrievanceHistory>> histories = ArgumentCaptor.forClass(Iterable.class);
+        verify(statusHistoryRepository).saveAll(histories.capture());
+        assertThat(histories.getValue()).extracting(GrievanceHistory::getGrievanceId).containsExactly("g1", "g2");
+        verify(statusHistoryRepository, never()).save(any());
+        verify(slaDeadlineQueue).track(g1);
+        verify(slaDeadlineQueue).track(g2);
+    }
+
+    @Test
+    void escalateOverdueIsNoOpWhenNothingIsStillOverdue() {
+        when(slaDeadlineQueue.getSlaTimeout()).thenReturn(Duration.ofDays(7));
+        when(grievanceRepository.escalateOverdue(eq(List.of("g1")), any(), any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(grievanceService.escalateOverdue(List.of("g1")))
+                .verifyComplete();
+
+        verify(statusHistoryRepository, never()).saveAll(any(Iterable.class));
+        verify(grievanceEventPublisher, never()).publishStatusChanges(any(), any(), any());
+    }
+
+    @Test
+    void getAllForRolePagePushesDepartmentFilterIntoQuery() {
+        GrievanceListRequest page = GrievanceListRequest.firstPage();
+        when(grievanceRepository.findPage(any(Criteria.class), any(GrievanceListRequest.class)))
+                .thenReturn(Mono.just(new GrievancePage<>(List.of(grievanceWithDept("D1")), null)));
+
+        StepVerifier.create(grievanceService.getAllForRole("DEPARTMENT_OFFICER", "D1", page))
+                .assertNext(result -> assertThat(result.getItems()).hasSize(1))
+                .verifyComplete();
+
+        ArgumentCaptor<Criteria> filter = ArgumentCaptor.forClass(Criteria.class);
+        verify(grievanceRepository).findPage(filter.capture(), any(GrievanceListRequest.class));
+        assertThat(filter.getValue().getCriteriaObject()).containsEntry("departmentId", "D1");
+    }
+
+    @Test
+    void getSummariesByDepartmentKeepsAccessChecksAndReadsProjection() {
+        GrievanceListRequest page = new GrievanceListRequest();
+        page.setFields("summary");
+        when(grievanceRepository.findSummaryPage(any(Criteria.class), eq(page)))
+                .thenReturn(Mono.just(new GrievancePage<>(List.of(new GrievanceSummary()), null)));
+
+        StepVerifier.create(grievanceService.getSummariesByDepartment("D1", "SUPERVISORY_OFFICER", "D1", page))
+                .assertNext(result -> assertThat(result.getItems()).hasSize(1))
+                .verifyComplete();
+        StepVerifier.create(grievanceService.getSummariesByDepartment("D1", "CITIZEN", "D1", page))
+                .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED))
+                .verify();
+
+        verify(grievanceRepository, times(1)).findSummaryPage(any(Criteria.class), eq(page));
+        verify(grievanceRepository, never()).findPage(any(), any());
+    }
+
+    @Test
+    void getByCaseWorkerPageRejectsUnauthorizedRoleWithoutQuerying() {
+        StepVerifier.create(grievanceService.getByCaseWorker("cw-1", "CITIZEN", "D1", GrievanceListRequest.firstPage()))
+                .expectErrorSatisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED))
+                .verify();
+
+        verify(grievanceRepository, never()).findPage(any(), any());
+    }
+
+    @Test
+    void getByCaseWorkerSelfPageQueriesNormalizedKeysAtOnce() {
+        when(grievanceRepository.findPage(any(Criteria.class), any(GrievanceListRequest.class)))
+                .thenReturn(Mono.just(new GrievancePage<>(List.of(), null)));
+
+        StepVerifier.create(grievanceService.getByCaseWorkerSelf("CW-1", "cw@example.com", null, "D1", GrievanceListRequest.firstPage()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<Criteria> filter = ArgumentCaptor.forClass(Criteria.class);
+        verify(grievanceRepository, times(1)).findPage(filter.capture(), any(GrievanceListRequest.class));
+        assertThat(filter.getValue().getCriteriaObject().toJson())
+                .contains("assigneeKeys").contains("$in").contains("cw-1").contains("cw@example.com").doesNotContain("CW-1");
+        verify(grievanceRepository, never()).findByAssignedWokerId(any());
+    }
+    @Test
+    void getStatsScopesOfficerToOwnDepartmentAndAddsRoster() {
+        GrievanceStatsView view = new GrievanceStatsView("D1", null, null);
+        CaseWorkerRosterEntry entry = new CaseWorkerRosterEntry("cw-1", 2);
+        doReturn(Mono.just(view)).when(grievanceStatsService).summarize("D1", null, null);
+        when(caseWorkerWorkloadService.roster("D1")).thenReturn(Flux.just(entry));
+
+        StepVerifier.create(grievanceService.getStats("SUPERVISORY_OFFICER", "D1", null, null, null))
+                .assertNext(stats -> assertThat(stats.getCaseWorkers()).containsExactly(entry))
+                .verifyComplete();
+    }
+
+    @Test
+    void getStatsRejectsOfficerAskingForOtherDepartment() {
+        StepVerifier.create(grievanceService.getStats("DEPARTMENT_OFFICER", "D1", "D2", null, null))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.UNAUTHORIZED))
+                .verify();
+
+        verifyNoInteractions(grievanceStatsService);
+    }
+
+    @Test
+    void getStatsLetsAdminSummarizeAllDepartments() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        GrievanceStatsView view = new GrievanceStatsView(null, from, to);
+        doReturn(Mono.just(view)).when(grievanceStatsService).summarize(null, from, to);
+
+        StepVerifier.create(grievanceService.getStats("ADMIN", null, null, from, to))
+                .expectNext(view)
+                .verifyComplete();
+
+        verify(caseWorkerWorkloadService, never()).roster(any());
+    }
+
+    @Test
+    void getStatsRejectsInvertedRange() {
+        StepVerifier.create(grievanceService.getStats("ADMIN", null, null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void rebuildStatsIsAdminOnly() {
+        StepVerifier.create(grievanceService.rebuildStats("SUPERVISORY_OFFICER"))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        verify(grievanceStatsService, never()).startRebuild();
+    }
 }
@@ -0,0 +1,264 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStats;
+import com.grievance.model.GrievanceStatus;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class GrievanceStatsServiceTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+    @Mock
+    private ReactiveBulkOperations bulk;
+    @Mock
+    private ReactiveIndexOperations indexOps;
+
+    @Test
+    void onAssignedMovesCountersInAllTimeAndCreationDayBuckets() {
+        when(mongoOperations.exists(any(Query.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION))).thenReturn(Mono.just(false));
+        when(mongoOperations.getCollectionName(GrievanceStats.class)).thenReturn("grievance_stats");
+        when(mongoOperations.bulkOps(BulkMode.UNORDERED, GrievanceStats.class, "grievance_stats")).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(service().onAssigned(grievance(), GrievanceStatus.SUBMITTED)).verifyComplete();
+
+        ArgumentCaptor<Query> keys = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(bulk, times(2)).upsert(keys.capture(), updates.capture());
+        assertThat(keys.getAllValues()).extracting(query -> query.getQueryObject().get("_id"))
+                .containsExactly("D1|all", "D1|2024-03-05");
+        Document inc = (Document) updates.getValue().getUpdateObject().get("$inc");
+        assertThat(inc).containsEntry("unassigned", -1L).containsEntry("assigned", 1L)
+                .containsEntry("byStatus.SUBMITTED", -1L).containsEntry("byStatus.ASSIGNED", 1L);
+    }
+
+    @Test
+    void changesWhileARebuildIsPendingAreJournaledWithTheVersionTheyProduced() {
+        // another instance is rebuilding
+        when(mongoOperations.exists(any(Query.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION))).thenReturn(Mono.just(true));
+        when(mongoOperations.insert(anyList(), eq(GrievanceStatsService.JOURNAL_COLLECTION))).thenReturn(Flux.empty());
+        Grievance changed = grievance();
+        changed.setVersion(4L);
+
+        StepVerifier.create(service().onStatusChange(changed, GrievanceStatus.ASSIGNED, GrievanceStatus.IN_PROGRESS))
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> entries = ArgumentCaptor.forClass(List.class);
+        verify(mongoOperations).insert(entries.capture(), eq(GrievanceStatsService.JOURNAL_COLLECTION));
+        assertThat(entries.getValue()).singleElement().satisfies(entry -> {
+            assertThat(entry).containsEntry("grievanceId", "g1").containsEntry("version", 4L).containsEntry("day", "2024-03-05");
+            assertThat(entry.get("inc", Document.class)).containsEntry("byStatus.IN_PROGRESS", 1L);
+        });
+        // the live counters are replaced by the rebuild, so they are left alone
+        verify(mongoOperations, never()).bulkOps(any(BulkMode.class), eq(GrievanceStats.class), any(String.class));
+    }
+
+    @Test
+    void journalAppliesOnlyChangesNewerThanTheVersionTheRebuildScanned() {
+        when(mongoOperations.exists(any(Query.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION))).thenReturn(Mono.just(false));
+        when(mongoOperations.getCollectionName(GrievanceStats.class)).thenReturn("grievance_stats");
+        // g1's change was already in the batch the rebuild read; g2 was created after its batch
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq(GrievanceStatsService.JOURNAL_COLLECTION)))
+                .thenReturn(Flux.just(entry("j1", "g1", 2, "byStatus.RESOLVED"), entry("j2", "g2", 0, "total")));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq(GrievanceStatsService.SCANNED_COLLECTION)))
+                .thenReturn(Flux.just(new Document("_id", "g1").append("version", 2L)));
+        when(mongoOperations.bulkOps(BulkMode.UNORDERED, GrievanceStats.class, "grievance_stats")).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        when(mongoOperations.remove(any(Query.class), eq(GrievanceStatsService.JOURNAL_COLLECTION)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+
+        service().applyLateChanges();
+
+        ArgumentCaptor<UpdateDefinition> applied = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(bulk).upsert(any(Query.class), applied.capture());
+        assertThat((Document) applied.getValue().getUpdateObject().get("$inc")).containsOnlyKeys("total");
+        // both entries are settled
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).remove(removed.capture(), eq(GrievanceStatsService.JOURNAL_COLLECTION));
+        assertThat(removed.getValue().getQueryObject().get("_id", Document.class).getList("$in", String.class))
+                .containsExactly("j1", "j2");
+    }
+
+    @Test
+    void failedCounterWriteIsCountedWithoutFailingTheChange() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        when(mongoOperations.exists(any(Query.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION))).thenReturn(Mono.just(false));
+        when(mongoOperations.getCollectionName(GrievanceStats.class)).thenReturn("grievance_stats");
+        when(mongoOperations.bulkOps(BulkMode.UNORDERED, GrievanceStats.class, "grievance_stats")).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(Mono.error(new IllegalStateException("primary stepped down")));
+
+        StepVerifier.create(new GrievanceStatsService(mongoOperations, GrievanceTransactions.none(), meterRegistry, 100, Duration.ZERO)
+                        .onCreated(grievance()))
+                .verifyComplete();
+
+        assertThat(meterRegistry.counter("grievance.stats.write.failed").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void freshRebuildStartsFromAnEmptyStagingCollection() {
+        GrievanceStatsService service = service();
+        when(mongoOperations.findOne(any(Query.class), eq(Document.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION)))
+                .thenReturn(Mono.empty());
+        // nothing left over from the last rebuild
+        when(mongoOperations.getCollectionName(GrievanceStats.class)).thenReturn("grievance_stats");
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq(GrievanceStatsService.JOURNAL_COLLECTION)))
+                .thenReturn(Flux.empty());
+        when(mongoOperations.dropCollection(GrievanceStatsService.STAGING_COLLECTION)).thenReturn(Mono.never());
+
+        Disposable running = service.rebuild().subscribe();
+
+        verify(mongoOperations).dropCollection(GrievanceStatsService.STAGING_COLLECTION);
+        running.dispose();
+    }
+
+    @Test
+    void rebuildResumedAfterTheLivePassFoldsArchivedGrievances() {
+        GrievanceStatsService service = service();
+        ReactiveBulkOperations staging = mock(ReactiveBulkOperations.class);
+        when(mongoOperations.findOne(any(Query.class), eq(Document.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION)))
+                .thenReturn(Mono.just(new Document("_id", "rebuild").append("lastId", "g5").append("liveScanned", true)));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.indexOps(GrievanceStatsService.STAGING_COLLECTION)).thenReturn(indexOps);
+        when(indexOps.ensureIndex(any(IndexDefinition.class))).thenReturn(Mono.just("index"));
+        when(mongoOperations.find(any(Query.class), eq(Grievance.class), eq(GrievanceArchive.ARCHIVE_COLLECTION)))
+                .thenReturn(Flux.just(grievance()))
+                .thenReturn(Flux.empty());
+        when(mongoOperations.bulkOps(BulkMode.ORDERED, GrievanceStats.class, GrievanceStatsService.STAGING_COLLECTION))
+                .thenReturn(staging);
+        when(staging.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        when(mongoOperations.upsert(any(Query.class), any(UpdateDefinition.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        ReactiveBulkOperations scanned = mock(ReactiveBulkOperations.class);
+        when(mongoOperations.bulkOps(BulkMode.UNORDERED, GrievanceStatsService.SCANNED_COLLECTION)).thenReturn(scanned);
+        when(scanned.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq(GrievanceStatsService.JOURNAL_COLLECTION)))
+                .thenReturn(Flux.empty());
+        when(mongoOperations.collectionExists(GrievanceStatsService.STAGING_COLLECTION)).thenReturn(Mono.never());
+
+        Disposable running = service.rebuild().subscribe();
+
+        // the live collection is not scanned again
+        verify(mongoOperations, never()).getCollectionName(Grievance.class);
+        ArgumentCaptor<UpdateDefinition> progress = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoOperations).upsert(any(Query.class), progress.capture(), eq(GrievanceStatsService.CHECKPOINT_COLLECTION));
+        assertThat((Document) progress.getValue().getUpdateObject().get("$max")).containsEntry("archiveLastId", "g1");
+        running.dispose();
+    }
+
+    @Test
+    void summarizeSumsDayBucketsInRange() {
+        when(mongoOperations.find(any(Query.class), eq(GrievanceStats.class)))
+                .thenReturn(Flux.just(stats(3, 1), stats(2, 2)));
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+
+        StepVerifier.create(service().summarize("D1", from, to))
+                .assertNext(view -> {
+                    assertThat(view.getTotal()).isEqualTo(5);
+                    assertThat(view.getEscalated()).isEqualTo(3);
+                    assertThat(view.getByStatus()).containsEntry("SUBMITTED", 5L);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(GrievanceStats.class));
+        assertThat(query.getValue().getQueryObject().get("bucket", Document.class))
+                .containsEntry("$gte", "2024-03-01").containsEntry("$lte", "2024-03-31");
+    }
+
+    @Test
+    void startRebuildRejectsSecondRequestWhileOneIsRunning() {
+        GrievanceStatsService service = service();
+        when(mongoOperations.findOne(any(Query.class), eq(Document.class), eq(GrievanceStatsService.CHECKPOINT_COLLECTION)))
+                .thenReturn(Mono.just(new Document("_id", "rebuild").append("lastId", "g5")));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.indexOps(GrievanceStatsService.STAGING_COLLECTION)).thenReturn(indexOps);
+        when(indexOps.ensureIndex(any(IndexDefinition.class))).thenReturn(Mono.never());
+
+        Disposable running = service.rebuild().subscribe();
+
+        StepVerifier.create(service.startRebuild())
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT))
+                .verify();
+
+        running.dispose();
+        assertThat(service.isRebuilding()).isFalse();
+    }
+
+    private GrievanceStatsService service() {
+        return new GrievanceStatsService(mongoOperations, GrievanceTransactions.none(), new SimpleMeterRegistry(), 100, Duration.ZERO);
+    }
+
+    private Document entry(String id, String grievanceId, long version, String field) {
+        return new Document("_id", id).append("grievanceId", grievanceId).append("version", version)
+                .append("departmentId", "D1").append("day", null).append("inc", new Document(field, 1L));
+    }
+
+    private Grievance grievance() {
+        Grievance grievance = new Grievance();
+        grievance.setId("g1");
+        grievance.setDepartmentId("D1");
+        grievance.setCreatedAt(LocalDateTime.of(2024, 3, 5, 10, 0));
+        return grievance;
+    }
+
+    private GrievanceStats stats(long total, long escalated) {
+        GrievanceStats stats = new GrievanceStats();
+        stats.setTotal(total);
+        stats.setEscalated(escalated);
+        stats.setByStatus(Map.of("SUBMITTED", total));
+        return stats;
+    }
+}
@@ -0,0 +1,71 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+    private final AtomicInteger queries = new AtomicInteger();
+    private final Sinks.One<String> result = Sinks.one();
+
+    @Test
+    void concurrentCallersShareOneQuery() {
+        Mono<String> first = coalescer.coalesce("getById", "g1", this::query);
+        Mono<String> second = coalescer.coalesce("getById", "g1", this::query);
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue("grievance"))
+                .assertNext(both -> assertThat(both.getT2()).isEqualTo("grievance"))
+                .verifyComplete();
+
+        assertThat(queries).hasValue(1);
+        assertThat(coalescer.inFlightCount()).isZero();
+        assertThat(meterRegistry.get("grievance.requests.coalesced").tag("operation", "getById").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void callerAfterCompletionOrForgetRunsItsOwnQuery() {
+        StepVerifier.create(coalescer.coalesce("getById", "g1", () -> Mono.just("v1")))
+                .expectNext("v1")
+                .verifyComplete();
+        StepVerifier.create(coalescer.coalesce("getById", "g1", () -> Mono.just("v2")))
+                .expectNext("v2")
+                .verifyComplete();
+
+        StepVerifier.create(coalescer.coalesce("getById", "g2", this::query))
+                .then(() -> coalescer.forget("getById", "g2"))
+                .then(() -> StepVerifier.create(coalescer.coalesce("getById", "g2", () -> Mono.just("fresh")))
+                        .expectNext("fresh")
+                        .verifyComplete())
+                .then(() -> result.tryEmitValue("stale"))
+                .expectNext("stale")
+                .verifyComplete();
+    }
+
+    @Test
+    void differentOperationsOnOneIdAreNotCoalesced() {
+        StepVerifier.create(Mono.zip(coalescer.coalesce("getById", "g1", this::query),
+                        coalescer.coalesce("getStatusHistory", "g1", this::query)))
+                .then(() -> result.tryEmitValue("x"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(queries).hasValue(2);
+    }
+
+    private Mono<String> query() {
+        queries.incrementAndGet();
+        return result.asMono();
+    }
+}
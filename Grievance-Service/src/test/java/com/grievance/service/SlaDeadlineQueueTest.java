@@ -0,0 +1,83 @@
+package com.grievance.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.grievance.model.Grievance;
+import com.grievance.model.GrievanceStatus;
+
+class SlaDeadlineQueueTest {
+
+    private final SlaDeadlineQueue queue = new SlaDeadlineQueue(Duration.ofDays(7));
+
+    @Test
+    void pollDueReturnsOnlyExpiredDeadlinesInDueOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        queue.track(grievance("late", GrievanceStatus.ASSIGNED, now.minusDays(9)));
+        queue.track(grievance("later", GrievanceStatus.IN_PROGRESS, now.minusDays(8)));
+        queue.track(grievance("fresh", GrievanceStatus.ASSIGNED, now.minusDays(1)));
+
+        assertThat(queue.pollDue(now, id -> true, 10)).containsExactly("late", "later");
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.nextDueAt()).isEqualTo(now.minusDays(1).plusDays(7));
+    }
+
+    @Test
+    void trackMovesOrCancelsExistingDeadline() {
+        LocalDateTime now = LocalDateTime.now();
+        Grievance grievance = grievance("g1", GrievanceStatus.ASSIGNED, now.minusDays(8));
+        queue.track(grievance);
+
+        grievance.setAssignedAt(now);
+        queue.track(grievance);
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.pollDue(now, id -> true, 10)).isEmpty();
+
+        grievance.setStatus(GrievanceStatus.RESOLVED);
+        queue.track(grievance);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void replaceAllSkipsGrievancesWithoutRunningClock() {
+        LocalDateTime now = LocalDateTime.now();
+        Grievance escalated = grievance("g2", GrievanceStatus.ASSIGNED, now);
+        escalated.setEscalated(true);
+
+        queue.replaceAll(List.of(
+                grievance("g1", GrievanceStatus.ASSIGNED, now),
+                escalated,
+                grievance("g3", GrievanceStatus.SUBMITTED, null)));
+
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replaceAllKeepsChangesMadeAfterTheMark() {
+        LocalDateTime now = LocalDateTime.now();
+        queue.track(grievance("stale", GrievanceStatus.ASSIGNED, now));
+        long mark = queue.mark();
+        queue.track(grievance("fresh", GrievanceStatus.ASSIGNED, now));
+        queue.cancel("closed");
+
+        // the snapshot still shows "closed" open and has not seen "fresh" yet
+        queue.replaceAll(List.of(grievance("closed", GrievanceStatus.ASSIGNED, now),
+                grievance("g1", GrievanceStatus.IN_PROGRESS, now)), mark);
+
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.pollDue(now.plusDays(8), id -> true, 10)).containsExactlyInAnyOrder("fresh", "g1");
+    }
+
+    private Grievance grievance(String id, GrievanceStatus status, LocalDateTime assignedAt) {
+        Grievance grievance = new Grievance();
+        grievance.setId(id);
+        grievance.setStatus(status);
+        grievance.setAssignedAt(assignedAt);
+        return grievance;
+    }
+}